@@ -0,0 +1,263 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks de calificación de preguntas ({@link Pregunta}, {@link Pareo} y
+ * {@link SopaDeLetras}) y de generación de la cuadrícula de la sopa.
+ * Las respuestas evaluadas son todas correctas, el caso que más trabajo hace.
+ * <p>
+ * {@link #calificarPreguntaLineaBase()} mide el algoritmo anterior de
+ * {@link Pregunta#calificar}, que arma y ordena listas en cada llamada, para
+ * compararlo con la clave compilada de {@link #calificarPregunta()}.
+ * </p>
+ * <p>
+ * Del mismo modo, {@link #generarCuadriculaLineaBase(Generaciones)} mide el
+ * generador anterior de la sopa (posiciones y direcciones al azar, 100 intentos
+ * por palabra) junto a {@link #generarCuadricula(Generaciones)}. Ambos cuentan
+ * en {@link Generaciones} cuántas cuadrículas lograron colocar todas las
+ * palabras; la tasa de éxito es {@code completas / cuadriculas}. El anterior
+ * no exige cubrir las 8 direcciones ni evita palabras ocultas dentro de otras,
+ * así que hace menos trabajo por cuadrícula.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CalificacionBenchmark {
+
+    /** Palabras disponibles para la sopa de letras (se usan las primeras). */
+    private static final String[] PALABRAS = {
+            "ALGORITMO", "CLASE", "OBJETO", "HERENCIA", "INTERFAZ", "METODO", "ATRIBUTO",
+            "PAQUETE", "LISTA", "MAPA", "PILA", "COLA", "ARBOL", "GRAFO", "NODO",
+            "BUCLE", "VECTOR", "HILO", "CANDADO", "EXCEPCION"
+    };
+
+    /** Opciones de las preguntas de selección y pares del pareo. */
+    @Param({"4", "10"})
+    public int opciones;
+
+    /** Palabras de la sopa de letras (mínimo 10). */
+    @Param({"10", "20"})
+    public int palabras;
+
+    @Param({"15", "25"})
+    public int tamanioCuadricula;
+
+    private Pregunta seleccionMultiple;
+    private RespuestaEstudiante respuestaSeleccion;
+
+    private Pareo pareo;
+    private RespuestaEstudiante respuestaPareo;
+
+    private SopaDeLetras sopa;
+    private RespuestaEstudiante respuestaSopa;
+
+    /** Sopa aparte para {@link #generarCuadricula(Generaciones)}, que la regenera cada vez. */
+    private SopaDeLetras sopaGenerada;
+    private long semilla;
+
+    /** Cuadrícula que reutiliza el generador anterior. */
+    private char[][] cuadriculaLineaBase;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        seleccionMultiple = new Pregunta(1, TipoPregunta.SELECCION_MULTIPLE, "Seleccione las correctas", 10);
+        respuestaSeleccion = new RespuestaEstudiante(seleccionMultiple);
+        for (int i = 1; i <= opciones; i++) {
+            boolean correcta = i % 2 == 1;
+            seleccionMultiple.agregarRespuesta(new Respuesta("Opción " + i, correcta, i));
+            if (correcta) respuestaSeleccion.agregarOrdenSeleccionado(i);
+        }
+
+        pareo = new Pareo(2, "Asocie cada concepto", 10);
+        respuestaPareo = new RespuestaEstudiante(pareo);
+        for (int i = 0; i < opciones; i++) {
+            pareo.agregarEnunciado("Concepto " + i);
+            pareo.agregarRespuesta("Definición " + i);
+        }
+        for (int i = 0; i < opciones; i++) {
+            int r = (i + 1) % opciones;
+            pareo.definirAsociacion(i, r);
+            respuestaPareo.agregarOrdenSeleccionado(i);
+            respuestaPareo.agregarOrdenSeleccionado(r);
+        }
+
+        sopa = nuevaSopa(3);
+        if (!sopa.generarCuadricula(42L)) throw new IllegalStateException(sopa.getMotivoFallo());
+        respuestaSopa = new RespuestaEstudiante(sopa);
+        for (SopaDeLetras.PalabraEncontrada p : sopa.getPalabrasEncontradas()) {
+            int largo = p.getPalabra().length() - 1;
+            SopaDeLetras.Direccion d = p.getDireccion();
+            respuestaSopa.agregarSeleccionCeldas(p.getFilaInicio(), p.getColInicio(),
+                    p.getFilaInicio() + d.deltaFila * largo, p.getColInicio() + d.deltaCol * largo);
+        }
+
+        sopaGenerada = nuevaSopa(4);
+        cuadriculaLineaBase = new char[tamanioCuadricula][tamanioCuadricula];
+    }
+
+    @Benchmark
+    public int calificarPregunta() {
+        return seleccionMultiple.calificar(respuestaSeleccion);
+    }
+
+    /** Misma pregunta y respuesta que {@link #calificarPregunta()}, con el algoritmo anterior. */
+    @Benchmark
+    public int calificarPreguntaLineaBase() {
+        return calificarConListas(seleccionMultiple, respuestaSeleccion);
+    }
+
+    @Benchmark
+    public int calificarPareo() {
+        return pareo.calificar(respuestaPareo);
+    }
+
+    @Benchmark
+    public int calificarSopa() {
+        return sopa.calificar(respuestaSopa);
+    }
+
+    /** Regenera la cuadrícula con una semilla distinta en cada invocación. */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public boolean generarCuadricula(Generaciones g) {
+        return g.contar(sopaGenerada.generarCuadricula(semilla++));
+    }
+
+    /** Generador anterior, con las mismas palabras, tamaño y semillas. */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public boolean generarCuadriculaLineaBase(Generaciones g) {
+        return g.contar(generarAlAzar(cuadriculaLineaBase, PALABRAS, palabras, new Random(semilla++)) == palabras);
+    }
+
+    /** Cuadrículas generadas y cuántas colocaron todas las palabras, por iteración. */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Generaciones {
+        public long cuadriculas;
+        public long completas;
+
+        @Setup(Level.Iteration)
+        public void reiniciar() {
+            cuadriculas = 0;
+            completas = 0;
+        }
+
+        boolean contar(boolean completa) {
+            cuadriculas++;
+            if (completa) completas++;
+            return completa;
+        }
+    }
+
+    /**
+     * Generador de {@link SopaDeLetras} antes de {@code GeneradorSopa}: baraja
+     * las palabras y prueba para cada una hasta 100 posiciones y direcciones al
+     * azar, sin retroceso; luego rellena las celdas vacías.
+     *
+     * @return cantidad de palabras colocadas (las primeras {@code n} de {@code lista})
+     */
+    static int generarAlAzar(char[][] cuadricula, String[] lista, int n, Random random) {
+        int tam = cuadricula.length;
+        for (char[] fila : cuadricula) Arrays.fill(fila, ' ');
+        List<String> aColocar = new ArrayList<>(List.of(lista).subList(0, n));
+        Collections.shuffle(aColocar, random);
+        SopaDeLetras.Direccion[] direcciones = SopaDeLetras.Direccion.values();
+
+        int colocadas = 0;
+        for (String palabra : aColocar) {
+            for (int intento = 0; intento < 100; intento++) {
+                SopaDeLetras.Direccion d = direcciones[random.nextInt(8)];
+                int fila = random.nextInt(tam);
+                int col = random.nextInt(tam);
+                if (cabe(cuadricula, palabra, fila, col, d)) {
+                    for (int i = 0; i < palabra.length(); i++) {
+                        cuadricula[fila + d.deltaFila * i][col + d.deltaCol * i] = palabra.charAt(i);
+                    }
+                    colocadas++;
+                    break;
+                }
+            }
+        }
+
+        String letras = "ABCDEFGHIJKLMNOPQRSTUVWXYZÁÉÍÓÚÑ";
+        for (char[] fila : cuadricula) {
+            for (int j = 0; j < tam; j++) {
+                if (fila[j] == ' ') fila[j] = letras.charAt(random.nextInt(letras.length()));
+            }
+        }
+        return colocadas;
+    }
+
+    /** La palabra queda dentro de la cuadrícula y solo pisa celdas vacías o con su misma letra. */
+    private static boolean cabe(char[][] cuadricula, String palabra, int fila, int col, SopaDeLetras.Direccion d) {
+        int tam = cuadricula.length;
+        for (int i = 0; i < palabra.length(); i++) {
+            int f = fila + d.deltaFila * i;
+            int c = col + d.deltaCol * i;
+            if (f < 0 || f >= tam || c < 0 || c >= tam) return false;
+            char actual = cuadricula[f][c];
+            if (actual != ' ' && actual != palabra.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Algoritmo de {@link Pregunta#calificar} antes de compilar la clave: reúne
+     * los órdenes correctos en una lista y, en selección múltiple, copia y
+     * ordena ambas listas para compararlas.
+     */
+    static int calificarConListas(Pregunta p, RespuestaEstudiante respuestaEst) {
+        if (respuestaEst == null) return 0;
+        List<Integer> sel = respuestaEst.getOrdenesSeleccionados();
+        if (sel == null) return 0;
+
+        List<Respuesta> respuestas = p.getRespuestas();
+        List<Integer> correctas = new ArrayList<>();
+        for (Respuesta r : respuestas)
+            if (r != null && r.isCorrecta()) correctas.add(r.getOrden());
+
+        switch (p.getTipo()) {
+            case SELECCION_UNICA -> {
+                if (correctas.size() != 1 || sel.size() != 1) return 0;
+                return sel.get(0).equals(correctas.get(0)) ? p.obtenerPuntos() : 0;
+            }
+            case SELECCION_MULTIPLE -> {
+                if (correctas.isEmpty()) return 0;
+                List<Integer> a = new ArrayList<>(sel);
+                List<Integer> b = new ArrayList<>(correctas);
+                Collections.sort(a);
+                Collections.sort(b);
+                return a.equals(b) ? p.obtenerPuntos() : 0;
+            }
+            case VERDADERO_FALSO -> {
+                if (respuestas.size() != 2 || correctas.size() != 1) return 0;
+                if (sel.size() != 1) return 0;
+                return sel.get(0).equals(correctas.get(0)) ? p.obtenerPuntos() : 0;
+            }
+            default -> {
+                return 0;
+            }
+        }
+    }
+
+    private SopaDeLetras nuevaSopa(int id) {
+        SopaDeLetras s = new SopaDeLetras(id, "Encuentre los conceptos", 10, tamanioCuadricula);
+        for (int i = 0; i < palabras; i++) {
+            s.agregarEnunciado(PALABRAS[i], "Pista de la palabra " + (i + 1));
+        }
+        return s;
+    }
+}
@@ -0,0 +1,127 @@
+package org.example;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Datos sintéticos para los benchmarks.
+ * <p>
+ * Crea {@code numEstudiantes} estudiantes y {@code numGrupos} grupos vigentes
+ * (diez por curso) sobre los servicios en memoria. Al matricular, el estudiante
+ * {@code i} queda en el grupo {@code i % numGrupos}, dejando siempre un cupo
+ * libre por grupo; los estudiantes que no caben quedan sin matrícula.
+ * Los nombres de curso son largos, como los reales, para que los reportes
+ * tengan que recortarlos.
+ * </p>
+ * <p>
+ * Las identificaciones y correos llevan un número de lote, porque el registro
+ * de unicidad es global y un mismo proceso puede armar varios conjuntos.
+ * </p>
+ */
+final class DatosBenchmark {
+
+    /** Grupos que se crean en cada curso. */
+    static final int GRUPOS_POR_CURSO = 10;
+
+    /** Lote siguiente, para no repetir identificaciones entre conjuntos. */
+    private static final AtomicInteger LOTES = new AtomicInteger();
+
+    final UsuarioServiceMem usuarios;
+    final CursoService cursos;
+    final LocalDate inicio;
+    final List<Estudiante> estudiantes;
+    final List<Grupo> grupos;
+
+    /** Matrículas hechas por {@link #matricular}: estudiante {@code i} → su grupo. */
+    final List<Matricula> matriculas = new ArrayList<>();
+
+    /**
+     * Crea los usuarios, cursos y grupos.
+     *
+     * @param numEstudiantes cantidad de estudiantes
+     * @param numGrupos cantidad de grupos (al menos 2)
+     */
+    DatosBenchmark(int numEstudiantes, int numGrupos) {
+        if (numGrupos < 2) throw new IllegalArgumentException("Se requieren al menos 2 grupos.");
+        int lote = LOTES.incrementAndGet();
+        this.usuarios = new UsuarioServiceMem(new Autenticacion());
+        this.cursos = new CursoServiceIndexada(usuarios);
+        this.inicio = LocalDate.now();
+
+        this.estudiantes = new ArrayList<>(numEstudiantes);
+        for (int i = 0; i < numEstudiantes; i++) {
+            String id = String.format("B%03dE%06d", lote, i);
+            Estudiante e = new Estudiante(
+                    "Nombre" + (i % 100), "Apellido" + (i % 37), "Apellido" + (i % 53),
+                    id, "88880000", id.toLowerCase() + "@bench.com", "Dirección de prueba",
+                    "Organización", List.of("Algoritmos", "Estructuras"));
+            usuarios.agregarEstudiante(e);
+            estudiantes.add(e);
+        }
+
+        this.grupos = new ArrayList<>(numGrupos);
+        int numCursos = (numGrupos + GRUPOS_POR_CURSO - 1) / GRUPOS_POR_CURSO;
+        for (int c = 0; c < numCursos; c++) {
+            Curso curso = new Curso(String.format("B%05d", c), "Curso de prueba de programación " + c,
+                    "Curso generado para benchmarks", 2, TipoModalidad.values()[0],
+                    1, 20, TipoCurso.values()[0], 70);
+            cursos.agregarCurso(curso);
+            for (int k = 0; k < GRUPOS_POR_CURSO && grupos.size() < numGrupos; k++) {
+                grupos.add(cursos.crearGrupo(curso, inicio, inicio.plusMonths(4)));
+            }
+        }
+    }
+
+    /**
+     * Matricula a cada estudiante en un grupo, dejando un cupo libre por grupo.
+     *
+     * @param servicio servicio de matrículas a usar
+     * @return cantidad de estudiantes matriculados
+     */
+    int matricular(MatriculaService servicio) {
+        int capacidad = cupoPorGrupo();
+        for (int i = 0; i < estudiantes.size(); i++) {
+            Grupo g = grupos.get(i % grupos.size());
+            if (g.getMatriculas().size() >= capacidad) break;
+            servicio.matricular(estudiantes.get(i).getIdUsuario(), g.getCurso(), g.getIdGrupo());
+            matriculas.add(g.getMatriculas().get(g.getMatriculas().size() - 1));
+        }
+        return matriculas.size();
+    }
+
+    /**
+     * Crea intentos sobre las matrículas: el intento {@code j} corresponde a la
+     * matrícula {@code j % matriculas} y a la evaluación {@code j / matriculas},
+     * de modo que no se repite ninguna clave (estudiante, evaluación, grupo).
+     *
+     * @param numIntentos cantidad de intentos
+     * @return intentos creados (sin guardar)
+     */
+    List<IntentoEvaluacion> crearIntentos(int numIntentos) {
+        if (matriculas.isEmpty()) throw new IllegalStateException("Primero hay que matricular.");
+        int numEvaluaciones = (numIntentos + matriculas.size() - 1) / matriculas.size();
+        List<Evaluacion> evaluaciones = new ArrayList<>(numEvaluaciones);
+        for (int k = 0; k < numEvaluaciones; k++) {
+            evaluaciones.add(new Evaluacion("Evaluación " + k, "Instrucciones de prueba",
+                    List.of("Objetivo de prueba"), 30, false, false));
+        }
+
+        LocalDateTime hora = inicio.atTime(8, 0);
+        List<IntentoEvaluacion> intentos = new ArrayList<>(numIntentos);
+        for (int j = 0; j < numIntentos; j++) {
+            Matricula m = matriculas.get(j % matriculas.size());
+            Evaluacion ev = evaluaciones.get(j / matriculas.size());
+            intentos.add(new IntentoEvaluacion(m.getEstudiante(), ev, m.getGrupo(),
+                    hora, hora.plusMinutes(30), List.of(), 0, 0.0, List.of()));
+        }
+        return intentos;
+    }
+
+    /** @return matrículas que admite cada grupo sin llenarse */
+    int cupoPorGrupo() {
+        return grupos.get(0).getCurso().getMaxEstu() - 1;
+    }
+}
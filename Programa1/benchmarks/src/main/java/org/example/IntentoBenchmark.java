@@ -0,0 +1,62 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks de {@link IntentoService}: guardar un intento ya registrado (el
+ * caso de reemplazo, que no hace crecer los datos) y listar los de un grupo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IntentoBenchmark {
+
+    @Param({"1000", "5000"})
+    public int estudiantes;
+
+    @Param({"100"})
+    public int grupos;
+
+    @Param({"10000", "100000"})
+    public int intentos;
+
+    /** {@code mem} = {@link IntentoServiceMem}, {@code indexada} = {@link IntentoServiceIndexada}. */
+    @Param({"mem", "indexada"})
+    public String implementacion;
+
+    private DatosBenchmark datos;
+    private IntentoService servicio;
+    private List<IntentoEvaluacion> registrados;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        datos = new DatosBenchmark(estudiantes, grupos);
+        datos.matricular(new MatriculaServiceIndexada(datos.usuarios, datos.cursos));
+        servicio = "mem".equals(implementacion) ? new IntentoServiceMem() : new IntentoServiceIndexada();
+        registrados = datos.crearIntentos(intentos);
+        for (IntentoEvaluacion it : registrados) servicio.guardar(it);
+    }
+
+    @Benchmark
+    public void guardar() {
+        servicio.guardar(registrados.get(siguiente(intentos)));
+    }
+
+    @Benchmark
+    public List<IntentoEvaluacion> listarPorGrupo() {
+        return servicio.listarPorGrupo(datos.grupos.get(siguiente(grupos)).getIdGrupo());
+    }
+
+    private int siguiente(int limite) {
+        int i = cursor;
+        cursor = (i + 1) % limite;
+        return i;
+    }
+}
@@ -0,0 +1,65 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks de {@link MatriculaService}: matricular (con su desmatrícula, para
+ * que el estado no cambie entre invocaciones) y consultar los grupos de un
+ * estudiante.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MatriculaBenchmark {
+
+    @Param({"1000", "10000"})
+    public int estudiantes;
+
+    @Param({"100", "1000"})
+    public int grupos;
+
+    /** {@code mem} = {@link MatriculaServiceMem}, {@code indexada} = {@link MatriculaServiceIndexada}. */
+    @Param({"mem", "indexada"})
+    public String implementacion;
+
+    private DatosBenchmark datos;
+    private MatriculaService servicio;
+    private int inscritos;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        datos = new DatosBenchmark(estudiantes, grupos);
+        servicio = "mem".equals(implementacion)
+                ? new MatriculaServiceMem(datos.usuarios, datos.cursos)
+                : new MatriculaServiceIndexada(datos.usuarios, datos.cursos);
+        inscritos = datos.matricular(servicio);
+    }
+
+    /** Matricula a un estudiante en el grupo siguiente al suyo y lo desmatricula. */
+    @Benchmark
+    public boolean matricular() {
+        int i = siguiente(inscritos);
+        String id = datos.estudiantes.get(i).getIdUsuario();
+        Grupo g = datos.grupos.get((i % grupos + 1) % grupos);
+        boolean ok = servicio.matricular(id, g.getCurso(), g.getIdGrupo());
+        return servicio.desmatricular(id, g.getCurso(), g.getIdGrupo()) && ok;
+    }
+
+    @Benchmark
+    public List<Grupo> gruposDelEstudiante() {
+        return servicio.gruposDelEstudiante(datos.estudiantes.get(siguiente(estudiantes)).getIdUsuario());
+    }
+
+    private int siguiente(int limite) {
+        int i = cursor;
+        cursor = (i + 1) % limite;
+        return i;
+    }
+}
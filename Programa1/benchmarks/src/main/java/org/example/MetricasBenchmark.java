@@ -0,0 +1,57 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo de las métricas por llamada: la misma consulta directa y a través de
+ * {@link MetricasServicios}, con uno y con varios hilos registrando a la vez.
+ * La diferencia entre {@code directo} y {@code medido} es la sobrecarga.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricasBenchmark {
+
+    private DatosBenchmark datos;
+    private UsuarioService medido;
+    private HistogramaLatencias histograma;
+    private String idEstudiante;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        datos = new DatosBenchmark(1000, 2);
+        MatriculaService matriculas = new MatriculaServiceIndexada(datos.usuarios, datos.cursos);
+        MetricasServicios metricas = new MetricasServicios(new Autenticacion(), datos.usuarios, datos.cursos,
+                matriculas, new EvaluacionServiceMem(datos.usuarios, datos.cursos), new IntentoServiceIndexada(),
+                new ReporteServicePdf(datos.cursos, datos.usuarios));
+        medido = metricas.usuarios();
+        histograma = new HistogramaLatencias();
+        idEstudiante = datos.estudiantes.get(500).getIdUsuario();
+    }
+
+    @Benchmark
+    public Estudiante directo() {
+        return datos.usuarios.buscarEstudiante(idEstudiante);
+    }
+
+    @Benchmark
+    public Estudiante medido() {
+        return medido.buscarEstudiante(idEstudiante);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Estudiante medidoCuatroHilos() {
+        return medido.buscarEstudiante(idEstudiante);
+    }
+
+    @Benchmark
+    public void registrarHistograma() {
+        histograma.registrar(1_234);
+    }
+}
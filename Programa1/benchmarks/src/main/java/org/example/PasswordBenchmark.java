@@ -0,0 +1,73 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark de {@link Password#verificar(String)} (lo que cuesta cada inicio de
+ * sesión) según el costo de BCrypt con que se encriptó la contraseña.
+ * <p>
+ * {@link #loginConcurrente()} mide además cuántos inicios de sesión por segundo
+ * atiende {@link Autenticacion#loginAsync} con varios usuarios a la vez, es
+ * decir, la capacidad del ejecutor acotado para cada costo (el mismo efecto que
+ * iniciar la aplicación con {@code -Dbcrypt.costo=N}).
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PasswordBenchmark {
+
+    @Param({"4", "10", "12"})
+    public int costo;
+
+    private static final String ID = "B000USER!";
+    private static final char[] CLAVE = "secreto123".toCharArray();
+
+    private Password password;
+    private Autenticacion auth;
+    private int costoAnterior;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        costoAnterior = Password.getCosto();
+        Password.setCosto(costo);
+        password = new Password(ID, null, false);
+        password.encriptar(new String(CLAVE));
+
+        auth = new Autenticacion();
+        Password credencial = new Password(ID, null, false);
+        credencial.encriptar(new String(CLAVE));
+        auth.upsertUsuario(ID, "bench@demo.com", Roles.ESTUDIANTE, credencial);
+        if (auth.login(ID, CLAVE.clone()) == null)
+            throw new IllegalStateException("El usuario del benchmark no puede iniciar sesión.");
+    }
+
+    @TearDown(Level.Trial)
+    public void restaurar() {
+        auth.cerrar();
+        Password.setCosto(costoAnterior);
+    }
+
+    @Benchmark
+    public boolean verificar() {
+        return password.verificar("secreto123");
+    }
+
+    /**
+     * Ocho usuarios inician sesión a la vez y esperan su resultado, como los
+     * diálogos de inicio de sesión; las verificaciones se reparten entre los
+     * hilos del ejecutor de {@link Autenticacion}.
+     */
+    @Benchmark
+    @Threads(8)
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public Autenticacion.ResultadoLogin loginConcurrente() {
+        return auth.loginAsync(ID, CLAVE).join();
+    }
+}
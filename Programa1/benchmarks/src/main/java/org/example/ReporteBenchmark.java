@@ -0,0 +1,55 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark de {@link ReporteServicePdf#generarListaEstudiantes}: la lista de
+ * todos los estudiantes matriculados, de punta a punta (recolección, orden y
+ * escritura del PDF).
+ * <p>
+ * Los PDF se escriben en una carpeta temporal: durante la prueba se cambia
+ * {@code user.home}, que es de donde el servicio toma la carpeta de salida.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReporteBenchmark {
+
+    @Param({"500", "5000", "10000"})
+    public int estudiantes;
+
+    @Param({"600"})
+    public int grupos;
+
+    private DatosBenchmark datos;
+    private ReporteService servicio;
+    private String homeAnterior;
+
+    @Setup(Level.Trial)
+    public void preparar() throws Exception {
+        homeAnterior = System.getProperty("user.home");
+        System.setProperty("user.home", Files.createTempDirectory("reportes-bench").toString());
+
+        datos = new DatosBenchmark(estudiantes, grupos);
+        datos.matricular(new MatriculaServiceIndexada(datos.usuarios, datos.cursos));
+        servicio = new ReporteServicePdf(datos.cursos, datos.usuarios);
+    }
+
+    @TearDown(Level.Trial)
+    public void restaurar() {
+        System.setProperty("user.home", homeAnterior);
+    }
+
+    @Benchmark
+    public Path generarListaEstudiantes() throws Exception {
+        return servicio.generarListaEstudiantes(datos.inicio, ReporteService.Scope.todos());
+    }
+}
@@ -2,11 +2,13 @@ package org.example;
 
 import javax.swing.*;
 import java.awt.*;
+import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * Panel principal del administrador.
  * Contiene la navegación lateral y las distintas secciones
- * (usuarios, cursos/grupos y reportes) mostradas mediante un {@link CardLayout}.
+ * (usuarios, cursos/grupos, reportes y métricas) mostradas mediante un {@link CardLayout}.
  */
 public class AdminDashboardPanel extends JPanel {
 
@@ -30,9 +32,12 @@ public class AdminDashboardPanel extends JPanel {
      * @param usuarioService servicio de usuarios
      * @param cursoService servicio de cursos
      * @param reporteService servicio de reportes
+     * @param auth servicio de autenticación
+     * @param metricas fuente de las métricas de los servicios ({@code null} para ocultar la sección)
      */
     public AdminDashboardPanel(UsuarioService usuarioService, CursoService cursoService,
-                               ReporteService reporteService, Autenticacion auth) {
+                               ReporteService reporteService, Autenticacion auth,
+                               Supplier<List<MetricasServicios.Instantanea>> metricas) {
         this.usuarioService = usuarioService;
         this.cursoService = cursoService;
         this.reporteService = reporteService;
@@ -51,12 +56,15 @@ public class AdminDashboardPanel extends JPanel {
         nav.add(btnUsuarios);
         nav.add(btnCursosGrupos);
         nav.add(btnReportes);
+        JButton btnMetricas = new JButton("Métricas");
+        if (metricas != null) nav.add(btnMetricas);
         add(nav, BorderLayout.WEST);
 
         // --- Paneles centrales con CardLayout ---
         centerCards.add(new AdminUsuariosPanel(usuarioService, auth), "USUARIOS");
         centerCards.add(new AdminCursosPanel(cursoService, usuarioService), "CURSOS");
         centerCards.add(new AdminReportesPanel(cursoService, reporteService), "REPORTES");
+        if (metricas != null) centerCards.add(new AdminMetricasPanel(metricas), "METRICAS");
 
         add(centerCards, BorderLayout.CENTER);
 
@@ -64,6 +72,7 @@ public class AdminDashboardPanel extends JPanel {
         btnUsuarios.addActionListener(e -> show("USUARIOS"));
         btnCursosGrupos.addActionListener(e -> show("CURSOS"));
         btnReportes.addActionListener(e -> show("REPORTES"));
+        btnMetricas.addActionListener(e -> show("METRICAS"));
 
         // Muestra por defecto la vista de usuarios
         show("USUARIOS");
@@ -210,12 +210,7 @@ public class AdminEstudianteDialog extends JDialog {
             boolean mismoQueAntes = esEdicion && correoActual != null && correoActual.equalsIgnoreCase(s);
 
             if (!mismoQueAntes) {
-                boolean usadoPorEst = usuarioService.listarEstudiantes().stream()
-                        .anyMatch(e -> e.getCorreo() != null && s.equalsIgnoreCase(e.getCorreo().trim()));
-                boolean usadoPorProf = usuarioService.listarProfesores().stream()
-                        .anyMatch(p -> p.getCorreo() != null && s.equalsIgnoreCase(p.getCorreo().trim()));
-
-                if (usadoPorEst || usadoPorProf) {
+                if (usuarioService.buscarPorCorreo(s) != null) {
                     throw new IllegalArgumentException("El correo ya existe en el sistema.");
                 }
             }
@@ -0,0 +1,118 @@
+package org.example;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.awt.*;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Panel de métricas del administrador.
+ * Muestra, por método de cada servicio, las llamadas, errores y latencias
+ * registradas por {@link MetricasServicios}.
+ */
+public class AdminMetricasPanel extends JPanel {
+
+    /** Fuente de la instantánea de métricas. */
+    private final Supplier<List<MetricasServicios.Instantanea>> fuente;
+
+    /** Tabla con las métricas por método. */
+    private final JTable tblMetricas = new JTable();
+
+    /** Modelo de tabla con las métricas. */
+    private final MetricasModel metricasModel = new MetricasModel();
+
+    /**
+     * Crea el panel de métricas.
+     *
+     * @param fuente proveedor de la instantánea actual (por ejemplo {@code metricas::instantanea})
+     */
+    public AdminMetricasPanel(Supplier<List<MetricasServicios.Instantanea>> fuente) {
+        this.fuente = fuente;
+
+        setLayout(new BorderLayout());
+
+        // --- Tabla de métricas ---
+        tblMetricas.setModel(metricasModel);
+        tblMetricas.setAutoCreateRowSorter(true);
+        add(new JScrollPane(tblMetricas), BorderLayout.CENTER);
+
+        // --- Panel de acciones ---
+        JPanel actions = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        JButton btnRefrescar = new JButton("Refrescar");
+        actions.add(btnRefrescar);
+        add(actions, BorderLayout.SOUTH);
+
+        btnRefrescar.addActionListener(_evt -> refrescar());
+        refrescar();
+    }
+
+    /** Vuelve a cargar la instantánea de métricas. */
+    private void refrescar() {
+        metricasModel.setData(fuente == null ? List.of() : fuente.get());
+    }
+
+    // --- Modelo de tabla interno ---
+
+    /** Modelo de tabla con una fila por método medido; las latencias se muestran en milisegundos. */
+    private static class MetricasModel extends AbstractTableModel {
+
+        /** Nombres de las columnas mostradas en la tabla. */
+        private final String[] cols = {
+                "Método", "Llamadas", "Errores", "Promedio (ms)", "p50 (ms)", "p90 (ms)", "p99 (ms)", "Máx (ms)"
+        };
+
+        /** Métricas a mostrar. */
+        private List<MetricasServicios.Instantanea> data = List.of();
+
+        public void setData(List<MetricasServicios.Instantanea> list) {
+            data = (list == null ? List.of() : list);
+            fireTableDataChanged();
+        }
+
+        @Override
+        public int getRowCount() {
+            return data.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return cols.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return cols[column];
+        }
+
+        @Override
+        public Class<?> getColumnClass(int col) {
+            return switch (col) {
+                case 0 -> String.class;
+                case 1, 2 -> Long.class;
+                default -> Double.class;
+            };
+        }
+
+        @Override
+        public Object getValueAt(int row, int col) {
+            MetricasServicios.Instantanea m = data.get(row);
+            return switch (col) {
+                case 0 -> m.metodo;
+                case 1 -> m.llamadas;
+                case 2 -> m.errores;
+                case 3 -> ms(m.promedioNanos);
+                case 4 -> ms(m.p50Nanos);
+                case 5 -> ms(m.p90Nanos);
+                case 6 -> ms(m.p99Nanos);
+                case 7 -> ms(m.maximoNanos);
+                default -> "";
+            };
+        }
+
+        /** Nanosegundos a milisegundos, con tres decimales. */
+        private static double ms(double nanos) {
+            return Math.round(nanos / 1_000.0) / 1_000.0;
+        }
+    }
+}
@@ -4,6 +4,7 @@ import javax.swing.*;
 import java.awt.*;
 import java.nio.file.Path;
 import java.time.LocalDate;
+import java.util.EnumSet;
 import java.util.List;
 
 /**
@@ -15,7 +16,10 @@ import java.util.List;
  * - Un grupo específico dentro de un curso
  * </p>
  * Incluye selección de fecha de vigencia, alcance y botones para generar
- * los archivos de reporte (CSV y TXT).
+ * los archivos de reporte (CSV y TXT), además de un lote de fin de periodo
+ * con la lista y la estadística de cada curso y cada grupo.
+ * Los reportes se generan en segundo plano y el avance se muestra en una
+ * barra de progreso.
  */
 public class AdminReportesPanel extends JPanel {
 
@@ -47,6 +51,17 @@ public class AdminReportesPanel extends JPanel {
     /** Lista desplegable de grupos (dependiente del curso seleccionado). */
     private final JComboBox<Grupo> cbGrupo = new JComboBox<>();
 
+    /** Indica si el lote de fin de periodo se empaqueta en un ZIP. */
+    private final JCheckBox chkZip = new JCheckBox("Empaquetar lote en ZIP", true);
+
+    /** Botones de generación (se deshabilitan mientras hay un reporte en curso). */
+    private final JButton btnLista = new JButton("Generar Lista (CSV)");
+    private final JButton btnEstad = new JButton("Generar Estadística (TXT)");
+    private final JButton btnLote = new JButton("Lote fin de periodo");
+
+    /** Avance del reporte o lote en curso. */
+    private final JProgressBar barraProgreso = new JProgressBar();
+
     // -- Constructor --
 
     /**
@@ -80,10 +95,13 @@ public class AdminReportesPanel extends JPanel {
 
         // -- Panel de botones --
         JPanel actions = new JPanel(new FlowLayout(FlowLayout.RIGHT));
-        JButton btnLista = new JButton("Generar Lista (CSV)");
-        JButton btnEstad = new JButton("Generar Estadística (TXT)");
+        barraProgreso.setStringPainted(true);
+        barraProgreso.setVisible(false);
+        actions.add(barraProgreso);
         actions.add(btnLista);
         actions.add(btnEstad);
+        actions.add(chkZip);
+        actions.add(btnLote);
         add(actions, BorderLayout.SOUTH);
 
         // -- Eventos de selección --
@@ -99,6 +117,7 @@ public class AdminReportesPanel extends JPanel {
         // -- Acciones de botones --
         btnLista.addActionListener(_evt -> generarLista());
         btnEstad.addActionListener(_evt -> generarEstadistica());
+        btnLote.addActionListener(_evt -> generarLoteFinPeriodo());
     }
 
     // -- Panel de alcance --
@@ -221,12 +240,7 @@ public class AdminReportesPanel extends JPanel {
         if (f == null) return;
         ReporteService.Scope s = scopeActual();
         if (s == null) return;
-        try {
-            Path out = reporteService.generarListaEstudiantes(f, s);
-            JOptionPane.showMessageDialog(this, "Lista generada:\n" + out.toAbsolutePath());
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(this, ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-        }
+        generar(f, List.of(s), GeneradorLotesReportes.TipoReporte.LISTA_ESTUDIANTES, false, "Lista generada");
     }
 
     /**
@@ -237,12 +251,75 @@ public class AdminReportesPanel extends JPanel {
         if (f == null) return;
         ReporteService.Scope s = scopeActual();
         if (s == null) return;
-        try {
-            Path out = reporteService.generarEstadisticaMatricula(f, s);
-            JOptionPane.showMessageDialog(this, "Estadística generada:\n" + out.toAbsolutePath());
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(this, ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+        generar(f, List.of(s), GeneradorLotesReportes.TipoReporte.ESTADISTICA_MATRICULA, false, "Estadística generada");
+    }
+
+    /**
+     * Genera la lista y la estadística de cada curso y de cada grupo vigente,
+     * en paralelo y opcionalmente empaquetadas en un ZIP.
+     */
+    private void generarLoteFinPeriodo() {
+        LocalDate f = parseFecha();
+        if (f == null) return;
+        List<ReporteService.Scope> alcances =
+                GeneradorLotesReportes.alcancesPorCursoYGrupo(cursoService.listarCursos(), f);
+        if (alcances.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "No hay cursos para generar el lote.");
+            return;
         }
+        int ok = JOptionPane.showConfirmDialog(this,
+                "Se generarán " + (alcances.size() * 2) + " documentos (lista y estadística de cada curso y grupo). ¿Continuar?",
+                "Lote de fin de periodo", JOptionPane.YES_NO_OPTION);
+        if (ok != JOptionPane.YES_OPTION) return;
+        generar(f, alcances, null, chkZip.isSelected(), "Lote generado");
+    }
+
+    /**
+     * Genera los reportes en segundo plano, mostrando el avance en la barra.
+     *
+     * @param f fecha de vigencia
+     * @param alcances alcances a generar
+     * @param tipo tipo de reporte, o {@code null} para ambos
+     * @param comprimir si se empaquetan los archivos en un ZIP
+     * @param titulo título del mensaje final
+     */
+    private void generar(LocalDate f, List<ReporteService.Scope> alcances,
+                         GeneradorLotesReportes.TipoReporte tipo, boolean comprimir, String titulo) {
+        setGenerando(true);
+        barraProgreso.setValue(0);
+        barraProgreso.setString("Generando...");
+
+        reporteService.generarLote(f, alcances,
+                tipo == null ? EnumSet.allOf(GeneradorLotesReportes.TipoReporte.class) : EnumSet.of(tipo),
+                comprimir,
+                (hechos, total, _ultimo) -> SwingUtilities.invokeLater(() -> {
+                    barraProgreso.setMaximum(Math.max(1, total));
+                    barraProgreso.setValue(hechos);
+                    barraProgreso.setString(hechos + " / " + total);
+                })
+        ).whenComplete((res, ex) -> SwingUtilities.invokeLater(() -> {
+            setGenerando(false);
+            if (ex != null) {
+                Throwable causa = ex.getCause() != null ? ex.getCause() : ex;
+                JOptionPane.showMessageDialog(this, causa.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            } else if (res.archivos.isEmpty()) {
+                JOptionPane.showMessageDialog(this, String.join("\n", res.errores), "Error", JOptionPane.ERROR_MESSAGE);
+            } else if (res.documentos == 1) {
+                Path out = res.archivos.get(0);
+                JOptionPane.showMessageDialog(this, titulo + ":\n" + out.toAbsolutePath());
+            } else {
+                JOptionPane.showMessageDialog(this, res.toString(), titulo,
+                        res.errores.isEmpty() ? JOptionPane.INFORMATION_MESSAGE : JOptionPane.WARNING_MESSAGE);
+            }
+        }));
     }
-}
 
+    /** Habilita o deshabilita los botones y muestra la barra mientras se genera. */
+    private void setGenerando(boolean generando) {
+        btnLista.setEnabled(!generando);
+        btnEstad.setEnabled(!generando);
+        btnLote.setEnabled(!generando);
+        barraProgreso.setVisible(generando);
+        revalidate();
+    }
+}
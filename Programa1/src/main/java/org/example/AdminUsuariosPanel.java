@@ -93,10 +93,11 @@ public class AdminUsuariosPanel extends JPanel {
                 showInfo("Seleccione un estudiante.");
                 return;
             }
-            boolean ok = servicio.restablecerContrasena(sel.idUsuario);
-            showInfo(ok
-                    ? "Se envió una contraseña temporal al correo registrado."
-                    : "No se pudo restablecer la contraseña.");
+            // La temporal se encripta con BCrypt: se genera fuera del hilo de eventos
+            auth.ejecutarAsync(() -> servicio.restablecerContrasena(sel.idUsuario))
+                    .whenComplete((ok, ex2) -> SwingUtilities.invokeLater(() -> showInfo(Boolean.TRUE.equals(ok)
+                            ? "Se envió una contraseña temporal al correo registrado."
+                            : "No se pudo restablecer la contraseña.")));
         });
 
         btnNuevo.addActionListener(e -> {
@@ -191,10 +192,11 @@ public class AdminUsuariosPanel extends JPanel {
                 showInfo("Seleccione un profesor.");
                 return;
             }
-            boolean ok = servicio.restablecerContrasena(sel.idUsuario);
-            showInfo(ok
-                    ? "Se envió una contraseña temporal al correo registrado."
-                    : "No se pudo restablecer la contraseña.");
+            // La temporal se encripta con BCrypt: se genera fuera del hilo de eventos
+            auth.ejecutarAsync(() -> servicio.restablecerContrasena(sel.idUsuario))
+                    .whenComplete((ok, ex2) -> SwingUtilities.invokeLater(() -> showInfo(Boolean.TRUE.equals(ok)
+                            ? "Se envió una contraseña temporal al correo registrado."
+                            : "No se pudo restablecer la contraseña.")));
         });
 
         btnNuevo.addActionListener(e -> {
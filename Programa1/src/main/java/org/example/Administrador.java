@@ -110,7 +110,10 @@ public class Administrador extends Usuario {
             return false;
         }
 
-        if (!estudianteModificado.validarDatos()) {
+        // La copia editada hereda la reserva de ID y correo del registro original
+        RegistroUnicidad registro = RegistroUnicidad.global();
+        if (!registro.reemplazar(estudianteExistente, estudianteModificado) || !estudianteModificado.validarDatos()) {
+            registro.reemplazar(estudianteModificado, estudianteExistente);
             System.out.println("Error: Los datos modificados son inválidos");
             return false;
         }
@@ -137,6 +140,7 @@ public class Administrador extends Usuario {
         }
 
         listaEstudiantes.remove(estudiante);
+        RegistroUnicidad.global().liberar(estudiante);
         System.out.println("Estudiante eliminado exitosamente: " + estudiante.obtenerNombreCompleto());
         return true;
     }
@@ -205,7 +209,10 @@ public class Administrador extends Usuario {
             return false;
         }
 
-        if (!profesorModificado.validarDatos()) {
+        // La copia editada hereda la reserva de ID y correo del registro original
+        RegistroUnicidad registro = RegistroUnicidad.global();
+        if (!registro.reemplazar(profesorExistente, profesorModificado) || !profesorModificado.validarDatos()) {
+            registro.reemplazar(profesorModificado, profesorExistente);
             System.out.println("Error: Los datos modificados son inválidos");
             return false;
         }
@@ -232,6 +239,7 @@ public class Administrador extends Usuario {
         }
 
         listaProfesores.remove(profesor);
+        RegistroUnicidad.global().liberar(profesor);
         System.out.println("Profesor eliminado exitosamente: " + profesor.obtenerNombreCompleto());
         return true;
     }
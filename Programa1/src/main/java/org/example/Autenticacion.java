@@ -1,7 +1,12 @@
 package org.example;
 
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 /**
  * Servicio de autenticación con soporte de contraseña temporal (one-shot).
@@ -13,19 +18,62 @@ import java.util.Map;
  * </ul>
  * <p>Nota: en una app real, este almacenamiento debería reemplazarse por una
  * capa de persistencia y un servicio de correo.</p>
+ * <p>
+ * Verificar o encriptar con BCrypt toma decenas o cientos de milisegundos, por lo
+ * que las variantes {@code *Async} ejecutan esas operaciones en un grupo acotado
+ * de hilos y devuelven un {@link CompletableFuture}; la interfaz gráfica nunca
+ * debe llamar a las versiones síncronas desde el hilo de eventos de Swing.
+ * </p>
  */
 public class Autenticacion {
 
     // -- Almacenamiento simulado --
 
     /** Mapa de contraseñas por idUsuario (credencial ya encriptada). */
-    private final Map<String, Password> passwords = new HashMap<>();
+    private final Map<String, Password> passwords = new ConcurrentHashMap<>();
 
     /** Mapa de roles por idUsuario. */
-    private final Map<String, Roles> roles = new HashMap<>();
+    private final Map<String, Roles> roles = new ConcurrentHashMap<>();
 
     /** Mapa de correos por idUsuario. */
-    private final Map<String, String> correos = new HashMap<>();
+    private final Map<String, String> correos = new ConcurrentHashMap<>();
+
+    // -- Ejecución en segundo plano --
+
+    /** Capacidad por defecto de la cola de solicitudes pendientes. */
+    private static final int CAPACIDAD_POR_DEFECTO = 256;
+
+    /** Grupo acotado de hilos para las operaciones BCrypt; se crea al primer uso. */
+    private volatile ThreadPoolExecutor ejecutor;
+
+    /** Cantidad de hilos del ejecutor. */
+    private final int hilos;
+
+    /** Capacidad de la cola del ejecutor. */
+    private final int capacidadCola;
+
+    // -- Constructores --
+
+    /**
+     * Crea el servicio con un hilo por procesador disponible (mínimo 2) y una
+     * cola de {@value #CAPACIDAD_POR_DEFECTO} solicitudes.
+     */
+    public Autenticacion() {
+        this(Math.max(2, Runtime.getRuntime().availableProcessors()), CAPACIDAD_POR_DEFECTO);
+    }
+
+    /**
+     * Crea el servicio con un ejecutor de tamaño indicado.
+     *
+     * @param hilos cantidad de hilos para operaciones BCrypt (mínimo 1)
+     * @param capacidadCola solicitudes que pueden esperar en cola (mínimo 1)
+     */
+    public Autenticacion(int hilos, int capacidadCola) {
+        if (hilos < 1 || capacidadCola < 1)
+            throw new IllegalArgumentException("Hilos y capacidad de cola deben ser al menos 1.");
+        this.hilos = hilos;
+        this.capacidadCola = capacidadCola;
+    }
 
     // -- DTO de resultado --
 
@@ -138,8 +186,134 @@ public class Autenticacion {
         return true;
     }
 
+    // -- Versiones asíncronas --
+
+    /**
+     * Versión asíncrona de {@link #login(String, char[])}.
+     * <p>
+     * La contraseña se copia antes de encolar la solicitud, de modo que el
+     * llamador puede limpiar su arreglo inmediatamente.
+     * </p>
+     *
+     * @param identificacion id del usuario
+     * @param password contraseña en texto
+     * @return futuro con el resultado ({@code null} si las credenciales no son válidas);
+     *         falla con {@link RejectedExecutionException} si la cola está llena
+     */
+    public CompletableFuture<ResultadoLogin> loginAsync(String identificacion, char[] password) {
+        char[] copia = password == null ? null : password.clone();
+        return ejecutarAsync(() -> {
+            try {
+                return login(identificacion, copia);
+            } finally {
+                if (copia != null) Arrays.fill(copia, '\0');
+            }
+        });
+    }
+
+    /**
+     * Versión asíncrona de {@link #recuperarContrasena(String)}.
+     *
+     * @param identificacion id del usuario
+     * @return futuro con {@code true} si se generó y envió la temporal
+     */
+    public CompletableFuture<Boolean> recuperarContrasenaAsync(String identificacion) {
+        return ejecutarAsync(() -> recuperarContrasena(identificacion));
+    }
+
+    /**
+     * Versión asíncrona de {@link #cambiarContrasena(String, char[], String)}.
+     *
+     * @param identificacion id del usuario
+     * @param actual contraseña actual
+     * @param nueva nueva contraseña
+     * @return futuro con {@code true} si se cambió correctamente
+     */
+    public CompletableFuture<Boolean> cambiarContrasenaAsync(String identificacion, char[] actual, String nueva) {
+        char[] copia = actual == null ? null : actual.clone();
+        return ejecutarAsync(() -> {
+            try {
+                return cambiarContrasena(identificacion, copia, nueva);
+            } finally {
+                if (copia != null) Arrays.fill(copia, '\0');
+            }
+        });
+    }
+
+    /**
+     * Versión asíncrona de {@link #establecerNuevaTrasTemporal(String, String)}.
+     *
+     * @param identificacion id del usuario
+     * @param nueva nueva contraseña definitiva
+     * @return futuro con {@code true} si se estableció correctamente
+     */
+    public CompletableFuture<Boolean> establecerNuevaTrasTemporalAsync(String identificacion, String nueva) {
+        return ejecutarAsync(() -> establecerNuevaTrasTemporal(identificacion, nueva));
+    }
+
+    /**
+     * Ejecuta una tarea (normalmente con trabajo BCrypt) en el ejecutor acotado
+     * de autenticación.
+     *
+     * @param tarea tarea a ejecutar
+     * @return futuro con el resultado; falla con {@link RejectedExecutionException}
+     *         si la cola está llena
+     */
+    public <T> CompletableFuture<T> ejecutarAsync(Supplier<T> tarea) {
+        try {
+            return CompletableFuture.supplyAsync(tarea, ejecutor());
+        } catch (RejectedExecutionException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+    }
+
+    /** Detiene el ejecutor; las solicitudes ya encoladas terminan de procesarse. */
+    public void cerrar() {
+        ThreadPoolExecutor ex = ejecutor;
+        if (ex != null) ex.shutdown();
+    }
+
+    // -- Consulta de credenciales (persistencia) --
+
+    /**
+     * Devuelve una copia de los identificadores con credencial registrada.
+     *
+     * @return conjunto de ids registrados
+     */
+    Set<String> idsRegistrados() {
+        return new LinkedHashSet<>(passwords.keySet());
+    }
+
+    /** Devuelve el rol registrado para un usuario, o {@code null}. */
+    Roles obtenerRol(String id) { return roles.get(id); }
+
+    /** Devuelve el correo registrado para un usuario, o {@code null}. */
+    String obtenerCorreo(String id) { return correos.get(id); }
+
+    /** Devuelve la credencial (ya encriptada) de un usuario, o {@code null}. */
+    Password obtenerCredencial(String id) { return passwords.get(id); }
+
     // -- Auxiliares --
 
+    /** Devuelve el ejecutor de autenticación, creándolo la primera vez. */
+    private ThreadPoolExecutor ejecutor() {
+        ThreadPoolExecutor ex = ejecutor;
+        if (ex != null) return ex;
+        synchronized (this) {
+            if (ejecutor == null) {
+                AtomicInteger n = new AtomicInteger();
+                ejecutor = new ThreadPoolExecutor(hilos, hilos, 30, TimeUnit.SECONDS,
+                        new ArrayBlockingQueue<>(capacidadCola), r -> {
+                            Thread t = new Thread(r, "autenticacion-" + n.incrementAndGet());
+                            t.setDaemon(true);
+                            return t;
+                        }, new ThreadPoolExecutor.AbortPolicy());
+                ejecutor.allowCoreThreadTimeOut(true);
+            }
+            return ejecutor;
+        }
+    }
+
     /**
      * Verifica existencia básica del usuario en los mapas internos.
      *
@@ -0,0 +1,354 @@
+package org.example;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Archivo de bitácora de solo-anexado (write-ahead log) con confirmación agrupada.
+ * <p>
+ * Cada registro es una línea de texto terminada en salto de línea. Los hilos que
+ * agregan registros solo los encolan y obtienen un número de turno; un único hilo
+ * escritor vacía la cola, escribe todas las líneas pendientes y hace un solo
+ * {@link FileChannel#force(boolean)} por lote. Así, varias operaciones concurrentes
+ * comparten el mismo costo de sincronización con el disco.
+ * </p>
+ * <p>
+ * Una línea sin salto de línea final es una escritura interrumpida; al abrir el
+ * archivo se descarta, y {@link #recorrer} nunca la entrega.
+ * </p>
+ */
+public class BitacoraEscritura implements Closeable {
+
+    /** Acción aplicada a cada línea completa del archivo. */
+    @FunctionalInterface
+    public interface Lector {
+        void leer(String linea) throws IOException;
+    }
+
+    // -- Estado --
+
+    private final FileChannel canal;
+
+    /** Protege la cola y los contadores de turnos. */
+    private final Object cerrojo = new Object();
+
+    /** Líneas codificadas pendientes de escritura. */
+    private final ArrayDeque<byte[]> pendientes = new ArrayDeque<>();
+
+    /** Último turno entregado a un llamador. */
+    private long encolados;
+
+    /** Último turno escrito y sincronizado con el disco. */
+    private long durables;
+
+    /** Cantidad de sincronizaciones realizadas (una por lote). */
+    private long sincronizaciones;
+
+    /** Error de escritura; si existe, la bitácora queda inutilizable. */
+    private IOException error;
+
+    private boolean cerrada;
+
+    private final Thread escritor;
+
+    // -- Constructor --
+
+    /**
+     * Abre (o crea) la bitácora para agregar registros al final.
+     *
+     * @param archivo ruta del archivo de bitácora
+     * @throws IOException si no puede abrirse el archivo
+     */
+    public BitacoraEscritura(Path archivo) throws IOException {
+        Path dir = archivo.toAbsolutePath().getParent();
+        if (dir != null) Files.createDirectories(dir);
+        this.canal = FileChannel.open(archivo,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        descartarColaIncompleta();
+        canal.position(canal.size());
+
+        this.escritor = new Thread(this::escribirLotes, "bitacora-escritor");
+        escritor.setDaemon(true);
+        escritor.start();
+    }
+
+    // -- Escritura --
+
+    /**
+     * Encola una línea para escritura y devuelve su turno.
+     * La línea no debe contener saltos de línea.
+     *
+     * @param linea registro a agregar
+     * @return turno a usar con {@link #esperar(long)}
+     * @throws IOException si la bitácora está cerrada o falló una escritura previa
+     */
+    public long agregar(String linea) throws IOException {
+        byte[] datos = (linea + "\n").getBytes(StandardCharsets.UTF_8);
+        synchronized (cerrojo) {
+            if (error != null) throw new IOException("La bitácora falló previamente.", error);
+            if (cerrada) throw new IOException("La bitácora está cerrada.");
+            pendientes.add(datos);
+            cerrojo.notifyAll();
+            return ++encolados;
+        }
+    }
+
+    /**
+     * Verifica que la bitácora admita registros nuevos, para no aplicar una
+     * operación cuyo registro no podrá agregarse.
+     *
+     * @throws IOException si la bitácora está cerrada o falló una escritura previa
+     */
+    public void comprobar() throws IOException {
+        synchronized (cerrojo) {
+            if (error != null) throw new IOException("La bitácora falló previamente.", error);
+            if (cerrada) throw new IOException("La bitácora está cerrada.");
+        }
+    }
+
+    /**
+     * Espera hasta que el registro con el turno indicado esté en disco.
+     *
+     * @param turno turno devuelto por {@link #agregar(String)}
+     * @throws IOException si la escritura falló o el hilo fue interrumpido
+     */
+    public void esperar(long turno) throws IOException {
+        synchronized (cerrojo) {
+            while (durables < turno && error == null) {
+                try {
+                    cerrojo.wait();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrumpido esperando la bitácora.", ex);
+                }
+            }
+            if (durables < turno) throw new IOException("No se pudo escribir la bitácora.", error);
+        }
+    }
+
+    /**
+     * Espera a que todos los registros encolados hasta ahora estén en disco.
+     *
+     * @throws IOException si la escritura falló
+     */
+    public void esperarTodo() throws IOException {
+        long turno;
+        synchronized (cerrojo) {
+            turno = encolados;
+        }
+        esperar(turno);
+    }
+
+    /**
+     * Vacía la bitácora (después de un punto de control).
+     * <p>
+     * Espera a que los registros pendientes estén en disco; el llamador debe
+     * impedir que se agreguen registros nuevos mientras tanto.
+     * </p>
+     *
+     * @throws IOException si no puede truncarse el archivo
+     */
+    public void truncar() throws IOException {
+        esperarTodo();
+        synchronized (cerrojo) {
+            // Con la cola vacía el escritor está detenido en wait() sobre este cerrojo
+            canal.truncate(0);
+            canal.position(0);
+            canal.force(true);
+        }
+    }
+
+    /** @return cantidad de sincronizaciones con el disco realizadas */
+    public long getSincronizaciones() {
+        synchronized (cerrojo) {
+            return sincronizaciones;
+        }
+    }
+
+    /** @return cantidad de registros escritos y sincronizados */
+    public long getDurables() {
+        synchronized (cerrojo) {
+            return durables;
+        }
+    }
+
+    /**
+     * Escribe lo pendiente y cierra el archivo.
+     *
+     * @throws IOException si falla la escritura final
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (cerrojo) {
+            if (cerrada) return;
+            cerrada = true;
+            cerrojo.notifyAll();
+        }
+        try {
+            escritor.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        canal.close();
+        synchronized (cerrojo) {
+            if (error != null) throw error;
+        }
+    }
+
+    // -- Lectura --
+
+    /**
+     * Recorre las líneas completas del archivo en orden.
+     * <p>
+     * Una última línea sin salto de línea (escritura interrumpida) se ignora.
+     * Si el archivo no existe no se hace nada.
+     * </p>
+     *
+     * @param archivo archivo de bitácora
+     * @param lector acción aplicada a cada línea
+     * @return cantidad de líneas entregadas
+     * @throws IOException si ocurre un error de lectura o lo lanza el lector
+     */
+    public static long recorrer(Path archivo, Lector lector) throws IOException {
+        if (!Files.exists(archivo)) return 0;
+        long completo;
+        try (FileChannel fc = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            completo = finDeUltimaLinea(fc);
+        }
+        long leidos = 0;
+        try (FileChannel fc = FileChannel.open(archivo, StandardOpenOption.READ);
+             BufferedReader br = new BufferedReader(Channels.newReader(
+                     new LimiteCanal(fc, completo), StandardCharsets.UTF_8), 1 << 16)) {
+            String linea;
+            while ((linea = br.readLine()) != null) {
+                if (linea.isBlank()) continue;
+                lector.leer(linea);
+                leidos++;
+            }
+        }
+        return leidos;
+    }
+
+    // -- Métodos auxiliares --
+
+    /** Hilo escritor: toma lotes de la cola, los escribe y sincroniza una vez por lote. */
+    private void escribirLotes() {
+        List<byte[]> lote = new ArrayList<>();
+        while (true) {
+            long hasta;
+            synchronized (cerrojo) {
+                while (pendientes.isEmpty() && !cerrada) {
+                    try {
+                        cerrojo.wait();
+                    } catch (InterruptedException ex) {
+                        // Solo se detiene al cerrar la bitácora
+                    }
+                }
+                if (pendientes.isEmpty()) return;
+                lote.addAll(pendientes);
+                pendientes.clear();
+                hasta = encolados;
+            }
+
+            try {
+                int total = 0;
+                for (byte[] b : lote) total += b.length;
+                ByteBuffer buf = ByteBuffer.allocate(total);
+                for (byte[] b : lote) buf.put(b);
+                buf.flip();
+                while (buf.hasRemaining()) canal.write(buf);
+                canal.force(false);
+            } catch (IOException ex) {
+                synchronized (cerrojo) {
+                    error = ex;
+                    cerrojo.notifyAll();
+                }
+                return;
+            } finally {
+                lote.clear();
+            }
+
+            synchronized (cerrojo) {
+                durables = hasta;
+                sincronizaciones++;
+                cerrojo.notifyAll();
+            }
+        }
+    }
+
+    /** Recorta una línea final incompleta dejada por una escritura interrumpida. */
+    private void descartarColaIncompleta() throws IOException {
+        long fin = finDeUltimaLinea(canal);
+        if (fin < canal.size()) {
+            canal.truncate(fin);
+            canal.force(true);
+        }
+    }
+
+    /**
+     * Posición inmediatamente posterior al último salto de línea del archivo
+     * (0 si no hay ninguno).
+     */
+    private static long finDeUltimaLinea(FileChannel fc) throws IOException {
+        long pos = fc.size();
+        ByteBuffer buf = ByteBuffer.allocate(4096);
+        while (pos > 0) {
+            int n = (int) Math.min(buf.capacity(), pos);
+            buf.clear().limit(n);
+            long desde = pos - n;
+            while (buf.hasRemaining()) {
+                if (fc.read(buf, desde + buf.position()) < 0) break;
+            }
+            for (int i = n - 1; i >= 0; i--) {
+                if (buf.get(i) == '\n') return desde + i + 1;
+            }
+            pos = desde;
+        }
+        return 0;
+    }
+
+    /** Canal de lectura que no pasa de una posición límite. */
+    private static final class LimiteCanal implements java.nio.channels.ReadableByteChannel {
+        private final FileChannel fc;
+        private final long limite;
+
+        LimiteCanal(FileChannel fc, long limite) {
+            this.fc = fc;
+            this.limite = limite;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            long resto = limite - fc.position();
+            if (resto <= 0) return -1;
+            if (dst.remaining() > resto) {
+                ByteBuffer parcial = dst.slice().limit((int) resto);
+                int n = fc.read(parcial);
+                if (n > 0) dst.position(dst.position() + n);
+                return n;
+            }
+            return fc.read(dst);
+        }
+
+        @Override
+        public boolean isOpen() {
+            return fc.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            fc.close();
+        }
+    }
+}
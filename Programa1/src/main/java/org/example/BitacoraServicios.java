@@ -0,0 +1,1170 @@
+package org.example;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Bitácora de escritura (write-ahead log) para las operaciones que modifican
+ * el estado de los servicios.
+ * <p>
+ * Expone versiones decoradas de {@link UsuarioService}, {@link CursoService},
+ * {@link MatriculaService}, {@link EvaluacionService}, {@link IntentoService} y
+ * {@link Autenticacion} (cambios de contraseña). Cada operación de modificación se aplica sobre el servicio original y, si
+ * tuvo éxito, se agrega a la bitácora un registro JSON de una línea con un número
+ * de secuencia creciente. La operación retorna cuando el registro está en disco;
+ * las escrituras concurrentes comparten una misma sincronización
+ * (ver {@link BitacoraEscritura}).
+ * </p>
+ * <p>
+ * Concurrencia: las matrículas (por grupo) y los intentos (por estudiante) se
+ * aplican en paralelo; solo las operaciones sobre la misma clave se ordenan
+ * entre sí, y las de claves distintas conmutan, así que reproducirlas en el
+ * orden de sus secuencias da el mismo estado. Las demás operaciones son poco
+ * frecuentes y se aplican solas. Únicamente la asignación de la secuencia y el
+ * encolado del registro pasan por un candado global.
+ * </p>
+ * <p>
+ * Al iniciar se restaura la última instantánea de {@link PersistenciaJson} y luego
+ * {@link #reproducir()} aplica los registros posteriores a ella. Un
+ * {@link #puntoDeControl(Path)} guarda una nueva instantánea con la secuencia
+ * actual y vacía la bitácora.
+ * </p>
+ * <p>
+ * Los cambios hechos directamente sobre los objetos del modelo (sin pasar por los
+ * servicios) no quedan en la bitácora; se conservan en el siguiente punto de control.
+ * </p>
+ */
+public class BitacoraServicios implements Closeable {
+
+    // -- Dependencias --
+
+    private final Autenticacion auth;
+    private final UsuarioService usuarioService;
+    private final CursoService cursoService;
+    private final MatriculaService matriculaService;
+    private final EvaluacionService evaluacionService;
+    private final IntentoService intentoService;
+    private final PersistenciaJson persistencia;
+    private final Path archivo;
+
+    // -- Estado --
+
+    /**
+     * Las operaciones por clave (matrículas, intentos) toman el candado de
+     * lectura y el monitor de su franja; las demás, y el ciclo de vida de la
+     * bitácora, el de escritura.
+     */
+    private final ReentrantReadWriteLock candado = new ReentrantReadWriteLock();
+
+    /** Monitores de las operaciones por clave. */
+    private final Object[] franjas = new Object[64];
+
+    /** Protege la asignación de secuencias y el encolado de registros. */
+    private final Object orden = new Object();
+
+    /** Archivo de bitácora abierto para escritura ({@code null} hasta {@link #abrir()}). */
+    private BitacoraEscritura bitacora;
+
+    /** Último número de secuencia asignado. */
+    private long secuencia;
+
+    /** Turno del registro agregado por la operación en curso de cada hilo. */
+    private final ThreadLocal<long[]> turnoPendiente = ThreadLocal.withInitial(() -> new long[1]);
+
+    // -- Servicios decorados --
+
+    private final UsuarioService usuarios = new Usuarios();
+    private final CursoService cursos = new Cursos();
+    private final MatriculaService matriculas = new Matriculas();
+    private final EvaluacionService evaluaciones = new Evaluaciones();
+    private final IntentoService intentos = new Intentos();
+    private final Autenticacion autenticacion = new Autenticaciones();
+
+    // -- Constructor --
+
+    /**
+     * Crea la bitácora sobre los servicios indicados.
+     *
+     * @param auth servicio de autenticación
+     * @param usuarioService servicio de usuarios
+     * @param cursoService servicio de cursos
+     * @param matriculaService servicio de matrículas
+     * @param evaluacionService servicio de evaluaciones
+     * @param intentoService servicio de intentos
+     * @param persistencia instantáneas del estado completo
+     * @param archivo archivo de la bitácora
+     */
+    public BitacoraServicios(Autenticacion auth, UsuarioService usuarioService, CursoService cursoService,
+                             MatriculaService matriculaService, EvaluacionService evaluacionService,
+                             IntentoService intentoService, PersistenciaJson persistencia, Path archivo) {
+        this.auth = Objects.requireNonNull(auth);
+        this.usuarioService = Objects.requireNonNull(usuarioService);
+        this.cursoService = Objects.requireNonNull(cursoService);
+        this.matriculaService = Objects.requireNonNull(matriculaService);
+        this.evaluacionService = Objects.requireNonNull(evaluacionService);
+        this.intentoService = Objects.requireNonNull(intentoService);
+        this.persistencia = Objects.requireNonNull(persistencia);
+        this.archivo = Objects.requireNonNull(archivo);
+        for (int i = 0; i < franjas.length; i++) franjas[i] = new Object();
+    }
+
+    /**
+     * Ruta por defecto de la bitácora: junto al archivo de datos.
+     *
+     * @return ruta del archivo
+     */
+    public static Path archivoPorDefecto() {
+        return PersistenciaJson.archivoPorDefecto().resolveSibling("bitacora.log");
+    }
+
+    // -- Accesos a los servicios registrados --
+
+    /** @return servicio de usuarios cuyas modificaciones quedan en la bitácora */
+    public UsuarioService usuarios() { return usuarios; }
+
+    /** @return servicio de cursos cuyas modificaciones quedan en la bitácora */
+    public CursoService cursos() { return cursos; }
+
+    /** @return servicio de matrículas cuyas modificaciones quedan en la bitácora */
+    public MatriculaService matriculas() { return matriculas; }
+
+    /** @return servicio de evaluaciones cuyas modificaciones quedan en la bitácora */
+    public EvaluacionService evaluaciones() { return evaluaciones; }
+
+    /** @return servicio de intentos cuyas modificaciones quedan en la bitácora */
+    public IntentoService intentos() { return intentos; }
+
+    /** @return autenticación cuyos cambios de contraseña quedan en la bitácora */
+    public Autenticacion autenticacion() { return autenticacion; }
+
+    // -- Ciclo de vida --
+
+    /**
+     * Aplica sobre los servicios los registros de la bitácora posteriores a la
+     * instantánea cargada (según {@link PersistenciaJson#getSecuencia()}).
+     * <p>
+     * Debe llamarse antes de {@link #abrir()}. Un registro que no puede aplicarse
+     * se informa y se omite, sin detener la recuperación.
+     * </p>
+     *
+     * @return estadísticas de la reproducción
+     * @throws IOException si el archivo no puede leerse o un registro está mal formado
+     */
+    public Reproduccion reproducir() throws IOException {
+        candado.writeLock().lock();
+        try {
+            if (bitacora != null) throw new IllegalStateException("La bitácora ya está abierta.");
+            secuencia = persistencia.getSecuencia();
+            PersistenciaJson.Contexto ctx =
+                    PersistenciaJson.Contexto.desde(usuarioService, cursoService, evaluacionService);
+            long[] cuenta = new long[3]; // aplicados, ya incluidos, fallidos
+
+            long t0 = System.nanoTime();
+            BitacoraEscritura.recorrer(archivo, linea -> reproducirRegistro(linea, ctx, cuenta));
+            long nanos = System.nanoTime() - t0;
+
+            // Los contadores de IDs no deben quedar por debajo de lo restaurado
+            Grupo.setContador(Math.max(Grupo.getContador(), ctx.maxGrupo));
+            Evaluacion.asegurarContador(ctx.maxEvaluacion + 1);
+            persistencia.setSecuencia(secuencia);
+            return new Reproduccion(cuenta[0], cuenta[1], cuenta[2], nanos);
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Abre la bitácora para registrar nuevas operaciones.
+     *
+     * @throws IOException si no puede abrirse el archivo
+     */
+    public void abrir() throws IOException {
+        candado.writeLock().lock();
+        try {
+            if (bitacora == null) bitacora = new BitacoraEscritura(archivo);
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Guarda una instantánea del estado completo y vacía la bitácora.
+     * <p>
+     * Las operaciones nuevas esperan a que termine. Si el proceso se interrumpe
+     * entre la instantánea y el vaciado, los registros repetidos se ignoran al
+     * reproducir porque su secuencia ya está incluida en la instantánea.
+     * </p>
+     *
+     * @param instantanea archivo de datos
+     * @throws IOException si falla la escritura
+     */
+    public void puntoDeControl(Path instantanea) throws IOException {
+        candado.writeLock().lock();
+        try {
+            if (bitacora != null) bitacora.esperarTodo();
+            synchronized (orden) {
+                persistencia.setSecuencia(secuencia);
+            }
+            persistencia.guardar(instantanea);
+            if (bitacora != null) bitacora.truncar();
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Espera los registros pendientes y cierra el archivo de bitácora.
+     *
+     * @throws IOException si falla la escritura final
+     */
+    @Override
+    public void close() throws IOException {
+        BitacoraEscritura b;
+        candado.writeLock().lock();
+        try {
+            b = bitacora;
+            bitacora = null;
+        } finally {
+            candado.writeLock().unlock();
+        }
+        if (b != null) b.close();
+    }
+
+    // -- Registro de operaciones --
+
+    /** Operación sobre un servicio que agrega su registro con {@link #registrar}. */
+    @FunctionalInterface
+    private interface Mutacion<T> {
+        T aplicar() throws IOException;
+    }
+
+    /** Escribe los campos propios de un registro. */
+    @FunctionalInterface
+    private interface Campos {
+        void escribir(JsonWriter w) throws IOException;
+    }
+
+    /**
+     * Aplica una operación que puede depender de cualquier dato: se ejecuta
+     * sola, sin otras operaciones en curso. Ver {@link #confirmar(Object, Mutacion)}.
+     */
+    private <T> T confirmar(Mutacion<T> m) {
+        return confirmar(null, m);
+    }
+
+    /**
+     * Aplica una operación y agrega su registro, y espera (sin candados) a que
+     * el registro esté en disco.
+     * <p>
+     * Con clave, la operación corre junto a otras y solo se ordena con las de su
+     * misma clave (monitor de su franja); sin clave, corre sola. Antes de aplicar
+     * se verifica que la bitácora admita registros, para no dejar en memoria un
+     * cambio sin registro. Si aun así el registro falla después de aplicar (la
+     * escritura falló en ese intervalo), el error lo indica: el cambio queda en
+     * memoria y se guarda en el siguiente punto de control.
+     * </p>
+     *
+     * @param clave grupo o estudiante afectado, o {@code null} para una operación exclusiva
+     */
+    private <T> T confirmar(Object clave, Mutacion<T> m) {
+        Lock c = clave == null ? candado.writeLock() : candado.readLock();
+        long[] turno = turnoPendiente.get();
+        BitacoraEscritura b;
+        T resultado;
+        c.lock();
+        try {
+            b = bitacora;
+            if (b != null) {
+                try {
+                    b.comprobar();
+                } catch (IOException ex) {
+                    throw new IllegalStateException("No se pudo registrar la operación en la bitácora: " + ex.getMessage(), ex);
+                }
+            }
+            turno[0] = 0;
+            if (clave == null) {
+                resultado = aplicarYRegistrar(m);
+            } else {
+                synchronized (franjas[Math.floorMod(clave.hashCode(), franjas.length)]) {
+                    resultado = aplicarYRegistrar(m);
+                }
+            }
+        } finally {
+            c.unlock();
+        }
+        if (turno[0] > 0 && b != null) {
+            try {
+                b.esperar(turno[0]);
+            } catch (IOException ex) {
+                throw new IllegalStateException(APLICADA_SIN_REGISTRO + ex.getMessage(), ex);
+            }
+        }
+        return resultado;
+    }
+
+    /** Mensaje de una operación aplicada en memoria cuyo registro no llegó a disco. */
+    private static final String APLICADA_SIN_REGISTRO =
+            "La operación se aplicó, pero no quedó en la bitácora (se guardará en el próximo punto de control): ";
+
+    /** Los servicios solo lanzan excepciones no verificadas; un {@link IOException} viene del registro. */
+    private static <T> T aplicarYRegistrar(Mutacion<T> m) {
+        try {
+            return m.aplicar();
+        } catch (IOException ex) {
+            throw new IllegalStateException(APLICADA_SIN_REGISTRO + ex.getMessage(), ex);
+        }
+    }
+
+    /** Operación sin valor de retorno; ver {@link Mutacion}. */
+    @FunctionalInterface
+    private interface Accion {
+        void aplicar() throws IOException;
+    }
+
+    /** Versión de {@link #confirmar(Mutacion)} para operaciones sin valor de retorno. */
+    private void ejecutar(Accion accion) {
+        ejecutar(null, accion);
+    }
+
+    /** Versión de {@link #confirmar(Object, Mutacion)} para operaciones sin valor de retorno. */
+    private void ejecutar(Object clave, Accion accion) {
+        confirmar(clave, () -> {
+            accion.aplicar();
+            return null;
+        });
+    }
+
+    /**
+     * Codifica y encola un registro; debe llamarse desde una operación en curso.
+     * Solo la secuencia y el encolado ocurren bajo {@link #orden}, de modo que el
+     * orden de las secuencias es el orden en que se encolan los registros.
+     * Si la bitácora no está abierta la operación queda solo en memoria.
+     */
+    private void registrar(String op, Campos campos) throws IOException {
+        BitacoraEscritura b = bitacora;
+        if (b == null) return;
+        StringWriter sw = new StringWriter();
+        try (JsonWriter w = new JsonWriter(sw)) {
+            w.beginObject();
+            w.name("op").value(op);
+            campos.escribir(w);
+            w.endObject();
+        }
+        // La secuencia va primero: "{" + "\"lsn\":n," + resto del objeto
+        String cuerpo = sw.toString().substring(1);
+        synchronized (orden) {
+            long lsn = secuencia + 1;
+            turnoPendiente.get()[0] = b.agregar("{\"lsn\":" + lsn + "," + cuerpo);
+            secuencia = lsn;
+        }
+    }
+
+    // -- Reproducción --
+
+    private void reproducirRegistro(String linea, PersistenciaJson.Contexto ctx, long[] cuenta) throws IOException {
+        try (JsonReader r = new JsonReader(new StringReader(linea))) {
+            r.beginObject();
+            if (!"lsn".equals(r.nextName())) throw new IOException("Registro sin secuencia: " + linea);
+            long lsn = r.nextLong();
+            if (lsn <= secuencia) {
+                cuenta[1]++;
+                return; // ya incluido en la instantánea
+            }
+            if (!"op".equals(r.nextName())) throw new IOException("Registro sin operación: " + linea);
+            String op = r.nextString();
+
+            Registro reg = leerCampos(r, ctx);
+            r.endObject();
+            try {
+                aplicar(op, reg, ctx);
+                cuenta[0]++;
+            } catch (RuntimeException ex) {
+                cuenta[2]++;
+                System.out.println("[bitacora] Registro " + lsn + " (" + op + ") no aplicado: " + ex.getMessage());
+            }
+            secuencia = lsn;
+        }
+    }
+
+    private Registro leerCampos(JsonReader r, PersistenciaJson.Contexto ctx) throws IOException {
+        Registro reg = new Registro();
+        while (r.hasNext()) {
+            String n = r.nextName();
+            JsonToken t = r.peek();
+            if (t == JsonToken.NULL) {
+                r.nextNull();
+                reg.valores.put(n, null);
+            } else if (t == JsonToken.BOOLEAN) {
+                reg.valores.put(n, String.valueOf(r.nextBoolean()));
+            } else if (t != JsonToken.BEGIN_OBJECT) {
+                reg.valores.put(n, r.nextString());
+            } else {
+                switch (n) {
+                    case "estudiante" -> reg.estudiante = PersistenciaJson.leerEstudiante(r);
+                    case "profesor" -> reg.profesor = PersistenciaJson.leerProfesor(r);
+                    case "curso" -> {
+                        reg.curso = new PersistenciaJson.DatosCurso();
+                        leerObjeto(r, reg.curso::leer);
+                    }
+                    case "evaluacion" -> {
+                        reg.evaluacion = new PersistenciaJson.DatosEvaluacion();
+                        leerObjeto(r, reg.evaluacion::leer);
+                    }
+                    case "pregunta" -> reg.pregunta = PersistenciaJson.leerPregunta(r);
+                    case "intento" -> reg.intento = PersistenciaJson.leerIntento(r, ctx);
+                    case "credencial" -> PersistenciaJson.leerCredencial(r, auth);
+                    case "fechas" -> leerObjeto(r, (est, lector) -> {
+                        reg.fechas.put(est, LocalDate.parse(lector.nextString()));
+                        return true;
+                    });
+                    default -> r.skipValue();
+                }
+            }
+        }
+        return reg;
+    }
+
+    /** Lector de campos de un objeto del formato de {@link PersistenciaJson}. */
+    @FunctionalInterface
+    private interface LectorCampos {
+        boolean leer(String campo, JsonReader r) throws IOException;
+    }
+
+    private static void leerObjeto(JsonReader r, LectorCampos campos) throws IOException {
+        r.beginObject();
+        while (r.hasNext()) {
+            String n = r.nextName();
+            if (!campos.leer(n, r)) r.skipValue();
+        }
+        r.endObject();
+    }
+
+    /** Aplica un registro sobre los servicios originales. */
+    private void aplicar(String op, Registro reg, PersistenciaJson.Contexto ctx) {
+        switch (op) {
+            // Usuarios
+            case "agregarEstudiante" -> {
+                usuarioService.agregarEstudiante(reg.estudiante);
+                ctx.estudiantes.put(reg.estudiante.getIdUsuario(), reg.estudiante);
+            }
+            case "actualizarEstudiante" -> {
+                Estudiante actual = ctx.estudiantes.get(reg.estudiante.getIdUsuario());
+                if (actual == null) {
+                    usuarioService.actualizarEstudiante(reg.estudiante);
+                } else {
+                    copiarUsuario(reg.estudiante, actual);
+                    actual.setOrgDL(reg.estudiante.getOrgDL());
+                    actual.setTemIN(reg.estudiante.getTemIN());
+                    usuarioService.actualizarEstudiante(actual);
+                }
+            }
+            case "eliminarEstudiante" -> {
+                Estudiante e = ctx.estudiantes.remove(reg.texto("id"));
+                if (e != null) usuarioService.eliminarEstudiante(e);
+            }
+            case "agregarProfesor" -> {
+                usuarioService.agregarProfesor(reg.profesor);
+                ctx.profesores.put(reg.profesor.getIdUsuario(), reg.profesor);
+            }
+            case "actualizarProfesor" -> {
+                Profesor actual = ctx.profesores.get(reg.profesor.getIdUsuario());
+                if (actual == null) {
+                    usuarioService.actualizarProfesor(reg.profesor);
+                } else {
+                    copiarUsuario(reg.profesor, actual);
+                    actual.setTituOb(new ArrayList<>(reg.profesor.getTituOb()));
+                    actual.setCertEs(new ArrayList<>(reg.profesor.getCertEs()));
+                    usuarioService.actualizarProfesor(actual);
+                }
+            }
+            case "eliminarProfesor" -> {
+                Profesor p = ctx.profesores.remove(reg.texto("id"));
+                if (p != null) usuarioService.eliminarProfesor(p);
+            }
+            case "credencial" -> {
+                // Aplicada al leer el registro
+            }
+
+            // Cursos y grupos
+            case "agregarCurso" -> {
+                Curso c = reg.curso.crear();
+                cursoService.agregarCurso(c);
+                ctx.cursos.put(c.getId(), c);
+            }
+            case "actualizarCurso" -> {
+                Curso actual = ctx.cursos.get(reg.curso.id);
+                if (actual == null) {
+                    cursoService.actualizarCurso(reg.curso.crear());
+                } else {
+                    copiarCurso(reg.curso, actual);
+                    cursoService.actualizarCurso(actual);
+                }
+            }
+            case "eliminarCurso" -> {
+                cursoService.eliminarCurso(reg.texto("id"));
+                ctx.cursos.remove(reg.texto("id"));
+            }
+            case "crearGrupo" -> {
+                Grupo g = cursoService.crearGrupo(reg.curso(ctx), reg.fecha("inicio"), reg.fecha("fin"));
+                if (cursoService instanceof CursoServiceIndexada indexada) {
+                    indexada.cambiarIdGrupo(g, reg.entero("grupo"));
+                } else {
+                    g.setIdGrupo(reg.entero("grupo"));
+                }
+                ctx.registrarGrupo(g);
+            }
+            case "actualizarGrupoFechas" -> cursoService.actualizarGrupoFechas(
+                    reg.curso(ctx), reg.entero("grupo"), reg.fecha("inicio"), reg.fecha("fin"));
+            case "asignarProfesor" -> {
+                String idProfesor = reg.texto("profesor");
+                cursoService.asignarProfesor(reg.curso(ctx), reg.entero("grupo"),
+                        idProfesor == null ? null : ctx.profesores.get(idProfesor));
+            }
+            case "eliminarGrupo" -> {
+                cursoService.eliminarGrupo(reg.curso(ctx), reg.entero("grupo"));
+                ctx.grupos.remove(reg.entero("grupo"));
+            }
+
+            // Matrículas
+            case "matricular" -> {
+                matriculaService.matricular(reg.texto("estudiante"), reg.curso(ctx), reg.entero("grupo"));
+                // Formato anterior: solo la fecha de la matrícula propia
+                if (reg.fechas.isEmpty() && reg.fecha("fecha") != null) {
+                    reg.fechas.put(reg.texto("estudiante"), reg.fecha("fecha"));
+                }
+                fijarFechas(reg, ctx);
+            }
+            case "desmatricular" -> {
+                matriculaService.desmatricular(reg.texto("estudiante"), reg.curso(ctx), reg.entero("grupo"));
+                fijarFechas(reg, ctx);
+            }
+            case "inscribirEnEspera" -> {
+                matriculaService.inscribirEnEspera(reg.texto("estudiante"), reg.curso(ctx), reg.entero("grupo"));
+                fijarFechas(reg, ctx);
+            }
+            case "salirDeEspera" -> matriculaService.salirDeEspera(
+                    reg.texto("estudiante"), reg.curso(ctx), reg.entero("grupo"));
+
+            // Evaluaciones
+            case "crearEvaluacion" -> {
+                Evaluacion ev = reg.evaluacion.crear();
+                evaluacionService.crear(reg.texto("profesor"), ev);
+                ctx.registrarEvaluacion(ev);
+            }
+            case "actualizarEvaluacion" -> {
+                Evaluacion actual = ctx.evaluaciones.get(reg.evaluacion.id);
+                if (actual == null) {
+                    evaluacionService.actualizar(reg.texto("profesor"), reg.evaluacion.crear());
+                } else {
+                    copiarEvaluacion(reg.evaluacion, actual);
+                    evaluacionService.actualizar(reg.texto("profesor"), actual);
+                }
+            }
+            case "eliminarEvaluacion" -> {
+                evaluacionService.eliminar(reg.texto("profesor"), reg.entero("id"));
+                ctx.evaluaciones.remove(reg.entero("id"));
+            }
+            case "agregarPregunta" -> evaluacionService.agregarPregunta(
+                    reg.texto("profesor"), reg.entero("evaluacion"), reg.pregunta);
+            case "actualizarPregunta" -> evaluacionService.actualizarPregunta(
+                    reg.texto("profesor"), reg.entero("evaluacion"), reg.entero("indice"), reg.pregunta);
+            case "eliminarPregunta" -> evaluacionService.eliminarPregunta(
+                    reg.texto("profesor"), reg.entero("evaluacion"), reg.entero("indice"));
+            case "asociarAGrupo" -> evaluacionService.asociarAGrupo(
+                    reg.texto("profesor"), reg.entero("evaluacion"), reg.curso(ctx), reg.entero("grupo"),
+                    reg.fechaHora("inicio"));
+            case "desasociarDeGrupo" -> {
+                // La regla de horario se evalúa en el momento registrado; los registros
+                // anteriores no lo traen y ya se validaron al registrarse
+                LocalDateTime momento = reg.fechaHora("momento");
+                evaluacionService.desasociarDeGrupo(reg.texto("profesor"), reg.entero("evaluacion"), reg.curso(ctx),
+                        reg.entero("grupo"), momento != null ? momento : LocalDateTime.MIN);
+            }
+
+            // Intentos
+            case "guardarIntento" -> intentoService.guardar(reg.intento);
+
+            default -> throw new IllegalArgumentException("Operación desconocida: " + op);
+        }
+    }
+
+    /** Devuelve a las matrículas creadas al reproducir la fecha que tenían al registrarse. */
+    private static void fijarFechas(Registro reg, PersistenciaJson.Contexto ctx) {
+        Grupo g = ctx.grupos.get(reg.entero("grupo"));
+        if (g == null || reg.fechas.isEmpty()) return;
+        for (Matricula m : g.getMatriculas()) {
+            LocalDate fecha = m.getEstudiante() == null ? null : reg.fechas.get(m.getEstudiante().getIdUsuario());
+            if (fecha != null) m.setFechaMatricula(fecha);
+        }
+    }
+
+    private static void copiarUsuario(Usuario origen, Usuario destino) {
+        destino.setNombre(origen.getNombre());
+        destino.setApellido1(origen.getApellido1());
+        destino.setApellido2(origen.getApellido2());
+        destino.setTelefono(origen.getTelefono());
+        destino.setCorreo(origen.getCorreo());
+        destino.setDireccion(origen.getDireccion());
+        if (origen.getFechaRegistro() != null) destino.setFechaRegistro(origen.getFechaRegistro());
+    }
+
+    private static void copiarCurso(PersistenciaJson.DatosCurso d, Curso c) {
+        Curso nuevo = d.crear(); // valida y convierte los enumerados
+        c.setNombre(nuevo.getNombre());
+        c.setDescripcion(nuevo.getDescripcion());
+        c.setHrsDia(nuevo.getHrsDia());
+        c.setModalidad(nuevo.getModalidad());
+        c.setMinEstu(nuevo.getMinEstu());
+        c.setMaxEstu(nuevo.getMaxEstu());
+        c.setTipo(nuevo.getTipo());
+        c.setAprobCalificacion(nuevo.getAprobCalificacion());
+    }
+
+    private static void copiarEvaluacion(PersistenciaJson.DatosEvaluacion d, Evaluacion ev) {
+        ev.setNombre(d.nombre);
+        ev.setInstrucciones(d.instrucciones);
+        ev.setObjetivos(d.objetivos);
+        ev.setDuracionMinutos(d.duracion);
+        ev.setPreguntasAleatorias(d.pa);
+        ev.setOpcionesAleatorias(d.oa);
+        ev.setPreguntas(d.preguntas);
+    }
+
+    /** Campos de un registro leído de la bitácora. */
+    private static final class Registro {
+        final Map<String, String> valores = new HashMap<>();
+        /** Fecha de cada matrícula creada por la operación (estudiante → fecha). */
+        final Map<String, LocalDate> fechas = new HashMap<>();
+        Estudiante estudiante;
+        Profesor profesor;
+        PersistenciaJson.DatosCurso curso;
+        PersistenciaJson.DatosEvaluacion evaluacion;
+        IPregunta pregunta;
+        IntentoEvaluacion intento;
+
+        String texto(String campo) {
+            return valores.get(campo);
+        }
+
+        int entero(String campo) {
+            String v = valores.get(campo);
+            if (v == null) throw new IllegalArgumentException("Falta el campo '" + campo + "'.");
+            return Integer.parseInt(v);
+        }
+
+        LocalDate fecha(String campo) {
+            String v = valores.get(campo);
+            return v == null ? null : LocalDate.parse(v);
+        }
+
+        LocalDateTime fechaHora(String campo) {
+            String v = valores.get(campo);
+            return v == null ? null : LocalDateTime.parse(v);
+        }
+
+        Curso curso(PersistenciaJson.Contexto ctx) {
+            Curso c = ctx.cursos.get(texto("curso"));
+            if (c == null) throw new IllegalArgumentException("No existe curso con ID " + texto("curso"));
+            return c;
+        }
+    }
+
+    /** Resultado de {@link #reproducir()}. */
+    public static final class Reproduccion {
+        private final long aplicados;
+        private final long incluidos;
+        private final long fallidos;
+        private final long nanos;
+
+        Reproduccion(long aplicados, long incluidos, long fallidos, long nanos) {
+            this.aplicados = aplicados;
+            this.incluidos = incluidos;
+            this.fallidos = fallidos;
+            this.nanos = nanos;
+        }
+
+        /** @return registros aplicados sobre los servicios */
+        public long getAplicados() { return aplicados; }
+
+        /** @return registros omitidos por estar ya incluidos en la instantánea */
+        public long getIncluidos() { return incluidos; }
+
+        /** @return registros que no pudieron aplicarse */
+        public long getFallidos() { return fallidos; }
+
+        /** @return duración de la reproducción en milisegundos */
+        public double getMilisegundos() { return nanos / 1_000_000.0; }
+
+        /** @return registros procesados por segundo */
+        public double getRegistrosPorSegundo() {
+            long total = aplicados + incluidos + fallidos;
+            return nanos == 0 ? 0 : total * 1_000_000_000.0 / nanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d aplicados, %d ya incluidos, %d fallidos en %.1f ms (%.0f registros/s)",
+                    aplicados, incluidos, fallidos, getMilisegundos(), getRegistrosPorSegundo());
+        }
+    }
+
+    // -- Decoradores --
+
+    /** {@link UsuarioService} que registra sus modificaciones. */
+    private final class Usuarios implements UsuarioService {
+        @Override public List<Estudiante> listarEstudiantes() { return usuarioService.listarEstudiantes(); }
+        @Override public List<Profesor> listarProfesores() { return usuarioService.listarProfesores(); }
+        @Override public Estudiante buscarEstudiante(String id) { return usuarioService.buscarEstudiante(id); }
+        @Override public Profesor buscarProfesor(String id) { return usuarioService.buscarProfesor(id); }
+        @Override public Usuario buscarPorCorreo(String correo) { return usuarioService.buscarPorCorreo(correo); }
+
+        @Override
+        public void agregarEstudiante(Estudiante e) {
+            ejecutar(() -> {
+                usuarioService.agregarEstudiante(e);
+                registrar("agregarEstudiante", x -> {
+                    x.name("estudiante");
+                    PersistenciaJson.escribirEstudiante(x, e);
+                });
+            });
+        }
+
+        @Override
+        public void actualizarEstudiante(Estudiante e) {
+            ejecutar(() -> {
+                usuarioService.actualizarEstudiante(e);
+                registrar("actualizarEstudiante", x -> {
+                    x.name("estudiante");
+                    PersistenciaJson.escribirEstudiante(x, e);
+                });
+            });
+        }
+
+        @Override
+        public void eliminarEstudiante(Estudiante e) {
+            ejecutar(() -> {
+                usuarioService.eliminarEstudiante(e);
+                if (e != null) registrar("eliminarEstudiante", x -> x.name("id").value(e.getIdUsuario()));
+            });
+        }
+
+        @Override
+        public void agregarProfesor(Profesor p) {
+            ejecutar(() -> {
+                usuarioService.agregarProfesor(p);
+                registrar("agregarProfesor", x -> {
+                    x.name("profesor");
+                    PersistenciaJson.escribirProfesor(x, p);
+                });
+            });
+        }
+
+        @Override
+        public void actualizarProfesor(Profesor p) {
+            ejecutar(() -> {
+                usuarioService.actualizarProfesor(p);
+                registrar("actualizarProfesor", x -> {
+                    x.name("profesor");
+                    PersistenciaJson.escribirProfesor(x, p);
+                });
+            });
+        }
+
+        @Override
+        public void eliminarProfesor(Profesor p) {
+            ejecutar(() -> {
+                usuarioService.eliminarProfesor(p);
+                if (p != null) registrar("eliminarProfesor", x -> x.name("id").value(p.getIdUsuario()));
+            });
+        }
+
+        @Override
+        public boolean restablecerContrasena(String identificacion) {
+            return confirmar(() -> {
+                boolean ok = usuarioService.restablecerContrasena(identificacion);
+                if (ok) registrarCredencial(identificacion);
+                return ok;
+            });
+        }
+    }
+
+    /**
+     * Registra la credencial resultante (hash) de un usuario, nunca la contraseña
+     * en texto. Al reproducir, la última credencial registrada es la vigente.
+     */
+    private void registrarCredencial(String identificacion) throws IOException {
+        registrar("credencial", x -> {
+            x.name("credencial");
+            PersistenciaJson.escribirCredencial(x, identificacion, auth.obtenerCorreo(identificacion),
+                    auth.obtenerRol(identificacion), auth.obtenerCredencial(identificacion));
+        });
+    }
+
+    /**
+     * {@link Autenticacion} que registra cada cambio de contraseña: delega todo
+     * en la original, incluido su ejecutor. Los cambios se ordenan por usuario,
+     * así el trabajo BCrypt de uno no detiene las demás operaciones.
+     */
+    private final class Autenticaciones extends Autenticacion {
+        @Override public void upsertUsuario(String id, String correo, Roles rol, Password credencial) {
+            auth.upsertUsuario(id, correo, rol, credencial);
+        }
+        @Override public ResultadoLogin login(String identificacion, char[] password) {
+            return auth.login(identificacion, password);
+        }
+        @Override public boolean recuperarContrasena(String identificacion) {
+            return cambiarCredencial(identificacion, () -> auth.recuperarContrasena(identificacion));
+        }
+        @Override public boolean cambiarContrasena(String identificacion, char[] actual, String nueva) {
+            return cambiarCredencial(identificacion, () -> auth.cambiarContrasena(identificacion, actual, nueva));
+        }
+        @Override public boolean establecerNuevaTrasTemporal(String identificacion, String nueva) {
+            return cambiarCredencial(identificacion, () -> auth.establecerNuevaTrasTemporal(identificacion, nueva));
+        }
+        @Override public <T> CompletableFuture<T> ejecutarAsync(Supplier<T> tarea) { return auth.ejecutarAsync(tarea); }
+        @Override public void cerrar() { auth.cerrar(); }
+        @Override Set<String> idsRegistrados() { return auth.idsRegistrados(); }
+        @Override Roles obtenerRol(String id) { return auth.obtenerRol(id); }
+        @Override String obtenerCorreo(String id) { return auth.obtenerCorreo(id); }
+        @Override Password obtenerCredencial(String id) { return auth.obtenerCredencial(id); }
+
+        private boolean cambiarCredencial(String identificacion, Supplier<Boolean> cambio) {
+            if (identificacion == null) return false;
+            return confirmar(identificacion, () -> {
+                boolean ok = cambio.get();
+                if (ok) registrarCredencial(identificacion);
+                return ok;
+            });
+        }
+    }
+
+    /** {@link CursoService} que registra sus modificaciones. */
+    private final class Cursos implements CursoService {
+        @Override public List<Curso> listarCursos() { return cursoService.listarCursos(); }
+        @Override public List<Grupo> listarGrupos(Curso curso) { return cursoService.listarGrupos(curso); }
+        @Override public Curso buscarCurso(String idCurso) { return cursoService.buscarCurso(idCurso); }
+        @Override public Grupo buscarGrupo(int idGrupo) { return cursoService.buscarGrupo(idGrupo); }
+        @Override public Grupo buscarGrupo(Curso curso, int idGrupo) { return cursoService.buscarGrupo(curso, idGrupo); }
+
+        @Override
+        public void agregarCurso(Curso c) {
+            ejecutar(() -> {
+                cursoService.agregarCurso(c);
+                registrar("agregarCurso", x -> escribirCurso(x, c));
+            });
+        }
+
+        @Override
+        public void actualizarCurso(Curso c) {
+            ejecutar(() -> {
+                cursoService.actualizarCurso(c);
+                registrar("actualizarCurso", x -> escribirCurso(x, c));
+            });
+        }
+
+        @Override
+        public void eliminarCurso(String idCurso) {
+            ejecutar(() -> {
+                cursoService.eliminarCurso(idCurso);
+                registrar("eliminarCurso", x -> x.name("id").value(idCurso));
+            });
+        }
+
+        @Override
+        public Grupo crearGrupo(Curso curso, LocalDate inicio, LocalDate fin) {
+            return confirmar(() -> {
+                Grupo g = cursoService.crearGrupo(curso, inicio, fin);
+                if (g != null) {
+                    registrar("crearGrupo", x -> {
+                        x.name("curso").value(curso.getId());
+                        x.name("grupo").value(g.getIdGrupo());
+                        x.name("inicio").value(PersistenciaJson.texto(g.getFechaInicio()));
+                        x.name("fin").value(PersistenciaJson.texto(g.getFechaFinal()));
+                    });
+                }
+                return g;
+            });
+        }
+
+        @Override
+        public void actualizarGrupoFechas(Curso curso, int idGrupo, LocalDate inicio, LocalDate fin) {
+            ejecutar(() -> {
+                cursoService.actualizarGrupoFechas(curso, idGrupo, inicio, fin);
+                registrar("actualizarGrupoFechas", x -> {
+                    x.name("curso").value(curso.getId());
+                    x.name("grupo").value(idGrupo);
+                    x.name("inicio").value(PersistenciaJson.texto(inicio));
+                    x.name("fin").value(PersistenciaJson.texto(fin));
+                });
+            });
+        }
+
+        @Override
+        public void asignarProfesor(Curso curso, int idGrupo, Profesor profesor) {
+            ejecutar(() -> {
+                cursoService.asignarProfesor(curso, idGrupo, profesor);
+                registrar("asignarProfesor", x -> {
+                    x.name("curso").value(curso.getId());
+                    x.name("grupo").value(idGrupo);
+                    x.name("profesor").value(profesor == null ? null : profesor.getIdUsuario());
+                });
+            });
+        }
+
+        @Override
+        public void eliminarGrupo(Curso curso, int idGrupo) {
+            ejecutar(() -> {
+                cursoService.eliminarGrupo(curso, idGrupo);
+                registrar("eliminarGrupo", x -> {
+                    x.name("curso").value(curso.getId());
+                    x.name("grupo").value(idGrupo);
+                });
+            });
+        }
+
+        private void escribirCurso(JsonWriter x, Curso c) throws IOException {
+            x.name("curso").beginObject();
+            PersistenciaJson.escribirDatosCurso(x, c);
+            x.endObject();
+        }
+    }
+
+    /**
+     * {@link MatriculaService} que registra sus modificaciones. Cada operación
+     * se ordena solo con las del mismo grupo; las de grupos distintos corren a
+     * la vez, como en el servicio original.
+     */
+    private final class Matriculas implements MatriculaService {
+        @Override
+        public List<Grupo> gruposDelEstudiante(String idEstudiante) {
+            return matriculaService.gruposDelEstudiante(idEstudiante);
+        }
+
+        @Override
+        public List<Matricula> listarMatriculas(String idEstudiante) {
+            return matriculaService.listarMatriculas(idEstudiante);
+        }
+
+        @Override
+        public boolean matricular(String idEstudiante, Curso curso, int idGrupo) {
+            return confirmar(idGrupo, () -> {
+                Set<Matricula> antes = matriculasDelGrupo(curso, idGrupo);
+                boolean ok = matriculaService.matricular(idEstudiante, curso, idGrupo);
+                if (ok) registrar("matricular", x -> escribirMatricula(x, idEstudiante, curso, idGrupo, antes));
+                return ok;
+            });
+        }
+
+        @Override
+        public boolean desmatricular(String idEstudiante, Curso curso, int idGrupo) {
+            return confirmar(idGrupo, () -> {
+                Set<Matricula> antes = matriculasDelGrupo(curso, idGrupo);
+                boolean ok = matriculaService.desmatricular(idEstudiante, curso, idGrupo);
+                if (ok) registrar("desmatricular", x -> escribirMatricula(x, idEstudiante, curso, idGrupo, antes));
+                return ok;
+            });
+        }
+
+        @Override
+        public int inscribirEnEspera(String idEstudiante, Curso curso, int idGrupo) {
+            return confirmar(idGrupo, () -> {
+                Set<Matricula> antes = matriculasDelGrupo(curso, idGrupo);
+                int posicion = matriculaService.inscribirEnEspera(idEstudiante, curso, idGrupo);
+                registrar("inscribirEnEspera", x -> escribirMatricula(x, idEstudiante, curso, idGrupo, antes));
+                return posicion;
+            });
+        }
+
+        @Override
+        public boolean salirDeEspera(String idEstudiante, Curso curso, int idGrupo) {
+            return confirmar(idGrupo, () -> {
+                boolean ok = matriculaService.salirDeEspera(idEstudiante, curso, idGrupo);
+                if (ok) registrar("salirDeEspera", x -> escribirMatricula(x, idEstudiante, curso, idGrupo, null));
+                return ok;
+            });
+        }
+
+        /** Copia de las matrículas actuales del grupo (vacía si no existe). */
+        private Set<Matricula> matriculasDelGrupo(Curso curso, int idGrupo) {
+            Set<Matricula> copia = Collections.newSetFromMap(new IdentityHashMap<>());
+            Grupo g = curso == null ? null : cursoService.buscarGrupo(curso, idGrupo);
+            if (g != null) {
+                synchronized (g) {
+                    copia.addAll(g.getMatriculas());
+                }
+            }
+            return copia;
+        }
+
+        /**
+         * Escribe los campos de una operación de matrícula. Con {@code antes},
+         * agrega la fecha de cada matrícula que la operación creó (la propia o
+         * las promovidas desde la lista de espera), para que al reproducirla las
+         * matrículas conserven su fecha original.
+         */
+        private void escribirMatricula(JsonWriter x, String idEstudiante, Curso curso, int idGrupo,
+                                       Set<Matricula> antes) throws IOException {
+            x.name("estudiante").value(idEstudiante);
+            x.name("curso").value(curso.getId());
+            x.name("grupo").value(idGrupo);
+            if (antes == null) return;
+            x.name("fechas").beginObject();
+            for (Matricula m : matriculasDelGrupo(curso, idGrupo)) {
+                if (antes.contains(m) || m.getEstudiante() == null) continue;
+                x.name(m.getEstudiante().getIdUsuario()).value(PersistenciaJson.texto(m.getFechaMatricula()));
+            }
+            x.endObject();
+        }
+    }
+
+    /** {@link EvaluacionService} que registra sus modificaciones. */
+    private final class Evaluaciones implements EvaluacionService {
+        @Override
+        public List<Evaluacion> listarPorProfesor(String idProfesor) {
+            return evaluacionService.listarPorProfesor(idProfesor);
+        }
+
+        @Override
+        public Evaluacion crear(String idProfesor, Evaluacion evaluacion) {
+            return confirmar(() -> {
+                Evaluacion ev = evaluacionService.crear(idProfesor, evaluacion);
+                registrar("crearEvaluacion", x -> escribirEvaluacion(x, idProfesor, ev));
+                return ev;
+            });
+        }
+
+        @Override
+        public void actualizar(String idProfesor, Evaluacion evaluacion) {
+            ejecutar(() -> {
+                evaluacionService.actualizar(idProfesor, evaluacion);
+                registrar("actualizarEvaluacion", x -> escribirEvaluacion(x, idProfesor, evaluacion));
+            });
+        }
+
+        @Override
+        public void eliminar(String idProfesor, int idEvaluacion) {
+            ejecutar(() -> {
+                evaluacionService.eliminar(idProfesor, idEvaluacion);
+                registrar("eliminarEvaluacion", x -> {
+                    x.name("profesor").value(idProfesor);
+                    x.name("id").value(idEvaluacion);
+                });
+            });
+        }
+
+        @Override
+        public void agregarPregunta(String idProfesor, int idEvaluacion, IPregunta pregunta) {
+            ejecutar(() -> {
+                evaluacionService.agregarPregunta(idProfesor, idEvaluacion, pregunta);
+                registrar("agregarPregunta", x -> {
+                    x.name("profesor").value(idProfesor);
+                    x.name("evaluacion").value(idEvaluacion);
+                    x.name("pregunta");
+                    PersistenciaJson.escribirPregunta(x, pregunta);
+                });
+            });
+        }
+
+        @Override
+        public void actualizarPregunta(String idProfesor, int idEvaluacion, int index, IPregunta preguntaActualizada) {
+            ejecutar(() -> {
+                evaluacionService.actualizarPregunta(idProfesor, idEvaluacion, index, preguntaActualizada);
+                registrar("actualizarPregunta", x -> {
+                    x.name("profesor").value(idProfesor);
+                    x.name("evaluacion").value(idEvaluacion);
+                    x.name("indice").value(index);
+                    x.name("pregunta");
+                    PersistenciaJson.escribirPregunta(x, preguntaActualizada);
+                });
+            });
+        }
+
+        @Override
+        public void eliminarPregunta(String idProfesor, int idEvaluacion, int index) {
+            ejecutar(() -> {
+                evaluacionService.eliminarPregunta(idProfesor, idEvaluacion, index);
+                registrar("eliminarPregunta", x -> {
+                    x.name("profesor").value(idProfesor);
+                    x.name("evaluacion").value(idEvaluacion);
+                    x.name("indice").value(index);
+                });
+            });
+        }
+
+        @Override
+        public void asociarAGrupo(String idProfesor, int idEvaluacion, Curso curso, int idGrupo,
+                                  LocalDateTime fechaHoraInicio) {
+            ejecutar(() -> {
+                evaluacionService.asociarAGrupo(idProfesor, idEvaluacion, curso, idGrupo, fechaHoraInicio);
+                registrar("asociarAGrupo", x -> {
+                    x.name("profesor").value(idProfesor);
+                    x.name("evaluacion").value(idEvaluacion);
+                    x.name("curso").value(curso.getId());
+                    x.name("grupo").value(idGrupo);
+                    x.name("inicio").value(PersistenciaJson.texto(fechaHoraInicio));
+                });
+            });
+        }
+
+        @Override
+        public void desasociarDeGrupo(String idProfesor, int idEvaluacion, Curso curso, int idGrupo,
+                                      LocalDateTime momento) {
+            ejecutar(() -> {
+                evaluacionService.desasociarDeGrupo(idProfesor, idEvaluacion, curso, idGrupo, momento);
+                registrar("desasociarDeGrupo", x -> {
+                    x.name("profesor").value(idProfesor);
+                    x.name("evaluacion").value(idEvaluacion);
+                    x.name("curso").value(curso.getId());
+                    x.name("grupo").value(idGrupo);
+                    x.name("momento").value(PersistenciaJson.texto(momento));
+                });
+            });
+        }
+
+        private void escribirEvaluacion(JsonWriter x, String idProfesor, Evaluacion ev) throws IOException {
+            x.name("profesor").value(idProfesor);
+            x.name("evaluacion").beginObject();
+            PersistenciaJson.escribirDatosEvaluacion(x, ev);
+            x.endObject();
+        }
+    }
+
+    /**
+     * {@link IntentoService} que registra los intentos guardados. Guardar es
+     * agregar, así que los intentos de estudiantes distintos se guardan a la vez.
+     */
+    private final class Intentos implements IntentoService {
+        @Override
+        public void guardar(IntentoEvaluacion intento) {
+            Estudiante e = intento == null ? null : intento.getEstudiante();
+            ejecutar(e == null ? null : e.getIdUsuario(), () -> {
+                intentoService.guardar(intento);
+                if (intento != null) {
+                    registrar("guardarIntento", x -> {
+                        x.name("intento");
+                        PersistenciaJson.escribirIntento(x, intento, new IdentityHashMap<>());
+                    });
+                }
+            });
+        }
+
+        @Override public List<IntentoEvaluacion> listarPorEstudiante(String id) { return intentoService.listarPorEstudiante(id); }
+        @Override public List<IntentoEvaluacion> listarPorGrupo(int idGrupo) { return intentoService.listarPorGrupo(idGrupo); }
+        @Override public List<IntentoEvaluacion> listarPorEvaluacion(int idEval) { return intentoService.listarPorEvaluacion(idEval); }
+        @Override public List<IntentoEvaluacion> listarTodos() { return intentoService.listarTodos(); }
+    }
+}
@@ -43,6 +43,20 @@ public interface CursoService {
      */
     void eliminarCurso(String idCurso);
 
+    /**
+     * Busca un curso por su identificador.
+     *
+     * @param idCurso identificador del curso
+     * @return curso encontrado o {@code null} si no existe
+     */
+    default Curso buscarCurso(String idCurso) {
+        if (idCurso == null) return null;
+        for (Curso c : listarCursos()) {
+            if (c != null && idCurso.equals(c.getId())) return c;
+        }
+        return null;
+    }
+
     // -- Grupos --
 
     /**
@@ -53,6 +67,35 @@ public interface CursoService {
      */
     List<Grupo> listarGrupos(Curso curso);
 
+    /**
+     * Busca un grupo solo por su ID (los IDs de grupo son únicos en todo el sistema).
+     *
+     * @param idGrupo identificador del grupo
+     * @return grupo encontrado o {@code null} si no existe
+     */
+    default Grupo buscarGrupo(int idGrupo) {
+        for (Curso c : listarCursos()) {
+            Grupo g = buscarGrupo(c, idGrupo);
+            if (g != null) return g;
+        }
+        return null;
+    }
+
+    /**
+     * Busca un grupo por su ID dentro de un curso.
+     *
+     * @param curso curso al que debe pertenecer el grupo
+     * @param idGrupo identificador del grupo
+     * @return grupo encontrado o {@code null} si no existe en ese curso
+     */
+    default Grupo buscarGrupo(Curso curso, int idGrupo) {
+        if (curso == null || curso.grupos == null) return null;
+        for (Grupo g : curso.grupos) {
+            if (g != null && g.getIdGrupo() == idGrupo) return g;
+        }
+        return null;
+    }
+
     /**
      * Crea un nuevo grupo dentro de un curso.
      *
@@ -0,0 +1,261 @@
+package org.example;
+
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Implementación indexada del servicio de cursos y grupos.
+ * <p>
+ * Además de la lista de cursos (que conserva el orden de registro), mantiene
+ * dos índices en memoria:
+ * <ul>
+ *     <li>idCurso → curso.</li>
+ *     <li>idGrupo → grupo, global para todo el sistema (los IDs de grupo son
+ *         únicos gracias a {@code Grupo.contadorId}).</li>
+ * </ul>
+ * Así, buscar un curso o un grupo no requiere recorrer listas.
+ * </p>
+ * <p>
+ * La carga desde archivo agrega grupos directamente a {@code curso.grupos}; quien
+ * la hace debe llamar a {@link #reconstruirIndices()} al terminar (lo mismo hacen
+ * los datos de demostración). La reproducción de la bitácora reasigna el ID de
+ * los grupos que crea con {@link #cambiarIdGrupo(Grupo, int)}. Un ID que no está
+ * en el índice no existe: la consulta devuelve {@code null} sin recorrer cursos.
+ * </p>
+ */
+public class CursoServiceIndexada implements CursoService {
+
+    // -- Estructuras internas --
+
+    /** Cursos en orden de registro. */
+    private final List<Curso> cursos = new ArrayList<>();
+
+    /** Índice por ID de curso. */
+    private final Map<String, Curso> cursosPorId = new HashMap<>();
+
+    /** Índice global por ID de grupo. */
+    private final Map<Integer, Grupo> gruposPorId = new HashMap<>();
+
+    // -- Constructor --
+
+    /**
+     * Crea una nueva instancia del servicio de cursos.
+     *
+     * @param usuarioService servicio de usuarios (opcional para validaciones futuras)
+     */
+    public CursoServiceIndexada(UsuarioService usuarioService) {
+        // Se inyecta por simetría con CursoServiceMem
+    }
+
+    // -- Cursos --
+
+    @Override
+    public synchronized List<Curso> listarCursos() {
+        return Collections.unmodifiableList(cursos);
+    }
+
+    /** {@inheritDoc} Consulta directa al índice. */
+    @Override
+    public synchronized Curso buscarCurso(String idCurso) {
+        return idCurso == null ? null : cursosPorId.get(idCurso);
+    }
+
+    @Override
+    public synchronized void agregarCurso(Curso c) {
+        if (c == null) throw new IllegalArgumentException("Curso nulo.");
+        if (!c.validarDatos()) throw new IllegalArgumentException("Datos del curso inválidos.");
+        if (cursosPorId.containsKey(c.getId()))
+            throw new IllegalArgumentException("Ya existe un curso con ID " + c.getId());
+        cursos.add(c);
+        cursosPorId.put(c.getId(), c);
+        indexarGrupos(c);
+    }
+
+    @Override
+    public synchronized void actualizarCurso(Curso c) {
+        if (c == null) throw new IllegalArgumentException("Curso nulo.");
+        if (!c.validarDatos()) throw new IllegalArgumentException("Datos del curso inválidos.");
+        Curso anterior = cursosPorId.get(c.getId());
+        if (anterior == null) throw new IllegalArgumentException("No existe curso con ID " + c.getId());
+        if (anterior != c) {
+            cursos.set(cursos.indexOf(anterior), c);
+            cursosPorId.put(c.getId(), c);
+            desindexarGrupos(anterior);
+            indexarGrupos(c);
+        }
+    }
+
+    @Override
+    public synchronized void eliminarCurso(String idCurso) {
+        Curso cur = idCurso == null ? null : cursosPorId.get(idCurso);
+        if (cur == null) throw new IllegalArgumentException("No existe curso con ID " + idCurso);
+
+        // Regla: no se puede eliminar si hay grupos vigentes hoy
+        for (Grupo g : cur.grupos) {
+            if (g.esVigente(LocalDate.now())) {
+                throw new IllegalStateException("No se puede eliminar el curso: hay grupos vigentes.");
+            }
+        }
+        cursos.remove(cur);
+        cursosPorId.remove(idCurso);
+        desindexarGrupos(cur);
+    }
+
+    // -- Grupos --
+
+    @Override
+    public synchronized List<Grupo> listarGrupos(Curso curso) {
+        if (curso == null) return List.of();
+        return Collections.unmodifiableList(curso.grupos);
+    }
+
+    /** {@inheritDoc} Consulta directa al índice global. */
+    @Override
+    public synchronized Grupo buscarGrupo(int idGrupo) {
+        Grupo g = gruposPorId.get(idGrupo);
+        return g != null && g.getIdGrupo() == idGrupo ? g : null;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Consulta el índice global y verifica que el grupo pertenezca al curso.
+     * </p>
+     */
+    @Override
+    public synchronized Grupo buscarGrupo(Curso curso, int idGrupo) {
+        if (curso == null) return null;
+        Grupo g = buscarGrupo(idGrupo);
+        return g != null && perteneceA(g, curso) ? g : null;
+    }
+
+    @Override
+    public synchronized Grupo crearGrupo(Curso curso, LocalDate inicio, LocalDate fin) {
+        if (curso == null) throw new IllegalArgumentException("Curso requerido.");
+        validarFechas(inicio, fin);
+        curso.crearGrupo(inicio, fin);
+        List<Grupo> gs = curso.grupos;
+        if (gs.isEmpty()) return null;
+        Grupo g = gs.get(gs.size() - 1); // último creado
+        gruposPorId.put(g.getIdGrupo(), g);
+        return g;
+    }
+
+    @Override
+    public synchronized void actualizarGrupoFechas(Curso curso, int idGrupo, LocalDate inicio, LocalDate fin) {
+        validarFechas(inicio, fin);
+        Grupo g = buscarGrupo(curso, idGrupo);
+        if (g == null) throw new IllegalArgumentException("No existe el grupo #" + idGrupo);
+        g.setFechaInicio(inicio);
+        g.setFechaFinal(fin);
+    }
+
+    @Override
+    public synchronized void asignarProfesor(Curso curso, int idGrupo, Profesor profesor) {
+        Grupo g = buscarGrupo(curso, idGrupo);
+        if (g == null) throw new IllegalArgumentException("No existe el grupo #" + idGrupo);
+        g.setProfesor(profesor); // puede ser null si se desea desasignar
+    }
+
+    @Override
+    public synchronized void eliminarGrupo(Curso curso, int idGrupo) {
+        if (curso == null) throw new IllegalArgumentException("Curso requerido.");
+        Grupo g = buscarGrupo(curso, idGrupo);
+        if (g == null) throw new IllegalArgumentException("No existe el grupo #" + idGrupo);
+
+        // No se puede eliminar si tiene matrículas o evaluaciones
+        if (g.getMatriculas() != null && !g.getMatriculas().isEmpty())
+            throw new IllegalStateException("No se puede eliminar: el grupo tiene matrículas.");
+        if (g.getEvaluacionesAsignadas() != null && !g.getEvaluacionesAsignadas().isEmpty())
+            throw new IllegalStateException("No se puede eliminar: el grupo tiene evaluaciones asociadas.");
+
+        curso.grupos.remove(g);
+        gruposPorId.remove(idGrupo, g);
+    }
+
+    // -- Mantenimiento de índices --
+
+    /**
+     * Reconstruye el índice de grupos recorriendo todos los cursos.
+     * <p>
+     * Útil después de agregar grupos directamente a {@code curso.grupos}
+     * (carga desde archivo, datos de demostración).
+     * </p>
+     */
+    public synchronized void reconstruirIndices() {
+        gruposPorId.clear();
+        for (Curso c : cursos) indexarGrupos(c);
+    }
+
+    /**
+     * Cambia el ID de un grupo ya registrado y actualiza su entrada en el índice.
+     * <p>
+     * Lo usa la reproducción de la bitácora para restaurar el ID original de un
+     * grupo recién creado.
+     * </p>
+     *
+     * @param g grupo registrado
+     * @param idGrupo nuevo ID
+     */
+    public synchronized void cambiarIdGrupo(Grupo g, int idGrupo) {
+        gruposPorId.remove(g.getIdGrupo(), g);
+        g.setIdGrupo(idGrupo);
+        gruposPorId.put(idGrupo, g);
+    }
+
+    private void indexarGrupos(Curso c) {
+        if (c.grupos == null) return;
+        for (Grupo g : c.grupos) {
+            if (g != null) gruposPorId.put(g.getIdGrupo(), g);
+        }
+    }
+
+    private void desindexarGrupos(Curso c) {
+        if (c.grupos == null) return;
+        for (Grupo g : c.grupos) {
+            if (g != null) gruposPorId.remove(g.getIdGrupo(), g);
+        }
+    }
+
+    // -- Métodos auxiliares --
+
+    /**
+     * Indica si un grupo pertenece al curso: por referencia en el grupo o,
+     * si el curso fue reemplazado por una copia, por ID.
+     */
+    private static boolean perteneceA(Grupo g, Curso curso) {
+        Curso c = g.getCurso();
+        if (c == curso) return true;
+        return c != null && c.getId() != null && c.getId().equals(curso.getId());
+    }
+
+    /**
+     * Valida que las fechas de inicio y fin sean correctas.
+     *
+     * @param inicio fecha de inicio
+     * @param fin fecha de finalización
+     */
+    private void validarFechas(LocalDate inicio, LocalDate fin) {
+        if (inicio == null || fin == null) throw new IllegalArgumentException("Fechas requeridas.");
+        if (fin.isBefore(inicio)) throw new IllegalArgumentException("La fecha final no puede ser anterior al inicio.");
+    }
+
+    // -- Datos de demostración --
+
+    /**
+     * Agrega cursos de ejemplo al sistema (semilla de demostración).
+     */
+    public void seedCursosDemo() {
+        CursoServiceMem.seedCursosDemo(this);
+    }
+
+    /**
+     * Crea un grupo de demostración vinculado a un curso y profesor.
+     *
+     * @param usuarioService servicio de usuarios en memoria
+     */
+    public void seedGruposDemo(UsuarioServiceMem usuarioService) {
+        CursoServiceMem.seedGruposDemo(this, usuarioService);
+        reconstruirIndices();
+    }
+}
@@ -163,6 +163,24 @@ public class CursoServiceMem implements CursoService {
      * Agrega cursos de ejemplo al sistema (semilla de demostración).
      */
     public void seedCursosDemo() {
+        seedCursosDemo(this);
+    }
+
+    /**
+     * Crea un grupo de demostración vinculado a un curso y profesor.
+     *
+     * @param usuarioService servicio de usuarios en memoria
+     */
+    public void seedGruposDemo(UsuarioServiceMem usuarioService) {
+        seedGruposDemo(this, usuarioService);
+    }
+
+    /**
+     * Agrega los cursos de ejemplo a cualquier implementación del servicio.
+     *
+     * @param cursoService servicio destino
+     */
+    static void seedCursosDemo(CursoService cursoService) {
         TipoModalidad modalidadDef = TipoModalidad.values()[0];
         TipoCurso tipoDef = TipoCurso.TEORICO;
 
@@ -175,28 +193,26 @@ public class CursoServiceMem implements CursoService {
         Curso c4 = new Curso("C10400", "Redes I", "Conceptos de redes, OSI/TCP-IP y direccionamiento",
                 2, modalidadDef, 5, 20, tipoDef, 70);
 
-        try { agregarCurso(c1); } catch (Exception ignored) {}
-        try { agregarCurso(c2); } catch (Exception ignored) {}
-        try { agregarCurso(c3); } catch (Exception ignored) {}
-        try { agregarCurso(c4); } catch (Exception ignored) {}
+        try { cursoService.agregarCurso(c1); } catch (Exception ignored) {}
+        try { cursoService.agregarCurso(c2); } catch (Exception ignored) {}
+        try { cursoService.agregarCurso(c3); } catch (Exception ignored) {}
+        try { cursoService.agregarCurso(c4); } catch (Exception ignored) {}
     }
 
     /**
-     * Crea un grupo de demostración vinculado a un curso y profesor.
+     * Crea el grupo de demostración en cualquier implementación del servicio.
      *
+     * @param cursoService servicio destino
      * @param usuarioService servicio de usuarios en memoria
      */
-    public void seedGruposDemo(UsuarioServiceMem usuarioService) {
+    static void seedGruposDemo(CursoService cursoService, UsuarioServiceMem usuarioService) {
         try {
-            Curso c1 = listarCursos().stream()
+            Curso c1 = cursoService.listarCursos().stream()
                     .filter(c -> "C10100".equals(c.getId()))
                     .findFirst()
                     .orElse(null);
 
-            Profesor p1 = usuarioService.listarProfesores().stream()
-                    .filter(p -> "P200USER!".equals(p.getIdUsuario()))
-                    .findFirst()
-                    .orElse(null);
+            Profesor p1 = usuarioService.buscarProfesor("P200USER!");
 
             if (c1 == null || p1 == null) return;
 
@@ -242,7 +242,7 @@ public class EditorPreguntaSopaDialog extends JDialog {
 
             boolean okGrid = nueva.generarCuadricula();
             if (!okGrid) {
-                JOptionPane.showMessageDialog(this, "No se pudo generar la cuadrícula. Revise el tamaño o cantidad mínima de palabras.");
+                JOptionPane.showMessageDialog(this, "No se pudo generar la cuadrícula. " + nueva.getMotivoFallo());
                 return;
             }
 
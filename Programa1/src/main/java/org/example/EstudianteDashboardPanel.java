@@ -7,6 +7,7 @@ import java.util.List;
 import java.util.ArrayList;
 import java.util.Objects;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 /**
@@ -20,8 +21,8 @@ public class EstudianteDashboardPanel extends JPanel {
 
     // -- Servicios y referencias --
 
-    /** Servicio de usuarios en memoria. */
-    private final UsuarioServiceMem usuarioService;
+    /** Servicio de usuarios. */
+    private final UsuarioService usuarioService;
 
     /** Servicio de cursos y grupos. */
     private final CursoService cursoService;
@@ -41,6 +42,12 @@ public class EstudianteDashboardPanel extends JPanel {
     /** Acción a ejecutar cuando se guarda un intento de evaluación. */
     private final Consumer<IntentoEvaluacion> onGuardarIntento;
 
+    /**
+     * Acción para inscribirse en la lista de espera de un grupo lleno; devuelve
+     * la posición en la lista (0 si quedó matriculado). Opcional.
+     */
+    private Function<Grupo, Integer> onListaEspera;
+
     // -- Componentes principales --
 
     private final JTabbedPane tabs = new JTabbedPane();
@@ -70,7 +77,7 @@ public class EstudianteDashboardPanel extends JPanel {
      * @param proveedorIntentosEstudiante proveedor de intentos del estudiante
      * @param onGuardarIntento acción al guardar un intento de evaluación
      */
-    public EstudianteDashboardPanel(UsuarioServiceMem usuarioService,
+    public EstudianteDashboardPanel(UsuarioService usuarioService,
                                     CursoService cursoService,
                                     Estudiante estudiante,
                                     Consumer<Matricula> onMatricular,
@@ -92,6 +99,11 @@ public class EstudianteDashboardPanel extends JPanel {
         cargarEvaluaciones();
     }
 
+    // -- Configuración de callbacks --
+
+    /** Define la acción para inscribirse en la lista de espera de un grupo lleno. */
+    public void setOnListaEspera(Function<Grupo, Integer> onListaEspera) { this.onListaEspera = onListaEspera; }
+
     // -- Construcción de interfaz --
 
     /**
@@ -243,11 +255,38 @@ public class EstudianteDashboardPanel extends JPanel {
             onMatricular.accept(m);
             JOptionPane.showMessageDialog(this, "¡Matrícula registrada!");
         } catch (Exception ex) {
+            if (onListaEspera != null && gsel.obtenerCuposDisponibles() <= 0) {
+                ofrecerListaEspera(gsel);
+                return;
+            }
             JOptionPane.showMessageDialog(this, "No fue posible matricular: " + ex.getMessage(),
                     "Error", JOptionPane.ERROR_MESSAGE);
         }
     }
 
+    /**
+     * Ofrece inscribirse en la lista de espera de un grupo sin cupo.
+     *
+     * @param g grupo lleno
+     */
+    private void ofrecerListaEspera(Grupo g) {
+        int op = JOptionPane.showConfirmDialog(this,
+                "El grupo no tiene cupo. ¿Desea inscribirse en la lista de espera?",
+                "Lista de espera", JOptionPane.YES_NO_OPTION);
+        if (op != JOptionPane.YES_OPTION) return;
+        try {
+            int posicion = onListaEspera.apply(g);
+            if (posicion == 0) {
+                JOptionPane.showMessageDialog(this, "¡Se liberó un cupo y la matrícula quedó registrada!");
+            } else {
+                JOptionPane.showMessageDialog(this, "Quedó en la posición " + posicion + " de la lista de espera.");
+            }
+        } catch (Exception ex) {
+            JOptionPane.showMessageDialog(this, "No fue posible inscribirse en la lista de espera: " + ex.getMessage(),
+                    "Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
     // -- Evaluaciones --
 
     /** Obtiene la evaluación actualmente seleccionada en la tabla. */
@@ -16,8 +16,8 @@ public class Evaluacion {
 
     // -- Atributos --
 
-    /** Contador interno para generar IDs únicos. */
-    static int contador = 1;
+    /** Generador de IDs únicos (seguro entre hilos; la primera evaluación recibe el ID 1). */
+    private static final GeneradorIds IDS = new GeneradorIds(1);
 
     /** Identificador de la evaluación. */
     int id;
@@ -63,7 +63,7 @@ public class Evaluacion {
      */
     public Evaluacion(String nombre, String instrucciones, List<String> objetivos, int duracionMinutos,
                       boolean preguntasAleatorias, boolean opcionesAleatorias) {
-        this.id = contador++;
+        this.id = IDS.siguienteInt();
         validarDatos(nombre, instrucciones, objetivos, duracionMinutos, preguntasAleatorias, opcionesAleatorias);
         calcularPuntajeTotal(); // inicia con 0
     }
@@ -222,6 +222,21 @@ public class Evaluacion {
 
     public void setId(int id) { this.id = id; }
 
+    /**
+     * Devuelve el próximo ID que puede asignarse (para guardarlo junto con los datos).
+     *
+     * @return primer ID aún no asignado ni reservado
+     */
+    static int getContador() { return Math.toIntExact(IDS.getMarcaAlta()); }
+
+    /**
+     * Garantiza que las próximas evaluaciones reciban IDs de al menos {@code valor}
+     * (para restaurar desde datos guardados).
+     *
+     * @param valor próximo ID mínimo
+     */
+    static void asegurarContador(int valor) { IDS.asegurarMinimo(valor); }
+
     public void setNombre(String nombre) {
         if (nombre == null || nombre.trim().length() < 5 || nombre.trim().length() > 20)
             throw new IllegalArgumentException("Nombre inválido (5-20).");
@@ -103,7 +103,18 @@ public class EvaluacionAsignada {
      * @return {@code true} si la evaluación puede desasociarse
      */
     public boolean canDesasociar() {
-        return fechaHoraInicio != null && fechaHoraInicio.isAfter(LocalDateTime.now());
+        return canDesasociar(LocalDateTime.now());
+    }
+
+    /**
+     * Igual que {@link #canDesasociar()}, evaluado en un momento dado (por
+     * ejemplo, el de una operación registrada que se vuelve a aplicar).
+     *
+     * @param momento instante de referencia
+     * @return {@code true} si la evaluación podía desasociarse en ese momento
+     */
+    public boolean canDesasociar(LocalDateTime momento) {
+        return fechaHoraInicio != null && fechaHoraInicio.isAfter(momento);
     }
 
     // -- Getters --
@@ -18,7 +18,7 @@ public interface EvaluacionService {
      * Lista todas las evaluaciones creadas por un profesor.
      *
      * @param idProfesor identificador del profesor
-     * @return lista de evaluaciones asociadas a ese profesor
+     * @return lista de solo lectura con las evaluaciones de ese profesor
      */
     List<Evaluacion> listarPorProfesor(String idProfesor);
 
@@ -110,5 +110,20 @@ public interface EvaluacionService {
      * @param curso curso al que pertenece el grupo
      * @param idGrupo identificador del grupo
      */
-    void desasociarDeGrupo(String idProfesor, int idEvaluacion, Curso curso, int idGrupo);
+    default void desasociarDeGrupo(String idProfesor, int idEvaluacion, Curso curso, int idGrupo) {
+        desasociarDeGrupo(idProfesor, idEvaluacion, curso, idGrupo, LocalDateTime.now());
+    }
+
+    /**
+     * Desasocia una evaluación de un grupo si su inicio es posterior al momento
+     * indicado. Permite volver a aplicar una desasociación registrada con la
+     * regla evaluada cuando ocurrió, y no cuando se reproduce.
+     *
+     * @param idProfesor identificador del profesor
+     * @param idEvaluacion identificador de la evaluación
+     * @param curso curso al que pertenece el grupo
+     * @param idGrupo identificador del grupo
+     * @param momento instante en que se evalúa la regla de inicio
+     */
+    void desasociarDeGrupo(String idProfesor, int idEvaluacion, Curso curso, int idGrupo, LocalDateTime momento);
 }
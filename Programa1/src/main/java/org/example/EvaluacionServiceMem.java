@@ -2,7 +2,6 @@ package org.example;
 
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * Implementación en memoria del servicio de evaluaciones.
@@ -17,19 +16,36 @@ public class EvaluacionServiceMem implements EvaluacionService {
     // -- Dependencias --
 
     /** Servicio de usuarios. */
-    private final UsuarioServiceMem usuarioService;
+    private final UsuarioService usuarioService;
 
     /** Servicio de cursos (para validar asociaciones con grupos). */
     private final CursoService cursoService;
 
     // -- Estructuras internas --
 
-    /** Evaluaciones registradas por profesor (idProfesor → lista de evaluaciones). */
-    private final Map<String, List<Evaluacion>> porProfesor = new HashMap<>();
+    /** Almacén principal de evaluaciones (idEvaluacion → evaluación). */
+    private final Map<Integer, Evaluacion> porId = new HashMap<>();
+
+    /** IDs de las evaluaciones de cada profesor, en orden de creación (idProfesor → IDs). */
+    private final Map<String, LinkedHashSet<Integer>> idsPorProfesor = new HashMap<>();
+
+    /**
+     * Listas inmutables ya armadas para {@link #listarPorProfesor(String)}.
+     * Se descartan cuando cambian las evaluaciones del profesor.
+     */
+    private final Map<String, List<Evaluacion>> vistaPorProfesor = new HashMap<>();
 
     /** Índice de propietarios (idEvaluacion → idProfesor). */
     private final Map<Integer, String> ownerIndex = new HashMap<>();
 
+    /**
+     * Índice inverso de asignaciones (idEvaluacion → asignaciones a grupos).
+     * Lo mantienen {@link #asociarAGrupo} y {@link #desasociarDeGrupo}; si las
+     * asignaciones se modifican directamente sobre los grupos (carga desde archivo,
+     * reproducción de la bitácora) se debe invocar {@link #reconstruirIndiceAsignaciones()}.
+     */
+    private final Map<Integer, List<EvaluacionAsignada>> asignacionesPorEvaluacion = new HashMap<>();
+
     // -- Constructor --
 
     /**
@@ -38,18 +54,33 @@ public class EvaluacionServiceMem implements EvaluacionService {
      * @param usuarioService servicio de usuarios
      * @param cursoService servicio de cursos
      */
-    public EvaluacionServiceMem(UsuarioServiceMem usuarioService, CursoService cursoService) {
+    public EvaluacionServiceMem(UsuarioService usuarioService, CursoService cursoService) {
         this.usuarioService = Objects.requireNonNull(usuarioService);
         this.cursoService = Objects.requireNonNull(cursoService);
     }
 
     // -- CRUD de evaluaciones --
 
-    /** {@inheritDoc} */
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Devuelve una lista inmutable en orden de creación. Se arma una sola vez y
+     * se reutiliza hasta que cambian las evaluaciones del profesor.
+     * </p>
+     */
     @Override
     public List<Evaluacion> listarPorProfesor(String idProfesor) {
-        List<Evaluacion> src = porProfesor.getOrDefault(idProfesor, List.of());
-        return src.stream().filter(Objects::nonNull).collect(Collectors.toCollection(ArrayList::new));
+        if (idProfesor == null) return List.of();
+        List<Evaluacion> vista = vistaPorProfesor.get(idProfesor);
+        if (vista != null) return vista;
+
+        Set<Integer> ids = idsPorProfesor.get(idProfesor);
+        if (ids == null || ids.isEmpty()) return List.of();
+        List<Evaluacion> lst = new ArrayList<>(ids.size());
+        for (Integer id : ids) lst.add(porId.get(id));
+        vista = Collections.unmodifiableList(lst);
+        vistaPorProfesor.put(idProfesor, vista);
+        return vista;
     }
 
     /** {@inheritDoc} */
@@ -58,14 +89,13 @@ public class EvaluacionServiceMem implements EvaluacionService {
         if (idProfesor == null || idProfesor.isBlank()) throw new IllegalArgumentException("Profesor requerido.");
         if (evaluacion == null) throw new IllegalArgumentException("Evaluación requerida.");
 
-        List<Evaluacion> lst = porProfesor.computeIfAbsent(idProfesor, k -> new ArrayList<>());
-        for (Evaluacion e : lst) {
-            if (e != null && e.getId() == evaluacion.getId()) {
-                throw new IllegalStateException("Ya existe una evaluación con id " + evaluacion.getId());
-            }
+        if (porId.containsKey(evaluacion.getId())) {
+            throw new IllegalStateException("Ya existe una evaluación con id " + evaluacion.getId());
         }
-        lst.add(evaluacion);
+        porId.put(evaluacion.getId(), evaluacion);
+        idsPorProfesor.computeIfAbsent(idProfesor, k -> new LinkedHashSet<>()).add(evaluacion.getId());
         ownerIndex.put(evaluacion.getId(), idProfesor);
+        vistaPorProfesor.remove(idProfesor);
         return evaluacion;
     }
 
@@ -79,17 +109,9 @@ public class EvaluacionServiceMem implements EvaluacionService {
             throw new IllegalStateException("No se puede modificar: la evaluación está asociada a uno o más grupos.");
         }
 
-        List<Evaluacion> lst = porProfesor.getOrDefault(idProfesor, List.of());
-        if (!(lst instanceof ArrayList<?>)) {
-            lst = new ArrayList<>(lst);
-            porProfesor.put(idProfesor, lst);
-        }
-        for (int i = 0; i < lst.size(); i++) {
-            Evaluacion e = lst.get(i);
-            if (e != null && e.getId() == evaluacion.getId()) {
-                lst.set(i, evaluacion);
-                break;
-            }
+        if (actual != evaluacion) {
+            porId.put(evaluacion.getId(), evaluacion);
+            vistaPorProfesor.remove(idProfesor);
         }
     }
 
@@ -101,13 +123,11 @@ public class EvaluacionServiceMem implements EvaluacionService {
             throw new IllegalStateException("No se puede eliminar: la evaluación está asociada a uno o más grupos. " +
                     "Desasóciela primero desde 'Asignar a grupo'.");
         }
-        List<Evaluacion> lst = porProfesor.getOrDefault(idProfesor, List.of());
-        if (!(lst instanceof ArrayList<?>)) {
-            lst = new ArrayList<>(lst);
-            porProfesor.put(idProfesor, lst);
-        }
-        lst.removeIf(e -> e != null && e.getId() == idEvaluacion);
+        porId.remove(idEvaluacion);
+        Set<Integer> ids = idsPorProfesor.get(idProfesor);
+        if (ids != null) ids.remove(idEvaluacion);
         ownerIndex.remove(idEvaluacion);
+        vistaPorProfesor.remove(idProfesor);
     }
 
     // -- Gestión de preguntas --
@@ -174,12 +194,7 @@ public class EvaluacionServiceMem implements EvaluacionService {
         if (fechaHoraInicio == null) throw new IllegalArgumentException("Fecha/hora de inicio requerida.");
 
         // Buscar el grupo dentro del curso
-        Grupo target = null;
-        if (curso.grupos != null) {
-            for (Grupo g : curso.grupos) {
-                if (g != null && g.getIdGrupo() == idGrupo) { target = g; break; }
-            }
-        }
+        Grupo target = cursoService.buscarGrupo(curso, idGrupo);
         if (target == null) throw new IllegalStateException("No se encontró el grupo " + idGrupo + " dentro del curso " + curso.getId());
 
         // Verifica si ya está asociada
@@ -199,6 +214,7 @@ public class EvaluacionServiceMem implements EvaluacionService {
             target.setEvaluacionesAsignadas(new ArrayList<>());
         }
         target.getEvaluacionesAsignadas().add(ea);
+        indexarAsignacion(ea);
 
         try {
             List<EvaluacionAsignada> asocs = ev.getGruposAsociados();
@@ -214,16 +230,13 @@ public class EvaluacionServiceMem implements EvaluacionService {
 
     /** {@inheritDoc} */
     @Override
-    public void desasociarDeGrupo(String idProfesor, int idEvaluacion, Curso curso, int idGrupo) {
+    public void desasociarDeGrupo(String idProfesor, int idEvaluacion, Curso curso, int idGrupo,
+                                  LocalDateTime momento) {
+        if (momento == null) throw new IllegalArgumentException("Momento requerido.");
         Evaluacion ev = findOwned(idProfesor, idEvaluacion);
         if (curso == null) throw new IllegalArgumentException("Curso requerido.");
 
-        Grupo target = null;
-        if (curso.grupos != null) {
-            for (Grupo g : curso.grupos) {
-                if (g != null && g.getIdGrupo() == idGrupo) { target = g; break; }
-            }
-        }
+        Grupo target = cursoService.buscarGrupo(curso, idGrupo);
         if (target == null) throw new IllegalStateException("No se encontró el grupo " + idGrupo + " dentro del curso " + curso.getId());
 
         if (target.getEvaluacionesAsignadas() == null) return;
@@ -234,14 +247,14 @@ public class EvaluacionServiceMem implements EvaluacionService {
             EvaluacionAsignada ea = it.next();
             if (ea != null && ea.getEvaluacion() != null && ea.getEvaluacion().getId() == ev.getId()) {
                 boolean puede;
-                try { puede = ea.canDesasociar(); }
+                try { puede = ea.canDesasociar(momento); }
                 catch (Throwable t) {
-                    LocalDateTime now = LocalDateTime.now();
-                    puede = (ea.getFechaHoraInicio() != null && ea.getFechaHoraInicio().isAfter(now));
+                    puede = (ea.getFechaHoraInicio() != null && ea.getFechaHoraInicio().isAfter(momento));
                 }
                 if (!puede)
                     throw new IllegalStateException("No se puede desasociar: la evaluación ya inició o está vigente.");
                 it.remove();
+                desindexarAsignacion(ea);
                 removed = true;
             }
         }
@@ -258,42 +271,121 @@ public class EvaluacionServiceMem implements EvaluacionService {
 
     // -- Métodos auxiliares --
 
-    /** Verifica que la evaluación exista y pertenezca al profesor. */
+    /** Verifica que la evaluación exista y pertenezca al profesor (consulta directa a los índices). */
     private Evaluacion findOwned(String idProfesor, int idEvaluacion) {
         String owner = ownerIndex.get(idEvaluacion);
         if (owner == null || !owner.equals(idProfesor))
             throw new IllegalStateException("La evaluación no pertenece al profesor o no existe (id=" + idEvaluacion + ").");
 
-        List<Evaluacion> lst = porProfesor.getOrDefault(idProfesor, List.of());
-        for (Evaluacion e : lst) {
-            if (e != null && e.getId() == idEvaluacion) return e;
-        }
-        throw new IllegalStateException("No se encontró la evaluación (id=" + idEvaluacion + ").");
+        Evaluacion e = porId.get(idEvaluacion);
+        if (e == null) throw new IllegalStateException("No se encontró la evaluación (id=" + idEvaluacion + ").");
+        return e;
     }
 
-    /** Retorna true si la evaluación está asociada a cualquier grupo del sistema. */
+    /**
+     * Retorna true si la evaluación está asociada a cualquier grupo del sistema.
+     * Consulta directa al índice inverso de asignaciones.
+     */
     private boolean estaAsociada(Evaluacion ev) {
         try {
             if (ev.getGruposAsociados() != null && !ev.getGruposAsociados().isEmpty()) return true;
         } catch (Throwable ignore) {}
 
-        List<Curso> cursos = null;
-        try { cursos = cursoService.listarCursos(); } catch (Exception ignored) {}
-        if (cursos != null) {
-            for (Curso c : cursos) {
-                if (c == null || c.grupos == null) continue;
-                for (Grupo g : c.grupos) {
-                    if (g == null || g.getEvaluacionesAsignadas() == null) continue;
-                    for (EvaluacionAsignada ea : g.getEvaluacionesAsignadas()) {
-                        if (ea != null && ea.getEvaluacion() != null && ea.getEvaluacion().getId() == ev.getId())
-                            return true;
-                    }
+        List<EvaluacionAsignada> asigs = asignacionesPorEvaluacion.get(ev.getId());
+        return asigs != null && !asigs.isEmpty();
+    }
+
+    // -- Índice de asignaciones --
+
+    /**
+     * Reconstruye el índice inverso de asignaciones recorriendo todos los grupos.
+     * <p>
+     * Útil después de modificar {@code Grupo.getEvaluacionesAsignadas()} fuera del
+     * servicio (carga desde archivo, reproducción de la bitácora).
+     * </p>
+     */
+    public void reconstruirIndiceAsignaciones() {
+        asignacionesPorEvaluacion.clear();
+        for (Grupo g : todosLosGrupos()) {
+            if (g.getEvaluacionesAsignadas() == null) continue;
+            for (EvaluacionAsignada ea : g.getEvaluacionesAsignadas()) indexarAsignacion(ea);
+        }
+    }
+
+    /**
+     * Verifica el índice inverso contra las asignaciones de cada grupo.
+     * <p>
+     * Recorre todos los grupos, así que su costo es proporcional al total de
+     * asignaciones; está pensado para diagnóstico, no para cada operación.
+     * </p>
+     *
+     * @return descripción de cada inconsistencia encontrada (vacía si el índice es correcto)
+     */
+    public List<String> verificarIndiceAsignaciones() {
+        List<String> problemas = new ArrayList<>();
+        Set<EvaluacionAsignada> enGrupos = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        for (Grupo g : todosLosGrupos()) {
+            if (g.getEvaluacionesAsignadas() == null) continue;
+            for (EvaluacionAsignada ea : g.getEvaluacionesAsignadas()) {
+                if (ea == null || ea.getEvaluacion() == null) continue;
+                enGrupos.add(ea);
+                int idEv = ea.getEvaluacion().getId();
+                if (!contieneAsignacion(asignacionesPorEvaluacion.get(idEv), ea)) {
+                    problemas.add("Falta en el índice: evaluación #" + idEv + " en grupo #" + g.getIdGrupo());
+                }
+            }
+        }
+
+        for (Map.Entry<Integer, List<EvaluacionAsignada>> e : asignacionesPorEvaluacion.entrySet()) {
+            for (EvaluacionAsignada ea : e.getValue()) {
+                Grupo g = ea.getGrupo();
+                if (ea.getEvaluacion() == null || ea.getEvaluacion().getId() != e.getKey()) {
+                    problemas.add("Entrada con ID incorrecto en el índice: evaluación #" + e.getKey());
+                } else if (!enGrupos.contains(ea)) {
+                    problemas.add("Sobra en el índice: evaluación #" + e.getKey()
+                            + (g == null ? " sin grupo" : " en grupo #" + g.getIdGrupo()));
                 }
             }
         }
+        return problemas;
+    }
+
+    /** Registra una asignación en el índice inverso. */
+    private void indexarAsignacion(EvaluacionAsignada ea) {
+        if (ea == null || ea.getEvaluacion() == null) return;
+        asignacionesPorEvaluacion.computeIfAbsent(ea.getEvaluacion().getId(), k -> new ArrayList<>()).add(ea);
+    }
+
+    /** Quita una asignación del índice inverso. */
+    private void desindexarAsignacion(EvaluacionAsignada ea) {
+        if (ea == null || ea.getEvaluacion() == null) return;
+        int idEv = ea.getEvaluacion().getId();
+        List<EvaluacionAsignada> asigs = asignacionesPorEvaluacion.get(idEv);
+        if (asigs == null) return;
+        asigs.removeIf(x -> x == ea);
+        if (asigs.isEmpty()) asignacionesPorEvaluacion.remove(idEv);
+    }
+
+    private static boolean contieneAsignacion(List<EvaluacionAsignada> asigs, EvaluacionAsignada ea) {
+        if (asigs == null) return false;
+        for (EvaluacionAsignada x : asigs) if (x == ea) return true;
         return false;
     }
 
+    /** Todos los grupos no nulos de todos los cursos. */
+    private List<Grupo> todosLosGrupos() {
+        List<Grupo> res = new ArrayList<>();
+        List<Curso> cursos = null;
+        try { cursos = cursoService.listarCursos(); } catch (Exception ignored) {}
+        if (cursos == null) return res;
+        for (Curso c : cursos) {
+            if (c == null || c.grupos == null) continue;
+            for (Grupo g : c.grupos) if (g != null) res.add(g);
+        }
+        return res;
+    }
+
     // -- Datos de demostración --
 
     /**
@@ -304,9 +396,7 @@ public class EvaluacionServiceMem implements EvaluacionService {
      */
     public void seedEvaluacionesDemo5(String idProfesor, UsuarioServiceMem usuarioService) {
         try {
-            Profesor p = usuarioService.listarProfesores().stream()
-                    .filter(x -> idProfesor.equals(x.getIdUsuario()))
-                    .findFirst().orElse(null);
+            Profesor p = usuarioService.buscarProfesor(idProfesor);
             if (p == null) {
                 System.out.println("[seed eval] No existe el profesor " + idProfesor);
                 return;
@@ -0,0 +1,119 @@
+package org.example;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generador de IDs numéricos únicos y seguro entre hilos.
+ * <p>
+ * El contador global es un {@link AtomicLong}; cada hilo reserva de él un bloque
+ * de {@link #TAMANIO_BLOQUE} IDs y los entrega sin volver a tocar el contador
+ * compartido, de modo que las altas en paralelo (importaciones masivas,
+ * profesores trabajando a la vez) no compiten por él. Los IDs nunca se repiten
+ * pero pueden quedar huecos: los que un hilo no llegó a usar de su bloque.
+ * </p>
+ * <p>
+ * La marca alta ({@link #getMarcaAlta()}) cubre también los bloques reservados,
+ * así que guardarla con los datos y restaurarla con {@link #asegurarMinimo(long)}
+ * garantiza que los IDs sigan creciendo después de reiniciar. Restaurar o
+ * reiniciar invalida los bloques que los hilos tuvieran reservados; debe hacerse
+ * cuando no se están creando objetos (al cargar los datos).
+ * </p>
+ */
+public final class GeneradorIds {
+
+    /** Cantidad de IDs que reserva cada hilo de una sola vez. */
+    public static final int TAMANIO_BLOQUE = 32;
+
+    /** Primer ID que todavía no se ha reservado para ningún hilo. */
+    private final AtomicLong proximoLibre;
+
+    /**
+     * Se incrementa al restaurar o reiniciar el contador; un bloque reservado en
+     * una época anterior se descarta.
+     */
+    private volatile int epoca;
+
+    /** Bloque reservado por el hilo actual. */
+    private final ThreadLocal<Bloque> bloques = ThreadLocal.withInitial(Bloque::new);
+
+    /** IDs reservados por un hilo: de {@code siguiente} (inclusive) a {@code fin} (exclusive). */
+    private static final class Bloque {
+        long siguiente;
+        long fin;
+        int epoca = -1;
+    }
+
+    // -- Constructor --
+
+    /**
+     * Crea un generador.
+     *
+     * @param primero primer ID a entregar
+     */
+    public GeneradorIds(long primero) {
+        this.proximoLibre = new AtomicLong(primero);
+    }
+
+    // -- Generación --
+
+    /**
+     * Entrega un ID nuevo.
+     *
+     * @return ID nunca entregado antes por este generador
+     */
+    public long siguiente() {
+        Bloque b = bloques.get();
+        int e = epoca;
+        if (b.epoca != e || b.siguiente >= b.fin) {
+            long inicio = proximoLibre.getAndAdd(TAMANIO_BLOQUE);
+            b.siguiente = inicio;
+            b.fin = inicio + TAMANIO_BLOQUE;
+            b.epoca = e;
+        }
+        return b.siguiente++;
+    }
+
+    /**
+     * Entrega un ID nuevo como {@code int}.
+     *
+     * @return ID nunca entregado antes por este generador
+     * @throws ArithmeticException si se agotó el rango de {@code int}
+     */
+    public int siguienteInt() {
+        return Math.toIntExact(siguiente());
+    }
+
+    // -- Marca alta --
+
+    /**
+     * Primer ID que el generador todavía no ha reservado. Todo ID ya entregado
+     * (o por entregar de un bloque reservado) es menor.
+     *
+     * @return marca alta, para guardarla con los datos
+     */
+    public long getMarcaAlta() {
+        return proximoLibre.get();
+    }
+
+    /**
+     * Garantiza que los próximos IDs sean mayores o iguales a {@code minimo}
+     * (para restaurar desde datos guardados) y descarta los bloques reservados.
+     *
+     * @param minimo próximo ID mínimo
+     */
+    public void asegurarMinimo(long minimo) {
+        proximoLibre.accumulateAndGet(minimo, Math::max);
+        epoca++;
+    }
+
+    /**
+     * Fija el próximo ID, aunque sea menor que el actual (útil para pruebas),
+     * y descarta los bloques reservados.
+     *
+     * @param proximo próximo ID a entregar
+     */
+    public void reiniciar(long proximo) {
+        proximoLibre.set(proximo);
+        epoca++;
+    }
+}
@@ -0,0 +1,331 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Generación de muchos reportes a la vez (por ejemplo, los de fin de periodo).
+ * <p>
+ * Cada combinación de alcance y tipo de reporte es un documento independiente;
+ * los documentos se generan en un grupo acotado de hilos propio del lote, que
+ * se cierra al terminar. Un documento que falla no detiene a los demás: su
+ * error queda en el {@link Resultado}. Opcionalmente, los archivos generados se
+ * empaquetan en un ZIP en la misma carpeta.
+ * </p>
+ * <p>
+ * Los alcances repetidos se generan una sola vez, porque escribirían el mismo
+ * archivo.
+ * </p>
+ */
+public class GeneradorLotesReportes {
+
+    /** Tipos de documento que puede incluir un lote. */
+    public enum TipoReporte {
+        LISTA_ESTUDIANTES("lista de estudiantes"),
+        ESTADISTICA_MATRICULA("estadística de matrícula");
+
+        final String etiqueta;
+
+        TipoReporte(String etiqueta) { this.etiqueta = etiqueta; }
+    }
+
+    /** Receptor del avance de un lote. */
+    @FunctionalInterface
+    public interface Progreso {
+        /**
+         * Informa el avance. Puede invocarse desde los hilos del lote.
+         *
+         * @param hechos documentos terminados (con o sin error)
+         * @param total total de documentos del lote
+         * @param ultimo archivo del documento recién terminado ({@code null} si falló)
+         */
+        void avance(int hechos, int total, Path ultimo);
+    }
+
+    /** Hilos por defecto: uno por procesador, hasta cuatro. */
+    public static final int HILOS_POR_DEFECTO = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+    /** Contador para nombrar los hilos de los lotes. */
+    private static final AtomicInteger HILOS_CREADOS = new AtomicInteger();
+
+    // -- Dependencias --
+
+    private final ReporteService reporteService;
+    private final int hilos;
+
+    // -- Constructor --
+
+    /**
+     * Crea el generador con {@link #HILOS_POR_DEFECTO} hilos.
+     *
+     * @param reporteService servicio que genera cada documento
+     */
+    public GeneradorLotesReportes(ReporteService reporteService) {
+        this(reporteService, HILOS_POR_DEFECTO);
+    }
+
+    /**
+     * Crea el generador.
+     *
+     * @param reporteService servicio que genera cada documento
+     * @param hilos documentos que se generan a la vez (mínimo 1)
+     */
+    public GeneradorLotesReportes(ReporteService reporteService, int hilos) {
+        if (hilos < 1) throw new IllegalArgumentException("El lote requiere al menos un hilo.");
+        this.reporteService = Objects.requireNonNull(reporteService, "Servicio de reportes requerido.");
+        this.hilos = hilos;
+    }
+
+    // -- Generación --
+
+    /**
+     * Genera los documentos del lote y espera a que terminen.
+     *
+     * @param fechaVigencia fecha de corte de los reportes
+     * @param alcances alcances a generar
+     * @param tipos tipos de reporte por alcance
+     * @param comprimir si se empaquetan los archivos en un ZIP
+     * @param progreso receptor del avance (puede ser {@code null})
+     * @return resumen del lote
+     * @throws InterruptedException si se interrumpe la espera; el lote se cancela
+     */
+    public Resultado generar(LocalDate fechaVigencia, List<ReporteService.Scope> alcances,
+                             Set<TipoReporte> tipos, boolean comprimir, Progreso progreso) throws InterruptedException {
+        Objects.requireNonNull(fechaVigencia, "Fecha de vigencia requerida.");
+        long t0 = System.nanoTime();
+
+        List<Documento> documentos = new ArrayList<>();
+        for (ReporteService.Scope s : sinRepetidos(alcances)) {
+            for (TipoReporte t : TipoReporte.values()) {
+                if (tipos.contains(t)) documentos.add(new Documento(t, s));
+            }
+        }
+        int total = documentos.size();
+        if (progreso != null) progreso.avance(0, total, null);
+
+        ExecutorService ejecutor = crearEjecutor("reportes-lote-", Math.min(hilos, Math.max(1, total)));
+        AtomicInteger hechos = new AtomicInteger();
+        List<Future<Path>> futuros = new ArrayList<>(total);
+        try {
+            for (Documento d : documentos) {
+                futuros.add(ejecutor.submit(() -> {
+                    Path archivo = null;
+                    try {
+                        archivo = generarDocumento(d, fechaVigencia);
+                        return archivo;
+                    } finally {
+                        int n = hechos.incrementAndGet();
+                        if (progreso != null) progreso.avance(n, total, archivo);
+                    }
+                }));
+            }
+
+            List<Path> archivos = new ArrayList<>();
+            List<String> errores = new ArrayList<>();
+            for (int i = 0; i < total; i++) {
+                try {
+                    archivos.add(futuros.get(i).get());
+                } catch (ExecutionException e) {
+                    Throwable causa = e.getCause() != null ? e.getCause() : e;
+                    errores.add(documentos.get(i) + ": " + causa.getMessage());
+                }
+            }
+
+            Path zip = null;
+            if (comprimir && !archivos.isEmpty()) {
+                try {
+                    zip = comprimir(archivos, fechaVigencia);
+                } catch (IOException e) {
+                    errores.add("ZIP: " + e.getMessage());
+                }
+            }
+            return new Resultado(total, archivos, errores, zip, System.nanoTime() - t0);
+        } catch (InterruptedException e) {
+            for (Future<Path> f : futuros) f.cancel(true);
+            throw e;
+        } finally {
+            ejecutor.shutdown();
+        }
+    }
+
+    /**
+     * Ejecuta {@link #generar} en segundo plano.
+     *
+     * @param fechaVigencia fecha de corte de los reportes
+     * @param alcances alcances a generar
+     * @param tipos tipos de reporte por alcance
+     * @param comprimir si se empaquetan los archivos en un ZIP
+     * @param progreso receptor del avance (puede ser {@code null})
+     * @return futuro con el resumen del lote
+     */
+    public CompletableFuture<Resultado> generarAsync(LocalDate fechaVigencia, List<ReporteService.Scope> alcances,
+                                                     Set<TipoReporte> tipos, boolean comprimir, Progreso progreso) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return generar(fechaVigencia, alcances, tipos, comprimir, progreso);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Generación del lote interrumpida.");
+            }
+        });
+    }
+
+    // -- Alcances --
+
+    /**
+     * Alcances de fin de periodo: uno por cada curso y uno por cada grupo vigente.
+     *
+     * @param cursos cursos a incluir
+     * @param fechaVigencia los grupos que terminaron antes de esta fecha se omiten
+     * @return alcances, curso por curso
+     */
+    public static List<ReporteService.Scope> alcancesPorCursoYGrupo(List<Curso> cursos, LocalDate fechaVigencia) {
+        List<ReporteService.Scope> alcances = new ArrayList<>();
+        for (Curso c : cursos) {
+            if (c == null || c.getId() == null) continue;
+            alcances.add(ReporteService.Scope.curso(c.getId()));
+            if (c.grupos == null) continue;
+            for (Grupo g : new ArrayList<>(c.grupos)) {
+                if (g.getFechaFinal() != null && g.getFechaFinal().isBefore(fechaVigencia)) continue;
+                alcances.add(ReporteService.Scope.grupo(c.getId(), g.getIdGrupo()));
+            }
+        }
+        return alcances;
+    }
+
+    // -- Métodos auxiliares --
+
+    private Path generarDocumento(Documento d, LocalDate fechaVigencia) throws Exception {
+        return switch (d.tipo) {
+            case LISTA_ESTUDIANTES -> reporteService.generarListaEstudiantes(fechaVigencia, d.alcance);
+            case ESTADISTICA_MATRICULA -> reporteService.generarEstadisticaMatricula(fechaVigencia, d.alcance);
+        };
+    }
+
+    /** Quita los alcances repetidos, conservando el primero de cada uno. */
+    private static List<ReporteService.Scope> sinRepetidos(List<ReporteService.Scope> alcances) {
+        Map<String, ReporteService.Scope> unicos = new LinkedHashMap<>();
+        for (ReporteService.Scope s : alcances) {
+            if (s != null) unicos.putIfAbsent(s.tipo + "|" + s.idCurso + "|" + s.idGrupo, s);
+        }
+        return new ArrayList<>(unicos.values());
+    }
+
+    /** Empaqueta los archivos en {@code lote_reportes_<fecha>.zip}, junto al primero. */
+    private static Path comprimir(List<Path> archivos, LocalDate fechaVigencia) throws IOException {
+        Path zip = archivos.get(0).toAbsolutePath().resolveSibling("lote_reportes_" + fechaVigencia + ".zip");
+        return empaquetar(archivos, zip);
+    }
+
+    /**
+     * Crea un grupo fijo de hilos demonio para generar documentos.
+     *
+     * @param prefijo prefijo del nombre de los hilos
+     * @param hilos cantidad de hilos
+     * @return ejecutor; el llamador debe cerrarlo
+     */
+    static ExecutorService crearEjecutor(String prefijo, int hilos) {
+        return Executors.newFixedThreadPool(hilos, r -> {
+            Thread t = new Thread(r, prefijo + HILOS_CREADOS.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Empaqueta archivos en un ZIP, una entrada por archivo con su nombre.
+     * El ZIP se escribe en un temporal y se renombra al terminar, así que nunca
+     * queda a medias; los nombres repetidos se incluyen una sola vez.
+     *
+     * @param archivos archivos a incluir, en orden
+     * @param zip ruta del ZIP (se reemplaza si existe)
+     * @return ruta del ZIP
+     * @throws IOException si falla la lectura o la escritura
+     */
+    static Path empaquetar(List<Path> archivos, Path zip) throws IOException {
+        Path destino = zip.toAbsolutePath();
+        if (destino.getParent() != null) Files.createDirectories(destino.getParent());
+        Path tmp = destino.resolveSibling(destino.getFileName() + ".tmp");
+        try (OutputStream os = Files.newOutputStream(tmp); ZipOutputStream out = new ZipOutputStream(os)) {
+            Set<String> nombres = new HashSet<>();
+            for (Path p : archivos) {
+                String nombre = p.getFileName().toString();
+                if (!nombres.add(nombre)) continue;
+                out.putNextEntry(new ZipEntry(nombre));
+                Files.copy(p, out);
+                out.closeEntry();
+            }
+        }
+        return Files.move(tmp, destino, java.nio.file.StandardCopyOption.REPLACE_EXISTING,
+                java.nio.file.StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /** Un documento del lote. */
+    private static final class Documento {
+        final TipoReporte tipo;
+        final ReporteService.Scope alcance;
+
+        Documento(TipoReporte tipo, ReporteService.Scope alcance) {
+            this.tipo = tipo;
+            this.alcance = alcance;
+        }
+
+        @Override
+        public String toString() {
+            String a = switch (alcance.tipo) {
+                case TODOS -> "todos los cursos";
+                case CURSO -> "curso " + alcance.idCurso;
+                case GRUPO -> "curso " + alcance.idCurso + ", grupo #" + alcance.idGrupo;
+            };
+            return tipo.etiqueta + " (" + a + ")";
+        }
+    }
+
+    // -- Resultado --
+
+    /** Resumen de un lote. */
+    public static final class Resultado {
+
+        /** Documentos pedidos. */
+        public final int documentos;
+
+        /** Archivos generados, en el orden en que se pidieron. */
+        public final List<Path> archivos;
+
+        /** Un mensaje por documento que falló (y por el ZIP, si falló). */
+        public final List<String> errores;
+
+        /** ZIP con todos los archivos, o {@code null} si no se pidió o no se pudo crear. */
+        public final Path zip;
+
+        /** Duración total en nanosegundos. */
+        public final long nanos;
+
+        Resultado(int documentos, List<Path> archivos, List<String> errores, Path zip, long nanos) {
+            this.documentos = documentos;
+            this.archivos = Collections.unmodifiableList(archivos);
+            this.errores = Collections.unmodifiableList(errores);
+            this.zip = zip;
+            this.nanos = nanos;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder(String.format("%d de %d documentos generados en %.1f s",
+                    archivos.size(), documentos, nanos / 1e9));
+            if (zip != null) sb.append(System.lineSeparator()).append("ZIP: ").append(zip.toAbsolutePath());
+            else if (!archivos.isEmpty()) sb.append(System.lineSeparator()).append("Carpeta: ")
+                    .append(archivos.get(0).toAbsolutePath().getParent());
+            for (String e : errores) sb.append(System.lineSeparator()).append("Error: ").append(e);
+            return sb.toString();
+        }
+    }
+}
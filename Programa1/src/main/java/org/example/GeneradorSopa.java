@@ -0,0 +1,322 @@
+package org.example;
+
+import java.util.*;
+
+/**
+ * Generador determinista de cuadrículas para {@link SopaDeLetras}.
+ * <p>
+ * Ordena las palabras de la más larga a la más corta, precalcula todas las
+ * ubicaciones que caben en la cuadrícula para cada palabra (agrupadas por
+ * dirección) y las coloca con búsqueda con retroceso. La ocupación de las
+ * celdas y las letras ya escritas se representan con conjuntos de bits, de
+ * modo que verificar un cruce es una operación de bits por celda.
+ * </p>
+ * <p>
+ * Con la misma semilla se obtiene siempre la misma cuadrícula. Si hay al menos
+ * tantas palabras como direcciones, la búsqueda exige usar las 8 direcciones.
+ * Si no es posible colocar todas las palabras, o se agota el límite de
+ * búsqueda, el resultado indica el motivo del fallo.
+ * </p>
+ */
+final class GeneradorSopa {
+
+    /** Máximo de ubicaciones probadas antes de abandonar la búsqueda. */
+    static final int LIMITE_INTENTOS = 250_000;
+
+    /**
+     * Rondas en que se reparte el límite. Cada ronda que se agota reinicia la
+     * búsqueda con otro orden de ubicaciones, en lugar de seguir retrocediendo
+     * sobre decisiones tempranas que rara vez causan el conflicto.
+     */
+    static final int RONDAS = 10;
+
+    /** Letras usadas para rellenar las celdas vacías. */
+    static final String LETRAS_RELLENO = "ABCDEFGHIJKLMNOPQRSTUVWXYZÁÉÍÓÚÑ";
+
+    private static final SopaDeLetras.Direccion[] DIRECCIONES = SopaDeLetras.Direccion.values();
+
+    // -- Datos del problema --
+
+    private final int n;
+    private final String[] palabras;
+
+    /** Índices de las palabras en el orden de colocación (más larga primero). */
+    private final int[] orden;
+
+    /** Letras de cada palabra como índices del alfabeto local. */
+    private final int[][] letrasPalabra;
+
+    /** Ubicaciones posibles por palabra y dirección: celdas iniciales, en orden barajado. */
+    private final int[][][] ubicaciones;
+
+    // -- Estado de la búsqueda --
+
+    /** Celdas ocupadas. */
+    private final long[] ocupadas;
+
+    /** Por cada letra del alfabeto local, celdas donde está escrita. */
+    private final long[][] mascarasLetra;
+
+    /** Cantidad de palabras colocadas en cada dirección. */
+    private final int[] usosDireccion = new int[DIRECCIONES.length];
+
+    /** Celda inicial y dirección elegidas por palabra (índice original). */
+    private final int[] inicioElegido;
+    private final int[] direccionElegida;
+
+    private final boolean exigirDirecciones;
+    private final Random random;
+
+    /** Ubicaciones probadas en total y en la ronda actual. */
+    private int intentos;
+    private int intentosRonda;
+
+    // -- Constructor --
+
+    /**
+     * Prepara la generación.
+     *
+     * @param palabras palabras a colocar (en mayúsculas)
+     * @param n tamaño de la cuadrícula (n x n)
+     * @param semilla semilla para el orden de búsqueda y el relleno
+     */
+    GeneradorSopa(List<String> palabras, int n, long semilla) {
+        this.n = n;
+        this.palabras = palabras.toArray(new String[0]);
+        this.random = new Random(semilla);
+        int total = this.palabras.length;
+
+        this.orden = new int[total];
+        Integer[] idx = new Integer[total];
+        for (int i = 0; i < total; i++) idx[i] = i;
+        Arrays.sort(idx, Comparator.comparingInt((Integer i) -> -this.palabras[i].length())
+                .thenComparingInt(i -> i));
+        for (int i = 0; i < total; i++) orden[i] = idx[i];
+
+        // Alfabeto local: solo las letras que aparecen en las palabras
+        Map<Character, Integer> alfabeto = new HashMap<>();
+        this.letrasPalabra = new int[total][];
+        for (int p = 0; p < total; p++) {
+            String w = this.palabras[p];
+            letrasPalabra[p] = new int[w.length()];
+            for (int i = 0; i < w.length(); i++) {
+                letrasPalabra[p][i] = alfabeto.computeIfAbsent(w.charAt(i), c -> alfabeto.size());
+            }
+        }
+
+        int palabrasBits = (n * n + 63) >>> 6;
+        this.ocupadas = new long[palabrasBits];
+        this.mascarasLetra = new long[alfabeto.size()][palabrasBits];
+        this.inicioElegido = new int[total];
+        this.direccionElegida = new int[total];
+        this.exigirDirecciones = total >= DIRECCIONES.length;
+        this.ubicaciones = precalcularUbicaciones();
+    }
+
+    // -- Generación --
+
+    /**
+     * Ejecuta la búsqueda.
+     *
+     * @return resultado con la cuadrícula y las ubicaciones, o el motivo del fallo
+     */
+    Resultado generar() {
+        for (int p = 0; p < palabras.length; p++) {
+            if (palabras[p].length() > n) {
+                return Resultado.fallo("La palabra " + palabras[p] + " no cabe en una cuadrícula de "
+                        + n + "x" + n + ".", 0);
+            }
+        }
+
+        boolean colocadas = false;
+        boolean agotado = false;
+        for (int ronda = 0; ronda < RONDAS && !colocadas; ronda++) {
+            if (ronda > 0) reiniciar();
+            intentosRonda = 0;
+            colocadas = colocar(0);
+            agotado = intentosRonda > LIMITE_INTENTOS / RONDAS;
+            if (!colocadas && !agotado) break; // búsqueda completa sin solución
+        }
+
+        if (!colocadas) {
+            String motivo = agotado
+                    ? "Se agotó el límite de búsqueda (" + intentos + " ubicaciones) sin colocar todas las palabras."
+                    : "No existe una forma de colocar todas las palabras"
+                      + (exigirDirecciones ? " usando las 8 direcciones" : "") + " en " + n + "x" + n + ".";
+            return Resultado.fallo(motivo, intentos);
+        }
+
+        char[] cuadricula = new char[n * n];
+        Arrays.fill(cuadricula, ' ');
+        List<SopaDeLetras.PalabraEncontrada> lista = new ArrayList<>(palabras.length);
+        for (int p = 0; p < palabras.length; p++) {
+            SopaDeLetras.Direccion dir = DIRECCIONES[direccionElegida[p]];
+            int f0 = inicioElegido[p] / n, c0 = inicioElegido[p] % n;
+            for (int i = 0; i < palabras[p].length(); i++) {
+                cuadricula[(f0 + dir.deltaFila * i) * n + c0 + dir.deltaCol * i] = palabras[p].charAt(i);
+            }
+            lista.add(new SopaDeLetras.PalabraEncontrada(palabras[p], f0, c0, dir));
+        }
+        for (int c = 0; c < cuadricula.length; c++) {
+            if (cuadricula[c] == ' ') cuadricula[c] = LETRAS_RELLENO.charAt(random.nextInt(LETRAS_RELLENO.length()));
+        }
+        return new Resultado(cuadricula, lista, null, intentos);
+    }
+
+    /**
+     * Coloca la palabra en la posición {@code k} del orden y, recursivamente, las siguientes.
+     * Deshace la colocación si las siguientes no pueden ubicarse.
+     */
+    private boolean colocar(int k) {
+        int faltantes = 0;
+        for (int u : usosDireccion) if (u == 0) faltantes++;
+        if (exigirDirecciones && faltantes > orden.length - k) return false;
+        if (k == orden.length) return true;
+
+        int p = orden[k];
+        int[] letras = letrasPalabra[p];
+        int[] nuevas = new int[letras.length];
+
+        // Primero las direcciones aún sin usar, para cubrir las 8
+        for (int pasada = 0; pasada < 2; pasada++) {
+            for (int d = 0; d < DIRECCIONES.length; d++) {
+                boolean sinUsar = usosDireccion[d] == 0;
+                if (sinUsar != (pasada == 0)) continue;
+                int paso = DIRECCIONES[d].deltaFila * n + DIRECCIONES[d].deltaCol;
+
+                for (int inicio : ubicaciones[p][d]) {
+                    intentos++;
+                    if (++intentosRonda > LIMITE_INTENTOS / RONDAS) return false;
+                    int cantNuevas = ocupar(letras, inicio, paso, nuevas);
+                    // -1: conflicto; 0: quedaría oculta dentro de otra palabra
+                    if (cantNuevas <= 0) continue;
+
+                    usosDireccion[d]++;
+                    inicioElegido[p] = inicio;
+                    direccionElegida[p] = d;
+                    if (colocar(k + 1)) return true;
+                    usosDireccion[d]--;
+                    liberar(letras, nuevas, cantNuevas, inicio, paso);
+                    if (intentosRonda > LIMITE_INTENTOS / RONDAS) return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Intenta escribir la palabra desde {@code inicio}. Una celda ocupada solo
+     * se acepta si ya contiene la misma letra.
+     *
+     * @return cantidad de celdas nuevas ocupadas (guardadas en {@code nuevas}),
+     *         o -1 si hay un conflicto (en ese caso no se modifica nada)
+     */
+    private int ocupar(int[] letras, int inicio, int paso, int[] nuevas) {
+        for (int i = 0, celda = inicio; i < letras.length; i++, celda += paso) {
+            if (activo(ocupadas, celda) && !activo(mascarasLetra[letras[i]], celda)) return -1;
+        }
+        int cant = 0;
+        for (int i = 0, celda = inicio; i < letras.length; i++, celda += paso) {
+            if (!activo(ocupadas, celda)) {
+                encender(ocupadas, celda);
+                encender(mascarasLetra[letras[i]], celda);
+                nuevas[cant++] = i;
+            }
+        }
+        return cant;
+    }
+
+    /** Deshace {@link #ocupar}: apaga solo las celdas que esa colocación ocupó. */
+    private void liberar(int[] letras, int[] nuevas, int cant, int inicio, int paso) {
+        for (int j = 0; j < cant; j++) {
+            int i = nuevas[j];
+            int celda = inicio + i * paso;
+            apagar(ocupadas, celda);
+            apagar(mascarasLetra[letras[i]], celda);
+        }
+    }
+
+    /** Limpia el estado y baraja de nuevo las ubicaciones para otra ronda. */
+    private void reiniciar() {
+        Arrays.fill(ocupadas, 0L);
+        for (long[] m : mascarasLetra) Arrays.fill(m, 0L);
+        Arrays.fill(usosDireccion, 0);
+        for (int[][] porDireccion : ubicaciones) {
+            for (int[] lista : porDireccion) barajar(lista);
+        }
+    }
+
+    /** Calcula, por palabra y dirección, las celdas iniciales donde la palabra cabe. */
+    private int[][][] precalcularUbicaciones() {
+        int[][][] res = new int[palabras.length][DIRECCIONES.length][];
+        for (int p = 0; p < palabras.length; p++) {
+            int len = palabras[p].length();
+            for (int d = 0; d < DIRECCIONES.length; d++) {
+                SopaDeLetras.Direccion dir = DIRECCIONES[d];
+                int[] buf = new int[n * n];
+                int cant = 0;
+                for (int f = 0; f < n; f++) {
+                    int ff = f + dir.deltaFila * (len - 1);
+                    if (ff < 0 || ff >= n) continue;
+                    for (int c = 0; c < n; c++) {
+                        int cf = c + dir.deltaCol * (len - 1);
+                        if (cf < 0 || cf >= n) continue;
+                        buf[cant++] = f * n + c;
+                    }
+                }
+                int[] lista = Arrays.copyOf(buf, cant);
+                barajar(lista);
+                res[p][d] = lista;
+            }
+        }
+        return res;
+    }
+
+    private void barajar(int[] a) {
+        for (int i = a.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int t = a[i];
+            a[i] = a[j];
+            a[j] = t;
+        }
+    }
+
+    private static boolean activo(long[] bits, int i) {
+        return (bits[i >>> 6] & (1L << i)) != 0;
+    }
+
+    private static void encender(long[] bits, int i) {
+        bits[i >>> 6] |= 1L << i;
+    }
+
+    private static void apagar(long[] bits, int i) {
+        bits[i >>> 6] &= ~(1L << i);
+    }
+
+    // -- Resultado --
+
+    /** Resultado de una generación. */
+    static final class Resultado {
+        /** Cuadrícula por filas ({@code n * n} celdas). */
+        final char[] cuadricula;
+        final List<SopaDeLetras.PalabraEncontrada> ubicaciones;
+        final String motivoFallo;
+        final int intentos;
+
+        Resultado(char[] cuadricula, List<SopaDeLetras.PalabraEncontrada> ubicaciones,
+                  String motivoFallo, int intentos) {
+            this.cuadricula = cuadricula;
+            this.ubicaciones = ubicaciones;
+            this.motivoFallo = motivoFallo;
+            this.intentos = intentos;
+        }
+
+        static Resultado fallo(String motivo, int intentos) {
+            return new Resultado(null, List.of(), motivo, intentos);
+        }
+
+        boolean exito() {
+            return motivoFallo == null;
+        }
+    }
+}
@@ -37,8 +37,11 @@ public class Grupo {
     /** Lista de evaluaciones asignadas al grupo. */
     private List<EvaluacionAsignada> evaluacionesAsignadas;
 
-    /** Contador interno para generar IDs únicos. */
-    private static int contadorId = 0;
+    /** Estudiantes en lista de espera, en orden de llegada. */
+    private List<Estudiante> listaEspera;
+
+    /** Generador de IDs únicos (seguro entre hilos; el primer grupo recibe el ID 1). */
+    private static final GeneradorIds IDS = new GeneradorIds(1);
 
     // -- Constructor --
 
@@ -51,12 +54,13 @@ public class Grupo {
      */
     public Grupo(Curso curso, LocalDate fechaInicio, LocalDate fechaFinal) {
         this.curso = curso;
-        this.idGrupo = ++contadorId;
+        this.idGrupo = IDS.siguienteInt();
         this.fechaInicio = fechaInicio;
         this.fechaFinal = fechaFinal;
         this.profesor = null;
         this.matriculas = new ArrayList<>();
         this.evaluacionesAsignadas = new ArrayList<>();
+        this.listaEspera = new ArrayList<>();
     }
 
     // -- Getters --
@@ -68,6 +72,7 @@ public class Grupo {
     public Profesor getProfesor() { return profesor; }
     public List<Matricula> getMatriculas() { return matriculas; }
     public List<EvaluacionAsignada> getEvaluacionesAsignadas() { return evaluacionesAsignadas; }
+    public List<Estudiante> getListaEspera() { return listaEspera; }
 
     // -- Setters --
 
@@ -78,6 +83,7 @@ public class Grupo {
     public void setProfesor(Profesor profesor) { this.profesor = profesor; }
     public void setEvaluacionesAsignadas(List<EvaluacionAsignada> nuevasEval) { this.evaluacionesAsignadas = nuevasEval; }
     public void setMatriculas(List<Matricula> nuevaLista) { this.matriculas = nuevaLista; }
+    public void setListaEspera(List<Estudiante> nuevaLista) { this.listaEspera = nuevaLista; }
 
     // -- Métodos principales --
 
@@ -236,14 +242,22 @@ public class Grupo {
     }
 
     /** Reinicia el contador de IDs del grupo (útil para pruebas). */
-    public static void reiniciarContador() { contadorId = 0; }
+    public static void reiniciarContador() { IDS.reiniciar(1); }
+
+    /**
+     * Define manualmente el contador de IDs (para restaurar desde datos guardados):
+     * el próximo grupo recibe un ID mayor que {@code valor}.
+     *
+     * @param valor último ID considerado asignado
+     */
+    public static void setContador(int valor) { IDS.reiniciar(valor + 1L); }
 
     /**
-     * Define manualmente el contador de IDs (para restaurar desde datos guardados).
+     * Devuelve el mayor ID asignado o reservado (para guardarlo junto con los datos).
      *
-     * @param valor nuevo valor del contador
+     * @return valor actual del contador
      */
-    public static void setContador(int valor) { contadorId = valor; }
+    public static int getContador() { return Math.toIntExact(IDS.getMarcaAlta() - 1); }
 
     // -- Representación --
 
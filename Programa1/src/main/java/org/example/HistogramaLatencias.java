@@ -0,0 +1,121 @@
+package org.example;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latencias con registro sin candados.
+ * <p>
+ * Usa cubetas log-lineales al estilo de HdrHistogram: los valores menores que
+ * {@value #SUBCUBETAS} nanosegundos tienen cubeta propia y cada potencia de dos
+ * por encima se divide en {@value #SUBCUBETAS} cubetas iguales, de modo que el
+ * error relativo de cualquier percentil es menor al 3,2 %. Registrar un valor es
+ * un incremento atómico sobre un arreglo fijo; varios hilos pueden registrar a
+ * la vez sin bloquearse.
+ * </p>
+ * <p>
+ * Los valores mayores que {@link #MAXIMO_NANOS} (unos 36 minutos) se registran
+ * en la última cubeta. Las consultas recorren las cubetas sin detener el
+ * registro, así que reflejan un estado aproximado si hay registros en curso.
+ * </p>
+ */
+public final class HistogramaLatencias {
+
+    /** Bits de precisión dentro de cada potencia de dos. */
+    private static final int BITS_PRECISION = 5;
+
+    /** Cubetas en que se divide cada potencia de dos. */
+    public static final int SUBCUBETAS = 1 << BITS_PRECISION;
+
+    /** Mayor potencia de dos con cubetas propias. */
+    private static final int MAX_MAGNITUD = 40;
+
+    /** Mayor valor que se distingue; los mayores se acumulan en la última cubeta. */
+    public static final long MAXIMO_NANOS = (1L << (MAX_MAGNITUD + 1)) - 1;
+
+    // -- Estado --
+
+    private final AtomicLongArray cubetas =
+            new AtomicLongArray(SUBCUBETAS + (MAX_MAGNITUD - BITS_PRECISION + 1) * SUBCUBETAS);
+    private final LongAdder cantidad = new LongAdder();
+    private final LongAdder suma = new LongAdder();
+    private final LongAccumulator maximo = new LongAccumulator(Math::max, 0);
+
+    // -- Registro --
+
+    /**
+     * Registra una latencia.
+     *
+     * @param nanos duración en nanosegundos (los negativos cuentan como 0)
+     */
+    public void registrar(long nanos) {
+        long v = Math.max(0, nanos);
+        cubetas.incrementAndGet(indice(Math.min(v, MAXIMO_NANOS)));
+        cantidad.increment();
+        suma.add(v);
+        maximo.accumulate(v);
+    }
+
+    // -- Consultas --
+
+    /** @return cantidad de valores registrados */
+    public long getCantidad() {
+        return cantidad.sum();
+    }
+
+    /** @return promedio en nanosegundos (0 si no hay registros) */
+    public double getPromedio() {
+        long n = cantidad.sum();
+        return n == 0 ? 0.0 : (double) suma.sum() / n;
+    }
+
+    /** @return mayor valor registrado, en nanosegundos */
+    public long getMaximo() {
+        return maximo.get();
+    }
+
+    /**
+     * Estima un percentil: devuelve el límite superior de la cubeta donde cae.
+     *
+     * @param q fracción entre 0 y 1 (por ejemplo 0.99)
+     * @return valor en nanosegundos (0 si no hay registros)
+     */
+    public long percentil(double q) {
+        if (q < 0 || q > 1) throw new IllegalArgumentException("Percentil fuera de rango (0-1): " + q);
+        long[] copia = new long[cubetas.length()];
+        long total = 0;
+        for (int i = 0; i < copia.length; i++) {
+            copia[i] = cubetas.get(i);
+            total += copia[i];
+        }
+        if (total == 0) return 0;
+
+        long rango = Math.max(1, (long) Math.ceil(q * total));
+        long acumulado = 0;
+        for (int i = 0; i < copia.length; i++) {
+            acumulado += copia[i];
+            if (acumulado >= rango) return Math.min(limiteSuperior(i), getMaximo());
+        }
+        return getMaximo();
+    }
+
+    // -- Cubetas --
+
+    /** Cubeta de un valor entre 0 y {@link #MAXIMO_NANOS}. */
+    static int indice(long v) {
+        if (v < SUBCUBETAS) return (int) v;
+        int magnitud = 63 - Long.numberOfLeadingZeros(v);
+        int desplazamiento = magnitud - BITS_PRECISION;
+        int sub = (int) (v >>> desplazamiento) - SUBCUBETAS;
+        return SUBCUBETAS + desplazamiento * SUBCUBETAS + sub;
+    }
+
+    /** Mayor valor que cae en la cubeta indicada. */
+    static long limiteSuperior(int indice) {
+        if (indice < SUBCUBETAS) return indice;
+        int desplazamiento = (indice - SUBCUBETAS) / SUBCUBETAS;
+        int sub = (indice - SUBCUBETAS) % SUBCUBETAS;
+        return ((long) (SUBCUBETAS + sub + 1) << desplazamiento) - 1;
+    }
+}
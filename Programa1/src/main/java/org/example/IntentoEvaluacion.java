@@ -39,10 +39,10 @@ public class IntentoEvaluacion {
     private List<Integer> ordenPreguntasUsado = new ArrayList<>();
 
     /** Puntaje total obtenido. */
-    private int puntajeObtenido;
+    private volatile int puntajeObtenido;
 
     /** Calificación final (porcentaje del 0 al 100). */
-    private double calificacion;
+    private volatile double calificacion;
 
     // -- Constructor --
 
@@ -92,12 +92,13 @@ public class IntentoEvaluacion {
     /**
      * Calcula el puntaje total y la calificación final.
      * <p>
-     * La calificación se expresa en porcentaje (0–100).
+     * La calificación se expresa en porcentaje (0–100). Es seguro invocarlo
+     * desde varios hilos (por ejemplo, durante una recalificación masiva).
      * </p>
      *
      * @return calificación obtenida
      */
-    public double calcularCalificacion() {
+    public synchronized double calcularCalificacion() {
         if (evaluacion == null) return 0.0;
 
         int total = 0;
@@ -0,0 +1,156 @@
+package org.example;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Implementación indexada del servicio de intentos de evaluación.
+ * <p>
+ * Usa un mapa principal por clave compuesta (estudiante, evaluación, grupo) y
+ * tres índices secundarios (por estudiante, por grupo y por evaluación), de modo
+ * que {@link #guardar} y las consultas {@code listarPor*} cuestan un tiempo
+ * proporcional al tamaño del resultado y no al total de intentos.
+ * </p>
+ * <p>
+ * Las lecturas se protegen con un candado de lectura compartido, por lo que
+ * varias consultas pueden ejecutarse a la vez; solo {@link #guardar} toma el
+ * candado de escritura.
+ * </p>
+ */
+public class IntentoServiceIndexada implements IntentoService {
+
+    // -- Estructuras internas --
+
+    /** Mapa principal: clave compuesta → intento (en orden de registro). */
+    private final Map<Clave, IntentoEvaluacion> porClave = new LinkedHashMap<>();
+
+    /** Índice por estudiante (idEstudiante → intentos por clave). */
+    private final Map<String, Map<Clave, IntentoEvaluacion>> porEstudiante = new HashMap<>();
+
+    /** Índice por grupo (idGrupo → intentos por clave). */
+    private final Map<Integer, Map<Clave, IntentoEvaluacion>> porGrupo = new HashMap<>();
+
+    /** Índice por evaluación (idEvaluacion → intentos por clave). */
+    private final Map<Integer, Map<Clave, IntentoEvaluacion>> porEvaluacion = new HashMap<>();
+
+    /** Candado de lectura/escritura que protege el mapa principal y los índices. */
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // -- Registro de intentos --
+
+    /**
+     * Guarda un intento de evaluación.
+     * <p>
+     * Si ya existe un intento del mismo estudiante para la misma evaluación y grupo,
+     * lo reemplaza conservando su posición. En caso contrario, lo agrega.
+     * </p>
+     *
+     * @param intento intento de evaluación a registrar
+     */
+    @Override
+    public void guardar(IntentoEvaluacion intento) {
+        if (intento == null) return;
+        Clave k = Clave.de(intento);
+
+        lock.writeLock().lock();
+        try {
+            porClave.put(k, intento);
+            if (k.idEstudiante != null)
+                porEstudiante.computeIfAbsent(k.idEstudiante, x -> new LinkedHashMap<>()).put(k, intento);
+            if (k.idGrupo != null)
+                porGrupo.computeIfAbsent(k.idGrupo, x -> new LinkedHashMap<>()).put(k, intento);
+            if (k.idEvaluacion != null)
+                porEvaluacion.computeIfAbsent(k.idEvaluacion, x -> new LinkedHashMap<>()).put(k, intento);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // -- Consultas --
+
+    /** {@inheritDoc} */
+    @Override
+    public List<IntentoEvaluacion> listarPorEstudiante(String idEstudiante) {
+        if (idEstudiante == null) return List.of();
+        return leer(porEstudiante, idEstudiante);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public List<IntentoEvaluacion> listarPorGrupo(int idGrupo) {
+        return leer(porGrupo, idGrupo);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public List<IntentoEvaluacion> listarPorEvaluacion(int idEvaluacion) {
+        return leer(porEvaluacion, idEvaluacion);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public List<IntentoEvaluacion> listarTodos() {
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(porClave.values());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // -- Métodos auxiliares --
+
+    /**
+     * Copia los intentos de un índice secundario bajo el candado de lectura.
+     *
+     * @param indice índice a consultar
+     * @param valor valor de la llave buscada
+     * @return lista nueva con los intentos encontrados (vacía si no hay)
+     */
+    private <K> List<IntentoEvaluacion> leer(Map<K, Map<Clave, IntentoEvaluacion>> indice, K valor) {
+        lock.readLock().lock();
+        try {
+            Map<Clave, IntentoEvaluacion> m = indice.get(valor);
+            return m == null ? new ArrayList<>() : new ArrayList<>(m.values());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Clave compuesta de un intento: estudiante, evaluación y grupo.
+     * Cualquiera de los componentes puede ser {@code null}.
+     */
+    private static final class Clave {
+        final String idEstudiante;
+        final Integer idEvaluacion;
+        final Integer idGrupo;
+
+        Clave(String idEstudiante, Integer idEvaluacion, Integer idGrupo) {
+            this.idEstudiante = idEstudiante;
+            this.idEvaluacion = idEvaluacion;
+            this.idGrupo = idGrupo;
+        }
+
+        static Clave de(IntentoEvaluacion it) {
+            return new Clave(
+                    it.getEstudiante() == null ? null : it.getEstudiante().getIdUsuario(),
+                    it.getEvaluacion() == null ? null : it.getEvaluacion().getId(),
+                    it.getGrupo() == null ? null : it.getGrupo().getIdGrupo());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Clave c)) return false;
+            return Objects.equals(idEstudiante, c.idEstudiante)
+                    && Objects.equals(idEvaluacion, c.idEvaluacion)
+                    && Objects.equals(idGrupo, c.idGrupo);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(idEstudiante, idEvaluacion, idGrupo);
+        }
+    }
+}
@@ -146,6 +146,27 @@ public class LoginPanel extends JPanel {
     /** Muestra un mensaje informativo o de error en la interfaz. */
     public void setMensaje(String msg) { lblMensaje.setText(msg == null ? " " : msg); }
 
+    /**
+     * Indica que hay una solicitud en curso (verificación o recuperación).
+     * <p>
+     * Mientras está ocupado se deshabilitan los campos y botones para evitar
+     * envíos repetidos; al terminar se limpia la contraseña ingresada.
+     * Debe llamarse desde el hilo de eventos de Swing.
+     * </p>
+     *
+     * @param ocupado {@code true} al iniciar la solicitud; {@code false} al terminar
+     * @param msg mensaje a mostrar (puede ser {@code null})
+     */
+    public void setOcupado(boolean ocupado, String msg) {
+        txtIdentificacion.setEnabled(!ocupado);
+        pwdContrasena.setEnabled(!ocupado);
+        btnIngresar.setEnabled(!ocupado);
+        btnRecuperar.setEnabled(!ocupado);
+        setCursor(ocupado ? Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR) : null);
+        if (!ocupado) pwdContrasena.setText("");
+        setMensaje(msg);
+    }
+
     /**
      * Intenta validar los datos ingresados y ejecutar la acción de inicio de sesión.
      * <p>
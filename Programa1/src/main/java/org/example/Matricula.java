@@ -25,8 +25,11 @@ public class Matricula {
     /** Fecha en que se realizó la matrícula. */
     private LocalDate fechaMatricula;
 
-    /** Calificación final promedio del estudiante en el curso (0–100). */
-    private double calificacionFinal;
+    /**
+     * Calificación final promedio del estudiante en el curso (0–100). Los
+     * recálculos la escriben con el monitor de la matrícula; se lee sin él.
+     */
+    private volatile double calificacionFinal;
 
     /** Lista de intentos de evaluación asociados a esta matrícula. */
     private final List<IntentoEvaluacion> intentosEvaluacion = new ArrayList<>();
@@ -81,7 +84,7 @@ public class Matricula {
      * @param intento intento de evaluación a agregar
      * @throws IllegalArgumentException si el intento es {@code null}
      */
-    public void agregarIntento(IntentoEvaluacion intento) {
+    public synchronized void agregarIntento(IntentoEvaluacion intento) {
         if (intento == null) {
             throw new IllegalArgumentException("El intento no puede ser null");
         }
@@ -99,21 +102,43 @@ public class Matricula {
      *
      * @return calificación final calculada (0–100)
      */
-    public double calcularCalificacionFinal() {
-        if (intentosEvaluacion.isEmpty()) {
-            calificacionFinal = 0.0;
-        } else {
-            double suma = 0.0;
-            for (IntentoEvaluacion i : intentosEvaluacion) {
-                suma += i.getCalificacion();
-            }
-            calificacionFinal = clampCalificacion(suma / intentosEvaluacion.size());
-        }
+    public synchronized double calcularCalificacionFinal() {
+        calificacionFinal = promedio(intentosEvaluacion);
+        return calificacionFinal;
+    }
+
+    /**
+     * Recalcula la calificación final como el promedio de los intentos indicados.
+     * <p>
+     * Lo usa la recalificación masiva, que obtiene los intentos del servicio
+     * de intentos en lugar de la lista interna de la matrícula.
+     * </p>
+     *
+     * @param intentos intentos del estudiante en el grupo
+     * @return calificación final calculada (0–100)
+     */
+    public synchronized double actualizarCalificacionFinal(List<IntentoEvaluacion> intentos) {
+        calificacionFinal = promedio(intentos);
         return calificacionFinal;
     }
 
     // -- Auxiliar --
 
+    /**
+     * Promedio de las calificaciones de los intentos, ajustado al rango 0–100.
+     *
+     * @param intentos intentos a promediar
+     * @return promedio, o 0 si no hay intentos
+     */
+    private double promedio(List<IntentoEvaluacion> intentos) {
+        if (intentos == null || intentos.isEmpty()) return 0.0;
+        double suma = 0.0;
+        for (IntentoEvaluacion i : intentos) {
+            suma += i.getCalificacion();
+        }
+        return clampCalificacion(suma / intentos.size());
+    }
+
     /**
      * Asegura que la calificación esté dentro del rango válido (0–100).
      *
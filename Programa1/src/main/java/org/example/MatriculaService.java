@@ -64,4 +64,38 @@ public interface MatriculaService {
      * @throws IllegalStateException si no puede realizarse la desmatriculación
      */
     boolean desmatricular(String idEstudiante, Curso curso, int idGrupo);
+
+    // -- Lista de espera --
+
+    /**
+     * Agrega al estudiante a la lista de espera de un grupo lleno.
+     * <p>
+     * Si el grupo todavía tiene cupo, el estudiante se matricula de inmediato.
+     * Cuando una matrícula se cancela, el primero de la lista se matricula
+     * automáticamente.
+     * </p>
+     *
+     * @param idEstudiante identificador del estudiante
+     * @param curso curso al que pertenece el grupo
+     * @param idGrupo identificador del grupo
+     * @return posición en la lista de espera (1 = siguiente), o 0 si quedó matriculado
+     * @throws IllegalArgumentException si los parámetros son inválidos
+     * @throws IllegalStateException si ya está matriculado o en espera
+     * @throws UnsupportedOperationException si la implementación no tiene lista de espera
+     */
+    default int inscribirEnEspera(String idEstudiante, Curso curso, int idGrupo) {
+        throw new UnsupportedOperationException("Este servicio no tiene lista de espera.");
+    }
+
+    /**
+     * Retira al estudiante de la lista de espera de un grupo.
+     *
+     * @param idEstudiante identificador del estudiante
+     * @param curso curso al que pertenece el grupo
+     * @param idGrupo identificador del grupo
+     * @return {@code true} si estaba en espera
+     */
+    default boolean salirDeEspera(String idEstudiante, Curso curso, int idGrupo) {
+        return false;
+    }
 }
@@ -0,0 +1,448 @@
+package org.example;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Implementación indexada del servicio de matrículas.
+ * <p>
+ * Mantiene dos índices en memoria para evitar recorrer todos los cursos y grupos
+ * en cada consulta:
+ * <ul>
+ *     <li>idEstudiante → conjunto de grupos en los que está matriculado.</li>
+ *     <li>idGrupo → conjunto de identificaciones de estudiantes matriculados.</li>
+ * </ul>
+ * Ambos índices se actualizan en {@link #matricular} y {@link #desmatricular}.
+ * Si las matrículas se modifican directamente sobre los grupos, se puede
+ * invocar {@link #reconstruirIndices()} para volver a sincronizarlos.
+ * </p>
+ * <p>
+ * Concurrencia: toda operación sobre un grupo ocurre bajo el monitor de ese
+ * {@link Grupo}, así que verificar el cupo y agregar la matrícula es atómico
+ * (nunca se sobrepasa el máximo del curso) y las solicitudes a grupos
+ * distintos no se bloquean entre sí. La lista de matrículas del estudiante se
+ * actualiza bajo el monitor del {@link Estudiante}, siempre después del del
+ * grupo. Solo {@link #reconstruirIndices()} detiene a todas las operaciones.
+ * </p>
+ * <p>
+ * Cada grupo tiene una lista de espera ({@link Grupo#getListaEspera()}); al
+ * cancelarse una matrícula, el primero de la lista ocupa el cupo liberado.
+ * </p>
+ */
+public class MatriculaServiceIndexada implements MatriculaService {
+
+    // -- Dependencias --
+
+    /** Servicio de usuarios, usado para localizar estudiantes. */
+    private final UsuarioService usuarioService;
+
+    /** Servicio de cursos, usado para acceder a los grupos. */
+    private final CursoService cursoService;
+
+    // -- Índices --
+
+    /** Grupos por estudiante (idEstudiante → grupos). */
+    private final Map<String, Set<Grupo>> gruposPorEstudiante = new ConcurrentHashMap<>();
+
+    /**
+     * Estudiantes por grupo (idGrupo → identificaciones de estudiantes).
+     * Cada conjunto solo se modifica bajo el monitor de su grupo.
+     */
+    private final Map<Integer, Set<String>> estudiantesPorGrupo = new ConcurrentHashMap<>();
+
+    /**
+     * Candado de los índices: las operaciones toman el de lectura (compartido)
+     * y la reconstrucción el de escritura.
+     */
+    private final ReentrantReadWriteLock candadoIndices = new ReentrantReadWriteLock();
+
+    /** Orden de presentación de los grupos: fecha de inicio y luego ID. */
+    private static final Comparator<Grupo> ORDEN_GRUPOS =
+            Comparator.comparing(Grupo::getFechaInicio).thenComparing(Grupo::getIdGrupo);
+
+    // -- Constructor --
+
+    /**
+     * Crea el servicio indexado y construye los índices a partir de las
+     * matrículas ya registradas en los grupos.
+     *
+     * @param usuarioService servicio de usuarios
+     * @param cursoService servicio de cursos
+     */
+    public MatriculaServiceIndexada(UsuarioService usuarioService, CursoService cursoService) {
+        this.usuarioService = usuarioService;
+        this.cursoService = cursoService;
+        indexarGrupos();
+    }
+
+    // -- Consultas --
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Consulta directa al índice; el resultado se ordena por fecha de inicio
+     * y luego por ID del grupo.
+     * </p>
+     */
+    @Override
+    public List<Grupo> gruposDelEstudiante(String idEstudiante) {
+        candadoIndices.readLock().lock();
+        try {
+            Set<Grupo> grupos = idEstudiante == null ? null : gruposPorEstudiante.get(idEstudiante);
+            if (grupos == null || grupos.isEmpty()) return new ArrayList<>();
+            List<Grupo> result = new ArrayList<>(grupos);
+            result.sort(ORDEN_GRUPOS);
+            return result;
+        } finally {
+            candadoIndices.readLock().unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Solo recorre los grupos del estudiante según el índice, en el mismo
+     * orden que {@link #gruposDelEstudiante(String)}.
+     * </p>
+     */
+    @Override
+    public List<Matricula> listarMatriculas(String idEstudiante) {
+        List<Matricula> res = new ArrayList<>();
+        for (Grupo g : gruposDelEstudiante(idEstudiante)) {
+            Matricula m;
+            synchronized (g) {
+                m = buscarMatricula(g, idEstudiante);
+            }
+            if (m != null) res.add(m);
+        }
+        return res;
+    }
+
+    // -- Operaciones principales --
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * La verificación de duplicados (O(1) contra el índice del grupo), la del
+     * cupo y el alta ocurren bajo el monitor del grupo. La nueva matrícula se
+     * agrega tanto al grupo como al estudiante; si el estudiante estaba en la
+     * lista de espera del grupo, sale de ella.
+     * </p>
+     *
+     * @throws IllegalArgumentException si los parámetros son inválidos
+     * @throws IllegalStateException si ya está matriculado o no hay cupo
+     */
+    @Override
+    public boolean matricular(String idEstudiante, Curso curso, int idGrupo) {
+        Objects.requireNonNull(curso, "Curso requerido.");
+        Grupo g = grupoRequerido(curso, idGrupo);
+
+        candadoIndices.readLock().lock();
+        try {
+            synchronized (g) {
+                Set<String> inscritos = inscritos(g);
+                if (inscritos.contains(idEstudiante)) {
+                    throw new IllegalStateException("Ya estás matriculado en este grupo.");
+                }
+                if (!hayCupo(g, curso)) {
+                    throw new IllegalStateException("No hay cupo disponible en este grupo.");
+                }
+                agregarMatricula(estudianteRequerido(idEstudiante), g);
+                quitarDeEspera(g, idEstudiante);
+                return true;
+            }
+        } finally {
+            candadoIndices.readLock().unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Elimina la matrícula del grupo y del estudiante, y la entrada
+     * correspondiente en ambos índices. En la misma operación, el cupo liberado
+     * pasa al primero de la lista de espera.
+     * </p>
+     */
+    @Override
+    public boolean desmatricular(String idEstudiante, Curso curso, int idGrupo) {
+        Objects.requireNonNull(curso, "Curso requerido.");
+        Grupo g = grupoRequerido(curso, idGrupo);
+
+        candadoIndices.readLock().lock();
+        try {
+            synchronized (g) {
+                Matricula m = buscarMatricula(g, idEstudiante);
+                if (m != null) {
+                    g.getMatriculas().remove(m);
+                    Estudiante est = m.getEstudiante();
+                    synchronized (est) {
+                        List<Matricula> mats = new ArrayList<>(est.obtenerMatriculas());
+                        mats.remove(m);
+                        est.setMatriculas(mats);
+                    }
+                }
+                desindexar(idEstudiante, g);
+                if (m != null) promoverDesdeEspera(g, curso);
+                return m != null;
+            }
+        } finally {
+            candadoIndices.readLock().unlock();
+        }
+    }
+
+    // -- Lista de espera --
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalArgumentException si los parámetros son inválidos
+     * @throws IllegalStateException si ya está matriculado o ya está en espera
+     */
+    @Override
+    public int inscribirEnEspera(String idEstudiante, Curso curso, int idGrupo) {
+        Objects.requireNonNull(curso, "Curso requerido.");
+        Grupo g = grupoRequerido(curso, idGrupo);
+
+        candadoIndices.readLock().lock();
+        try {
+            synchronized (g) {
+                if (inscritos(g).contains(idEstudiante)) {
+                    throw new IllegalStateException("Ya estás matriculado en este grupo.");
+                }
+                List<Estudiante> espera = listaEspera(g);
+                for (Estudiante e : espera) {
+                    if (e != null && idEstudiante.equals(e.getIdUsuario())) {
+                        throw new IllegalStateException("Ya estás en la lista de espera de este grupo.");
+                    }
+                }
+                Estudiante est = estudianteRequerido(idEstudiante);
+                if (hayCupo(g, curso)) {
+                    agregarMatricula(est, g);
+                    return 0;
+                }
+                espera.add(est);
+                return espera.size();
+            }
+        } finally {
+            candadoIndices.readLock().unlock();
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean salirDeEspera(String idEstudiante, Curso curso, int idGrupo) {
+        Objects.requireNonNull(curso, "Curso requerido.");
+        Grupo g = grupoRequerido(curso, idGrupo);
+        synchronized (g) {
+            return quitarDeEspera(g, idEstudiante);
+        }
+    }
+
+    // -- Mantenimiento de índices --
+
+    /**
+     * Reconstruye ambos índices recorriendo todos los cursos y grupos.
+     * <p>
+     * Útil al iniciar o cuando las matrículas se modificaron fuera del servicio.
+     * Espera a que terminen las operaciones en curso y bloquea las nuevas
+     * mientras dura.
+     * </p>
+     */
+    public void reconstruirIndices() {
+        candadoIndices.writeLock().lock();
+        try {
+            indexarGrupos();
+        } finally {
+            candadoIndices.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Compara ambos índices con las matrículas de los grupos y describe cada
+     * diferencia. Bloquea las operaciones mientras dura; lo usa
+     * {@link SimuladorCarga} para verificar el estado tras la contención.
+     *
+     * @return diferencias encontradas (vacía si los índices están al día)
+     */
+    List<String> inconsistencias() {
+        candadoIndices.writeLock().lock();
+        try {
+            List<String> res = new ArrayList<>();
+            Map<String, Set<Grupo>> esperados = new HashMap<>();
+            for (Curso c : cursoService.listarCursos()) {
+                if (c == null || c.grupos == null) continue;
+                for (Grupo g : c.grupos) {
+                    if (g == null || g.getMatriculas() == null) continue;
+                    Set<String> ids = new HashSet<>();
+                    synchronized (g) {
+                        for (Matricula m : g.getMatriculas()) {
+                            Estudiante e = m.getEstudiante();
+                            if (e == null || e.getIdUsuario() == null) continue;
+                            ids.add(e.getIdUsuario());
+                            esperados.computeIfAbsent(e.getIdUsuario(), k -> new HashSet<>()).add(g);
+                        }
+                    }
+                    Set<String> indice = estudiantesPorGrupo.getOrDefault(g.getIdGrupo(), Set.of());
+                    if (!ids.equals(indice)) {
+                        res.add("Grupo #" + g.getIdGrupo() + ": " + ids.size() + " matrículas, "
+                                + indice.size() + " en el índice del grupo.");
+                    }
+                }
+            }
+            Set<String> estudiantes = new HashSet<>(esperados.keySet());
+            estudiantes.addAll(gruposPorEstudiante.keySet());
+            for (String id : estudiantes) {
+                Set<Grupo> reales = esperados.getOrDefault(id, Set.of());
+                Set<Grupo> indice = gruposPorEstudiante.getOrDefault(id, Set.of());
+                if (!reales.equals(indice)) {
+                    res.add("Estudiante " + id + ": matriculado en " + reales.size() + " grupos, "
+                            + indice.size() + " en el índice del estudiante.");
+                }
+            }
+            return res;
+        } finally {
+            candadoIndices.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Vacía los índices y los llena a partir de las matrículas de todos los
+     * grupos. Privado para que el constructor no invoque un método redefinible.
+     */
+    private void indexarGrupos() {
+        gruposPorEstudiante.clear();
+        estudiantesPorGrupo.clear();
+        for (Curso c : cursoService.listarCursos()) {
+            if (c == null || c.grupos == null) continue;
+            for (Grupo g : c.grupos) {
+                if (g == null || g.getMatriculas() == null) continue;
+                for (Matricula m : g.getMatriculas()) {
+                    Estudiante e = m.getEstudiante();
+                    if (e != null && e.getIdUsuario() != null) {
+                        indexar(e.getIdUsuario(), g);
+                    }
+                }
+            }
+        }
+    }
+
+    /** Registra la pareja estudiante/grupo en ambos índices (bajo el monitor del grupo). */
+    private void indexar(String idEstudiante, Grupo g) {
+        gruposPorEstudiante.compute(idEstudiante, (k, grupos) -> {
+            Set<Grupo> s = grupos != null ? grupos : ConcurrentHashMap.newKeySet();
+            s.add(g);
+            return s;
+        });
+        inscritos(g).add(idEstudiante);
+    }
+
+    /** Elimina la pareja estudiante/grupo de ambos índices (bajo el monitor del grupo). */
+    private void desindexar(String idEstudiante, Grupo g) {
+        gruposPorEstudiante.computeIfPresent(idEstudiante, (k, grupos) -> {
+            grupos.remove(g);
+            return grupos.isEmpty() ? null : grupos;
+        });
+        estudiantesPorGrupo.computeIfPresent(g.getIdGrupo(), (k, inscritos) -> {
+            inscritos.remove(idEstudiante);
+            return inscritos.isEmpty() ? null : inscritos;
+        });
+    }
+
+    // -- Métodos auxiliares --
+
+    /**
+     * Agrega la matrícula al grupo, al estudiante y a los índices.
+     * Debe invocarse bajo el monitor del grupo y con el cupo ya verificado.
+     */
+    private void agregarMatricula(Estudiante est, Grupo g) {
+        Matricula nueva = new Matricula(est, g);
+        g.getMatriculas().add(nueva);
+        synchronized (est) {
+            List<Matricula> mats = new ArrayList<>(est.obtenerMatriculas());
+            mats.add(nueva);
+            est.setMatriculas(mats);
+        }
+        indexar(est.getIdUsuario(), g);
+    }
+
+    /**
+     * Matricula a los primeros de la lista de espera mientras haya cupo.
+     * Debe invocarse bajo el monitor del grupo.
+     */
+    private void promoverDesdeEspera(Grupo g, Curso curso) {
+        List<Estudiante> espera = g.getListaEspera();
+        if (espera == null) return;
+        while (!espera.isEmpty() && hayCupo(g, curso)) {
+            Estudiante siguiente = espera.remove(0);
+            if (siguiente == null || inscritos(g).contains(siguiente.getIdUsuario())) continue;
+            agregarMatricula(siguiente, g);
+        }
+    }
+
+    /** Quita al estudiante de la lista de espera (bajo el monitor del grupo). */
+    private boolean quitarDeEspera(Grupo g, String idEstudiante) {
+        List<Estudiante> espera = g.getListaEspera();
+        if (espera == null || espera.isEmpty()) return false;
+        return espera.removeIf(e -> e != null && idEstudiante.equals(e.getIdUsuario()));
+    }
+
+    /** Lista de espera del grupo, creándola si no existe. */
+    private static List<Estudiante> listaEspera(Grupo g) {
+        if (g.getListaEspera() == null) g.setListaEspera(new ArrayList<>());
+        return g.getListaEspera();
+    }
+
+    /** Conjunto de inscritos del grupo según el índice. */
+    private Set<String> inscritos(Grupo g) {
+        return estudiantesPorGrupo.computeIfAbsent(g.getIdGrupo(), k -> new HashSet<>());
+    }
+
+    /** Indica si el grupo tiene cupo según el máximo del curso. */
+    private static boolean hayCupo(Grupo g, Curso curso) {
+        return g.getMatriculas().size() < curso.getMaxEstu();
+    }
+
+    /**
+     * Busca un grupo específico dentro de un curso según su ID.
+     *
+     * @param curso curso que contiene los grupos
+     * @param idGrupo identificador del grupo buscado
+     * @return el grupo encontrado
+     * @throws IllegalArgumentException si no existe
+     */
+    private Grupo grupoRequerido(Curso curso, int idGrupo) {
+        Grupo g = cursoService.buscarGrupo(curso, idGrupo);
+        if (g == null) {
+            throw new IllegalArgumentException("No existe el grupo #" + idGrupo + " en el curso " + curso.getId());
+        }
+        return g;
+    }
+
+    /**
+     * Localiza un estudiante registrado por su identificación.
+     *
+     * @throws IllegalArgumentException si no existe
+     */
+    private Estudiante estudianteRequerido(String idEstudiante) {
+        Estudiante est = usuarioService.buscarEstudiante(idEstudiante);
+        if (est == null) throw new IllegalArgumentException("Estudiante no encontrado: " + idEstudiante);
+        return est;
+    }
+
+    /**
+     * Obtiene la matrícula de un estudiante dentro de un grupo.
+     *
+     * @param g grupo a consultar
+     * @param idEstudiante identificador del estudiante
+     * @return matrícula encontrada o {@code null}
+     */
+    private Matricula buscarMatricula(Grupo g, String idEstudiante) {
+        for (Matricula m : g.getMatriculas()) {
+            Estudiante e = m.getEstudiante();
+            if (e != null && idEstudiante.equals(e.getIdUsuario())) return m;
+        }
+        return null;
+    }
+}
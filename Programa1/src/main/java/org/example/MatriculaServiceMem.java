@@ -109,10 +109,8 @@ public class MatriculaServiceMem implements MatriculaService {
             throw new IllegalStateException("No hay cupo disponible en este grupo.");
         }
 
-        Estudiante est = usuarioService.listarEstudiantes().stream()
-                .filter(e -> idEstudiante.equals(e.getIdUsuario()))
-                .findFirst()
-                .orElseThrow(() -> new IllegalArgumentException("Estudiante no encontrado: " + idEstudiante));
+        Estudiante est = usuarioService.buscarEstudiante(idEstudiante);
+        if (est == null) throw new IllegalArgumentException("Estudiante no encontrado: " + idEstudiante);
 
         Matricula nueva = new Matricula(est, g);
         g.getMatriculas().add(nueva);
@@ -152,10 +150,7 @@ public class MatriculaServiceMem implements MatriculaService {
      * @return el grupo encontrado o {@code null} si no existe
      */
     private Grupo findGrupo(Curso curso, int idGrupo) {
-        for (Grupo g : curso.grupos) {
-            if (g.getIdGrupo() == idGrupo) return g;
-        }
-        return null;
+        return cursoService.buscarGrupo(curso, idGrupo);
     }
 
     /**
@@ -0,0 +1,153 @@
+package org.example;
+
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Mide y recorta texto para una fuente de PDF sin volver a codificarlo.
+ * <p>
+ * Guarda el ancho de avance de cada carácter en un arreglo de {@code float}
+ * indexado por el carácter, que se llena la primera vez que aparece. El ancho
+ * de un texto es la suma de sus caracteres, igual que en
+ * {@link PDFont#getStringWidth(String)}, que tampoco aplica interletraje.
+ * </p>
+ * <p>
+ * Para recortar, los anchos de los prefijos se acumulan en una sola pasada y
+ * el punto de corte se busca por bisección, en lugar de medir cada prefijo
+ * por separado. Hay un medidor por fuente ({@link #de(PDFont)}) y puede usarse
+ * desde varios hilos: las lecturas del arreglo no se sincronizan, y solo la
+ * primera medición de cada carácter consulta la fuente, bajo el monitor del
+ * medidor. Las 14 fuentes estándar tienen métricas fijas: todas las instancias
+ * de una misma fuente estándar comparten un medidor, que mide con una instancia
+ * propia para no tocar las cachés de una fuente que otro hilo está usando.
+ * </p>
+ */
+public final class MedidorTexto {
+
+    /** Marca de un ancho que todavía no se ha calculado. */
+    private static final float SIN_CALCULAR = -1f;
+
+    /** Texto que se agrega al recortar. */
+    public static final String ELIPSIS = "…";
+
+    /** Medidores ya creados: por nombre las fuentes estándar, por instancia las demás. */
+    private static final Map<Object, MedidorTexto> POR_FUENTE = new ConcurrentHashMap<>();
+
+    private final PDFont fuente;
+
+    /** Ancho de cada carácter en unidades de glifo (1/1000 del tamaño de la fuente). */
+    private final float[] anchos = new float[Character.MAX_VALUE + 1];
+
+    private MedidorTexto(PDFont fuente) {
+        this.fuente = fuente;
+        Arrays.fill(anchos, SIN_CALCULAR);
+    }
+
+    /**
+     * Devuelve el medidor de una fuente, creándolo la primera vez.
+     *
+     * @param fuente fuente del texto
+     * @return medidor compartido de esa fuente
+     */
+    public static MedidorTexto de(PDFont fuente) {
+        Standard14Fonts.FontName estandar = fuente.isStandard14() ? fuenteEstandar(fuente.getName()) : null;
+        Object clave = estandar != null ? estandar : fuente;
+        MedidorTexto m = POR_FUENTE.get(clave);
+        if (m != null) return m;
+        return POR_FUENTE.computeIfAbsent(clave,
+                k -> new MedidorTexto(estandar != null ? new PDType1Font(estandar) : fuente));
+    }
+
+    // -- Medición --
+
+    /**
+     * Ancho de un texto.
+     *
+     * @param texto texto a medir ({@code null} mide 0)
+     * @param tamano tamaño de la fuente en puntos
+     * @return ancho en puntos
+     * @throws IOException si la fuente no puede medir algún carácter
+     * @throws IllegalArgumentException si la fuente no puede codificar algún carácter
+     */
+    public float ancho(String texto, float tamano) throws IOException {
+        return texto == null ? 0f : puntos(anchoGlifos(texto), tamano);
+    }
+
+    /**
+     * Recorta un texto para que quepa en un ancho, agregando {@link #ELIPSIS}.
+     * <p>
+     * Si el texto entero cabe se devuelve tal cual; si no, se devuelve el
+     * prefijo más largo que cabe seguido de la elipsis, o solo la elipsis si no
+     * cabe ningún carácter.
+     * </p>
+     *
+     * @param texto texto a recortar ({@code null} equivale a vacío)
+     * @param tamano tamaño de la fuente en puntos
+     * @param anchoMaximo ancho disponible en puntos
+     * @return texto recortado
+     * @throws IOException si la fuente no puede medir algún carácter
+     * @throws IllegalArgumentException si la fuente no puede codificar algún carácter
+     */
+    public String recortar(String texto, float tamano, float anchoMaximo) throws IOException {
+        if (texto == null) return "";
+        int n = texto.length();
+
+        // prefijos[i] = ancho de los primeros i caracteres
+        float[] prefijos = new float[n + 1];
+        for (int i = 0; i < n; i++) {
+            prefijos[i + 1] = prefijos[i] + anchoCaracter(texto.charAt(i));
+        }
+        if (puntos(prefijos[n], tamano) <= anchoMaximo) return texto;
+
+        // Mayor i cuyo prefijo más la elipsis cabe (los prefijos no decrecen)
+        float elipsis = anchoGlifos(ELIPSIS);
+        int bajo = 0, alto = n - 1;
+        while (bajo < alto) {
+            int medio = (bajo + alto + 1) >>> 1;
+            if (puntos(prefijos[medio] + elipsis, tamano) <= anchoMaximo) bajo = medio;
+            else alto = medio - 1;
+        }
+        return bajo == 0 ? ELIPSIS : texto.substring(0, bajo) + ELIPSIS;
+    }
+
+    // -- Métodos auxiliares --
+
+    /** Fuente estándar con ese nombre, o {@code null} si el nombre es un alias u otra fuente. */
+    private static Standard14Fonts.FontName fuenteEstandar(String nombre) {
+        for (Standard14Fonts.FontName f : Standard14Fonts.FontName.values()) {
+            if (f.getName().equals(nombre)) return f;
+        }
+        return null;
+    }
+
+    /** Unidades de glifo a puntos, con la misma operación que usa PDFBox. */
+    private static float puntos(float glifos, float tamano) {
+        return glifos / 1000f * tamano;
+    }
+
+    private float anchoGlifos(String texto) throws IOException {
+        float suma = 0f;
+        for (int i = 0; i < texto.length(); i++) {
+            suma += anchoCaracter(texto.charAt(i));
+        }
+        return suma;
+    }
+
+    private float anchoCaracter(char c) throws IOException {
+        float a = anchos[c];
+        if (a == SIN_CALCULAR) {
+            // La fuente guarda cachés internas sin sincronizar
+            synchronized (this) {
+                a = fuente.getStringWidth(String.valueOf(c));
+            }
+            anchos[c] = a;
+        }
+        return a;
+    }
+}
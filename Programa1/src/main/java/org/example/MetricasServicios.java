@@ -0,0 +1,497 @@
+package org.example;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Métricas de uso de los servicios.
+ * <p>
+ * Expone versiones decoradas de {@link UsuarioService}, {@link CursoService},
+ * {@link MatriculaService}, {@link EvaluacionService}, {@link IntentoService},
+ * {@link ReporteService} y {@link Autenticacion}. Cada llamada cuenta, junto con
+ * sus errores (excepciones), y registra su duración en un
+ * {@link HistogramaLatencias} propio del método. El registro no usa candados,
+ * así que el costo por llamada es el de dos lecturas del reloj y unos pocos
+ * incrementos atómicos.
+ * </p>
+ * <p>
+ * {@link #instantanea()} devuelve el estado actual (lo consulta el panel de
+ * administración) y {@link #iniciarVolcado(Path, Duration)} lo escribe
+ * periódicamente en un archivo JSON.
+ * </p>
+ */
+public class MetricasServicios implements Closeable {
+
+    // -- Dependencias --
+
+    private final UsuarioService usuarioService;
+    private final CursoService cursoService;
+    private final MatriculaService matriculaService;
+    private final EvaluacionService evaluacionService;
+    private final IntentoService intentoService;
+    private final ReporteService reporteService;
+    private final Autenticacion auth;
+
+    // -- Estado --
+
+    /**
+     * Métricas por método ("Servicio.metodo"; las sobrecargas llevan sus
+     * parámetros). Sin orden propio: {@link #instantanea()} las ordena por nombre.
+     */
+    private final Map<String, Metodo> metodos = new ConcurrentHashMap<>();
+
+    /** Volcado periódico ({@code null} si no se inició). */
+    private ScheduledExecutorService volcado;
+
+    // -- Servicios medidos --
+
+    private final UsuarioService usuarios = new Usuarios();
+    private final CursoService cursos = new Cursos();
+    private final MatriculaService matriculas = new Matriculas();
+    private final EvaluacionService evaluaciones = new Evaluaciones();
+    private final IntentoService intentos = new Intentos();
+    private final ReporteService reportes = new Reportes();
+    private final Autenticacion autenticacion;
+
+    // -- Constructor --
+
+    /**
+     * Crea las métricas sobre los servicios indicados.
+     *
+     * @param auth servicio de autenticación
+     * @param usuarioService servicio de usuarios
+     * @param cursoService servicio de cursos
+     * @param matriculaService servicio de matrículas
+     * @param evaluacionService servicio de evaluaciones
+     * @param intentoService servicio de intentos
+     * @param reporteService servicio de reportes
+     */
+    public MetricasServicios(Autenticacion auth, UsuarioService usuarioService, CursoService cursoService,
+                             MatriculaService matriculaService, EvaluacionService evaluacionService,
+                             IntentoService intentoService, ReporteService reporteService) {
+        this.auth = Objects.requireNonNull(auth);
+        this.usuarioService = Objects.requireNonNull(usuarioService);
+        this.cursoService = Objects.requireNonNull(cursoService);
+        this.matriculaService = Objects.requireNonNull(matriculaService);
+        this.evaluacionService = Objects.requireNonNull(evaluacionService);
+        this.intentoService = Objects.requireNonNull(intentoService);
+        this.reporteService = Objects.requireNonNull(reporteService);
+        this.autenticacion = new Autenticaciones();
+    }
+
+    /**
+     * Ruta por defecto del volcado: junto al archivo de datos.
+     *
+     * @return ruta del archivo
+     */
+    public static Path archivoPorDefecto() {
+        return PersistenciaJson.archivoPorDefecto().resolveSibling("metricas.json");
+    }
+
+    // -- Accesos a los servicios medidos --
+
+    /** @return servicio de usuarios medido */
+    public UsuarioService usuarios() { return usuarios; }
+
+    /** @return servicio de cursos medido */
+    public CursoService cursos() { return cursos; }
+
+    /** @return servicio de matrículas medido */
+    public MatriculaService matriculas() { return matriculas; }
+
+    /** @return servicio de evaluaciones medido */
+    public EvaluacionService evaluaciones() { return evaluaciones; }
+
+    /** @return servicio de intentos medido */
+    public IntentoService intentos() { return intentos; }
+
+    /** @return servicio de reportes medido */
+    public ReporteService reportes() { return reportes; }
+
+    /** @return servicio de autenticación medido */
+    public Autenticacion autenticacion() { return autenticacion; }
+
+    // -- Consultas --
+
+    /**
+     * Devuelve el estado actual de las métricas, ordenado por nombre de método.
+     *
+     * @return una fila por método llamado al menos una vez
+     */
+    public List<Instantanea> instantanea() {
+        List<Instantanea> res = new ArrayList<>();
+        for (Map.Entry<String, Metodo> e : metodos.entrySet()) {
+            Metodo m = e.getValue();
+            HistogramaLatencias h = m.latencias;
+            res.add(new Instantanea(e.getKey(), m.llamadas.sum(), m.errores.sum(), h.getPromedio(),
+                    h.percentil(0.50), h.percentil(0.90), h.percentil(0.99), h.getMaximo()));
+        }
+        res.sort(Comparator.comparing(i -> i.metodo));
+        return res;
+    }
+
+    // -- Volcado periódico --
+
+    /**
+     * Escribe la instantánea en el archivo cada {@code periodo}, en un hilo de
+     * fondo. Si ya había un volcado activo, se reemplaza.
+     *
+     * @param archivo archivo JSON de destino (se sobrescribe)
+     * @param periodo tiempo entre volcados
+     */
+    public synchronized void iniciarVolcado(Path archivo, Duration periodo) {
+        Objects.requireNonNull(archivo, "Archivo requerido.");
+        if (periodo == null || periodo.isNegative() || periodo.isZero())
+            throw new IllegalArgumentException("Periodo de volcado inválido.");
+        detenerVolcado();
+        volcado = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "metricas-volcado");
+            t.setDaemon(true);
+            return t;
+        });
+        long ms = periodo.toMillis();
+        volcado.scheduleAtFixedRate(() -> {
+            try {
+                volcar(archivo);
+            } catch (IOException ex) {
+                System.out.println("[metricas] No se pudo escribir " + archivo + ": " + ex.getMessage());
+            }
+        }, ms, ms, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Escribe la instantánea actual en un archivo JSON (primero en un temporal
+     * que luego reemplaza al archivo).
+     *
+     * @param archivo archivo de destino
+     * @throws IOException si falla la escritura
+     */
+    public void volcar(Path archivo) throws IOException {
+        Path dir = archivo.toAbsolutePath().getParent();
+        if (dir != null) Files.createDirectories(dir);
+        Path tmp = archivo.resolveSibling(archivo.getFileName() + ".tmp");
+
+        try (BufferedWriter bw = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8);
+             JsonWriter w = new JsonWriter(bw)) {
+            w.setIndent("  ");
+            w.beginObject();
+            w.name("fecha").value(LocalDateTime.now().toString());
+            w.name("metodos").beginArray();
+            for (Instantanea i : instantanea()) {
+                w.beginObject();
+                w.name("metodo").value(i.metodo);
+                w.name("llamadas").value(i.llamadas);
+                w.name("errores").value(i.errores);
+                w.name("promedioNanos").value(Math.round(i.promedioNanos));
+                w.name("p50Nanos").value(i.p50Nanos);
+                w.name("p90Nanos").value(i.p90Nanos);
+                w.name("p99Nanos").value(i.p99Nanos);
+                w.name("maximoNanos").value(i.maximoNanos);
+                w.endObject();
+            }
+            w.endArray();
+            w.endObject();
+        }
+        Files.move(tmp, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /** Detiene el volcado periódico, si estaba activo. */
+    public synchronized void detenerVolcado() {
+        if (volcado != null) {
+            volcado.shutdownNow();
+            volcado = null;
+        }
+    }
+
+    /** Detiene el volcado periódico. */
+    @Override
+    public void close() {
+        detenerVolcado();
+    }
+
+    // -- Medición --
+
+    /** Contadores e histograma de un método. */
+    private static final class Metodo {
+        final LongAdder llamadas = new LongAdder();
+        final LongAdder errores = new LongAdder();
+        final HistogramaLatencias latencias = new HistogramaLatencias();
+    }
+
+    /** Métricas de un método, creándolas en su primera llamada. */
+    private Metodo metodo(String nombre) {
+        Metodo m = metodos.get(nombre);
+        return m != null ? m : metodos.computeIfAbsent(nombre, k -> new Metodo());
+    }
+
+    /** Operación medida que puede lanzar excepciones verificadas. */
+    @FunctionalInterface
+    private interface Llamada<T> {
+        T ejecutar() throws Exception;
+    }
+
+    /** Ejecuta y mide una llamada que no lanza excepciones verificadas. */
+    private <T> T medir(String nombre, Supplier<T> llamada) {
+        Metodo m = metodo(nombre);
+        long t0 = System.nanoTime();
+        boolean ok = false;
+        try {
+            T res = llamada.get();
+            ok = true;
+            return res;
+        } finally {
+            registrar(m, t0, ok);
+        }
+    }
+
+    /** Versión de {@link #medir(String, Supplier)} para métodos sin valor de retorno. */
+    private void medir(String nombre, Runnable llamada) {
+        Metodo m = metodo(nombre);
+        long t0 = System.nanoTime();
+        boolean ok = false;
+        try {
+            llamada.run();
+            ok = true;
+        } finally {
+            registrar(m, t0, ok);
+        }
+    }
+
+    /** Versión de {@link #medir(String, Supplier)} para métodos con excepciones verificadas. */
+    private <T> T medirConExcepcion(String nombre, Llamada<T> llamada) throws Exception {
+        Metodo m = metodo(nombre);
+        long t0 = System.nanoTime();
+        boolean ok = false;
+        try {
+            T res = llamada.ejecutar();
+            ok = true;
+            return res;
+        } finally {
+            registrar(m, t0, ok);
+        }
+    }
+
+    private static void registrar(Metodo m, long t0, boolean ok) {
+        m.latencias.registrar(System.nanoTime() - t0);
+        m.llamadas.increment();
+        if (!ok) m.errores.increment();
+    }
+
+    // -- Resultado --
+
+    /** Estado de las métricas de un método. */
+    public static final class Instantanea {
+
+        /** Método, como {@code Servicio.metodo}. */
+        public final String metodo;
+
+        /** Llamadas registradas (incluye las fallidas). */
+        public final long llamadas;
+
+        /** Llamadas que terminaron con una excepción. */
+        public final long errores;
+
+        /** Latencia promedio en nanosegundos. */
+        public final double promedioNanos;
+
+        /** Percentiles 50, 90 y 99 y máximo de la latencia, en nanosegundos. */
+        public final long p50Nanos, p90Nanos, p99Nanos, maximoNanos;
+
+        Instantanea(String metodo, long llamadas, long errores, double promedioNanos,
+                    long p50Nanos, long p90Nanos, long p99Nanos, long maximoNanos) {
+            this.metodo = metodo;
+            this.llamadas = llamadas;
+            this.errores = errores;
+            this.promedioNanos = promedioNanos;
+            this.p50Nanos = p50Nanos;
+            this.p90Nanos = p90Nanos;
+            this.p99Nanos = p99Nanos;
+            this.maximoNanos = maximoNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d llamadas, %d errores, p50 %.3f ms, p99 %.3f ms, máx %.3f ms",
+                    metodo, llamadas, errores, p50Nanos / 1e6, p99Nanos / 1e6, maximoNanos / 1e6);
+        }
+    }
+
+    // -- Decoradores --
+
+    /** {@link UsuarioService} medido. */
+    private final class Usuarios implements UsuarioService {
+        @Override public List<Estudiante> listarEstudiantes() { return medir("UsuarioService.listarEstudiantes", usuarioService::listarEstudiantes); }
+        @Override public List<Profesor> listarProfesores() { return medir("UsuarioService.listarProfesores", usuarioService::listarProfesores); }
+        @Override public Estudiante buscarEstudiante(String id) { return medir("UsuarioService.buscarEstudiante", () -> usuarioService.buscarEstudiante(id)); }
+        @Override public Profesor buscarProfesor(String id) { return medir("UsuarioService.buscarProfesor", () -> usuarioService.buscarProfesor(id)); }
+        @Override public Usuario buscarPorCorreo(String correo) { return medir("UsuarioService.buscarPorCorreo", () -> usuarioService.buscarPorCorreo(correo)); }
+        @Override public void agregarEstudiante(Estudiante e) { medir("UsuarioService.agregarEstudiante", () -> usuarioService.agregarEstudiante(e)); }
+        @Override public void actualizarEstudiante(Estudiante e) { medir("UsuarioService.actualizarEstudiante", () -> usuarioService.actualizarEstudiante(e)); }
+        @Override public void eliminarEstudiante(Estudiante e) { medir("UsuarioService.eliminarEstudiante", () -> usuarioService.eliminarEstudiante(e)); }
+        @Override public void agregarProfesor(Profesor p) { medir("UsuarioService.agregarProfesor", () -> usuarioService.agregarProfesor(p)); }
+        @Override public void actualizarProfesor(Profesor p) { medir("UsuarioService.actualizarProfesor", () -> usuarioService.actualizarProfesor(p)); }
+        @Override public void eliminarProfesor(Profesor p) { medir("UsuarioService.eliminarProfesor", () -> usuarioService.eliminarProfesor(p)); }
+        @Override public boolean restablecerContrasena(String identificacion) {
+            return medir("UsuarioService.restablecerContrasena", () -> usuarioService.restablecerContrasena(identificacion));
+        }
+    }
+
+    /** {@link CursoService} medido. */
+    private final class Cursos implements CursoService {
+        @Override public List<Curso> listarCursos() { return medir("CursoService.listarCursos", cursoService::listarCursos); }
+        @Override public void agregarCurso(Curso c) { medir("CursoService.agregarCurso", () -> cursoService.agregarCurso(c)); }
+        @Override public void actualizarCurso(Curso c) { medir("CursoService.actualizarCurso", () -> cursoService.actualizarCurso(c)); }
+        @Override public void eliminarCurso(String idCurso) { medir("CursoService.eliminarCurso", () -> cursoService.eliminarCurso(idCurso)); }
+        @Override public Curso buscarCurso(String idCurso) { return medir("CursoService.buscarCurso", () -> cursoService.buscarCurso(idCurso)); }
+        @Override public List<Grupo> listarGrupos(Curso curso) { return medir("CursoService.listarGrupos", () -> cursoService.listarGrupos(curso)); }
+        @Override public Grupo buscarGrupo(int idGrupo) { return medir("CursoService.buscarGrupo(id)", () -> cursoService.buscarGrupo(idGrupo)); }
+        @Override public Grupo buscarGrupo(Curso curso, int idGrupo) { return medir("CursoService.buscarGrupo(curso,id)", () -> cursoService.buscarGrupo(curso, idGrupo)); }
+        @Override public Grupo crearGrupo(Curso curso, LocalDate inicio, LocalDate fin) {
+            return medir("CursoService.crearGrupo", () -> cursoService.crearGrupo(curso, inicio, fin));
+        }
+        @Override public void actualizarGrupoFechas(Curso curso, int idGrupo, LocalDate inicio, LocalDate fin) {
+            medir("CursoService.actualizarGrupoFechas", () -> cursoService.actualizarGrupoFechas(curso, idGrupo, inicio, fin));
+        }
+        @Override public void asignarProfesor(Curso curso, int idGrupo, Profesor profesor) {
+            medir("CursoService.asignarProfesor", () -> cursoService.asignarProfesor(curso, idGrupo, profesor));
+        }
+        @Override public void eliminarGrupo(Curso curso, int idGrupo) {
+            medir("CursoService.eliminarGrupo", () -> cursoService.eliminarGrupo(curso, idGrupo));
+        }
+    }
+
+    /** {@link MatriculaService} medido. */
+    private final class Matriculas implements MatriculaService {
+        @Override public List<Grupo> gruposDelEstudiante(String idEstudiante) {
+            return medir("MatriculaService.gruposDelEstudiante", () -> matriculaService.gruposDelEstudiante(idEstudiante));
+        }
+        @Override public List<Matricula> listarMatriculas(String idEstudiante) {
+            return medir("MatriculaService.listarMatriculas", () -> matriculaService.listarMatriculas(idEstudiante));
+        }
+        @Override public boolean matricular(String idEstudiante, Curso curso, int idGrupo) {
+            return medir("MatriculaService.matricular", () -> matriculaService.matricular(idEstudiante, curso, idGrupo));
+        }
+        @Override public boolean desmatricular(String idEstudiante, Curso curso, int idGrupo) {
+            return medir("MatriculaService.desmatricular", () -> matriculaService.desmatricular(idEstudiante, curso, idGrupo));
+        }
+        @Override public int inscribirEnEspera(String idEstudiante, Curso curso, int idGrupo) {
+            return medir("MatriculaService.inscribirEnEspera", () -> matriculaService.inscribirEnEspera(idEstudiante, curso, idGrupo));
+        }
+        @Override public boolean salirDeEspera(String idEstudiante, Curso curso, int idGrupo) {
+            return medir("MatriculaService.salirDeEspera", () -> matriculaService.salirDeEspera(idEstudiante, curso, idGrupo));
+        }
+    }
+
+    /** {@link EvaluacionService} medido. */
+    private final class Evaluaciones implements EvaluacionService {
+        @Override public List<Evaluacion> listarPorProfesor(String idProfesor) {
+            return medir("EvaluacionService.listarPorProfesor", () -> evaluacionService.listarPorProfesor(idProfesor));
+        }
+        @Override public Evaluacion crear(String idProfesor, Evaluacion evaluacion) {
+            return medir("EvaluacionService.crear", () -> evaluacionService.crear(idProfesor, evaluacion));
+        }
+        @Override public void actualizar(String idProfesor, Evaluacion evaluacion) {
+            medir("EvaluacionService.actualizar", () -> evaluacionService.actualizar(idProfesor, evaluacion));
+        }
+        @Override public void eliminar(String idProfesor, int idEvaluacion) {
+            medir("EvaluacionService.eliminar", () -> evaluacionService.eliminar(idProfesor, idEvaluacion));
+        }
+        @Override public void agregarPregunta(String idProfesor, int idEvaluacion, IPregunta pregunta) {
+            medir("EvaluacionService.agregarPregunta", () -> evaluacionService.agregarPregunta(idProfesor, idEvaluacion, pregunta));
+        }
+        @Override public void actualizarPregunta(String idProfesor, int idEvaluacion, int index, IPregunta pregunta) {
+            medir("EvaluacionService.actualizarPregunta",
+                    () -> evaluacionService.actualizarPregunta(idProfesor, idEvaluacion, index, pregunta));
+        }
+        @Override public void eliminarPregunta(String idProfesor, int idEvaluacion, int index) {
+            medir("EvaluacionService.eliminarPregunta", () -> evaluacionService.eliminarPregunta(idProfesor, idEvaluacion, index));
+        }
+        @Override public void asociarAGrupo(String idProfesor, int idEvaluacion, Curso curso, int idGrupo, LocalDateTime inicio) {
+            medir("EvaluacionService.asociarAGrupo",
+                    () -> evaluacionService.asociarAGrupo(idProfesor, idEvaluacion, curso, idGrupo, inicio));
+        }
+        @Override public void desasociarDeGrupo(String idProfesor, int idEvaluacion, Curso curso, int idGrupo,
+                                                LocalDateTime momento) {
+            medir("EvaluacionService.desasociarDeGrupo",
+                    () -> evaluacionService.desasociarDeGrupo(idProfesor, idEvaluacion, curso, idGrupo, momento));
+        }
+    }
+
+    /** {@link IntentoService} medido. */
+    private final class Intentos implements IntentoService {
+        @Override public void guardar(IntentoEvaluacion intento) { medir("IntentoService.guardar", () -> intentoService.guardar(intento)); }
+        @Override public List<IntentoEvaluacion> listarPorEstudiante(String idEstudiante) {
+            return medir("IntentoService.listarPorEstudiante", () -> intentoService.listarPorEstudiante(idEstudiante));
+        }
+        @Override public List<IntentoEvaluacion> listarPorGrupo(int idGrupo) {
+            return medir("IntentoService.listarPorGrupo", () -> intentoService.listarPorGrupo(idGrupo));
+        }
+        @Override public List<IntentoEvaluacion> listarPorEvaluacion(int idEvaluacion) {
+            return medir("IntentoService.listarPorEvaluacion", () -> intentoService.listarPorEvaluacion(idEvaluacion));
+        }
+        @Override public List<IntentoEvaluacion> listarTodos() { return medir("IntentoService.listarTodos", intentoService::listarTodos); }
+    }
+
+    /** {@link ReporteService} medido. */
+    private final class Reportes implements ReporteService {
+        @Override public Path generarListaEstudiantes(LocalDate fechaVigencia, Scope scope) throws Exception {
+            return medirConExcepcion("ReporteService.generarListaEstudiantes",
+                    () -> reporteService.generarListaEstudiantes(fechaVigencia, scope));
+        }
+        @Override public Path generarEstadisticaMatricula(LocalDate fechaVigencia, Scope scope) throws Exception {
+            return medirConExcepcion("ReporteService.generarEstadisticaMatricula",
+                    () -> reporteService.generarEstadisticaMatricula(fechaVigencia, scope));
+        }
+        @Override public boolean exportarIntento(IntentoEvaluacion intento, File destino) {
+            return medir("ReporteService.exportarIntento", () -> reporteService.exportarIntento(intento, destino));
+        }
+        @Override public Path exportarIntentos(List<IntentoEvaluacion> intentos, File destino, FormatoIntentos formato) throws Exception {
+            return medirConExcepcion("ReporteService.exportarIntentos",
+                    () -> reporteService.exportarIntentos(intentos, destino, formato));
+        }
+    }
+
+    /**
+     * {@link Autenticacion} medida: delega todo en la original, incluido su
+     * ejecutor. Las variantes {@code *Async} se miden al ejecutarse en el
+     * ejecutor (sin contar la espera en cola).
+     */
+    private final class Autenticaciones extends Autenticacion {
+        @Override public void upsertUsuario(String id, String correo, Roles rol, Password credencial) {
+            medir("Autenticacion.upsertUsuario", () -> auth.upsertUsuario(id, correo, rol, credencial));
+        }
+        @Override public ResultadoLogin login(String identificacion, char[] password) {
+            return medir("Autenticacion.login", () -> auth.login(identificacion, password));
+        }
+        @Override public boolean recuperarContrasena(String identificacion) {
+            return medir("Autenticacion.recuperarContrasena", () -> auth.recuperarContrasena(identificacion));
+        }
+        @Override public boolean cambiarContrasena(String identificacion, char[] actual, String nueva) {
+            return medir("Autenticacion.cambiarContrasena", () -> auth.cambiarContrasena(identificacion, actual, nueva));
+        }
+        @Override public boolean establecerNuevaTrasTemporal(String identificacion, String nueva) {
+            return medir("Autenticacion.establecerNuevaTrasTemporal", () -> auth.establecerNuevaTrasTemporal(identificacion, nueva));
+        }
+        @Override public <T> CompletableFuture<T> ejecutarAsync(Supplier<T> tarea) { return auth.ejecutarAsync(tarea); }
+        @Override public void cerrar() { auth.cerrar(); }
+        @Override Set<String> idsRegistrados() { return auth.idsRegistrados(); }
+        @Override Roles obtenerRol(String id) { return auth.obtenerRol(id); }
+        @Override String obtenerCorreo(String id) { return auth.obtenerCorreo(id); }
+        @Override Password obtenerCredencial(String id) { return auth.obtenerCredencial(id); }
+    }
+}
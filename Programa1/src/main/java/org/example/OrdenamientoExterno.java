@@ -0,0 +1,196 @@
+package org.example;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Ordenamiento externo por mezcla, con memoria acotada.
+ * <p>
+ * Los elementos se acumulan en tandas de a lo sumo {@code elementosPorTanda};
+ * cada tanda llena se ordena y se vuelca a un archivo temporal. Al recorrer,
+ * las tandas se mezclan leyendo un elemento a la vez de cada archivo, así que
+ * en memoria solo hay una tanda y un búfer por archivo. Si todo cabe en la
+ * primera tanda no se escribe ningún archivo.
+ * </p>
+ * <p>
+ * El orden es estable: entre elementos iguales se conserva el orden en que se
+ * agregaron. Los archivos temporales se borran al cerrar.
+ * </p>
+ *
+ * @param <T> tipo de los elementos
+ */
+public final class OrdenamientoExterno<T> implements Closeable {
+
+    /** Lectura y escritura binaria de un elemento en los archivos de tanda. */
+    public interface Formato<T> {
+        void escribir(DataOutput out, T valor) throws IOException;
+        T leer(DataInput in) throws IOException;
+    }
+
+    /** Acción aplicada a cada elemento, en orden. */
+    @FunctionalInterface
+    public interface Accion<T> {
+        void aplicar(T valor) throws IOException;
+    }
+
+    /** Tamaño del búfer de cada archivo de tanda. */
+    private static final int TAMANIO_BUFER = 64 * 1024;
+
+    // -- Estado --
+
+    private final Comparator<? super T> orden;
+    private final Formato<T> formato;
+    private final int elementosPorTanda;
+
+    /** Tanda en memoria, todavía sin ordenar. */
+    private final List<T> tanda = new ArrayList<>();
+
+    /** Archivos de tanda ya ordenados, en el orden en que se escribieron. */
+    private final List<Path> archivos = new ArrayList<>();
+
+    private long cantidad;
+
+    // -- Constructor --
+
+    /**
+     * Crea un ordenamiento vacío.
+     *
+     * @param orden criterio de orden
+     * @param formato formato de los elementos en disco
+     * @param elementosPorTanda máximo de elementos en memoria antes de volcar a disco
+     */
+    public OrdenamientoExterno(Comparator<? super T> orden, Formato<T> formato, int elementosPorTanda) {
+        if (elementosPorTanda < 1) throw new IllegalArgumentException("La tanda debe admitir al menos un elemento.");
+        this.orden = orden;
+        this.formato = formato;
+        this.elementosPorTanda = elementosPorTanda;
+    }
+
+    // -- Carga --
+
+    /**
+     * Agrega un elemento; si la tanda se llena, la ordena y la vuelca a disco.
+     *
+     * @param valor elemento a agregar
+     * @throws IOException si falla la escritura de la tanda
+     */
+    public void agregar(T valor) throws IOException {
+        tanda.add(valor);
+        cantidad++;
+        if (tanda.size() >= elementosPorTanda) volcarTanda();
+    }
+
+    /** @return cantidad de elementos agregados */
+    public long getCantidad() {
+        return cantidad;
+    }
+
+    /** @return cantidad de tandas escritas en disco */
+    public int getTandasEnDisco() {
+        return archivos.size();
+    }
+
+    // -- Recorrido --
+
+    /**
+     * Aplica la acción a todos los elementos, en orden.
+     *
+     * @param accion acción a aplicar
+     * @throws IOException si falla la lectura de las tandas o la acción
+     */
+    public void recorrer(Accion<? super T> accion) throws IOException {
+        if (archivos.isEmpty()) {
+            tanda.sort(orden);
+            for (T v : tanda) accion.aplicar(v);
+            return;
+        }
+        if (!tanda.isEmpty()) volcarTanda();
+
+        List<Cabeza<T>> cabezas = new ArrayList<>(archivos.size());
+        PriorityQueue<Cabeza<T>> cola = new PriorityQueue<>(Math.max(1, archivos.size()),
+                Comparator.comparing((Cabeza<T> c) -> c.valor, orden).thenComparingInt(c -> c.indice));
+        try {
+            for (int i = 0; i < archivos.size(); i++) {
+                Cabeza<T> c = new Cabeza<>(i, new DataInputStream(
+                        new BufferedInputStream(Files.newInputStream(archivos.get(i)), TAMANIO_BUFER)));
+                cabezas.add(c);
+                if (c.avanzar(formato)) cola.add(c);
+            }
+            while (!cola.isEmpty()) {
+                Cabeza<T> c = cola.poll();
+                accion.aplicar(c.valor);
+                if (c.avanzar(formato)) cola.add(c);
+            }
+        } finally {
+            for (Cabeza<T> c : cabezas) c.in.close();
+        }
+    }
+
+    /** Borra los archivos temporales. */
+    @Override
+    public void close() throws IOException {
+        tanda.clear();
+        IOException error = null;
+        for (Path p : archivos) {
+            try {
+                Files.deleteIfExists(p);
+            } catch (IOException e) {
+                if (error == null) error = e;
+            }
+        }
+        archivos.clear();
+        if (error != null) throw error;
+    }
+
+    // -- Métodos auxiliares --
+
+    /** Ordena la tanda en memoria y la escribe en un archivo temporal nuevo. */
+    private void volcarTanda() throws IOException {
+        tanda.sort(orden);
+        Path archivo = Files.createTempFile("orden-", ".tanda");
+        archivos.add(archivo);
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(archivo), TAMANIO_BUFER))) {
+            out.writeInt(tanda.size());
+            for (T v : tanda) formato.escribir(out, v);
+        }
+        tanda.clear();
+    }
+
+    /** Lectura en curso de un archivo de tanda: su elemento actual y cuántos quedan. */
+    private static final class Cabeza<T> {
+        final int indice;
+        final DataInputStream in;
+        int restantes = -1;
+        T valor;
+
+        Cabeza(int indice, DataInputStream in) {
+            this.indice = indice;
+            this.in = in;
+        }
+
+        /** Lee el siguiente elemento; devuelve {@code false} si el archivo se agotó. */
+        boolean avanzar(Formato<T> formato) throws IOException {
+            if (restantes < 0) restantes = in.readInt();
+            if (restantes == 0) {
+                valor = null;
+                return false;
+            }
+            restantes--;
+            valor = formato.leer(in);
+            return true;
+        }
+    }
+}
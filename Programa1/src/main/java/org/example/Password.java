@@ -21,11 +21,20 @@ public class Password {
     /** Identificador del usuario propietario de la contraseña. */
     private String idUsuario;
 
-    /** Contraseña encriptada del usuario. */
-    private String password;
+    /** Contraseña encriptada del usuario (puede leerse desde otros hilos). */
+    private volatile String password;
 
     /** Indica si la contraseña es temporal. */
-    private boolean temp;
+    private volatile boolean temp;
+
+    /** Costo por defecto de BCrypt (2^costo rondas). */
+    public static final int COSTO_POR_DEFECTO = 10;
+
+    /**
+     * Costo de BCrypt usado al encriptar. Se puede definir al iniciar con la
+     * propiedad de sistema {@code bcrypt.costo}.
+     */
+    private static volatile int costo = leerCostoInicial();
 
     /** Lista de letras mayúsculas y minúsculas. */
     private final ArrayList<String> letras = new ArrayList<>(Arrays.asList(
@@ -69,6 +78,22 @@ public class Password {
     public boolean getTemp() { return temp; }
     public void setTemp(boolean pTemp) { this.temp = pTemp; }
 
+    /** @return costo de BCrypt usado en las nuevas encriptaciones */
+    public static int getCosto() { return costo; }
+
+    /**
+     * Define el costo de BCrypt para las nuevas encriptaciones. Las contraseñas
+     * ya encriptadas conservan su costo, que va incluido en el hash.
+     *
+     * @param nCosto costo entre 4 y 31
+     * @throws IllegalArgumentException si el costo está fuera de rango
+     */
+    public static void setCosto(int nCosto) {
+        if (nCosto < 4 || nCosto > 31)
+            throw new IllegalArgumentException("Costo de BCrypt inválido (4-31): " + nCosto);
+        costo = nCosto;
+    }
+
     // -- Métodos principales --
 
     /**
@@ -84,12 +109,13 @@ public class Password {
     }
 
     /**
-     * Encripta la contraseña usando el algoritmo {@link BCrypt}.
+     * Encripta la contraseña usando el algoritmo {@link BCrypt} con el costo
+     * configurado ({@link #getCosto()}).
      *
      * @param password texto plano de la contraseña a encriptar
      */
     public void encriptar(String password) {
-        this.password = BCrypt.hashpw(password, BCrypt.gensalt());
+        this.password = BCrypt.hashpw(password, BCrypt.gensalt(costo));
     }
 
     /**
@@ -122,6 +148,18 @@ public class Password {
 
     // -- Auxiliares --
 
+    /** Lee el costo inicial de la propiedad {@code bcrypt.costo} (o usa el valor por defecto). */
+    private static int leerCostoInicial() {
+        String prop = System.getProperty("bcrypt.costo");
+        if (prop == null) return COSTO_POR_DEFECTO;
+        try {
+            int c = Integer.parseInt(prop.trim());
+            return (c < 4 || c > 31) ? COSTO_POR_DEFECTO : c;
+        } catch (NumberFormatException ex) {
+            return COSTO_POR_DEFECTO;
+        }
+    }
+
     /**
      * Devuelve un carácter aleatorio de acuerdo al tipo especificado.
      *
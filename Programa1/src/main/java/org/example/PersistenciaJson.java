@@ -0,0 +1,1077 @@
+package org.example;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Persistencia del estado completo del sistema en un archivo JSON.
+ * <p>
+ * Guarda y restaura usuarios, credenciales de {@link Autenticacion}, cursos,
+ * grupos, matrículas, evaluaciones (con sus tres tipos de {@link IPregunta}),
+ * asignaciones a grupos e intentos. Se usa la API de streaming de Gson
+ * ({@link JsonWriter}/{@link JsonReader}), de modo que nunca se construye el
+ * árbol JSON completo en memoria.
+ * </p>
+ * <p>
+ * Las referencias entre objetos se guardan por ID y las secciones se escriben
+ * en orden de dependencia (usuarios, cursos, evaluaciones, asignaciones e
+ * intentos), por lo que la lectura se resuelve en una sola pasada.
+ * Al terminar se restauran los contadores de {@link Grupo} y {@link Evaluacion}.
+ * </p>
+ * <p>
+ * Los métodos estáticos de escritura y lectura de cada entidad son de paquete
+ * para que otros componentes (por ejemplo, la bitácora de escritura) usen el
+ * mismo formato.
+ * </p>
+ */
+public class PersistenciaJson {
+
+    /** Versión del formato del archivo. */
+    private static final int VERSION = 1;
+
+    // -- Dependencias --
+
+    private final Autenticacion auth;
+    private final UsuarioService usuarioService;
+    private final CursoService cursoService;
+    private final EvaluacionService evaluacionService;
+    private final IntentoService intentoService;
+
+    /** Último número de secuencia de la bitácora incluido en el estado guardado. */
+    private long secuencia;
+
+    // -- Constructor --
+
+    /**
+     * Crea el componente de persistencia sobre los servicios indicados.
+     *
+     * @param auth servicio de autenticación
+     * @param usuarioService servicio de usuarios
+     * @param cursoService servicio de cursos
+     * @param evaluacionService servicio de evaluaciones
+     * @param intentoService servicio de intentos
+     */
+    public PersistenciaJson(Autenticacion auth, UsuarioService usuarioService, CursoService cursoService,
+                            EvaluacionService evaluacionService, IntentoService intentoService) {
+        this.auth = Objects.requireNonNull(auth);
+        this.usuarioService = Objects.requireNonNull(usuarioService);
+        this.cursoService = Objects.requireNonNull(cursoService);
+        this.evaluacionService = Objects.requireNonNull(evaluacionService);
+        this.intentoService = Objects.requireNonNull(intentoService);
+    }
+
+    /**
+     * Ruta por defecto del archivo de datos: {@code ~/datos_sistema/datos.json}.
+     *
+     * @return ruta del archivo
+     */
+    public static Path archivoPorDefecto() {
+        return Path.of(System.getProperty("user.home"), "datos_sistema", "datos.json");
+    }
+
+    /**
+     * Número de secuencia de la bitácora de escritura que refleja el estado
+     * guardado o restaurado; los registros con secuencia menor o igual ya están
+     * incluidos en el archivo.
+     *
+     * @return último número de secuencia incluido
+     */
+    public long getSecuencia() {
+        return secuencia;
+    }
+
+    /**
+     * Define el número de secuencia que se escribirá en el próximo {@link #guardar}.
+     *
+     * @param secuencia último número de secuencia incluido en el estado actual
+     */
+    public void setSecuencia(long secuencia) {
+        this.secuencia = secuencia;
+    }
+
+    // -- Escritura del estado completo --
+
+    /**
+     * Guarda el estado completo en el archivo indicado.
+     * <p>
+     * Se escribe primero a un archivo temporal y luego se reemplaza el destino,
+     * para no dejar un archivo a medias si el proceso se interrumpe.
+     * </p>
+     *
+     * @param archivo archivo de destino
+     * @throws IOException si ocurre un error de escritura
+     */
+    public void guardar(Path archivo) throws IOException {
+        Path dir = archivo.toAbsolutePath().getParent();
+        if (dir != null) Files.createDirectories(dir);
+        Path tmp = archivo.resolveSibling(archivo.getFileName() + ".tmp");
+
+        try (BufferedWriter bw = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8);
+             JsonWriter w = new JsonWriter(bw)) {
+            w.beginObject();
+            w.name("version").value(VERSION);
+            w.name("secuencia").value(secuencia);
+
+            w.name("contadores").beginObject();
+            w.name("grupo").value(Grupo.getContador());
+            w.name("evaluacion").value(Evaluacion.getContador());
+            w.endObject();
+
+            w.name("credenciales").beginArray();
+            for (String id : auth.idsRegistrados()) {
+                escribirCredencial(w, id, auth.obtenerCorreo(id), auth.obtenerRol(id), auth.obtenerCredencial(id));
+            }
+            w.endArray();
+
+            w.name("estudiantes").beginArray();
+            for (Estudiante e : usuarioService.listarEstudiantes()) escribirEstudiante(w, e);
+            w.endArray();
+
+            w.name("profesores").beginArray();
+            for (Profesor p : usuarioService.listarProfesores()) escribirProfesor(w, p);
+            w.endArray();
+
+            escribirCursos(w);
+            escribirEvaluaciones(w);
+            escribirAsignaciones(w);
+            escribirIntentos(w);
+
+            w.endObject();
+        }
+        Files.move(tmp, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void escribirCursos(JsonWriter w) throws IOException {
+        w.name("cursos").beginArray();
+        for (Curso c : cursoService.listarCursos()) {
+            w.beginObject();
+            escribirDatosCurso(w, c);
+            w.name("grupos").beginArray();
+            for (Grupo g : cursoService.listarGrupos(c)) {
+                w.beginObject();
+                w.name("id").value(g.getIdGrupo());
+                w.name("inicio").value(texto(g.getFechaInicio()));
+                w.name("fin").value(texto(g.getFechaFinal()));
+                w.name("profesor").value(g.getProfesor() == null ? null : g.getProfesor().getIdUsuario());
+                w.name("matriculas").beginArray();
+                for (Matricula m : g.getMatriculas()) {
+                    if (m == null || m.getEstudiante() == null) continue;
+                    w.beginObject();
+                    w.name("estudiante").value(m.getEstudiante().getIdUsuario());
+                    w.name("fecha").value(texto(m.getFechaMatricula()));
+                    w.name("calificacionFinal").value(m.getCalificacionFinal());
+                    w.endObject();
+                }
+                w.endArray();
+                w.name("espera").beginArray();
+                for (Estudiante e : g.getListaEspera()) {
+                    if (e != null) w.value(e.getIdUsuario());
+                }
+                w.endArray();
+                w.endObject();
+            }
+            w.endArray();
+            w.endObject();
+        }
+        w.endArray();
+    }
+
+    private void escribirEvaluaciones(JsonWriter w) throws IOException {
+        w.name("evaluaciones").beginArray();
+        for (Profesor p : usuarioService.listarProfesores()) {
+            for (Evaluacion ev : evaluacionService.listarPorProfesor(p.getIdUsuario())) {
+                w.beginObject();
+                w.name("profesor").value(p.getIdUsuario());
+                escribirDatosEvaluacion(w, ev);
+                w.endObject();
+            }
+        }
+        w.endArray();
+    }
+
+    private void escribirAsignaciones(JsonWriter w) throws IOException {
+        w.name("asignaciones").beginArray();
+        for (Curso c : cursoService.listarCursos()) {
+            for (Grupo g : cursoService.listarGrupos(c)) {
+                if (g.getEvaluacionesAsignadas() == null) continue;
+                for (EvaluacionAsignada ea : g.getEvaluacionesAsignadas()) {
+                    if (ea == null || ea.getEvaluacion() == null) continue;
+                    w.beginObject();
+                    w.name("grupo").value(g.getIdGrupo());
+                    w.name("evaluacion").value(ea.getEvaluacion().getId());
+                    w.name("inicio").value(texto(ea.getFechaHoraInicio()));
+                    w.endObject();
+                }
+            }
+        }
+        w.endArray();
+    }
+
+    private void escribirIntentos(JsonWriter w) throws IOException {
+        // Posición de cada pregunta dentro de su evaluación (por identidad)
+        Map<Evaluacion, Map<IPregunta, Integer>> posiciones = new IdentityHashMap<>();
+        w.name("intentos").beginArray();
+        for (IntentoEvaluacion it : intentoService.listarTodos()) {
+            escribirIntento(w, it, posiciones);
+        }
+        w.endArray();
+    }
+
+    // -- Lectura del estado completo --
+
+    /**
+     * Restaura el estado desde el archivo indicado.
+     * <p>
+     * Los servicios deben estar vacíos; los objetos se registran a través de
+     * sus operaciones normales ({@code agregarEstudiante}, {@code agregarCurso},
+     * {@code crear}, {@code guardar}, etc.).
+     * </p>
+     *
+     * @param archivo archivo a leer
+     * @throws IOException si el archivo no puede leerse o su formato es inválido
+     */
+    public void cargar(Path archivo) throws IOException {
+        Contexto ctx = new Contexto();
+        int[] contadores = {0, 1};
+        try (BufferedReader br = Files.newBufferedReader(archivo, StandardCharsets.UTF_8);
+             JsonReader r = new JsonReader(br)) {
+            r.beginObject();
+            while (r.hasNext()) {
+                switch (r.nextName()) {
+                    case "version" -> {
+                        int v = r.nextInt();
+                        if (v > VERSION) throw new IOException("Versión de datos no soportada: " + v);
+                    }
+                    case "secuencia" -> secuencia = r.nextLong();
+                    case "contadores" -> {
+                        r.beginObject();
+                        while (r.hasNext()) {
+                            switch (r.nextName()) {
+                                case "grupo" -> contadores[0] = r.nextInt();
+                                case "evaluacion" -> contadores[1] = r.nextInt();
+                                default -> r.skipValue();
+                            }
+                        }
+                        r.endObject();
+                    }
+                    case "credenciales" -> leerArreglo(r, () -> leerCredencial(r, auth));
+                    case "estudiantes" -> leerArreglo(r, () -> {
+                        Estudiante e = leerEstudiante(r);
+                        usuarioService.agregarEstudiante(e);
+                        ctx.estudiantes.put(e.getIdUsuario(), e);
+                    });
+                    case "profesores" -> leerArreglo(r, () -> {
+                        Profesor p = leerProfesor(r);
+                        usuarioService.agregarProfesor(p);
+                        ctx.profesores.put(p.getIdUsuario(), p);
+                    });
+                    case "cursos" -> leerArreglo(r, () -> leerCurso(r, ctx));
+                    case "evaluaciones" -> leerArreglo(r, () -> leerEvaluacion(r, ctx));
+                    case "asignaciones" -> leerArreglo(r, () -> leerAsignacion(r, ctx));
+                    case "intentos" -> leerArreglo(r, () -> intentoService.guardar(leerIntento(r, ctx)));
+                    default -> r.skipValue();
+                }
+            }
+            r.endObject();
+        } catch (IllegalArgumentException | IllegalStateException ex) {
+            throw new IOException("Datos inválidos en " + archivo + ": " + ex.getMessage(), ex);
+        }
+        ctx.asignarMatriculas();
+        // Los grupos se agregan directamente a cada curso
+        if (cursoService instanceof CursoServiceIndexada indexada) indexada.reconstruirIndices();
+
+        // Los contadores nunca deben quedar por debajo de los IDs restaurados
+        Grupo.setContador(Math.max(contadores[0], ctx.maxGrupo));
+        Evaluacion.asegurarContador(Math.max(contadores[1], ctx.maxEvaluacion + 1));
+    }
+
+    private void leerCurso(JsonReader r, Contexto ctx) throws IOException {
+        DatosCurso d = new DatosCurso();
+        Curso curso = null;
+        r.beginObject();
+        while (r.hasNext()) {
+            String n = r.nextName();
+            if (d.leer(n, r)) continue;
+            if ("grupos".equals(n)) {
+                // Los datos del curso siempre preceden a sus grupos
+                curso = d.crear();
+                cursoService.agregarCurso(curso);
+                ctx.cursos.put(curso.getId(), curso);
+                Curso c = curso;
+                leerArreglo(r, () -> leerGrupo(r, c, ctx));
+            } else {
+                r.skipValue();
+            }
+        }
+        r.endObject();
+        if (curso == null) cursoService.agregarCurso(d.crear());
+    }
+
+    private void leerGrupo(JsonReader r, Curso curso, Contexto ctx) throws IOException {
+        Grupo g = null;
+        int id = 0;
+        LocalDate inicio = null, fin = null;
+        String idProfesor = null;
+        r.beginObject();
+        while (r.hasNext()) {
+            switch (r.nextName()) {
+                case "id" -> id = r.nextInt();
+                case "inicio" -> inicio = fecha(r);
+                case "fin" -> fin = fecha(r);
+                case "profesor" -> idProfesor = cadena(r);
+                case "matriculas" -> {
+                    g = crearGrupo(curso, id, inicio, fin, idProfesor, ctx);
+                    Grupo grupo = g;
+                    leerArreglo(r, () -> leerMatricula(r, grupo, ctx));
+                }
+                case "espera" -> {
+                    if (g == null) g = crearGrupo(curso, id, inicio, fin, idProfesor, ctx);
+                    Grupo grupo = g;
+                    leerArreglo(r, () -> {
+                        Estudiante e = ctx.estudiantes.get(r.nextString());
+                        if (e != null) grupo.getListaEspera().add(e);
+                    });
+                }
+                default -> r.skipValue();
+            }
+        }
+        r.endObject();
+        if (g == null) crearGrupo(curso, id, inicio, fin, idProfesor, ctx);
+    }
+
+    private Grupo crearGrupo(Curso curso, int id, LocalDate inicio, LocalDate fin, String idProfesor, Contexto ctx) {
+        Grupo g = new Grupo(curso, inicio, fin);
+        g.setIdGrupo(id);
+        curso.grupos.add(g);
+        Profesor p = idProfesor == null ? null : ctx.profesores.get(idProfesor);
+        if (p != null) {
+            g.setProfesor(p);
+            if (p.getGrupos() != null && !p.getGrupos().contains(g)) p.getGrupos().add(g);
+        }
+        ctx.registrarGrupo(g);
+        return g;
+    }
+
+    private void leerMatricula(JsonReader r, Grupo g, Contexto ctx) throws IOException {
+        String idEst = null;
+        LocalDate fecha = null;
+        double calif = 0.0;
+        r.beginObject();
+        while (r.hasNext()) {
+            switch (r.nextName()) {
+                case "estudiante" -> idEst = cadena(r);
+                case "fecha" -> fecha = fecha(r);
+                case "calificacionFinal" -> calif = r.nextDouble();
+                default -> r.skipValue();
+            }
+        }
+        r.endObject();
+        Estudiante e = idEst == null ? null : ctx.estudiantes.get(idEst);
+        if (e == null) return;
+
+        Matricula m = new Matricula(e, g);
+        if (fecha != null) m.setFechaMatricula(fecha);
+        m.setCalificacionFinal(calif);
+        g.getMatriculas().add(m);
+        // Se asignan al estudiante al final, una sola vez (ver Contexto#asignarMatriculas)
+        ctx.matriculas.computeIfAbsent(e, k -> new ArrayList<>()).add(m);
+    }
+
+    private void leerEvaluacion(JsonReader r, Contexto ctx) throws IOException {
+        DatosEvaluacion d = new DatosEvaluacion();
+        String idProfesor = null;
+        r.beginObject();
+        while (r.hasNext()) {
+            String n = r.nextName();
+            if (d.leer(n, r)) continue;
+            if ("profesor".equals(n)) idProfesor = cadena(r);
+            else r.skipValue();
+        }
+        r.endObject();
+
+        Evaluacion ev = d.crear();
+        evaluacionService.crear(idProfesor, ev);
+        Profesor p = ctx.profesores.get(idProfesor);
+        if (p != null && p.getEvaluaciones() != null) p.getEvaluaciones().add(ev);
+        ctx.registrarEvaluacion(ev);
+    }
+
+    private void leerAsignacion(JsonReader r, Contexto ctx) throws IOException {
+        int idGrupo = 0, idEval = 0;
+        LocalDateTime inicio = null;
+        r.beginObject();
+        while (r.hasNext()) {
+            switch (r.nextName()) {
+                case "grupo" -> idGrupo = r.nextInt();
+                case "evaluacion" -> idEval = r.nextInt();
+                case "inicio" -> inicio = fechaHora(r);
+                default -> r.skipValue();
+            }
+        }
+        r.endObject();
+        Grupo g = ctx.grupos.get(idGrupo);
+        Evaluacion ev = ctx.evaluaciones.get(idEval);
+        if (g == null || ev == null) return;
+        if (g.getEvaluacionesAsignadas() == null) g.setEvaluacionesAsignadas(new ArrayList<>());
+        g.getEvaluacionesAsignadas().add(new EvaluacionAsignada(ev, g, inicio));
+    }
+
+    // -- Formato por entidad (compartido) --
+
+    /** Escribe una credencial como objeto JSON. */
+    static void escribirCredencial(JsonWriter w, String id, String correo, Roles rol, Password p) throws IOException {
+        if (p == null || rol == null) return;
+        w.beginObject();
+        w.name("id").value(id);
+        w.name("correo").value(correo);
+        w.name("rol").value(rol.name());
+        w.name("hash").value(p.getPassword());
+        w.name("temporal").value(p.getTemp());
+        w.endObject();
+    }
+
+    /** Lee una credencial y la registra en el servicio de autenticación. */
+    static void leerCredencial(JsonReader r, Autenticacion auth) throws IOException {
+        String id = null, correo = null, rol = null, hash = null;
+        boolean temporal = false;
+        r.beginObject();
+        while (r.hasNext()) {
+            switch (r.nextName()) {
+                case "id" -> id = cadena(r);
+                case "correo" -> correo = cadena(r);
+                case "rol" -> rol = cadena(r);
+                case "hash" -> hash = cadena(r);
+                case "temporal" -> temporal = r.nextBoolean();
+                default -> r.skipValue();
+            }
+        }
+        r.endObject();
+        if (id == null || rol == null || hash == null) return;
+        auth.upsertUsuario(id, correo, Roles.valueOf(rol), new Password(id, hash, temporal));
+    }
+
+    /** Escribe un estudiante como objeto JSON. */
+    static void escribirEstudiante(JsonWriter w, Estudiante e) throws IOException {
+        w.beginObject();
+        escribirUsuario(w, e);
+        w.name("orgDL").value(e.getOrgDL());
+        escribirTextos(w, "temas", e.getTemIN());
+        w.endObject();
+    }
+
+    /** Lee un estudiante (sin registrarlo en ningún servicio). */
+    static Estudiante leerEstudiante(JsonReader r) throws IOException {
+        DatosUsuario u = new DatosUsuario();
+        String orgDL = null;
+        List<String> temas = List.of();
+        r.beginObject();
+        while (r.hasNext()) {
+            String n = r.nextName();
+            if (u.leer(n, r)) continue;
+            switch (n) {
+                case "orgDL" -> orgDL = cadena(r);
+                case "temas" -> temas = textos(r);
+                default -> r.skipValue();
+            }
+        }
+        r.endObject();
+        Estudiante e = new Estudiante(u.nombre, u.apellido1, u.apellido2, u.id, u.telefono, u.correo,
+                u.direccion, orgDL, temas);
+        if (u.fechaRegistro != null) e.setFechaRegistro(u.fechaRegistro);
+        return e;
+    }
+
+    /** Escribe un profesor como objeto JSON. */
+    static void escribirProfesor(JsonWriter w, Profesor p) throws IOException {
+        w.beginObject();
+        escribirUsuario(w, p);
+        escribirTextos(w, "titulos", p.getTituOb());
+        escribirTextos(w, "certificaciones", p.getCertEs());
+        w.endObject();
+    }
+
+    /** Lee un profesor (sin registrarlo en ningún servicio). */
+    static Profesor leerProfesor(JsonReader r) throws IOException {
+        DatosUsuario u = new DatosUsuario();
+        List<String> titulos = List.of();
+        List<String> certificaciones = List.of();
+        r.beginObject();
+        while (r.hasNext()) {
+            String n = r.nextName();
+            if (u.leer(n, r)) continue;
+            switch (n) {
+                case "titulos" -> titulos = textos(r);
+                case "certificaciones" -> certificaciones = textos(r);
+                default -> r.skipValue();
+            }
+        }
+        r.endObject();
+        Profesor p = new Profesor(u.nombre, u.apellido1, u.apellido2, u.id, u.telefono, u.correo,
+                u.direccion, titulos, certificaciones);
+        if (u.fechaRegistro != null) p.setFechaRegistro(u.fechaRegistro);
+        return p;
+    }
+
+    private static void escribirUsuario(JsonWriter w, Usuario u) throws IOException {
+        w.name("id").value(u.getIdUsuario());
+        w.name("nombre").value(u.getNombre());
+        w.name("apellido1").value(u.getApellido1());
+        w.name("apellido2").value(u.getApellido2());
+        w.name("telefono").value(u.getTelefono());
+        w.name("correo").value(u.getCorreo());
+        w.name("direccion").value(u.getDireccion());
+        w.name("fechaRegistro").value(texto(u.getFechaRegistro()));
+    }
+
+    /** Escribe los campos propios de un curso (sin abrir ni cerrar el objeto). */
+    static void escribirDatosCurso(JsonWriter w, Curso c) throws IOException {
+        w.name("id").value(c.getId());
+        w.name("nombre").value(c.getNombre());
+        w.name("descripcion").value(c.getDescripcion());
+        w.name("hrsDia").value(c.getHrsDia());
+        w.name("modalidad").value(c.getModalidad() == null ? null : c.getModalidad().name());
+        w.name("minEstu").value(c.getMinEstu());
+        w.name("maxEstu").value(c.getMaxEstu());
+        w.name("tipo").value(c.getTipo() == null ? null : c.getTipo().name());
+        w.name("aprobCalificacion").value(c.getAprobCalificacion());
+    }
+
+    /** Escribe los campos de una evaluación y sus preguntas (sin abrir ni cerrar el objeto). */
+    static void escribirDatosEvaluacion(JsonWriter w, Evaluacion ev) throws IOException {
+        w.name("id").value(ev.getId());
+        w.name("nombre").value(ev.getNombre());
+        w.name("instrucciones").value(ev.getInstrucciones());
+        escribirTextos(w, "objetivos", ev.getObjetivos());
+        w.name("duracion").value(ev.getDuracionMinutos());
+        w.name("preguntasAleatorias").value(ev.isPreguntasAleatorias());
+        w.name("opcionesAleatorias").value(ev.isOpcionesAleatorias());
+        w.name("preguntas").beginArray();
+        for (IPregunta q : ev.getPreguntas()) escribirPregunta(w, q);
+        w.endArray();
+    }
+
+    /** Escribe una pregunta de cualquiera de los tres tipos como objeto JSON. */
+    static void escribirPregunta(JsonWriter w, IPregunta q) throws IOException {
+        if (q == null) {
+            w.nullValue();
+            return;
+        }
+        w.beginObject();
+        if (q instanceof Pregunta p) {
+            w.name("clase").value("PREGUNTA");
+            w.name("id").value(p.getId());
+            w.name("tipo").value(p.getTipo().name());
+            w.name("descripcion").value(p.obtenerDescripcion());
+            w.name("puntos").value(p.obtenerPuntos());
+            w.name("respuestas").beginArray();
+            for (Respuesta r : p.getRespuestas()) {
+                w.beginObject();
+                w.name("texto").value(r.getTexto());
+                w.name("correcta").value(r.isCorrecta());
+                w.name("orden").value(r.getOrden());
+                w.endObject();
+            }
+            w.endArray();
+        } else if (q instanceof Pareo p) {
+            w.name("clase").value("PAREO");
+            w.name("id").value(p.getId());
+            w.name("descripcion").value(p.obtenerDescripcion());
+            w.name("puntos").value(p.obtenerPuntos());
+            escribirTextos(w, "enunciados", p.getEnunciados());
+            escribirTextos(w, "respuestas", p.getRespuestas());
+            w.name("asociaciones").beginArray();
+            for (Map.Entry<Integer, Integer> a : p.getAsociaciones().entrySet()) {
+                w.beginArray().value(a.getKey()).value(a.getValue()).endArray();
+            }
+            w.endArray();
+        } else if (q instanceof SopaDeLetras s) {
+            w.name("clase").value("SOPA");
+            w.name("id").value(s.getId());
+            w.name("descripcion").value(s.obtenerDescripcion());
+            w.name("puntos").value(s.obtenerPuntos());
+            w.name("tamanio").value(s.getTamanioCuadricula());
+            w.name("enunciados").beginArray();
+            for (SopaDeLetras.Enunciado e : s.getEnunciados()) {
+                w.beginArray().value(e.getPalabra()).value(e.getPista()).endArray();
+            }
+            w.endArray();
+            w.name("cuadricula").beginArray();
+            int n = s.getTamanioCuadricula();
+            for (int i = 0; i < n; i++) w.value(new String(s.cuadricula, i * n, n));
+            w.endArray();
+            w.name("ubicaciones").beginArray();
+            for (SopaDeLetras.PalabraEncontrada pe : s.getPalabrasEncontradas()) {
+                w.beginObject();
+                w.name("palabra").value(pe.getPalabra());
+                w.name("fila").value(pe.getFilaInicio());
+                w.name("col").value(pe.getColInicio());
+                w.name("direccion").value(pe.getDireccion().name());
+                w.endObject();
+            }
+            w.endArray();
+        } else {
+            throw new IOException("Tipo de pregunta no soportado: " + q.getClass().getName());
+        }
+        w.endObject();
+    }
+
+    /** Lee una pregunta escrita con {@link #escribirPregunta}. */
+    static IPregunta leerPregunta(JsonReader r) throws IOException {
+        if (r.peek() == JsonToken.NULL) { r.nextNull(); return null; }
+
+        String clase = null, tipo = null, descripcion = null;
+        int id = 0, puntos = 0, tamanio = 15;
+        List<Respuesta> respuestasSel = new ArrayList<>();
+        List<String> enunciados = List.of(), respuestasPareo = List.of(), filas = List.of();
+        List<int[]> asociaciones = new ArrayList<>();
+        List<String[]> palabras = new ArrayList<>();
+        List<SopaDeLetras.PalabraEncontrada> ubicaciones = new ArrayList<>();
+
+        r.beginObject();
+        while (r.hasNext()) {
+            switch (r.nextName()) {
+                case "clase" -> clase = cadena(r);
+                case "id" -> id = r.nextInt();
+                case "tipo" -> tipo = cadena(r);
+                case "descripcion" -> descripcion = cadena(r);
+                case "puntos" -> puntos = r.nextInt();
+                case "tamanio" -> tamanio = r.nextInt();
+                case "respuestas" -> {
+                    if ("PAREO".equals(clase)) respuestasPareo = textos(r);
+                    else leerArreglo(r, () -> respuestasSel.add(leerRespuesta(r)));
+                }
+                case "enunciados" -> {
+                    if ("SOPA".equals(clase)) {
+                        leerArreglo(r, () -> {
+                            r.beginArray();
+                            palabras.add(new String[]{cadena(r), cadena(r)});
+                            r.endArray();
+                        });
+                    } else {
+                        enunciados = textos(r);
+                    }
+                }
+                case "asociaciones" -> leerArreglo(r, () -> {
+                    r.beginArray();
+                    asociaciones.add(new int[]{r.nextInt(), r.nextInt()});
+                    r.endArray();
+                });
+                case "cuadricula" -> filas = textos(r);
+                case "ubicaciones" -> leerArreglo(r, () -> ubicaciones.add(leerUbicacion(r)));
+                default -> r.skipValue();
+            }
+        }
+        r.endObject();
+
+        if (clase == null) throw new IOException("Pregunta sin clase.");
+        switch (clase) {
+            case "PREGUNTA" -> {
+                Pregunta p = new Pregunta(id, TipoPregunta.valueOf(tipo), descripcion, puntos);
+                for (Respuesta resp : respuestasSel) p.agregarRespuesta(resp);
+                return p;
+            }
+            case "PAREO" -> {
+                Pareo p = new Pareo(id, descripcion, puntos);
+                for (String e : enunciados) p.agregarEnunciado(e);
+                for (String s : respuestasPareo) p.agregarRespuesta(s);
+                for (int[] a : asociaciones) p.definirAsociacion(a[0], a[1]);
+                return p;
+            }
+            case "SOPA" -> {
+                SopaDeLetras s = new SopaDeLetras(id, descripcion, puntos, tamanio);
+                for (String[] pw : palabras) s.enunciados.add(new SopaDeLetras.Enunciado(pw[0], pw[1]));
+                int n = s.tamanioCuadricula;
+                for (int i = 0; i < filas.size() && i < n; i++) {
+                    String fila = filas.get(i);
+                    for (int j = 0; j < fila.length() && j < n; j++) {
+                        s.cuadricula[i * n + j] = fila.charAt(j);
+                    }
+                }
+                s.palabrasEncontradas.addAll(ubicaciones);
+                return s;
+            }
+            default -> throw new IOException("Clase de pregunta desconocida: " + clase);
+        }
+    }
+
+    private static Respuesta leerRespuesta(JsonReader r) throws IOException {
+        String texto = null;
+        boolean correcta = false;
+        int orden = 0;
+        r.beginObject();
+        while (r.hasNext()) {
+            switch (r.nextName()) {
+                case "texto" -> texto = cadena(r);
+                case "correcta" -> correcta = r.nextBoolean();
+                case "orden" -> orden = r.nextInt();
+                default -> r.skipValue();
+            }
+        }
+        r.endObject();
+        return new Respuesta(texto, correcta, orden);
+    }
+
+    private static SopaDeLetras.PalabraEncontrada leerUbicacion(JsonReader r) throws IOException {
+        String palabra = null, dir = null;
+        int fila = 0, col = 0;
+        r.beginObject();
+        while (r.hasNext()) {
+            switch (r.nextName()) {
+                case "palabra" -> palabra = cadena(r);
+                case "fila" -> fila = r.nextInt();
+                case "col" -> col = r.nextInt();
+                case "direccion" -> dir = cadena(r);
+                default -> r.skipValue();
+            }
+        }
+        r.endObject();
+        return new SopaDeLetras.PalabraEncontrada(palabra, fila, col, SopaDeLetras.Direccion.valueOf(dir));
+    }
+
+    /**
+     * Escribe un intento como objeto JSON. Las respuestas referencian su pregunta
+     * por ID; la posición dentro de la evaluación se conserva para archivos que
+     * no traen ese ID. Los editores reemplazan la pregunta editada por una
+     * instancia nueva, así que la posición por identidad puede no existir.
+     *
+     * @param posiciones caché de posiciones de preguntas por evaluación
+     */
+    static void escribirIntento(JsonWriter w, IntentoEvaluacion it,
+                                Map<Evaluacion, Map<IPregunta, Integer>> posiciones) throws IOException {
+        Evaluacion ev = it.getEvaluacion();
+        Map<IPregunta, Integer> pos = ev == null ? Map.of()
+                : posiciones.computeIfAbsent(ev, PersistenciaJson::indicePreguntas);
+
+        w.beginObject();
+        w.name("estudiante").value(it.getEstudiante() == null ? null : it.getEstudiante().getIdUsuario());
+        w.name("evaluacion").value(ev == null ? null : ev.getId());
+        w.name("grupo").value(it.getGrupo() == null ? null : it.getGrupo().getIdGrupo());
+        w.name("inicio").value(texto(it.getFechaHoraInicio()));
+        w.name("fin").value(texto(it.getFechaHoraFinal()));
+        w.name("puntaje").value(it.getPuntajeObtenido());
+        w.name("calificacion").value(it.getCalificacion());
+        w.name("orden").beginArray();
+        for (Integer i : it.getOrdenPreguntasUsado()) w.value(i);
+        w.endArray();
+        w.name("respuestas").beginArray();
+        for (RespuestaEstudiante r : it.getRespuestasEstudiante()) {
+            if (r == null) { w.nullValue(); continue; }
+            w.beginObject();
+            w.name("idPregunta").value(RecalificadorEvaluaciones.idPregunta(r.getPregunta()));
+            w.name("pregunta").value(pos.getOrDefault(r.getPregunta(), -1));
+            w.name("puntos").value(r.getPuntosObtenidos());
+            w.name("correcta").value(r.isEsCorrecta());
+            w.name("ordenes").beginArray();
+            for (Integer i : r.getOrdenesSeleccionados()) w.value(i);
+            w.endArray();
+            if (r.tieneSeleccionCeldas()) {
+                w.name("celdas").beginArray();
+                for (Integer i : r.getCeldasSeleccionadas()) w.value(i);
+                w.endArray();
+            }
+            w.endObject();
+        }
+        w.endArray();
+        w.endObject();
+    }
+
+    /** Lee un intento resolviendo estudiante, evaluación y grupo en el contexto. */
+    static IntentoEvaluacion leerIntento(JsonReader r, Contexto ctx) throws IOException {
+        String idEst = null;
+        Integer idEval = null, idGrupo = null;
+        LocalDateTime inicio = null, fin = null;
+        int puntaje = 0;
+        double calif = 0.0;
+        List<Integer> orden = new ArrayList<>();
+        List<int[]> datos = new ArrayList<>();
+        List<List<Integer>> selecciones = new ArrayList<>();
+        List<List<Integer>> celdas = new ArrayList<>();
+
+        r.beginObject();
+        while (r.hasNext()) {
+            switch (r.nextName()) {
+                case "estudiante" -> idEst = cadena(r);
+                case "evaluacion" -> idEval = entero(r);
+                case "grupo" -> idGrupo = entero(r);
+                case "inicio" -> inicio = fechaHora(r);
+                case "fin" -> fin = fechaHora(r);
+                case "puntaje" -> puntaje = r.nextInt();
+                case "calificacion" -> calif = r.nextDouble();
+                case "orden" -> leerArreglo(r, () -> orden.add(r.nextInt()));
+                case "respuestas" -> leerArreglo(r, () -> {
+                    if (r.peek() == JsonToken.NULL) {
+                        r.nextNull();
+                        datos.add(null);
+                        selecciones.add(null);
+                        celdas.add(null);
+                        return;
+                    }
+                    int[] d = {-1, 0, 0, 0, 0}; // pregunta, puntos, correcta, tiene ID, ID
+                    List<Integer> ordenes = new ArrayList<>();
+                    List<Integer> coords = new ArrayList<>();
+                    r.beginObject();
+                    while (r.hasNext()) {
+                        switch (r.nextName()) {
+                            case "pregunta" -> d[0] = r.nextInt();
+                            case "idPregunta" -> {
+                                Integer id = entero(r);
+                                if (id != null) { d[3] = 1; d[4] = id; }
+                            }
+                            case "puntos" -> d[1] = r.nextInt();
+                            case "correcta" -> d[2] = r.nextBoolean() ? 1 : 0;
+                            case "ordenes" -> leerArreglo(r, () -> ordenes.add(r.nextInt()));
+                            case "celdas" -> leerArreglo(r, () -> coords.add(r.nextInt()));
+                            default -> r.skipValue();
+                        }
+                    }
+                    r.endObject();
+                    datos.add(d);
+                    selecciones.add(ordenes);
+                    celdas.add(coords);
+                });
+                default -> r.skipValue();
+            }
+        }
+        r.endObject();
+
+        Evaluacion ev = idEval == null ? null : ctx.evaluaciones.get(idEval);
+        List<IPregunta> preguntas = ev == null ? List.of() : ev.getPreguntas();
+        Map<Integer, IPregunta> porId = ev == null ? Map.of() : RecalificadorEvaluaciones.preguntasPorId(ev);
+        List<RespuestaEstudiante> respuestas = new ArrayList<>(datos.size());
+        for (int i = 0; i < datos.size(); i++) {
+            int[] d = datos.get(i);
+            if (d == null) { respuestas.add(null); continue; }
+            // Por ID primero; la posición solo para archivos anteriores sin ID
+            IPregunta q = d[3] == 1 ? porId.get(d[4]) : null;
+            if (q == null && d[0] >= 0 && d[0] < preguntas.size()) q = preguntas.get(d[0]);
+            RespuestaEstudiante re = new RespuestaEstudiante(q);
+            re.setOrdenesSeleccionados(selecciones.get(i));
+            re.setCeldasSeleccionadas(celdas.get(i));
+            re.setPuntosObtenidos(d[1]);
+            re.setEsCorrecta(d[2] == 1);
+            respuestas.add(re);
+        }
+
+        return new IntentoEvaluacion(
+                idEst == null ? null : ctx.estudiantes.get(idEst),
+                ev,
+                idGrupo == null ? null : ctx.grupos.get(idGrupo),
+                inicio, fin, respuestas, puntaje, calif, orden);
+    }
+
+    private static Map<IPregunta, Integer> indicePreguntas(Evaluacion ev) {
+        Map<IPregunta, Integer> pos = new IdentityHashMap<>();
+        List<IPregunta> ps = ev.getPreguntas();
+        for (int i = 0; i < ps.size(); i++) pos.putIfAbsent(ps.get(i), i);
+        return pos;
+    }
+
+    // -- Utilidades --
+
+    /** Acción de lectura que puede lanzar {@link IOException}. */
+    @FunctionalInterface
+    interface Lector {
+        void leer() throws IOException;
+    }
+
+    static void leerArreglo(JsonReader r, Lector elemento) throws IOException {
+        if (r.peek() == JsonToken.NULL) { r.nextNull(); return; }
+        r.beginArray();
+        while (r.hasNext()) elemento.leer();
+        r.endArray();
+    }
+
+    static String cadena(JsonReader r) throws IOException {
+        if (r.peek() == JsonToken.NULL) { r.nextNull(); return null; }
+        return r.nextString();
+    }
+
+    static Integer entero(JsonReader r) throws IOException {
+        if (r.peek() == JsonToken.NULL) { r.nextNull(); return null; }
+        return r.nextInt();
+    }
+
+    static List<String> textos(JsonReader r) throws IOException {
+        List<String> out = new ArrayList<>();
+        leerArreglo(r, () -> out.add(cadena(r)));
+        return out;
+    }
+
+    static LocalDate fecha(JsonReader r) throws IOException {
+        String s = cadena(r);
+        return s == null ? null : LocalDate.parse(s);
+    }
+
+    static LocalDateTime fechaHora(JsonReader r) throws IOException {
+        String s = cadena(r);
+        return s == null ? null : LocalDateTime.parse(s);
+    }
+
+    static void escribirTextos(JsonWriter w, String nombre, List<String> textos) throws IOException {
+        w.name(nombre).beginArray();
+        if (textos != null) for (String s : textos) w.value(s);
+        w.endArray();
+    }
+
+    static String texto(Object fecha) {
+        return fecha == null ? null : fecha.toString();
+    }
+
+    /** Campos comunes de {@link Usuario} leídos del archivo. */
+    private static final class DatosUsuario {
+        String id, nombre, apellido1, apellido2, telefono, correo, direccion;
+        LocalDate fechaRegistro;
+
+        /** Lee el campo si es común a todos los usuarios; devuelve {@code false} si no lo es. */
+        boolean leer(String campo, JsonReader r) throws IOException {
+            switch (campo) {
+                case "id" -> id = cadena(r);
+                case "nombre" -> nombre = cadena(r);
+                case "apellido1" -> apellido1 = cadena(r);
+                case "apellido2" -> apellido2 = cadena(r);
+                case "telefono" -> telefono = cadena(r);
+                case "correo" -> correo = cadena(r);
+                case "direccion" -> direccion = cadena(r);
+                case "fechaRegistro" -> fechaRegistro = fecha(r);
+                default -> { return false; }
+            }
+            return true;
+        }
+    }
+
+    /** Campos de {@link Curso} escritos por {@link #escribirDatosCurso}. */
+    static final class DatosCurso {
+        String id, nombre, descripcion, modalidad, tipo;
+        int hrs, min, max, aprob;
+
+        /** Lee el campo si pertenece al curso; devuelve {@code false} si no. */
+        boolean leer(String campo, JsonReader r) throws IOException {
+            switch (campo) {
+                case "id" -> id = cadena(r);
+                case "nombre" -> nombre = cadena(r);
+                case "descripcion" -> descripcion = cadena(r);
+                case "hrsDia" -> hrs = r.nextInt();
+                case "modalidad" -> modalidad = cadena(r);
+                case "minEstu" -> min = r.nextInt();
+                case "maxEstu" -> max = r.nextInt();
+                case "tipo" -> tipo = cadena(r);
+                case "aprobCalificacion" -> aprob = r.nextInt();
+                default -> { return false; }
+            }
+            return true;
+        }
+
+        Curso crear() {
+            return new Curso(id, nombre, descripcion, hrs,
+                    modalidad == null ? null : TipoModalidad.valueOf(modalidad),
+                    min, max,
+                    tipo == null ? null : TipoCurso.valueOf(tipo),
+                    aprob);
+        }
+    }
+
+    /** Campos de {@link Evaluacion} escritos por {@link #escribirDatosEvaluacion}. */
+    static final class DatosEvaluacion {
+        String nombre, instrucciones;
+        int id, duracion;
+        boolean pa, oa;
+        List<String> objetivos = List.of();
+        final List<IPregunta> preguntas = new ArrayList<>();
+
+        /** Lee el campo si pertenece a la evaluación; devuelve {@code false} si no. */
+        boolean leer(String campo, JsonReader r) throws IOException {
+            switch (campo) {
+                case "id" -> id = r.nextInt();
+                case "nombre" -> nombre = cadena(r);
+                case "instrucciones" -> instrucciones = cadena(r);
+                case "objetivos" -> objetivos = textos(r);
+                case "duracion" -> duracion = r.nextInt();
+                case "preguntasAleatorias" -> pa = r.nextBoolean();
+                case "opcionesAleatorias" -> oa = r.nextBoolean();
+                case "preguntas" -> leerArreglo(r, () -> preguntas.add(leerPregunta(r)));
+                default -> { return false; }
+            }
+            return true;
+        }
+
+        Evaluacion crear() {
+            Evaluacion ev = new Evaluacion(nombre, instrucciones, objetivos, duracion, pa, oa);
+            ev.setId(id);
+            // Se agregan sin revalidar para conservar las posiciones usadas por los intentos
+            ev.preguntas.addAll(preguntas);
+            ev.calcularPuntajeTotal();
+            return ev;
+        }
+    }
+
+    /** Objetos ya restaurados, indexados por ID para resolver referencias. */
+    static final class Contexto {
+        final Map<String, Estudiante> estudiantes = new HashMap<>();
+        final Map<String, Profesor> profesores = new HashMap<>();
+        final Map<String, Curso> cursos = new HashMap<>();
+        final Map<Integer, Grupo> grupos = new HashMap<>();
+        final Map<Integer, Evaluacion> evaluaciones = new HashMap<>();
+
+        /** Matrículas leídas por estudiante, pendientes de asignarse a cada uno. */
+        final Map<Estudiante, List<Matricula>> matriculas = new IdentityHashMap<>();
+        int maxGrupo;
+        int maxEvaluacion;
+
+        /**
+         * Construye el contexto a partir del estado actual de los servicios.
+         *
+         * @return contexto con todas las entidades registradas
+         */
+        static Contexto desde(UsuarioService us, CursoService cs, EvaluacionService es) {
+            Contexto ctx = new Contexto();
+            for (Estudiante e : us.listarEstudiantes()) ctx.estudiantes.put(e.getIdUsuario(), e);
+            for (Profesor p : us.listarProfesores()) {
+                ctx.profesores.put(p.getIdUsuario(), p);
+                for (Evaluacion ev : es.listarPorProfesor(p.getIdUsuario())) ctx.registrarEvaluacion(ev);
+            }
+            for (Curso c : cs.listarCursos()) {
+                ctx.cursos.put(c.getId(), c);
+                for (Grupo g : cs.listarGrupos(c)) ctx.registrarGrupo(g);
+            }
+            return ctx;
+        }
+
+        /**
+         * Agrega a cada estudiante sus matrículas leídas, después de las que ya
+         * tenía. Copiar la lista del estudiante por cada fila costaría O(k²)
+         * para un estudiante con k matrículas.
+         */
+        void asignarMatriculas() {
+            for (Map.Entry<Estudiante, List<Matricula>> en : matriculas.entrySet()) {
+                Estudiante e = en.getKey();
+                List<Matricula> mats = new ArrayList<>(e.obtenerMatriculas().size() + en.getValue().size());
+                mats.addAll(e.obtenerMatriculas());
+                mats.addAll(en.getValue());
+                e.setMatriculas(mats);
+            }
+            matriculas.clear();
+        }
+
+        void registrarGrupo(Grupo g) {
+            grupos.put(g.getIdGrupo(), g);
+            maxGrupo = Math.max(maxGrupo, g.getIdGrupo());
+        }
+
+        void registrarEvaluacion(Evaluacion ev) {
+            evaluaciones.put(ev.getId(), ev);
+            maxEvaluacion = Math.max(maxEvaluacion, ev.getId());
+        }
+    }
+}
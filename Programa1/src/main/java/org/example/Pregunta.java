@@ -1,6 +1,7 @@
 package org.example;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
@@ -31,6 +32,12 @@ public class Pregunta implements IPregunta {
     /** Lista de respuestas posibles (opciones mostradas al estudiante). */
     private final List<Respuesta> respuestas = new ArrayList<>();
 
+    /**
+     * Clave de respuestas compilada a partir de {@link #respuestas}.
+     * Se reconstruye cada vez que cambian las opciones.
+     */
+    private volatile ClaveCompilada clave = ClaveCompilada.VACIA;
+
     // -- Constructor --
 
     /**
@@ -66,9 +73,22 @@ public class Pregunta implements IPregunta {
         }
         if (r.getOrden() <= 0) r.setOrden(respuestas.size() + 1);
         respuestas.add(r);
+        recompilarClave();
         return true;
     }
 
+    /**
+     * Reconstruye la clave de respuestas usada por {@link #calificar}.
+     * <p>
+     * Se invoca automáticamente al agregar respuestas. Si una {@link Respuesta}
+     * ya agregada se modifica directamente (orden o si es correcta), debe
+     * llamarse a este método para que la calificación refleje el cambio.
+     * </p>
+     */
+    public void recompilarClave() {
+        clave = ClaveCompilada.de(respuestas);
+    }
+
     /**
      * Devuelve la lista de respuestas correctas.
      *
@@ -95,6 +115,8 @@ public class Pregunta implements IPregunta {
      *         de respuestas seleccionadas con el conjunto de correctas.</li>
      *     <li><b>VERDADERO_FALSO</b>: Debe haber dos opciones y una correcta.</li>
      * </ul>
+     * La comparación se hace contra la clave compilada, sin crear listas
+     * ni ordenar la selección.
      * </p>
      *
      * @param respuestaEst respuesta del estudiante
@@ -106,27 +128,22 @@ public class Pregunta implements IPregunta {
         List<Integer> sel = respuestaEst.getOrdenesSeleccionados();
         if (sel == null) return 0;
 
-        List<Integer> correctas = new ArrayList<>();
-        for (Respuesta r : respuestas)
-            if (r != null && r.isCorrecta()) correctas.add(r.getOrden());
+        ClaveCompilada k = clave;
+        int[] correctas = k.ordenes;
 
         switch (tipo) {
             case SELECCION_UNICA -> {
-                if (correctas.size() != 1 || sel.size() != 1) return 0;
-                return sel.get(0).equals(correctas.get(0)) ? puntos : 0;
+                if (correctas.length != 1 || sel.size() != 1) return 0;
+                return coincide(sel.get(0), correctas[0]) ? puntos : 0;
             }
             case SELECCION_MULTIPLE -> {
-                if (correctas.isEmpty()) return 0;
-                List<Integer> a = new ArrayList<>(sel);
-                List<Integer> b = new ArrayList<>(correctas);
-                Collections.sort(a);
-                Collections.sort(b);
-                return a.equals(b) ? puntos : 0;
+                if (correctas.length == 0 || sel.size() != correctas.length) return 0;
+                return k.mismoConjunto(sel) ? puntos : 0;
             }
             case VERDADERO_FALSO -> {
-                if (respuestas.size() != 2 || correctas.size() != 1) return 0;
+                if (k.opciones != 2 || correctas.length != 1) return 0;
                 if (sel.size() != 1) return 0;
-                return sel.get(0).equals(correctas.get(0)) ? puntos : 0;
+                return coincide(sel.get(0), correctas[0]) ? puntos : 0;
             }
             default -> {
                 return 0;
@@ -134,6 +151,11 @@ public class Pregunta implements IPregunta {
         }
     }
 
+    /** Compara una selección (posiblemente nula) con un orden de la clave. */
+    private static boolean coincide(Integer seleccion, int orden) {
+        return seleccion != null && seleccion == orden;
+    }
+
     // -- Validación --
 
     /**
@@ -180,4 +202,93 @@ public class Pregunta implements IPregunta {
     public List<Respuesta> getRespuestas() {
         return Collections.unmodifiableList(respuestas);
     }
+
+    // -- Clave compilada --
+
+    /**
+     * Representación inmutable de las respuestas correctas de una pregunta.
+     * <p>
+     * Guarda los órdenes correctos en un arreglo ordenado y, cuando todos están
+     * entre 1 y 63 sin repetirse, también como máscara de bits. Así la
+     * calificación compara la selección contra la clave sin crear listas
+     * ni ordenar en cada llamada.
+     * </p>
+     */
+    private static final class ClaveCompilada {
+
+        static final ClaveCompilada VACIA = new ClaveCompilada(new int[0], 0L, true, 0);
+
+        /** Órdenes de las respuestas correctas, de menor a mayor. */
+        final int[] ordenes;
+
+        /** Bit {@code n} encendido si el orden {@code n} es correcto. */
+        final long mascara;
+
+        /** Indica si {@link #mascara} representa exactamente a {@link #ordenes}. */
+        final boolean usaMascara;
+
+        /** Cantidad total de opciones de la pregunta. */
+        final int opciones;
+
+        private ClaveCompilada(int[] ordenes, long mascara, boolean usaMascara, int opciones) {
+            this.ordenes = ordenes;
+            this.mascara = mascara;
+            this.usaMascara = usaMascara;
+            this.opciones = opciones;
+        }
+
+        static ClaveCompilada de(List<Respuesta> respuestas) {
+            int n = 0;
+            for (Respuesta r : respuestas)
+                if (r != null && r.isCorrecta()) n++;
+
+            int[] ordenes = new int[n];
+            int i = 0;
+            for (Respuesta r : respuestas)
+                if (r != null && r.isCorrecta()) ordenes[i++] = r.getOrden();
+            Arrays.sort(ordenes);
+
+            long mascara = 0L;
+            boolean usaMascara = true;
+            for (int o : ordenes) {
+                if (o < 1 || o > 63 || (mascara & (1L << o)) != 0) {
+                    usaMascara = false;
+                    break;
+                }
+                mascara |= 1L << o;
+            }
+            return new ClaveCompilada(ordenes, mascara, usaMascara, respuestas.size());
+        }
+
+        /**
+         * Indica si la selección contiene exactamente los mismos órdenes que la
+         * clave (como multiconjunto). El llamador ya verificó que los tamaños coinciden.
+         */
+        boolean mismoConjunto(List<Integer> sel) {
+            if (usaMascara) {
+                long vistos = 0L;
+                for (int i = 0; i < sel.size(); i++) {
+                    Integer v = sel.get(i);
+                    if (v == null || v < 1 || v > 63) return false;
+                    long bit = 1L << v;
+                    if ((mascara & bit) == 0 || (vistos & bit) != 0) return false;
+                    vistos |= bit;
+                }
+                return true;
+            }
+            // Órdenes fuera de rango o repetidos en la clave: comparar conteos
+            for (int i = 0; i < sel.size(); i++) {
+                Integer v = sel.get(i);
+                if (v == null) return false;
+                int enSel = 0;
+                for (int j = 0; j < sel.size(); j++)
+                    if (v.equals(sel.get(j))) enSel++;
+                int enClave = 0;
+                for (int o : ordenes)
+                    if (o == v) enClave++;
+                if (enSel != enClave) return false;
+            }
+            return true;
+        }
+    }
 }
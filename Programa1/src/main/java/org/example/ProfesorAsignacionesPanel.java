@@ -21,8 +21,9 @@ import java.util.List;
  *     <li>Eliminar una asignación existente.</li>
  * </ul>
  * <p>
- * Este panel trabaja completamente en memoria sobre la lista
- * {@code g.getEvaluacionesAsignadas()} de cada grupo.
+ * Las asignaciones se crean y eliminan a través del {@link EvaluacionService},
+ * que valida las reglas y mantiene su índice de asignaciones; la tabla muestra
+ * la lista {@code g.getEvaluacionesAsignadas()} de cada grupo.
  * </p>
  */
 public class ProfesorAsignacionesPanel extends JPanel {
@@ -30,7 +31,7 @@ public class ProfesorAsignacionesPanel extends JPanel {
     // -- Servicios --
 
     /** Servicio de usuarios utilizado para acceder a la información de profesores y estudiantes. */
-    private final UsuarioServiceMem usuarioService;
+    private final UsuarioService usuarioService;
 
     /** Servicio de cursos utilizado para gestionar grupos. */
     private final CursoService cursoService;
@@ -63,7 +64,7 @@ public class ProfesorAsignacionesPanel extends JPanel {
      * @param evaluacionService servicio de evaluaciones
      * @param profesor profesor que utilizará el panel
      */
-    public ProfesorAsignacionesPanel(UsuarioServiceMem usuarioService,
+    public ProfesorAsignacionesPanel(UsuarioService usuarioService,
                                      CursoService cursoService,
                                      EvaluacionService evaluacionService,
                                      Profesor profesor) {
@@ -193,24 +194,7 @@ public class ProfesorAsignacionesPanel extends JPanel {
                     ZoneId.systemDefault()
             );
 
-            if (g.getEvaluacionesAsignadas() != null) {
-                for (EvaluacionAsignada ea : g.getEvaluacionesAsignadas()) {
-                    if (ea != null && ea.getEvaluacion() != null
-                            && ea.getEvaluacion().equals(ev)
-                            && ea.getFechaHoraInicio() != null
-                            && ea.getFechaHoraInicio().equals(inicio)) {
-                        throw new IllegalStateException("Ya existe una asignación de esa evaluación en esa fecha/hora.");
-                    }
-                }
-            }
-
-            EvaluacionAsignada nueva = new EvaluacionAsignada(ev, g, inicio);
-            nueva.calcularFechaHoraFinal();
-
-            if (g.getEvaluacionesAsignadas() == null)
-                g.setEvaluacionesAsignadas(new ArrayList<>());
-
-            g.getEvaluacionesAsignadas().add(nueva);
+            evaluacionService.asociarAGrupo(profesor.getIdUsuario(), ev.getId(), g.getCurso(), g.getIdGrupo(), inicio);
             cargarAsignaciones();
 
             JOptionPane.showMessageDialog(this, "Evaluación asignada al grupo.");
@@ -236,8 +220,9 @@ public class ProfesorAsignacionesPanel extends JPanel {
         if (ok != JOptionPane.YES_OPTION) return;
 
         try {
-            if (g.getEvaluacionesAsignadas() != null) {
-                g.getEvaluacionesAsignadas().remove(ea);
+            if (ea != null && ea.getEvaluacion() != null) {
+                evaluacionService.desasociarDeGrupo(profesor.getIdUsuario(), ea.getEvaluacion().getId(),
+                        g.getCurso(), g.getIdGrupo());
             }
             cargarAsignaciones();
             JOptionPane.showMessageDialog(this, "Asignación eliminada.");
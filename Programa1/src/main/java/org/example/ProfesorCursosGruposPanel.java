@@ -19,7 +19,7 @@ public class ProfesorCursosGruposPanel extends JPanel {
     // -- Servicios --
 
     /** Servicio de usuarios (referencia para futuras operaciones). */
-    private final UsuarioServiceMem usuarioService;
+    private final UsuarioService usuarioService;
 
     /** Servicio de cursos utilizado para acceder a los grupos. */
     private final CursoService cursoService;
@@ -47,7 +47,7 @@ public class ProfesorCursosGruposPanel extends JPanel {
      * @param cursoService servicio de cursos
      * @param profesor profesor que utilizará el panel
      */
-    public ProfesorCursosGruposPanel(UsuarioServiceMem usuarioService,
+    public ProfesorCursosGruposPanel(UsuarioService usuarioService,
                                      CursoService cursoService,
                                      Profesor profesor) {
         this.usuarioService = usuarioService;
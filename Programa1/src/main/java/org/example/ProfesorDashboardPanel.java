@@ -68,20 +68,21 @@ public class ProfesorDashboardPanel extends JPanel {
 
         // -- Pestaña: información personal --
         tabs.addTab("Mi información",
-                new ProfesorInfoPanel((UsuarioServiceMem) this.usuarioService, this.profesor));
+                new ProfesorInfoPanel(this.usuarioService, this.profesor));
 
         // -- Pestaña: cursos y grupos --
         tabs.addTab("Mis cursos y grupos",
-                new ProfesorCursosGruposPanel((UsuarioServiceMem) this.usuarioService, this.cursoService, this.profesor));
+                new ProfesorCursosGruposPanel(this.usuarioService, this.cursoService, this.profesor));
 
         // -- Pestaña: evaluaciones --
         tabs.addTab("Mis evaluaciones",
-                new ProfesorEvaluacionesPanel(this.profesor, this.evaluacionService));
+                new ProfesorEvaluacionesPanel(this.profesor, this.evaluacionService,
+                        new RecalificadorEvaluaciones(this.intentoService)));
 
         // -- Pestaña: asignaciones --
         tabs.addTab("Asignaciones",
                 new ProfesorAsignacionesPanel(
-                        (UsuarioServiceMem) this.usuarioService,
+                        this.usuarioService,
                         this.cursoService,
                         this.evaluacionService,
                         this.profesor
@@ -90,7 +91,7 @@ public class ProfesorDashboardPanel extends JPanel {
         // -- Pestaña: seguimiento --
         tabs.addTab("Seguimiento",
                 new ProfesorSeguimientoPanel(
-                        (UsuarioServiceMem) this.usuarioService,
+                        this.usuarioService,
                         this.cursoService,
                         this.evaluacionService,
                         this.profesor));
@@ -98,20 +99,21 @@ public class ProfesorDashboardPanel extends JPanel {
         // -- Pestaña: intentos de estudiantes --
         tabs.addTab("Intentos",
                 new ProfesorIntentosPanel(
-                        (UsuarioServiceMem) this.usuarioService,
+                        this.usuarioService,
                         this.cursoService,
                         this.profesor,
                         // Proveedor de intentos por grupo
                         (Grupo g) -> this.intentoService.listarPorGrupo(g.getIdGrupo()),
-                        // Exportador PDF mediante ReporteServicePdf
+                        // Exportador PDF mediante el servicio de reportes
                         (IntentoEvaluacion ie, java.io.File destino) -> {
                             try {
-                                return ((ReporteServicePdf) this.reporteService).exportarIntento(ie, destino);
+                                return this.reporteService.exportarIntento(ie, destino);
                             } catch (Exception ex) {
                                 ex.printStackTrace();
                                 return false;
                             }
-                        }
+                        },
+                        this.reporteService
                 ));
 
         add(tabs, BorderLayout.CENTER);
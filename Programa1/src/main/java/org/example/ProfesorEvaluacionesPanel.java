@@ -24,6 +24,9 @@ public class ProfesorEvaluacionesPanel extends JPanel {
     /** Servicio de evaluaciones utilizado para operaciones CRUD. */
     private final EvaluacionService evaluacionService;
 
+    /** Motor de recalificación de intentos ({@code null} si no está disponible). */
+    private final RecalificadorEvaluaciones recalificador;
+
     // -- Componentes de interfaz --
 
     /** Modelo de datos para la tabla de evaluaciones. */
@@ -32,6 +35,12 @@ public class ProfesorEvaluacionesPanel extends JPanel {
     /** Tabla principal donde se muestran las evaluaciones. */
     private final JTable tabla = new JTable(model);
 
+    /** Botón para recalificar los intentos de la evaluación seleccionada. */
+    private final JButton btnRecalificar = new JButton("Recalificar");
+
+    /** Barra de avance de la recalificación en curso. */
+    private final JProgressBar barraProgreso = new JProgressBar();
+
     // -- Constructor --
 
     /**
@@ -41,8 +50,21 @@ public class ProfesorEvaluacionesPanel extends JPanel {
      * @param evaluacionService servicio de evaluaciones
      */
     public ProfesorEvaluacionesPanel(Profesor profesor, EvaluacionService evaluacionService) {
+        this(profesor, evaluacionService, null);
+    }
+
+    /**
+     * Crea el panel con la opción de recalificar los intentos de una evaluación.
+     *
+     * @param profesor profesor que utilizará el panel
+     * @param evaluacionService servicio de evaluaciones
+     * @param recalificador motor de recalificación (si es {@code null} no se muestra el botón)
+     */
+    public ProfesorEvaluacionesPanel(Profesor profesor, EvaluacionService evaluacionService,
+                                     RecalificadorEvaluaciones recalificador) {
         this.profesor = profesor;
         this.evaluacionService = evaluacionService;
+        this.recalificador = recalificador;
 
         setLayout(new BorderLayout(8, 8));
 
@@ -61,6 +83,12 @@ public class ProfesorEvaluacionesPanel extends JPanel {
         actions.add(btnEditar);
         actions.add(btnEliminar);
         actions.add(btnRefrescar);
+        if (recalificador != null) {
+            barraProgreso.setStringPainted(true);
+            barraProgreso.setVisible(false);
+            actions.add(barraProgreso, 0);
+            actions.add(btnRecalificar);
+        }
         add(actions, BorderLayout.SOUTH);
 
         // -- Eventos --
@@ -68,6 +96,7 @@ public class ProfesorEvaluacionesPanel extends JPanel {
         btnCrear.addActionListener(e -> onCrear());
         btnEditar.addActionListener(e -> onEditar());
         btnEliminar.addActionListener(e -> onEliminar());
+        btnRecalificar.addActionListener(e -> onRecalificar());
 
         cargar();
     }
@@ -168,6 +197,49 @@ public class ProfesorEvaluacionesPanel extends JPanel {
         }
     }
 
+    // -- Recalificación --
+
+    /**
+     * Recalifica en segundo plano todos los intentos de la evaluación seleccionada
+     * con sus claves actuales y muestra el avance en la barra de progreso.
+     */
+    private void onRecalificar() {
+        Evaluacion ev = seleccionada();
+        if (ev == null) {
+            JOptionPane.showMessageDialog(this, "Seleccione una evaluación para recalificar.");
+            return;
+        }
+
+        int ok = JOptionPane.showConfirmDialog(this,
+                "¿Recalificar todos los intentos de \"" + ev.getNombre() + "\" con las respuestas actuales?",
+                "Confirmar recalificación", JOptionPane.YES_NO_OPTION);
+        if (ok != JOptionPane.YES_OPTION) return;
+
+        btnRecalificar.setEnabled(false);
+        barraProgreso.setValue(0);
+        barraProgreso.setString("Recalificando...");
+        barraProgreso.setVisible(true);
+        revalidate();
+
+        recalificador.recalificarAsync(ev.getId(), (hechos, total) ->
+                SwingUtilities.invokeLater(() -> {
+                    barraProgreso.setMaximum(Math.max(1, total));
+                    barraProgreso.setValue(hechos);
+                    barraProgreso.setString(hechos + " / " + total);
+                })
+        ).whenComplete((res, ex) -> SwingUtilities.invokeLater(() -> {
+            btnRecalificar.setEnabled(true);
+            barraProgreso.setVisible(false);
+            revalidate();
+            if (ex != null) {
+                Throwable causa = ex.getCause() != null ? ex.getCause() : ex;
+                JOptionPane.showMessageDialog(this, causa.getMessage(), "Error al recalificar", JOptionPane.ERROR_MESSAGE);
+            } else {
+                JOptionPane.showMessageDialog(this, res.toString(), "Recalificación completa", JOptionPane.INFORMATION_MESSAGE);
+            }
+        }));
+    }
+
     // -- Sincronización con la lista interna del profesor --
 
     /** Asegura que la lista de evaluaciones del profesor sea mutable. */
@@ -16,7 +16,7 @@ public class ProfesorInfoPanel extends JPanel {
     // -- Servicios y datos --
 
     /** Servicio de usuarios utilizado para sincronizar los cambios. */
-    private final UsuarioServiceMem usuarioService;
+    private final UsuarioService usuarioService;
 
     /** Profesor autenticado al que pertenece la información. */
     private final Profesor profesor;
@@ -38,7 +38,7 @@ public class ProfesorInfoPanel extends JPanel {
      * @param usuarioService servicio de usuarios
      * @param profesor profesor autenticado
      */
-    public ProfesorInfoPanel(UsuarioServiceMem usuarioService, Profesor profesor) {
+    public ProfesorInfoPanel(UsuarioService usuarioService, Profesor profesor) {
         this.usuarioService = usuarioService;
         this.profesor = profesor;
 
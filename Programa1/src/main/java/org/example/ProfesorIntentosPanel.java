@@ -4,8 +4,12 @@ import javax.swing.*;
 import javax.swing.table.AbstractTableModel;
 import java.awt.*;
 import java.io.File;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 
@@ -14,7 +18,9 @@ import java.util.function.Function;
  * los intentos de evaluación realizados por sus estudiantes.
  * <p>
  * Permite seleccionar un grupo, revisar los intentos asociados y generar
- * un archivo PDF con el detalle de un intento específico.
+ * un archivo PDF con el detalle de un intento específico, o exportar de una
+ * vez todos los intentos del grupo (o de una de sus evaluaciones) a un PDF
+ * con índice o a un ZIP con un PDF por intento.
  * </p>
  */
 public class ProfesorIntentosPanel extends JPanel {
@@ -22,7 +28,7 @@ public class ProfesorIntentosPanel extends JPanel {
     // -- Servicios --
 
     /** Servicio de usuarios utilizado para obtener información de estudiantes y profesores. */
-    private final UsuarioServiceMem usuarioService;
+    private final UsuarioService usuarioService;
 
     /** Servicio de cursos utilizado para acceder a los grupos del profesor. */
     private final CursoService cursoService;
@@ -38,6 +44,9 @@ public class ProfesorIntentosPanel extends JPanel {
     /** Función que exporta un intento de evaluación a PDF. */
     private final BiFunction<IntentoEvaluacion, File, Boolean> exportadorPdf;
 
+    /** Servicio de reportes usado para exportar varios intentos a la vez. */
+    private final ReporteService reporteService;
+
     // -- Componentes de interfaz --
 
     private final JComboBox<Grupo> cmbGrupo = new JComboBox<>();
@@ -47,6 +56,7 @@ public class ProfesorIntentosPanel extends JPanel {
     private final JButton btnRefrescar = new JButton("Refrescar");
     private final JButton btnVer = new JButton("Ver intento");
     private final JButton btnExportar = new JButton("Exportar PDF");
+    private final JButton btnExportarTodos = new JButton("Exportar todos");
 
     // -- Constructor --
 
@@ -58,17 +68,20 @@ public class ProfesorIntentosPanel extends JPanel {
      * @param profesor profesor actual
      * @param proveedorIntentos función que devuelve los intentos de un grupo
      * @param exportadorPdf función que genera un PDF a partir de un intento
+     * @param reporteService servicio de reportes para la exportación de todos los intentos
      */
-    public ProfesorIntentosPanel(UsuarioServiceMem usuarioService,
+    public ProfesorIntentosPanel(UsuarioService usuarioService,
                                  CursoService cursoService,
                                  Profesor profesor,
                                  Function<Grupo, List<IntentoEvaluacion>> proveedorIntentos,
-                                 BiFunction<IntentoEvaluacion, File, Boolean> exportadorPdf) {
+                                 BiFunction<IntentoEvaluacion, File, Boolean> exportadorPdf,
+                                 ReporteService reporteService) {
         this.usuarioService = usuarioService;
         this.cursoService = cursoService;
         this.profesor = profesor;
         this.proveedorIntentos = proveedorIntentos;
         this.exportadorPdf = exportadorPdf;
+        this.reporteService = reporteService;
 
         setLayout(new BorderLayout(8, 8));
 
@@ -82,6 +95,7 @@ public class ProfesorIntentosPanel extends JPanel {
         actions.add(btnRefrescar);
         actions.add(btnVer);
         actions.add(btnExportar);
+        actions.add(btnExportarTodos);
 
         JPanel top = new JPanel(new BorderLayout());
         top.add(north, BorderLayout.WEST);
@@ -97,6 +111,7 @@ public class ProfesorIntentosPanel extends JPanel {
         btnRefrescar.addActionListener(e -> cargarIntentos());
         btnVer.addActionListener(e -> onVerIntento());
         btnExportar.addActionListener(e -> onExportarPdf());
+        btnExportarTodos.addActionListener(e -> onExportarTodos());
         cmbGrupo.addActionListener(e -> cargarIntentos());
 
         if (cmbGrupo.getItemCount() > 0) cmbGrupo.setSelectedIndex(0);
@@ -169,6 +184,83 @@ public class ProfesorIntentosPanel extends JPanel {
         }
     }
 
+    /**
+     * Exporta todos los intentos mostrados, o solo los de una evaluación, a un
+     * PDF con índice o a un ZIP con un PDF por intento. La generación corre en
+     * segundo plano.
+     */
+    private void onExportarTodos() {
+        List<IntentoEvaluacion> todos = model.getData();
+        if (todos.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "No hay intentos para exportar.");
+            return;
+        }
+
+        // Evaluaciones presentes en la tabla, en orden de aparición
+        Map<Integer, Evaluacion> evaluaciones = new LinkedHashMap<>();
+        for (IntentoEvaluacion it : todos) {
+            if (it.getEvaluacion() != null) evaluaciones.putIfAbsent(it.getEvaluacion().getId(), it.getEvaluacion());
+        }
+        List<Evaluacion> listaEval = new ArrayList<>(evaluaciones.values());
+        JComboBox<String> cmbEval = new JComboBox<>();
+        cmbEval.addItem("Todas las evaluaciones");
+        for (Evaluacion ev : listaEval) cmbEval.addItem(ev.getNombre());
+
+        JRadioButton rbPdf = new JRadioButton("Un PDF con índice", true);
+        JRadioButton rbZip = new JRadioButton("ZIP con un PDF por intento");
+        ButtonGroup formatos = new ButtonGroup();
+        formatos.add(rbPdf);
+        formatos.add(rbZip);
+
+        JPanel opciones = new JPanel(new GridLayout(0, 1, 4, 4));
+        opciones.add(new JLabel("Evaluación:"));
+        opciones.add(cmbEval);
+        opciones.add(new JLabel("Formato:"));
+        opciones.add(rbPdf);
+        opciones.add(rbZip);
+        if (JOptionPane.showConfirmDialog(this, opciones, "Exportar todos los intentos",
+                JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE) != JOptionPane.OK_OPTION) {
+            return;
+        }
+
+        int sel = cmbEval.getSelectedIndex();
+        List<IntentoEvaluacion> intentos = new ArrayList<>();
+        for (IntentoEvaluacion it : todos) {
+            if (sel <= 0 || (it.getEvaluacion() != null && it.getEvaluacion().getId() == listaEval.get(sel - 1).getId())) {
+                intentos.add(it);
+            }
+        }
+        ReporteService.FormatoIntentos formato = rbZip.isSelected()
+                ? ReporteService.FormatoIntentos.ZIP_POR_INTENTO
+                : ReporteService.FormatoIntentos.PDF_CON_INDICE;
+
+        JFileChooser fc = new JFileChooser();
+        fc.setDialogTitle(rbZip.isSelected() ? "Guardar intentos como ZIP" : "Guardar intentos como PDF");
+        if (fc.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        File destino = fc.getSelectedFile();
+
+        btnExportarTodos.setEnabled(false);
+        CompletableFuture.supplyAsync(() -> {
+            try {
+                return reporteService.exportarIntentos(intentos, destino, formato);
+            } catch (RuntimeException ex) {
+                throw ex;
+            } catch (Exception ex) {
+                throw new IllegalStateException(ex.getMessage(), ex);
+            }
+        }).whenComplete((Path archivo, Throwable ex) -> SwingUtilities.invokeLater(() -> {
+            btnExportarTodos.setEnabled(true);
+            if (ex != null) {
+                Throwable causa = ex.getCause() != null ? ex.getCause() : ex;
+                JOptionPane.showMessageDialog(this, "No se pudo exportar: " + causa.getMessage(),
+                        "Error", JOptionPane.ERROR_MESSAGE);
+            } else {
+                JOptionPane.showMessageDialog(this,
+                        intentos.size() + " intento(s) exportado(s) en:\n" + archivo);
+            }
+        }));
+    }
+
     // -- Modelo interno --
 
     /**
@@ -192,6 +284,9 @@ public class ProfesorIntentosPanel extends JPanel {
         /** Obtiene el intento en la fila indicada. */
         public IntentoEvaluacion getAt(int r) { return data.get(r); }
 
+        /** Obtiene los intentos mostrados. */
+        public List<IntentoEvaluacion> getData() { return data; }
+
         @Override public int getRowCount() { return data.size(); }
         @Override public int getColumnCount() { return cols.length; }
         @Override public String getColumnName(int c) { return cols[c]; }
@@ -19,7 +19,7 @@ public class ProfesorSeguimientoPanel extends JPanel {
     // -- Servicios --
 
     /** Servicio de usuarios del sistema. */
-    private final UsuarioServiceMem usuarioService;
+    private final UsuarioService usuarioService;
 
     /** Servicio de cursos utilizado para obtener grupos. */
     private final CursoService cursoService;
@@ -54,7 +54,7 @@ public class ProfesorSeguimientoPanel extends JPanel {
      * @param evaluacionService servicio de evaluaciones
      * @param profesor profesor autenticado
      */
-    public ProfesorSeguimientoPanel(UsuarioServiceMem usuarioService,
+    public ProfesorSeguimientoPanel(UsuarioService usuarioService,
                                     CursoService cursoService,
                                     EvaluacionService evaluacionService,
                                     Profesor profesor) {
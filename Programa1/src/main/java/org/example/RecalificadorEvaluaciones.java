@@ -0,0 +1,222 @@
+package org.example;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Motor de recalificación masiva de una evaluación.
+ * <p>
+ * Toma todos los intentos de una evaluación desde el {@link IntentoService},
+ * los vuelve a calificar en paralelo (flujo paralelo sobre el
+ * {@code ForkJoinPool} común) contra las preguntas actuales de la evaluación y,
+ * al terminar, actualiza una sola vez la calificación final de cada matrícula
+ * afectada.
+ * </p>
+ * <p>
+ * Puede ejecutarse mientras llegan intentos nuevos: trabaja sobre una copia de
+ * la lista de intentos, cada intento se califica bajo su propio monitor, y las
+ * notas finales se calculan con los intentos registrados al momento de
+ * actualizarlas. Un intento que llegue durante la recalificación ya se califica
+ * con las claves corregidas al guardarse.
+ * </p>
+ */
+public class RecalificadorEvaluaciones {
+
+    /** Receptor del avance de una recalificación. */
+    @FunctionalInterface
+    public interface Progreso {
+        /**
+         * Informa el avance. Puede invocarse desde hilos del pool.
+         *
+         * @param hechos intentos ya recalificados
+         * @param total total de intentos a recalificar
+         */
+        void avance(int hechos, int total);
+    }
+
+    /** Cantidad aproximada de notificaciones de avance por recalificación. */
+    private static final int PASOS_PROGRESO = 100;
+
+    // -- Dependencias --
+
+    /** Servicio del que se obtienen los intentos. */
+    private final IntentoService intentoService;
+
+    // -- Constructor --
+
+    /**
+     * Crea el motor de recalificación.
+     *
+     * @param intentoService servicio de intentos
+     */
+    public RecalificadorEvaluaciones(IntentoService intentoService) {
+        this.intentoService = Objects.requireNonNull(intentoService, "Servicio de intentos requerido.");
+    }
+
+    // -- Recalificación --
+
+    /**
+     * Recalifica todos los intentos de una evaluación.
+     *
+     * @param idEvaluacion identificador de la evaluación
+     * @param progreso receptor del avance (puede ser {@code null})
+     * @return resumen de la recalificación
+     */
+    public Resultado recalificar(int idEvaluacion, Progreso progreso) {
+        long t0 = System.nanoTime();
+        List<IntentoEvaluacion> intentos = intentoService.listarPorEvaluacion(idEvaluacion);
+        int total = intentos.size();
+        if (progreso != null) progreso.avance(0, total);
+
+        // Preguntas vigentes de cada evaluación, resueltas una sola vez por evaluación
+        Map<Evaluacion, Map<Integer, IPregunta>> vigentes = new IdentityHashMap<>();
+        for (IntentoEvaluacion it : intentos) {
+            Evaluacion ev = it.getEvaluacion();
+            if (ev != null && !vigentes.containsKey(ev)) vigentes.put(ev, preguntasPorId(ev));
+        }
+
+        int paso = Math.max(1, total / PASOS_PROGRESO);
+        AtomicInteger hechos = new AtomicInteger();
+        AtomicInteger cambiados = new AtomicInteger();
+
+        intentos.parallelStream().forEach(it -> {
+            if (recalificarIntento(it, vigentes.get(it.getEvaluacion()))) cambiados.incrementAndGet();
+            int n = hechos.incrementAndGet();
+            if (progreso != null && (n % paso == 0 || n == total)) progreso.avance(n, total);
+        });
+
+        int matriculas = actualizarMatriculas(intentos);
+        return new Resultado(idEvaluacion, total, cambiados.get(), matriculas, System.nanoTime() - t0);
+    }
+
+    /**
+     * Ejecuta {@link #recalificar(int, Progreso)} en segundo plano.
+     *
+     * @param idEvaluacion identificador de la evaluación
+     * @param progreso receptor del avance (puede ser {@code null})
+     * @return futuro con el resumen de la recalificación
+     */
+    public CompletableFuture<Resultado> recalificarAsync(int idEvaluacion, Progreso progreso) {
+        return CompletableFuture.supplyAsync(() -> recalificar(idEvaluacion, progreso));
+    }
+
+    // -- Métodos auxiliares --
+
+    /**
+     * Vuelve a calificar un intento contra las preguntas vigentes.
+     * <p>
+     * Los editores reemplazan la pregunta editada por una instancia nueva con el
+     * mismo ID, así que cada respuesta se enlaza primero a la versión actual de su
+     * pregunta. Las preguntas que ya no existen en la evaluación se califican con
+     * la versión que tenía el intento.
+     * </p>
+     *
+     * @return {@code true} si cambió el puntaje obtenido
+     */
+    private static boolean recalificarIntento(IntentoEvaluacion it, Map<Integer, IPregunta> vigentes) {
+        synchronized (it) {
+            int antes = it.getPuntajeObtenido();
+            if (vigentes != null) {
+                for (RespuestaEstudiante r : it.getRespuestasEstudiante()) {
+                    if (r == null || r.getPregunta() == null) continue;
+                    Integer id = idPregunta(r.getPregunta());
+                    IPregunta actual = id == null ? null : vigentes.get(id);
+                    if (actual != null && actual.getClass() == r.getPregunta().getClass()) r.setPregunta(actual);
+                }
+            }
+            it.calcularCalificacion();
+            return it.getPuntajeObtenido() != antes;
+        }
+    }
+
+    /**
+     * Actualiza la nota final de cada matrícula con intentos en la lista.
+     * Cada matrícula se recalcula una sola vez con todos sus intentos registrados.
+     *
+     * @return cantidad de matrículas actualizadas
+     */
+    private int actualizarMatriculas(List<IntentoEvaluacion> intentos) {
+        Map<Grupo, Set<String>> afectados = new IdentityHashMap<>();
+        for (IntentoEvaluacion it : intentos) {
+            if (it.getGrupo() == null || it.getEstudiante() == null) continue;
+            afectados.computeIfAbsent(it.getGrupo(), g -> new HashSet<>()).add(it.getEstudiante().getIdUsuario());
+        }
+
+        int actualizadas = 0;
+        for (Map.Entry<Grupo, Set<String>> e : afectados.entrySet()) {
+            Grupo g = e.getKey();
+            Map<String, List<IntentoEvaluacion>> porEstudiante = new HashMap<>();
+            for (IntentoEvaluacion it : intentoService.listarPorGrupo(g.getIdGrupo())) {
+                if (it.getEstudiante() == null) continue;
+                porEstudiante.computeIfAbsent(it.getEstudiante().getIdUsuario(), k -> new ArrayList<>()).add(it);
+            }
+            for (Matricula m : new ArrayList<>(g.getMatriculas())) {
+                Estudiante est = m.getEstudiante();
+                if (est == null || !e.getValue().contains(est.getIdUsuario())) continue;
+                m.actualizarCalificacionFinal(porEstudiante.getOrDefault(est.getIdUsuario(), List.of()));
+                actualizadas++;
+            }
+        }
+        return actualizadas;
+    }
+
+    /** Indexa las preguntas actuales de la evaluación por su ID. */
+    static Map<Integer, IPregunta> preguntasPorId(Evaluacion ev) {
+        Map<Integer, IPregunta> m = new HashMap<>();
+        for (IPregunta p : new ArrayList<>(ev.getPreguntas())) {
+            Integer id = idPregunta(p);
+            if (id != null) m.putIfAbsent(id, p);
+        }
+        return m;
+    }
+
+    /** ID de una pregunta según su tipo concreto, o {@code null} si no tiene. */
+    static Integer idPregunta(IPregunta p) {
+        if (p instanceof Pregunta q) return q.getId();
+        if (p instanceof Pareo pr) return pr.getId();
+        if (p instanceof SopaDeLetras sl) return sl.getId();
+        return null;
+    }
+
+    // -- Resultado --
+
+    /** Resumen de una recalificación. */
+    public static final class Resultado {
+
+        /** Evaluación recalificada. */
+        public final int idEvaluacion;
+
+        /** Intentos recalificados. */
+        public final int intentos;
+
+        /** Intentos cuyo puntaje cambió. */
+        public final int cambiados;
+
+        /** Matrículas cuya nota final se actualizó. */
+        public final int matriculas;
+
+        /** Duración total en nanosegundos. */
+        public final long nanos;
+
+        Resultado(int idEvaluacion, int intentos, int cambiados, int matriculas, long nanos) {
+            this.idEvaluacion = idEvaluacion;
+            this.intentos = intentos;
+            this.cambiados = cambiados;
+            this.matriculas = matriculas;
+            this.nanos = nanos;
+        }
+
+        /** @return intentos recalificados por segundo */
+        public double intentosPorSegundo() {
+            return nanos <= 0 ? 0.0 : intentos * 1_000_000_000.0 / nanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Evaluación #%d: %d intentos recalificados (%d cambiaron), "
+                            + "%d matrículas actualizadas en %.1f ms (%.0f intentos/s)",
+                    idEvaluacion, intentos, cambiados, matriculas, nanos / 1e6, intentosPorSegundo());
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package org.example;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registro global de identificaciones y correos en uso.
+ * <p>
+ * Cada identificación (sin espacios al inicio o al final) y cada correo
+ * (normalizado con {@link UsuarioService#normalizarCorreo(String)}) se reserva
+ * a nombre de un dueño, normalmente el objeto {@link Usuario}. La reserva es
+ * atómica ({@code putIfAbsent} sobre un {@link ConcurrentHashMap}), así que dos
+ * registros simultáneos con la misma identificación o el mismo correo nunca
+ * tienen éxito ambos, y volver a reservar con el mismo dueño no es un conflicto.
+ * </p>
+ * <p>
+ * Lo comparten {@link Usuario#validarDatos()}, {@link Administrador} y
+ * {@link UsuarioServiceMem}; las reservas se liberan al eliminar al usuario.
+ * </p>
+ */
+public final class RegistroUnicidad {
+
+    /** Instancia compartida por todo el sistema. */
+    private static final RegistroUnicidad GLOBAL = new RegistroUnicidad();
+
+    /** Marca de conflicto devuelta por {@link #tomarClave}. */
+    private static final Object CONFLICTO = new Object();
+
+    // -- Estructuras internas --
+
+    /** Identificaciones reservadas (identificación → dueño). */
+    private final Map<String, Object> ids = new ConcurrentHashMap<>();
+
+    /** Correos reservados (correo normalizado → dueño). */
+    private final Map<String, Object> correos = new ConcurrentHashMap<>();
+
+    /** Reserva vigente de cada dueño, para poder liberarla o reemplazarla. */
+    private final Map<Object, Reserva> reservas = new ConcurrentHashMap<>();
+
+    /** Identificación y correo reservados por un dueño. */
+    private record Reserva(String id, String correo) {}
+
+    /** @return el registro compartido por todo el sistema */
+    public static RegistroUnicidad global() {
+        return GLOBAL;
+    }
+
+    // -- Consultas --
+
+    /**
+     * Indica si la identificación está libre o ya pertenece al dueño indicado.
+     *
+     * @param id identificación a consultar
+     * @param duenio dueño que pretende usarla
+     * @return {@code true} si puede usarla
+     */
+    public boolean idDisponible(String id, Object duenio) {
+        String clave = normalizarId(id);
+        if (clave == null) return true;
+        Object actual = ids.get(clave);
+        return actual == null || actual == duenio;
+    }
+
+    /**
+     * Indica si el correo está libre o ya pertenece al dueño indicado.
+     *
+     * @param correo correo a consultar
+     * @param duenio dueño que pretende usarlo
+     * @return {@code true} si puede usarlo
+     */
+    public boolean correoDisponible(String correo, Object duenio) {
+        String clave = UsuarioService.normalizarCorreo(correo);
+        if (clave == null) return true;
+        Object actual = correos.get(clave);
+        return actual == null || actual == duenio;
+    }
+
+    // -- Reservas --
+
+    /**
+     * Reserva la identificación y el correo actuales del usuario.
+     *
+     * @param u usuario dueño de la reserva
+     * @return {@code true} si ambos quedaron a su nombre
+     */
+    public boolean reservar(Usuario u) {
+        return reservar(u.getIdUsuario(), u.getCorreo(), u);
+    }
+
+    /**
+     * Reserva una identificación y un correo a nombre de un dueño.
+     * <p>
+     * Se reservan ambos o ninguno. Si el dueño ya tenía otra reserva (por
+     * ejemplo, cambió de correo), la anterior se libera al tener éxito.
+     * </p>
+     *
+     * @param id identificación (puede ser {@code null})
+     * @param correo correo (puede ser {@code null})
+     * @param duenio dueño de la reserva
+     * @return {@code true} si ambos quedaron a su nombre
+     */
+    public boolean reservar(String id, String correo, Object duenio) {
+        return tomar(normalizarId(id), UsuarioService.normalizarCorreo(correo), null, duenio);
+    }
+
+    /**
+     * Traspasa la reserva de un dueño a otro, por ejemplo cuando un usuario se
+     * reemplaza por una copia editada con la misma identificación.
+     * <p>
+     * Las claves que pertenecían a {@code anterior} pasan a {@code nuevo}; las
+     * que {@code nuevo} ya no usa se liberan. Si alguna clave pertenece a un
+     * tercero no se modifica nada.
+     * </p>
+     *
+     * @param anterior dueño actual
+     * @param nuevo dueño que recibe la reserva
+     * @return {@code true} si el traspaso tuvo éxito
+     */
+    public boolean reemplazar(Usuario anterior, Usuario nuevo) {
+        if (anterior == null || anterior == nuevo) return reservar(nuevo);
+        boolean ok = tomar(normalizarId(nuevo.getIdUsuario()),
+                UsuarioService.normalizarCorreo(nuevo.getCorreo()), anterior, nuevo);
+        if (ok) liberar(anterior);
+        return ok;
+    }
+
+    /**
+     * Libera todo lo reservado a nombre del dueño.
+     *
+     * @param duenio dueño de la reserva
+     */
+    public void liberar(Object duenio) {
+        if (duenio == null) return;
+        Reserva r = reservas.remove(duenio);
+        if (r == null) return;
+        if (r.id() != null) ids.remove(r.id(), duenio);
+        if (r.correo() != null) correos.remove(r.correo(), duenio);
+    }
+
+    // -- Métodos auxiliares --
+
+    /**
+     * Reserva las claves para {@code nuevo}, aceptando también las que hoy
+     * pertenecen a {@code anterior}. Deshace lo tomado si alguna falla.
+     */
+    private boolean tomar(String id, String correo, Object anterior, Object nuevo) {
+        Object previoId = null;
+        if (id != null) {
+            previoId = tomarClave(ids, id, anterior, nuevo);
+            if (previoId == CONFLICTO) return false;
+        }
+        if (correo != null && tomarClave(correos, correo, anterior, nuevo) == CONFLICTO) {
+            if (id != null) devolverClave(ids, id, previoId, nuevo);
+            return false;
+        }
+
+        Reserva previa = reservas.put(nuevo, new Reserva(id, correo));
+        if (previa != null) {
+            if (previa.id() != null && !previa.id().equals(id)) ids.remove(previa.id(), nuevo);
+            if (previa.correo() != null && !previa.correo().equals(correo)) correos.remove(previa.correo(), nuevo);
+        }
+        return true;
+    }
+
+    /**
+     * Pone la clave a nombre de {@code nuevo} si está libre o pertenece a
+     * {@code anterior} o a {@code nuevo}.
+     *
+     * @return el dueño previo ({@code null} si estaba libre) o {@link #CONFLICTO}
+     */
+    private static Object tomarClave(Map<String, Object> mapa, String clave, Object anterior, Object nuevo) {
+        while (true) {
+            Object actual = mapa.putIfAbsent(clave, nuevo);
+            if (actual == null || actual == nuevo) return actual;
+            if (anterior == null || actual != anterior) return CONFLICTO;
+            if (mapa.replace(clave, anterior, nuevo)) return anterior;
+        }
+    }
+
+    /** Deshace {@link #tomarClave}: devuelve la clave a su dueño previo. */
+    private static void devolverClave(Map<String, Object> mapa, String clave, Object previo, Object nuevo) {
+        if (previo == nuevo) return;
+        if (previo == null) mapa.remove(clave, nuevo);
+        else mapa.replace(clave, nuevo, previo);
+    }
+
+    private static String normalizarId(String id) {
+        if (id == null) return null;
+        String s = id.trim();
+        return s.isEmpty() ? null : s;
+    }
+}
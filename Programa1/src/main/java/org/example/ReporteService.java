@@ -2,6 +2,9 @@ package org.example;
 
 import java.nio.file.Path;
 import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Interfaz que define el contrato para generar distintos tipos de reportes
@@ -96,8 +99,40 @@ public interface ReporteService {
      */
     Path generarEstadisticaMatricula(LocalDate fechaVigencia, Scope scope) throws Exception;
 
+    // -- Generación por lotes --
+
+    /**
+     * Genera en segundo plano un documento por cada alcance y tipo indicados.
+     * <p>
+     * Los documentos se reparten en un grupo acotado de hilos
+     * ({@link GeneradorLotesReportes}), cada uno con
+     * {@link #generarListaEstudiantes} o {@link #generarEstadisticaMatricula};
+     * la implementación debe admitir llamadas concurrentes a esos métodos.
+     * </p>
+     *
+     * @param fechaVigencia fecha de corte de los datos
+     * @param alcances alcances a generar
+     * @param tipos tipos de reporte por alcance
+     * @param comprimir si además se empaquetan los archivos en un ZIP
+     * @param progreso receptor del avance, invocado desde los hilos del lote (puede ser {@code null})
+     * @return futuro con el resumen del lote; los errores de cada documento quedan en el resumen
+     */
+    default CompletableFuture<GeneradorLotesReportes.Resultado> generarLote(
+            LocalDate fechaVigencia, List<Scope> alcances, Set<GeneradorLotesReportes.TipoReporte> tipos,
+            boolean comprimir, GeneradorLotesReportes.Progreso progreso) {
+        return new GeneradorLotesReportes(this).generarAsync(fechaVigencia, alcances, tipos, comprimir, progreso);
+    }
+
     // -- Exportación de intentos --
 
+    /** Formas de exportar varios intentos a la vez. */
+    enum FormatoIntentos {
+        /** Un solo PDF con un índice al inicio y una sección por intento. */
+        PDF_CON_INDICE,
+        /** Un ZIP con un PDF por intento. */
+        ZIP_POR_INTENTO
+    }
+
     /**
      * Exporta un intento de evaluación a un archivo (por ejemplo, PDF).
      * <p>
@@ -110,4 +145,22 @@ public interface ReporteService {
      * @return {@code true} si la exportación fue exitosa, {@code false} en caso contrario
      */
     boolean exportarIntento(IntentoEvaluacion intento, java.io.File destino);
+
+    /**
+     * Exporta varios intentos de evaluación (por ejemplo, todos los de una
+     * evaluación o de un grupo) a un solo archivo.
+     * <p>
+     * Los intentos se ordenan por estudiante, evaluación y fecha de inicio. Con
+     * {@link FormatoIntentos#PDF_CON_INDICE} el destino es un PDF; con
+     * {@link FormatoIntentos#ZIP_POR_INTENTO}, un ZIP. La extensión se agrega
+     * si falta.
+     * </p>
+     *
+     * @param intentos intentos a exportar (al menos uno)
+     * @param destino archivo de destino
+     * @param formato forma de la exportación
+     * @return ruta del archivo generado
+     * @throws Exception si falla la generación de algún intento o la escritura
+     */
+    Path exportarIntentos(List<IntentoEvaluacion> intentos, java.io.File destino, FormatoIntentos formato) throws Exception;
 }
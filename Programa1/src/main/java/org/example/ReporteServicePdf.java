@@ -1,18 +1,31 @@
 package org.example;
 
+import org.apache.pdfbox.io.MemoryUsageSetting;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.common.PDRectangle;
 import org.apache.pdfbox.pdmodel.font.PDType1Font;
 import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
 import org.apache.pdfbox.pdmodel.PDPageContentStream;
-
+import org.apache.pdfbox.pdmodel.interactive.annotation.PDAnnotationLink;
+import org.apache.pdfbox.pdmodel.interactive.annotation.PDBorderStyleDictionary;
+import org.apache.pdfbox.pdmodel.interactive.documentnavigation.destination.PDPageFitWidthDestination;
+import org.apache.pdfbox.pdmodel.interactive.documentnavigation.outline.PDDocumentOutline;
+import org.apache.pdfbox.pdmodel.interactive.documentnavigation.outline.PDOutlineItem;
+
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
@@ -20,70 +33,67 @@ import java.util.stream.Collectors;
  * - Lista de estudiantes (tabla).
  * - Estadística de matrícula (cursos/grupos).
  *
+ * La lista de estudiantes se genera con memoria acotada: las filas se ordenan
+ * con {@link OrdenamientoExterno}, que vuelca a disco las tandas de más de
+ * {@link #FILAS_POR_TANDA} filas, y los flujos de las páginas pasan a un
+ * archivo temporal de PDFBox cuando superan {@link #MEMORIA_PDF} bytes.
+ *
  * Carpeta de salida: ~/reportes_sistema/
  */
 public class ReporteServicePdf implements ReporteService {
 
+    /** Filas de la lista de estudiantes que se ordenan en memoria antes de volcar una tanda a disco. */
+    public static final int FILAS_POR_TANDA = 50_000;
+
+    /** Bytes de los flujos del PDF que se mantienen en memoria; el resto va a un archivo temporal. */
+    public static final long MEMORIA_PDF = 4L * 1024 * 1024;
+
     private final CursoService cursoService;
     private final UsuarioService usuarioService;
+    private final int filasPorTanda;
 
-    private static final PDType1Font HELVETICA = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
-    private static final PDType1Font HELVETICA_BOLD = new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD);
+    /**
+     * Fuentes por hilo: una fuente de PDFBox guarda cachés internas y su diccionario
+     * queda en los documentos que la usan, así que no se comparte entre reportes
+     * que se generan a la vez (ver {@link #generarLote}).
+     */
+    private static final ThreadLocal<PDType1Font> HELVETICA =
+            ThreadLocal.withInitial(() -> new PDType1Font(Standard14Fonts.FontName.HELVETICA));
+    private static final ThreadLocal<PDType1Font> HELVETICA_BOLD =
+            ThreadLocal.withInitial(() -> new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD));
+
+    private static final PDRectangle PAGE_SIZE = PDRectangle.LETTER;
+    private static final float MARGIN = 40f;
 
     public ReporteServicePdf(CursoService cursoService, UsuarioService usuarioService) {
+        this(cursoService, usuarioService, FILAS_POR_TANDA);
+    }
+
+    /**
+     * @param filasPorTanda filas que se ordenan en memoria antes de volcar una tanda a disco
+     */
+    public ReporteServicePdf(CursoService cursoService, UsuarioService usuarioService, int filasPorTanda) {
+        if (filasPorTanda < 1) throw new IllegalArgumentException("La tanda debe admitir al menos una fila.");
         this.cursoService = cursoService;
         this.usuarioService = usuarioService;
+        this.filasPorTanda = filasPorTanda;
     }
 
     @Override
     public Path generarListaEstudiantes(LocalDate fechaVigencia, Scope scope) throws Exception {
-        List<ItemAlumno> alumnos = recolectarAlumnos(fechaVigencia, scope);
-        alumnos.sort(Comparator
-                .comparing((ItemAlumno it) -> safe(it.est.getApellido1()))
-                .thenComparing(it -> safe(it.est.getNombre()))
-                .thenComparing(it -> safe(it.est.getApellido2()))
-        );
-
         Path out = outPath("lista_estudiantes", fechaVigencia, scope, "pdf");
 
-        try (PDDocument doc = new PDDocument()) {
-            PDRectangle pageSize = PDRectangle.LETTER;
-            float margin = 40f;
-            float y = pageSize.getHeight() - margin;
+        String[] headers = {"CursoID", "Curso", "Grupo", "Identificación", "Nombre completo", "Correo"};
+        float[] widths = {60, 120, 50, 90, 170, 160};
 
-            PDPage page = new PDPage(pageSize);
-            doc.addPage(page);
-            try (PDPageContentStream cs = new PDPageContentStream(doc, page)) {
-                y = drawTitle(cs, "Lista de Estudiantes", "Vigentes desde " + fechaVigencia, y);
-
-                String[] headers = {"CursoID", "Curso", "Grupo", "Identificación", "Nombre completo", "Correo"};
-                float[] widths = {60, 120, 50, 90, 170, 160};
-                y = y - 16;
-                y = drawTableHeader(cs, margin, y, headers, widths);
-
-                float rowHeight = 14f;
-                for (ItemAlumno it : alumnos) {
-                    String nombreCompleto = joinNames(it.est.getNombre(), it.est.getApellido1(), it.est.getApellido2());
-                    String[] row = {
-                            nz(it.idCurso), nz(it.nombreCurso),
-                            String.valueOf(it.idGrupo),
-                            nz(it.est.getIdUsuario()),
-                            nz(nombreCompleto),
-                            nz(it.est.getCorreo())
-                    };
-                    if (y - rowHeight < margin) {
-                        cs.close();
-                        page = new PDPage(pageSize);
-                        doc.addPage(page);
-                        y = pageSize.getHeight() - margin;
-                        try (PDPageContentStream cs2 = new PDPageContentStream(doc, page)) {
-                            y = drawTableHeader(cs2, margin, y, headers, widths);
-                            y = drawRow(cs2, margin, y, row, widths, rowHeight);
-                        }
-                        continue;
-                    }
-                    y = drawRow(cs, margin, y, row, widths, rowHeight);
-                }
+        try (OrdenamientoExterno<FilaAlumno> filas =
+                     new OrdenamientoExterno<>(FilaAlumno.ORDEN, FilaAlumno.FORMATO, filasPorTanda);
+             PDDocument doc = new PDDocument(MemoryUsageSetting.setupMixed(MEMORIA_PDF).streamCache)) {
+            proyectarAlumnos(fechaVigencia, scope, filas::agregar);
+
+            try (TablaPaginada tabla = new TablaPaginada(doc, headers, widths)) {
+                tabla.titulo("Lista de Estudiantes", "Vigentes desde " + fechaVigencia);
+                filas.recorrer(fila -> tabla.fila(fila.celdas()));
             }
 
             doc.save(out.toFile());
@@ -120,12 +130,12 @@ public class ReporteServicePdf implements ReporteService {
                 y -= 10;
 
                 if (conteo.isEmpty()) {
-                    writeLine(cs, "No hay datos para el alcance/fecha indicados.", margin, y, 12, HELVETICA);
+                    writeLine(cs, "No hay datos para el alcance/fecha indicados.", margin, y, 12, HELVETICA.get());
                 } else {
                     for (String idCurso : conteo.keySet()) {
                         String titulo = "Curso: " + idCurso + " - " + cursoNombres.getOrDefault(idCurso, "");
                         y = ensureSpace(doc, cs, pageSize, margin, y, 40);
-                        writeLine(cs, titulo, margin, y, 12, HELVETICA_BOLD);
+                        writeLine(cs, titulo, margin, y, 12, HELVETICA_BOLD.get());
                         y -= 12;
 
                         Map<Integer, Integer> mapG = conteo.get(idCurso);
@@ -133,12 +143,12 @@ public class ReporteServicePdf implements ReporteService {
                         for (Map.Entry<Integer, Integer> e : mapG.entrySet()) {
                             y = ensureSpace(doc, cs, pageSize, margin, y, 16);
                             writeLine(cs, "  Grupo #" + e.getKey() + ": " + e.getValue() + " matriculados",
-                                    margin, y, 12, HELVETICA);
+                                    margin, y, 12, HELVETICA.get());
                             y -= 14;
                             total += e.getValue();
                         }
                         y = ensureSpace(doc, cs, pageSize, margin, y, 16);
-                        writeLine(cs, "  Total curso: " + total, margin, y, 12, HELVETICA_BOLD);
+                        writeLine(cs, "  Total curso: " + total, margin, y, 12, HELVETICA_BOLD.get());
                         y -= 18;
                     }
                 }
@@ -150,18 +160,54 @@ public class ReporteServicePdf implements ReporteService {
         return out;
     }
 
-    private List<ItemAlumno> recolectarAlumnos(LocalDate fechaVigencia, Scope scope) {
-        List<ItemAlumno> alumnos = new ArrayList<>();
+    // -- Recolección de datos --
+
+    /**
+     * Proyecta las matrículas vigentes del alcance a filas de la lista de
+     * estudiantes, ordenadas por primer apellido, nombre y segundo apellido.
+     * <p>
+     * El estudiante se toma directamente de {@link Matricula#getEstudiante()} y
+     * cada fila calcula una sola vez sus celdas y claves de orden, así que el
+     * ordenamiento no vuelve a consultar al estudiante. Las matrículas de cada
+     * grupo se recorren sobre una copia, por si se modifican mientras tanto.
+     * </p>
+     *
+     * @param fechaVigencia fecha de corte de los grupos
+     * @param scope alcance del reporte
+     * @return filas ordenadas
+     */
+    List<FilaAlumno> recolectarAlumnos(LocalDate fechaVigencia, Scope scope) {
+        List<FilaAlumno> filas = new ArrayList<>();
+        try {
+            proyectarAlumnos(fechaVigencia, scope, filas::add);
+        } catch (IOException e) {
+            throw new java.io.UncheckedIOException(e);
+        }
+        filas.sort(FilaAlumno.ORDEN);
+        return filas;
+    }
+
+    /**
+     * Entrega, sin ordenar, una fila por cada matrícula vigente del alcance.
+     *
+     * @param fechaVigencia fecha de corte de los grupos
+     * @param scope alcance del reporte
+     * @param destino acción que recibe cada fila
+     * @throws IOException si la acción falla
+     */
+    private void proyectarAlumnos(LocalDate fechaVigencia, Scope scope,
+                                  OrdenamientoExterno.Accion<FilaAlumno> destino) throws IOException {
         for (Curso c : cursosFiltrados(cursoService.listarCursos(), scope)) {
             for (Grupo g : gruposFiltrados(c, scope, fechaVigencia)) {
-                for (Object m : g.getMatriculas()) {
-                    Estudiante e = tryGetEstudianteFromMatricula(m);
+                List<Matricula> matriculas = g.getMatriculas();
+                if (matriculas == null) continue;
+                for (Matricula m : new ArrayList<>(matriculas)) {
+                    Estudiante e = (m == null) ? null : m.getEstudiante();
                     if (e == null) continue;
-                    alumnos.add(new ItemAlumno(c.getId(), c.getNombre(), g.getIdGrupo(), e));
+                    destino.aplicar(new FilaAlumno(c, g.getIdGrupo(), e));
                 }
             }
         }
-        return alumnos;
     }
 
     private List<Curso> cursosFiltrados(List<Curso> cursos, Scope scope) {
@@ -182,24 +228,6 @@ public class ReporteServicePdf implements ReporteService {
                 .collect(Collectors.toList());
     }
 
-    private Estudiante tryGetEstudianteFromMatricula(Object matricula) {
-        Estudiante e = (Estudiante) tryInvoke(matricula, "getEstudiante");
-        if (e != null) return e;
-        Object id = tryInvoke(matricula, "getIdEstudiante");
-        if (id != null) {
-            String sid = String.valueOf(id);
-            for (Estudiante x : usuarioService.listarEstudiantes()) {
-                if (sid.equals(x.getIdUsuario())) return x;
-            }
-        }
-        return null;
-    }
-
-    private Object tryInvoke(Object target, String getter) {
-        try { var m = target.getClass().getMethod(getter); return m.invoke(target); }
-        catch (Exception ignored) { return null; }
-    }
-
     private static String nz(String s) { return s == null ? "" : s; }
     private static String safe(String s) { return s == null ? "" : s; }
     private static String joinNames(String n, String a1, String a2) {
@@ -224,20 +252,20 @@ public class ReporteServicePdf implements ReporteService {
 
     private float drawTitle(PDPageContentStream cs, String title, String subtitle, float yTop) throws IOException {
         float x = 40f;
-        writeLine(cs, title, x, yTop, 16, HELVETICA_BOLD);
+        writeLine(cs, title, x, yTop, 16, HELVETICA_BOLD.get());
         yTop -= 18;
-        writeLine(cs, subtitle, x, yTop, 12, HELVETICA);
+        writeLine(cs, subtitle, x, yTop, 12, HELVETICA.get());
         return yTop - 10;
     }
 
     private float drawTableHeader(PDPageContentStream cs, float x, float y, String[] headers, float[] widths) throws IOException {
-        writeRow(cs, x, y, headers, widths, 12, HELVETICA_BOLD);
+        writeRow(cs, x, y, headers, widths, 12, HELVETICA_BOLD.get());
         drawLine(cs, x, y-2, x + sum(widths), y-2);
         return y - 16;
     }
 
     private float drawRow(PDPageContentStream cs, float x, float y, String[] cells, float[] widths, float rowHeight) throws IOException {
-        writeRow(cs, x, y, cells, widths, 11, HELVETICA);
+        writeRow(cs, x, y, cells, widths, 11, HELVETICA.get());
         return y - rowHeight;
     }
 
@@ -265,18 +293,7 @@ public class ReporteServicePdf implements ReporteService {
     }
 
     private String clipToWidth(PDType1Font font, int fontSize, String s, float maxWidth) throws IOException {
-        String ell = "…";
-        if (stringWidth(font, fontSize, s) <= maxWidth) return s;
-        for (int i = Math.min(s.length(), 120); i > 0; i--) {
-            String t = s.substring(0, i) + ell;
-            if (stringWidth(font, fontSize, t) <= maxWidth) return t;
-        }
-        return ell;
-    }
-
-
-    private float stringWidth(PDType1Font font, int fontSize, String s) throws IOException {
-        return font.getStringWidth(s) / 1000f * fontSize;
+        return MedidorTexto.de(font).recortar(s, fontSize, maxWidth);
     }
 
     private void drawLine(PDPageContentStream cs, float x1, float y1, float x2, float y2) throws IOException {
@@ -295,31 +312,351 @@ public class ReporteServicePdf implements ReporteService {
         return pageSize.getHeight() - margin;
     }
 
-    private static class ItemAlumno {
-        final String idCurso; final String nombreCurso; final int idGrupo; final Estudiante est;
-        ItemAlumno(String idCurso, String nombreCurso, int idGrupo, Estudiante est) {
-            this.idCurso = idCurso; this.nombreCurso = nombreCurso; this.idGrupo = idGrupo; this.est = est;
+    /**
+     * Tabla que continúa en páginas nuevas a medida que se agregan filas,
+     * repitiendo el encabezado. Cada página cierra su flujo de contenido al
+     * empezar la siguiente, así que solo hay un flujo abierto a la vez.
+     */
+    private final class TablaPaginada implements Closeable {
+        private static final float ROW_HEIGHT = 14f;
+
+        private final PDDocument doc;
+        private final String[] headers;
+        private final float[] widths;
+        private PDPageContentStream cs;
+        private float y;
+
+        TablaPaginada(PDDocument doc, String[] headers, float[] widths) throws IOException {
+            this.doc = doc;
+            this.headers = headers;
+            this.widths = widths;
+            nuevaPagina();
+        }
+
+        /** Escribe el título en la primera página, antes del encabezado. */
+        void titulo(String title, String subtitle) throws IOException {
+            y = drawTitle(cs, title, subtitle, y) - 16;
+            y = drawTableHeader(cs, MARGIN, y, headers, widths);
+        }
+
+        /** Agrega una fila, pasando a una página nueva si no cabe. */
+        void fila(String[] celdas) throws IOException {
+            if (y - ROW_HEIGHT < MARGIN) {
+                nuevaPagina();
+                y = drawTableHeader(cs, MARGIN, y, headers, widths);
+            }
+            y = drawRow(cs, MARGIN, y, celdas, widths, ROW_HEIGHT);
+        }
+
+        private void nuevaPagina() throws IOException {
+            if (cs != null) cs.close();
+            PDPage page = new PDPage(PAGE_SIZE);
+            doc.addPage(page);
+            cs = new PDPageContentStream(doc, page);
+            y = PAGE_SIZE.getHeight() - MARGIN;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (cs != null) cs.close();
+            cs = null;
+        }
+    }
+
+    /** Fila de la lista de estudiantes, con sus celdas y claves de orden ya calculadas. */
+    static final class FilaAlumno {
+
+        /** Primer apellido, nombre y segundo apellido; los nulos cuentan como vacíos. */
+        static final Comparator<FilaAlumno> ORDEN = Comparator.comparing(f -> f.claveOrden);
+
+        /** Formato de las filas en las tandas del ordenamiento externo. */
+        static final OrdenamientoExterno.Formato<FilaAlumno> FORMATO = new OrdenamientoExterno.Formato<>() {
+            @Override
+            public void escribir(DataOutput out, FilaAlumno f) throws IOException {
+                out.writeUTF(f.idCurso);
+                out.writeUTF(f.nombreCurso);
+                out.writeInt(f.idGrupo);
+                out.writeUTF(f.idUsuario);
+                out.writeUTF(f.nombreCompleto);
+                out.writeUTF(f.correo);
+                out.writeUTF(f.claveOrden);
+            }
+
+            @Override
+            public FilaAlumno leer(DataInput in) throws IOException {
+                return new FilaAlumno(in.readUTF(), in.readUTF(), in.readInt(),
+                        in.readUTF(), in.readUTF(), in.readUTF(), in.readUTF());
+            }
+        };
+
+        final String idCurso;
+        final String nombreCurso;
+        final int idGrupo;
+        final String idUsuario;
+        final String nombreCompleto;
+        final String correo;
+
+        /**
+         * Primer apellido, nombre y segundo apellido separados por {@code '\0'}.
+         * Como el separador es el menor carácter, comparar la clave entera da el
+         * mismo orden que comparar los tres campos uno tras otro.
+         */
+        private final String claveOrden;
+
+        FilaAlumno(Curso curso, int idGrupo, Estudiante est) {
+            this.idCurso = nz(curso.getId());
+            this.nombreCurso = nz(curso.getNombre());
+            this.idGrupo = idGrupo;
+            this.idUsuario = nz(est.getIdUsuario());
+            this.nombreCompleto = joinNames(est.getNombre(), est.getApellido1(), est.getApellido2());
+            this.correo = nz(est.getCorreo());
+            this.claveOrden = safe(est.getApellido1()) + '\0' + safe(est.getNombre()) + '\0' + safe(est.getApellido2());
+        }
+
+        private FilaAlumno(String idCurso, String nombreCurso, int idGrupo, String idUsuario,
+                           String nombreCompleto, String correo, String claveOrden) {
+            this.idCurso = idCurso;
+            this.nombreCurso = nombreCurso;
+            this.idGrupo = idGrupo;
+            this.idUsuario = idUsuario;
+            this.nombreCompleto = nombreCompleto;
+            this.correo = correo;
+            this.claveOrden = claveOrden;
+        }
+
+        /** @return celdas de la fila, en el orden de las columnas del reporte */
+        String[] celdas() {
+            return new String[]{idCurso, nombreCurso, String.valueOf(idGrupo), idUsuario, nombreCompleto, correo};
         }
     }
 
     @Override
     public boolean exportarIntento(IntentoEvaluacion intento, java.io.File destino) {
         if (intento == null || destino == null) return false;
-        java.io.File out = destino;
-        String name = destino.getName().toLowerCase();
-        if (!name.endsWith(".pdf")) {
-            out = new java.io.File(destino.getParentFile(), destino.getName() + ".pdf");
+        java.io.File out = conExtension(destino, ".pdf");
+
+        try (PDDocument doc = new PDDocument()) {
+            escribirIntento(doc, intento);
+            if (out.getParentFile() != null) out.getParentFile().mkdirs();
+            doc.save(out);
+            return true;
+        } catch (Exception ex) {
+            ex.printStackTrace();
+            return false;
         }
+    }
 
-        PDRectangle pageSize = PDRectangle.LETTER;
-        float margin = 40f;
+    @Override
+    public Path exportarIntentos(List<IntentoEvaluacion> intentos, java.io.File destino,
+                                 FormatoIntentos formato) throws Exception {
+        Objects.requireNonNull(destino, "Destino requerido.");
+        Objects.requireNonNull(formato, "Formato requerido.");
+        if (intentos == null || intentos.isEmpty()) {
+            throw new IllegalArgumentException("No hay intentos para exportar.");
+        }
+        List<IntentoEvaluacion> orden = new ArrayList<>(intentos);
+        orden.removeIf(Objects::isNull);
+        orden.sort(ORDEN_INTENTOS);
 
-        try (PDDocument doc = new PDDocument()) {
-            PDPage page = new PDPage(pageSize);
-            doc.addPage(page);
-            PDPageContentStream cs = new PDPageContentStream(doc, page);
+        return switch (formato) {
+            case PDF_CON_INDICE -> exportarIntentosPdf(orden, conExtension(destino, ".pdf"));
+            case ZIP_POR_INTENTO -> exportarIntentosZip(orden, conExtension(destino, ".zip"));
+        };
+    }
 
-            float y = pageSize.getHeight() - margin;
+    // -- Exportación de intentos: auxiliares --
+
+    /** Entradas del índice por página. */
+    private static final int ENTRADAS_POR_PAGINA_INDICE = 40;
+
+    /** Estudiante (primer apellido, nombre, segundo apellido), evaluación y fecha de inicio. */
+    private static final Comparator<IntentoEvaluacion> ORDEN_INTENTOS =
+            Comparator.comparing((IntentoEvaluacion ie) -> claveEstudiante(ie.getEstudiante()))
+                    .thenComparing(ie -> ie.getEvaluacion() == null ? "" : safe(ie.getEvaluacion().getNombre()))
+                    .thenComparing(IntentoEvaluacion::getFechaHoraInicio,
+                            Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private static final DateTimeFormatter FORMATO_FECHA_HORA = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    /** Misma clave que {@link FilaAlumno}: primer apellido, nombre y segundo apellido. */
+    private static String claveEstudiante(Estudiante est) {
+        if (est == null) return "";
+        return safe(est.getApellido1()) + '\0' + safe(est.getNombre()) + '\0' + safe(est.getApellido2());
+    }
+
+    /** Agrega la extensión al nombre del archivo si no la tiene. */
+    private static java.io.File conExtension(java.io.File destino, String ext) {
+        if (destino.getName().toLowerCase().endsWith(ext)) return destino;
+        return new java.io.File(destino.getParentFile(), destino.getName() + ext);
+    }
+
+    /** Texto con que se identifica un intento en el índice y en los marcadores. */
+    private static String tituloIntento(IntentoEvaluacion ie) {
+        Estudiante e = ie.getEstudiante();
+        String est = e == null ? "-" : joinNames(e.getNombre(), e.getApellido1(), e.getApellido2());
+        String eval = ie.getEvaluacion() == null ? "-" : safe(ie.getEvaluacion().getNombre());
+        String ini = ie.getFechaHoraInicio() == null ? "" : " (" + ie.getFechaHoraInicio().format(FORMATO_FECHA_HORA) + ")";
+        return est + " — " + eval + ini;
+    }
+
+    /**
+     * Un solo PDF: primero las páginas del índice, reservadas de antemano, y
+     * luego una sección por intento. El índice se escribe al final, cuando ya
+     * se conoce la página de cada sección; cada entrada enlaza a su sección y
+     * además hay un marcador por intento.
+     */
+    private Path exportarIntentosPdf(List<IntentoEvaluacion> intentos, java.io.File out) throws IOException {
+        int n = intentos.size();
+        try (PDDocument doc = new PDDocument(MemoryUsageSetting.setupMixed(MEMORIA_PDF).streamCache)) {
+            int paginasIndice = (n + ENTRADAS_POR_PAGINA_INDICE - 1) / ENTRADAS_POR_PAGINA_INDICE;
+            List<PDPage> indice = new ArrayList<>(paginasIndice);
+            for (int k = 0; k < paginasIndice; k++) {
+                PDPage p = new PDPage(PAGE_SIZE);
+                doc.addPage(p);
+                indice.add(p);
+            }
+
+            PDPage[] secciones = new PDPage[n];
+            int[] numeros = new int[n];
+            for (int i = 0; i < n; i++) {
+                numeros[i] = doc.getNumberOfPages() + 1;
+                secciones[i] = escribirIntento(doc, intentos.get(i));
+            }
+
+            PDDocumentOutline marcadores = new PDDocumentOutline();
+            for (int i = 0; i < n; i++) {
+                PDOutlineItem item = new PDOutlineItem();
+                item.setTitle(tituloIntento(intentos.get(i)));
+                item.setDestination(secciones[i]);
+                marcadores.addLast(item);
+            }
+            marcadores.openNode();
+            doc.getDocumentCatalog().setDocumentOutline(marcadores);
+
+            escribirIndice(doc, indice, intentos, secciones, numeros);
+
+            if (out.getParentFile() != null) out.getParentFile().mkdirs();
+            doc.save(out);
+            return out.toPath();
+        }
+    }
+
+    /** Llena las páginas reservadas del índice: una línea con enlace por intento. */
+    private void escribirIndice(PDDocument doc, List<PDPage> paginas, List<IntentoEvaluacion> intentos,
+                                PDPage[] secciones, int[] numeros) throws IOException {
+        float ancho = PAGE_SIZE.getWidth() - 2 * MARGIN;
+        float columnaPagina = 60f;
+        PDBorderStyleDictionary sinBorde = new PDBorderStyleDictionary();
+        sinBorde.setWidth(0);
+        MedidorTexto medidor = MedidorTexto.de(HELVETICA.get());
+
+        for (int k = 0; k < paginas.size(); k++) {
+            PDPage pagina = paginas.get(k);
+            try (PDPageContentStream cs = new PDPageContentStream(doc, pagina)) {
+                String subtitulo = k == 0 ? intentos.size() + " intento(s)" : "(continuación)";
+                float y = drawTitle(cs, "Índice de intentos", subtitulo, PAGE_SIZE.getHeight() - MARGIN) - 8;
+
+                int desde = k * ENTRADAS_POR_PAGINA_INDICE;
+                int hasta = Math.min(intentos.size(), desde + ENTRADAS_POR_PAGINA_INDICE);
+                for (int i = desde; i < hasta; i++) {
+                    String entrada = (i + 1) + ". " + tituloIntento(intentos.get(i));
+                    String numero = "pág. " + numeros[i];
+                    writeClipped(cs, entrada, MARGIN, y, ancho - columnaPagina, 11, HELVETICA.get());
+                    writeLine(cs, numero, MARGIN + ancho - medidor.ancho(numero, 11), y, 11, HELVETICA.get());
+
+                    PDPageFitWidthDestination destino = new PDPageFitWidthDestination();
+                    destino.setPage(secciones[i]);
+                    destino.setTop((int) PAGE_SIZE.getHeight());
+                    PDAnnotationLink enlace = new PDAnnotationLink();
+                    enlace.setRectangle(new PDRectangle(MARGIN, y - 3, ancho, 14));
+                    enlace.setBorderStyle(sinBorde);
+                    enlace.setDestination(destino);
+                    pagina.getAnnotations().add(enlace);
+                    y -= 14;
+                }
+            }
+        }
+    }
+
+    /**
+     * Un PDF por intento, generados en paralelo en una carpeta temporal y
+     * empaquetados en el ZIP. Cada hilo reutiliza sus fuentes en todos los
+     * documentos que genera; si uno falla, se cancelan los demás.
+     */
+    private Path exportarIntentosZip(List<IntentoEvaluacion> intentos, java.io.File out) throws Exception {
+        Path carpeta = Files.createTempDirectory("intentos-");
+        List<Path> archivos = nombresArchivosIntentos(carpeta, intentos);
+        ExecutorService ejecutor = GeneradorLotesReportes.crearEjecutor("intentos-pdf-",
+                Math.min(GeneradorLotesReportes.HILOS_POR_DEFECTO, intentos.size()));
+        try {
+            List<Future<?>> futuros = new ArrayList<>(intentos.size());
+            for (int i = 0; i < intentos.size(); i++) {
+                IntentoEvaluacion ie = intentos.get(i);
+                Path archivo = archivos.get(i);
+                futuros.add(ejecutor.submit(() -> {
+                    try (PDDocument doc = new PDDocument()) {
+                        escribirIntento(doc, ie);
+                        doc.save(archivo.toFile());
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> f : futuros) {
+                try {
+                    f.get();
+                } catch (ExecutionException e) {
+                    for (Future<?> g : futuros) g.cancel(true);
+                    Throwable causa = e.getCause();
+                    if (causa instanceof Exception ex) throw ex;
+                    throw e;
+                }
+            }
+            return GeneradorLotesReportes.empaquetar(archivos, out.toPath());
+        } finally {
+            ejecutor.shutdownNow();
+            try {
+                ejecutor.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            borrarCarpeta(carpeta);
+        }
+    }
+
+    /** {@code idEstudiante_evaluacion.pdf}, con un sufijo numérico si se repite. */
+    private static List<Path> nombresArchivosIntentos(Path carpeta, List<IntentoEvaluacion> intentos) {
+        Map<String, Integer> usados = new HashMap<>();
+        List<Path> archivos = new ArrayList<>(intentos.size());
+        for (IntentoEvaluacion ie : intentos) {
+            String est = ie.getEstudiante() == null ? "sin-estudiante" : safe(ie.getEstudiante().getIdUsuario());
+            String eval = ie.getEvaluacion() == null ? "sin-evaluacion" : safe(ie.getEvaluacion().getNombre());
+            String base = (est + "_" + eval).replaceAll("[^\\p{L}\\p{N}._-]+", "_");
+            int k = usados.merge(base, 1, Integer::sum);
+            archivos.add(carpeta.resolve(k == 1 ? base + ".pdf" : base + "_" + k + ".pdf"));
+        }
+        return archivos;
+    }
+
+    private static void borrarCarpeta(Path carpeta) {
+        try (var contenido = Files.list(carpeta)) {
+            for (Path p : (Iterable<Path>) contenido::iterator) Files.deleteIfExists(p);
+            Files.deleteIfExists(carpeta);
+        } catch (IOException ignored) {
+            // Es una carpeta temporal; si queda algo, lo limpia el sistema
+        }
+    }
+
+    /**
+     * Escribe un intento a partir de una página nueva del documento.
+     *
+     * @return primera página de la sección
+     */
+    private PDPage escribirIntento(PDDocument doc, IntentoEvaluacion intento) throws IOException {
+        PDPage primera = new PDPage(PAGE_SIZE);
+        doc.addPage(primera);
+        PDPageContentStream cs = new PDPageContentStream(doc, primera);
+        try {
+            float y = PAGE_SIZE.getHeight() - MARGIN;
 
             String est = (intento.getEstudiante() == null) ? "-"
                     : joinNames(intento.getEstudiante().getNombre(),
@@ -332,62 +669,54 @@ public class ReporteServicePdf implements ReporteService {
             int puntajeTotal = (intento.getEvaluacion() == null) ? 0
                     : intento.getEvaluacion().getPuntajeTotal();
 
-            DateTimeFormatter fmt = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
-            String ini = intento.getFechaHoraInicio() == null ? "-" : intento.getFechaHoraInicio().format(fmt);
-            String fin = intento.getFechaHoraFinal() == null ? "-" : intento.getFechaHoraFinal().format(fmt);
+            String ini = intento.getFechaHoraInicio() == null ? "-" : intento.getFechaHoraInicio().format(FORMATO_FECHA_HORA);
+            String fin = intento.getFechaHoraFinal() == null ? "-" : intento.getFechaHoraFinal().format(FORMATO_FECHA_HORA);
 
             y = drawTitle(cs, "Reporte de intento de evaluación", "", y);
-            writeLine(cs, "Estudiante: " + est, margin, y, 12, HELVETICA); y -= 14;
-            writeLine(cs, "Evaluación: " + eval, margin, y, 12, HELVETICA); y -= 14;
-            writeLine(cs, "Grupo: " + grupo, margin, y, 12, HELVETICA); y -= 14;
-            writeLine(cs, "Inicio: " + ini, margin, y, 12, HELVETICA); y -= 14;
-            writeLine(cs, "Fin: " + fin, margin, y, 12, HELVETICA); y -= 14;
-            writeLine(cs, "Puntaje: " + intento.getPuntajeObtenido() + " / " + puntajeTotal, margin, y, 12, HELVETICA); y -= 14;
-            writeLine(cs, String.format("Calificación: %.2f", intento.getCalificacion()), margin, y, 12, HELVETICA); y -= 18;
+            writeLine(cs, "Estudiante: " + est, MARGIN, y, 12, HELVETICA.get()); y -= 14;
+            writeLine(cs, "Evaluación: " + eval, MARGIN, y, 12, HELVETICA.get()); y -= 14;
+            writeLine(cs, "Grupo: " + grupo, MARGIN, y, 12, HELVETICA.get()); y -= 14;
+            writeLine(cs, "Inicio: " + ini, MARGIN, y, 12, HELVETICA.get()); y -= 14;
+            writeLine(cs, "Fin: " + fin, MARGIN, y, 12, HELVETICA.get()); y -= 14;
+            writeLine(cs, "Puntaje: " + intento.getPuntajeObtenido() + " / " + puntajeTotal, MARGIN, y, 12, HELVETICA.get()); y -= 14;
+            writeLine(cs, String.format("Calificación: %.2f", intento.getCalificacion()), MARGIN, y, 12, HELVETICA.get()); y -= 18;
 
             List<IPregunta> preguntas = (intento.getEvaluacion() == null) ? null : intento.getEvaluacion().getPreguntas();
             List<RespuestaEstudiante> resps = intento.getRespuestasEstudiante();
 
             if (preguntas != null && !preguntas.isEmpty()) {
-                writeLine(cs, "Detalle de preguntas", margin, y, 12, HELVETICA_BOLD); y -= 14;
+                writeLine(cs, "Detalle de preguntas", MARGIN, y, 12, HELVETICA_BOLD.get()); y -= 14;
 
                 for (int i = 0; i < preguntas.size(); i++) {
                     IPregunta p = preguntas.get(i);
                     RespuestaEstudiante re = (resps != null && i < resps.size()) ? resps.get(i) : null;
 
-                    if (y - 56 < margin) {
+                    if (y - 56 < MARGIN) {
                         cs.close();
-                        page = new PDPage(pageSize);
+                        PDPage page = new PDPage(PAGE_SIZE);
                         doc.addPage(page);
                         cs = new PDPageContentStream(doc, page);
-                        y = pageSize.getHeight() - margin;
+                        y = PAGE_SIZE.getHeight() - MARGIN;
                     }
 
-                    writeLine(cs, "Pregunta " + (i + 1) + ": " + safe(p.obtenerDescripcion()), margin, y, 12, HELVETICA); y -= 14;
-                    writeLine(cs, "Tipo: " + String.valueOf(p.getTipo()), margin, y, 11, HELVETICA); y -= 12;
-                    writeLine(cs, "Puntos: " + p.obtenerPuntos(), margin, y, 11, HELVETICA); y -= 12;
+                    writeLine(cs, "Pregunta " + (i + 1) + ": " + safe(p.obtenerDescripcion()), MARGIN, y, 12, HELVETICA.get()); y -= 14;
+                    writeLine(cs, "Tipo: " + String.valueOf(p.getTipo()), MARGIN, y, 11, HELVETICA.get()); y -= 12;
+                    writeLine(cs, "Puntos: " + p.obtenerPuntos(), MARGIN, y, 11, HELVETICA.get()); y -= 12;
 
                     if (re != null) {
-                        writeLine(cs, "Puntos obtenidos: " + re.getPuntosObtenidos(), margin, y, 11, HELVETICA); y -= 12;
+                        writeLine(cs, "Puntos obtenidos: " + re.getPuntosObtenidos(), MARGIN, y, 11, HELVETICA.get()); y -= 12;
                         List<Integer> ord = re.getOrdenesSeleccionados();
-                        writeLine(cs, "Selecciones: " + (ord == null ? "—" : ord.toString()), margin, y, 11, HELVETICA); y -= 14;
+                        writeLine(cs, "Selecciones: " + (ord == null ? "—" : ord.toString()), MARGIN, y, 11, HELVETICA.get()); y -= 14;
                     } else {
-                        writeLine(cs, "Sin respuesta del estudiante.", margin, y, 11, HELVETICA); y -= 14;
+                        writeLine(cs, "Sin respuesta del estudiante.", MARGIN, y, 11, HELVETICA.get()); y -= 14;
                     }
                 }
             } else {
-                writeLine(cs, "No hay preguntas para mostrar.", margin, y, 12, HELVETICA); y -= 14;
+                writeLine(cs, "No hay preguntas para mostrar.", MARGIN, y, 12, HELVETICA.get()); y -= 14;
             }
-
+        } finally {
             cs.close();
-            if (out.getParentFile() != null) out.getParentFile().mkdirs();
-            doc.save(out);
-            return true;
-        } catch (Exception ex) {
-            ex.printStackTrace();
-            return false;
         }
+        return primera;
     }
 }
-
-
@@ -25,6 +25,12 @@ public class RespuestaEstudiante {
     /** Índices o posiciones seleccionadas por el estudiante. */
     private List<Integer> ordenesSeleccionados;
 
+    /**
+     * Selecciones por coordenadas en una sopa de letras: grupos de cuatro
+     * valores (fila inicial, columna inicial, fila final, columna final).
+     */
+    private List<Integer> celdasSeleccionadas = new ArrayList<>();
+
     /** Puntos obtenidos por esta respuesta. */
     private int puntosObtenidos;
 
@@ -107,6 +113,46 @@ public class RespuestaEstudiante {
         this.ordenesSeleccionados.add(idx);
     }
 
+    // -- Selección por coordenadas --
+
+    /**
+     * Agrega una selección de celdas (de la celda inicial a la final) en una
+     * sopa de letras.
+     *
+     * @param filaInicio fila de la primera letra seleccionada
+     * @param colInicio columna de la primera letra seleccionada
+     * @param filaFin fila de la última letra seleccionada
+     * @param colFin columna de la última letra seleccionada
+     */
+    public void agregarSeleccionCeldas(int filaInicio, int colInicio, int filaFin, int colFin) {
+        celdasSeleccionadas.add(filaInicio);
+        celdasSeleccionadas.add(colInicio);
+        celdasSeleccionadas.add(filaFin);
+        celdasSeleccionadas.add(colFin);
+    }
+
+    /**
+     * Devuelve las selecciones por coordenadas como una lista plana de grupos de
+     * cuatro valores: fila y columna inicial, fila y columna final.
+     */
+    public List<Integer> getCeldasSeleccionadas() {
+        return Collections.unmodifiableList(celdasSeleccionadas);
+    }
+
+    /**
+     * Reemplaza las selecciones por coordenadas (copia defensiva).
+     *
+     * @param celdas lista plana de grupos de cuatro valores
+     */
+    public void setCeldasSeleccionadas(List<Integer> celdas) {
+        this.celdasSeleccionadas = (celdas == null) ? new ArrayList<>() : new ArrayList<>(celdas);
+    }
+
+    /** Indica si la respuesta trae selecciones por coordenadas. */
+    public boolean tieneSeleccionCeldas() {
+        return !celdasSeleccionadas.isEmpty();
+    }
+
     /** Devuelve los puntos obtenidos por la respuesta. */
     public int getPuntosObtenidos() { return puntosObtenidos; }
 
@@ -0,0 +1,663 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+/**
+ * Simulador de carga sin interfaz gráfica: reproduce una sesión de examen
+ * completa usando solo las interfaces de los servicios.
+ * <p>
+ * Crea los cursos, grupos y estudiantes, matricula a todos en paralelo,
+ * asigna a cada grupo una evaluación con una pregunta de selección, un pareo y
+ * una sopa de letras, y luego cada estudiante (un hilo virtual) consulta sus
+ * grupos, responde y entrega su intento, todos a la vez. Si los estudiantes
+ * superan el cupo de los grupos, los que no caben quedan en lista de espera y
+ * no presentan.
+ * </p>
+ * <p>
+ * Al final, todos los estudiantes disputan a la vez un grupo aparte (muchos
+ * más que su cupo): se matriculan o pasan a la lista de espera, y un tercio
+ * cancela, lo que libera cupos que se asignan desde la lista de espera. Luego
+ * se verifica que el grupo no exceda el máximo del curso, que no queden cupos
+ * libres con estudiantes en espera y que las matrículas del grupo, las de cada
+ * estudiante y los índices del servicio coincidan; si no, la simulación falla.
+ * </p>
+ * <p>
+ * Informa la latencia p50/p99 de cada operación y las entregas por segundo,
+ * para dimensionar las sesiones de laboratorio. Por defecto los servicios se
+ * montan como en {@link Ventana}: métricas sobre la bitácora de escritura (en un
+ * directorio temporal que se borra al terminar), así cada operación paga la
+ * espera a disco que paga en el sistema real. Con {@code memoria} se usan los
+ * servicios en memoria sin decorar, para comparar. Se ejecuta con:
+ * {@code java -cp ... org.example.SimuladorCarga [cursos] [gruposPorCurso] [estudiantes] [pausaMs] [bitacora|memoria]}
+ * </p>
+ */
+public class SimuladorCarga {
+
+    /** Operaciones medidas por el simulador. */
+    public enum Operacion {
+        MATRICULAR("matricular"),
+        CONSULTAR("consultar grupos"),
+        RESPONDER("responder"),
+        ENTREGAR("entregar"),
+        DISPUTAR("disputar cupo");
+
+        final String etiqueta;
+
+        Operacion(String etiqueta) { this.etiqueta = etiqueta; }
+    }
+
+    /** Identificación del profesor dueño de la evaluación simulada. */
+    private static final String ID_PROFESOR = "SIMPROF001";
+
+    /** Palabras de la sopa de letras de la evaluación. */
+    private static final String[] PALABRAS = {
+            "ALGORITMO", "CLASE", "OBJETO", "HERENCIA", "INTERFAZ",
+            "METODO", "ATRIBUTO", "PAQUETE", "LISTA", "MAPA"
+    };
+
+    /** Semillas que se prueban para generar la sopa antes de abandonar. */
+    private static final int MAX_SEMILLAS_SOPA = 100;
+
+    // -- Configuración --
+
+    private final int cursos;
+    private final int gruposPorCurso;
+    private final int estudiantes;
+    private final long pausaMs;
+    private final boolean conBitacora;
+
+    // -- Servicios en memoria (la misma combinación que usa Ventana) --
+
+    private final Autenticacion auth = new Autenticacion();
+    private final UsuarioServiceMem usuariosMem = new UsuarioServiceMem(auth);
+    private final CursoServiceIndexada cursosMem = new CursoServiceIndexada(usuariosMem);
+    private final EvaluacionServiceMem evaluacionesMem = new EvaluacionServiceMem(usuariosMem, cursosMem);
+    private final IntentoServiceIndexada intentosMem = new IntentoServiceIndexada();
+    private final MatriculaServiceIndexada matriculasMem = new MatriculaServiceIndexada(usuariosMem, cursosMem);
+
+    // -- Servicios usados por la sesión (decorados como en Ventana, ver montarServicios) --
+
+    private UsuarioService usuarioService = usuariosMem;
+    private CursoService cursoService = cursosMem;
+    private EvaluacionService evaluacionService = evaluacionesMem;
+    private IntentoService intentoService = intentosMem;
+    private MatriculaService matriculaService = matriculasMem;
+
+    // -- Datos de la sesión --
+
+    private final List<Grupo> grupos = new ArrayList<>();
+    private final List<Estudiante> alumnos = new ArrayList<>();
+    private Evaluacion evaluacion;
+
+    /** Grupo aparte que todos los estudiantes disputan al final. */
+    private Grupo grupoDisputado;
+
+    /** Latencias en nanosegundos: operación → estudiante (-1 si falló). */
+    private final long[][] latencias;
+
+    /** Errores por operación. */
+    private final AtomicInteger[] errores = new AtomicInteger[Operacion.values().length];
+
+    /** Estudiantes que quedaron en lista de espera al matricularse (no presentan). */
+    private final AtomicInteger enEspera = new AtomicInteger();
+
+    // -- Constructor --
+
+    /**
+     * Crea un simulador sobre los servicios montados como en {@link Ventana}.
+     *
+     * @param cursos cantidad de cursos
+     * @param gruposPorCurso grupos por curso
+     * @param estudiantes estudiantes simulados (los que excedan el cupo quedan en espera)
+     * @param pausaMs pausa entre preguntas, para simular el tiempo de lectura (0 = sin pausa)
+     */
+    public SimuladorCarga(int cursos, int gruposPorCurso, int estudiantes, long pausaMs) {
+        this(cursos, gruposPorCurso, estudiantes, pausaMs, true);
+    }
+
+    /**
+     * Crea un simulador.
+     *
+     * @param cursos cantidad de cursos
+     * @param gruposPorCurso grupos por curso
+     * @param estudiantes estudiantes simulados (los que excedan el cupo quedan en espera)
+     * @param pausaMs pausa entre preguntas, para simular el tiempo de lectura (0 = sin pausa)
+     * @param conBitacora {@code true} para montar métricas y bitácora como {@link Ventana};
+     *                    {@code false} para usar solo los servicios en memoria
+     */
+    public SimuladorCarga(int cursos, int gruposPorCurso, int estudiantes, long pausaMs, boolean conBitacora) {
+        if (cursos < 1 || gruposPorCurso < 1 || estudiantes < 1)
+            throw new IllegalArgumentException("Cursos, grupos y estudiantes deben ser al menos 1.");
+        if (pausaMs < 0) throw new IllegalArgumentException("La pausa no puede ser negativa.");
+        this.cursos = cursos;
+        this.gruposPorCurso = gruposPorCurso;
+        this.estudiantes = estudiantes;
+        this.pausaMs = pausaMs;
+        this.conBitacora = conBitacora;
+        this.latencias = new long[Operacion.values().length][estudiantes];
+        for (int i = 0; i < errores.length; i++) errores[i] = new AtomicInteger();
+    }
+
+    // -- Ejecución --
+
+    /**
+     * Ejecuta la sesión completa.
+     *
+     * @return estadísticas de la sesión
+     * @throws InterruptedException si se interrumpe la espera de los hilos
+     * @throws IOException si no puede crearse, escribirse o borrarse la bitácora temporal
+     */
+    public Resultado ejecutar() throws InterruptedException, IOException {
+        if (!conBitacora) return sesion();
+        Path dir = Files.createTempDirectory("simulador-carga");
+        try (BitacoraServicios bitacora = montarServicios(dir)) {
+            return sesion();
+        } finally {
+            try (var archivos = Files.list(dir)) {
+                for (Path f : (Iterable<Path>) archivos::iterator) Files.deleteIfExists(f);
+            }
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    /**
+     * Decora los servicios en memoria como lo hace {@link Ventana}: la bitácora
+     * de escritura (abierta en {@code dir}) y, sobre ella, las métricas.
+     *
+     * @return bitácora abierta, para cerrarla al terminar
+     */
+    private BitacoraServicios montarServicios(Path dir) throws IOException {
+        PersistenciaJson persistencia = new PersistenciaJson(auth, usuariosMem, cursosMem, evaluacionesMem, intentosMem);
+        BitacoraServicios bitacora = new BitacoraServicios(auth, usuariosMem, cursosMem, matriculasMem,
+                evaluacionesMem, intentosMem, persistencia, dir.resolve("bitacora.log"));
+        bitacora.abrir();
+        MetricasServicios metricas = new MetricasServicios(bitacora.autenticacion(), bitacora.usuarios(),
+                bitacora.cursos(), bitacora.matriculas(), bitacora.evaluaciones(), bitacora.intentos(),
+                new ReporteServicePdf(cursosMem, usuariosMem));
+        usuarioService = metricas.usuarios();
+        cursoService = metricas.cursos();
+        evaluacionService = metricas.evaluaciones();
+        intentoService = metricas.intentos();
+        matriculaService = metricas.matriculas();
+        return bitacora;
+    }
+
+    /** Ejecuta las fases de la sesión sobre los servicios montados. */
+    private Resultado sesion() throws InterruptedException {
+        long t0 = System.nanoTime();
+        preparar();
+        long tPreparacion = System.nanoTime() - t0;
+
+        t0 = System.nanoTime();
+        enParalelo(this::matricular);
+        long tMatricula = System.nanoTime() - t0;
+
+        t0 = System.nanoTime();
+        enParalelo(this::presentarExamen);
+        long tExamen = System.nanoTime() - t0;
+
+        t0 = System.nanoTime();
+        enParalelo(this::disputar);
+        long tDisputa = System.nanoTime() - t0;
+        Disputa disputa = verificarDisputa();
+
+        List<Estadistica> stats = new ArrayList<>();
+        for (Operacion op : Operacion.values()) {
+            stats.add(Estadistica.de(op, latencias[op.ordinal()], errores[op.ordinal()].get()));
+        }
+        int entregas = estudiantes - enEspera.get() - errores[Operacion.ENTREGAR.ordinal()].get();
+        int guardados = intentoService.listarPorEvaluacion(evaluacion.getId()).size();
+        return new Resultado(cursos, grupos.size(), estudiantes, enEspera.get(), entregas, guardados,
+                tPreparacion, tMatricula, tExamen, tDisputa, disputa, stats);
+    }
+
+    /** Crea profesor, cursos, grupos, estudiantes y la evaluación asignada a cada grupo. */
+    private void preparar() {
+        Profesor prof = new Profesor("Simulador", "Carga", "Sesion", ID_PROFESOR, "88880000",
+                "simulador.carga@demo.com", "Laboratorio central");
+        usuarioService.agregarProfesor(prof);
+
+        LocalDate hoy = LocalDate.now();
+        for (int c = 0; c < cursos; c++) {
+            Curso curso = new Curso(String.format("S%05d", c), "Curso simulado " + (c + 1),
+                    "Curso generado por el simulador de carga", 2, TipoModalidad.values()[0],
+                    1, 20, TipoCurso.values()[0], 70);
+            cursoService.agregarCurso(curso);
+            for (int k = 0; k < gruposPorCurso; k++) {
+                Grupo g = cursoService.crearGrupo(curso, hoy, hoy.plusMonths(4));
+                cursoService.asignarProfesor(curso, g.getIdGrupo(), prof);
+                grupos.add(g);
+            }
+        }
+        Curso disputado = new Curso(String.format("S%05d", cursos), "Curso disputado",
+                "Grupo que disputan todos los estudiantes", 2, TipoModalidad.values()[0],
+                1, 20, TipoCurso.values()[0], 70);
+        cursoService.agregarCurso(disputado);
+        grupoDisputado = cursoService.crearGrupo(disputado, hoy, hoy.plusMonths(4));
+        cursoService.asignarProfesor(disputado, grupoDisputado.getIdGrupo(), prof);
+
+        for (int i = 0; i < estudiantes; i++) {
+            String id = String.format("SIM%07d", i);
+            Estudiante e = new Estudiante("Estudiante" + (i % 1000), "Simulado", "Carga",
+                    id, "88880000", id.toLowerCase() + "@demo.com", "Laboratorio central",
+                    "Simulador", List.of("Algoritmos"));
+            usuarioService.agregarEstudiante(e);
+            alumnos.add(e);
+        }
+
+        evaluacion = evaluacionService.crear(ID_PROFESOR, crearEvaluacion());
+        LocalDateTime inicio = LocalDateTime.now();
+        for (Grupo g : grupos) {
+            evaluacionService.asociarAGrupo(ID_PROFESOR, evaluacion.getId(), g.getCurso(), g.getIdGrupo(), inicio);
+        }
+    }
+
+    /** Evaluación con una pregunta de selección única, un pareo y una sopa de letras. */
+    private static Evaluacion crearEvaluacion() {
+        Evaluacion ev = new Evaluacion("Examen simulado", "Responda todas las preguntas.",
+                List.of("Medir la carga del sistema"), 60, false, false);
+
+        Pregunta seleccion = new Pregunta(1, TipoPregunta.SELECCION_UNICA,
+                "¿Qué palabra define una clase en Java?", 10);
+        seleccion.agregarRespuesta(new Respuesta("class", true, 1));
+        seleccion.agregarRespuesta(new Respuesta("def", false, 2));
+        seleccion.agregarRespuesta(new Respuesta("struct", false, 3));
+        seleccion.agregarRespuesta(new Respuesta("record", false, 4));
+        ev.agregarPregunta(seleccion);
+
+        Pareo pareo = new Pareo(2, "Asocie cada concepto con su definición", 10);
+        String[][] pares = {
+                {"Clase", "Plantilla de objetos"},
+                {"Objeto", "Instancia de una clase"},
+                {"Herencia", "Reutiliza una clase base"},
+                {"Interfaz", "Contrato sin estado"}
+        };
+        for (int i = 0; i < pares.length; i++) {
+            pareo.agregarEnunciado(pares[i][0]);
+            pareo.agregarRespuesta(pares[i][1]);
+            pareo.definirAsociacion(i, i);
+        }
+        ev.agregarPregunta(pareo);
+
+        SopaDeLetras sopa = new SopaDeLetras(3, "Encuentre los conceptos de POO", 10);
+        for (String p : PALABRAS) sopa.agregarEnunciado(p, "Concepto de programación");
+        boolean generada = false;
+        for (long semilla = 1; semilla <= MAX_SEMILLAS_SOPA && !generada; semilla++) {
+            generada = sopa.generarCuadricula(semilla) && sopa.validarDatos();
+        }
+        if (!generada) {
+            String motivo = sopa.getMotivoFallo() != null ? sopa.getMotivoFallo() : "la cuadrícula no pasó la validación";
+            throw new IllegalStateException("No se pudo generar la sopa de letras con " + MAX_SEMILLAS_SOPA
+                    + " semillas: " + motivo);
+        }
+        ev.agregarPregunta(sopa);
+        return ev;
+    }
+
+    /**
+     * Matricula al estudiante {@code i} en el grupo {@code i % grupos}; si el
+     * grupo está lleno, lo inscribe en su lista de espera.
+     */
+    private void matricular(int i) {
+        Grupo g = grupos.get(i % grupos.size());
+        String id = alumnos.get(i).getIdUsuario();
+        Integer posicion = medir(Operacion.MATRICULAR, i, () -> {
+            try {
+                matriculaService.matricular(id, g.getCurso(), g.getIdGrupo());
+                return 0;
+            } catch (IllegalStateException sinCupo) {
+                return matriculaService.inscribirEnEspera(id, g.getCurso(), g.getIdGrupo());
+            }
+        });
+        if (posicion != null && posicion > 0) enEspera.incrementAndGet();
+    }
+
+    /** Sesión de un estudiante: consulta su grupo, responde y entrega. */
+    private void presentarExamen(int i) {
+        Estudiante est = alumnos.get(i);
+        EvaluacionAsignada asignacion = medir(Operacion.CONSULTAR, i, () -> buscarAsignacion(est));
+        if (asignacion == null) {
+            // En espera (o la consulta falló): no presenta, ni cuenta como muestra
+            latencias[Operacion.RESPONDER.ordinal()][i] = -1;
+            latencias[Operacion.ENTREGAR.ordinal()][i] = -1;
+            return;
+        }
+
+        LocalDateTime inicio = LocalDateTime.now();
+        List<RespuestaEstudiante> respuestas = new ArrayList<>();
+        long nanos = 0;
+        for (IPregunta p : evaluacion.getPreguntas()) {
+            pausar();
+            long t0 = System.nanoTime();
+            respuestas.add(responder(p));
+            nanos += System.nanoTime() - t0;
+        }
+        latencias[Operacion.RESPONDER.ordinal()][i] = nanos;
+
+        medir(Operacion.ENTREGAR, i, () -> {
+            IntentoEvaluacion intento = new IntentoEvaluacion(est, evaluacion, asignacion.getGrupo(),
+                    inicio, LocalDateTime.now(), respuestas, 0, 0.0, List.of(1, 2, 3));
+            intento.calcularCalificacion();
+            intentoService.guardar(intento);
+            return intento;
+        });
+    }
+
+    /**
+     * Busca la evaluación simulada entre las asignadas a los grupos del
+     * estudiante; {@code null} si no está matriculado (quedó en espera).
+     */
+    private EvaluacionAsignada buscarAsignacion(Estudiante est) {
+        List<Grupo> suyos = matriculaService.gruposDelEstudiante(est.getIdUsuario());
+        if (suyos.isEmpty()) return null;
+        for (Grupo g : suyos) {
+            for (EvaluacionAsignada ea : g.getEvaluacionesAsignadas()) {
+                if (ea.getEvaluacion() == evaluacion) return ea;
+            }
+        }
+        throw new IllegalStateException("El estudiante " + est.getIdUsuario() + " no tiene la evaluación asignada.");
+    }
+
+    /**
+     * El estudiante {@code i} intenta matricularse en el grupo disputado; si no
+     * hay cupo, pasa a la lista de espera. Uno de cada tres (al azar) cancela
+     * después: la baja libera un cupo que ocupa el primero en espera.
+     */
+    private void disputar(int i) {
+        String id = alumnos.get(i).getIdUsuario();
+        Curso curso = grupoDisputado.getCurso();
+        int idGrupo = grupoDisputado.getIdGrupo();
+        medir(Operacion.DISPUTAR, i, () -> {
+            boolean matriculado;
+            try {
+                matriculado = matriculaService.matricular(id, curso, idGrupo);
+            } catch (IllegalStateException sinCupo) {
+                matriculado = matriculaService.inscribirEnEspera(id, curso, idGrupo) == 0;
+            }
+            if (ThreadLocalRandom.current().nextInt(3) == 0) {
+                // Si salió de la espera por una promoción, salirDeEspera no hace nada
+                if (matriculado) matriculaService.desmatricular(id, curso, idGrupo);
+                else matriculaService.salirDeEspera(id, curso, idGrupo);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Verifica el estado del grupo disputado y de los índices de matrícula.
+     *
+     * @throws IllegalStateException si encuentra alguna inconsistencia
+     */
+    private Disputa verificarDisputa() {
+        Grupo g = grupoDisputado;
+        int maximo = g.getCurso().getMaxEstu();
+        List<Matricula> mats;
+        List<Estudiante> espera;
+        synchronized (g) {
+            mats = new ArrayList<>(g.getMatriculas());
+            espera = g.getListaEspera() == null ? List.of() : new ArrayList<>(g.getListaEspera());
+        }
+
+        List<String> fallas = new ArrayList<>();
+        if (mats.size() > maximo)
+            fallas.add(mats.size() + " matrículas en un grupo de máximo " + maximo + ".");
+        if (!espera.isEmpty() && mats.size() < maximo)
+            fallas.add(espera.size() + " estudiantes en espera con " + (maximo - mats.size()) + " cupos libres.");
+        Set<String> matriculados = new HashSet<>();
+        for (Matricula m : mats) {
+            if (!matriculados.add(m.getEstudiante().getIdUsuario()))
+                fallas.add(m.getEstudiante().getIdUsuario() + " está matriculado dos veces.");
+        }
+        for (Estudiante e : espera) {
+            if (matriculados.contains(e.getIdUsuario()))
+                fallas.add(e.getIdUsuario() + " está matriculado y en espera a la vez.");
+        }
+        for (Estudiante e : alumnos) {
+            boolean enGrupo = matriculados.contains(e.getIdUsuario());
+            boolean enIndice = matriculaService.gruposDelEstudiante(e.getIdUsuario()).contains(g);
+            boolean enEstudiante = e.obtenerMatriculas().stream().anyMatch(m -> m.getGrupo() == g);
+            if (enGrupo != enIndice || enGrupo != enEstudiante) {
+                fallas.add(e.getIdUsuario() + ": grupo " + enGrupo + ", índice " + enIndice
+                        + ", matrículas del estudiante " + enEstudiante + ".");
+            }
+        }
+        fallas.addAll(matriculasMem.inconsistencias());
+        if (!fallas.isEmpty()) {
+            throw new IllegalStateException("La disputa del grupo #" + g.getIdGrupo()
+                    + " dejó un estado inconsistente:" + System.lineSeparator() + " - "
+                    + String.join(System.lineSeparator() + " - ", fallas));
+        }
+        return new Disputa(estudiantes, maximo, mats.size(), espera.size());
+    }
+
+    /** Respuesta aleatoria, correcta aproximadamente el 70 % de las veces. */
+    private static RespuestaEstudiante responder(IPregunta p) {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        RespuestaEstudiante r = new RespuestaEstudiante(p);
+        if (p instanceof Pregunta q) {
+            r.agregarOrdenSeleccionado(rnd.nextInt(10) < 7 ? 1 : 2 + rnd.nextInt(q.getRespuestas().size() - 1));
+        } else if (p instanceof Pareo pareo) {
+            int n = pareo.getEnunciados().size();
+            for (int i = 0; i < n; i++) {
+                r.agregarOrdenSeleccionado(i);
+                r.agregarOrdenSeleccionado(rnd.nextInt(10) < 7 ? i : rnd.nextInt(n));
+            }
+        } else if (p instanceof SopaDeLetras sopa) {
+            for (SopaDeLetras.PalabraEncontrada pe : sopa.getPalabrasEncontradas()) {
+                if (rnd.nextInt(10) >= 7) continue;
+                int largo = pe.getPalabra().length() - 1;
+                SopaDeLetras.Direccion d = pe.getDireccion();
+                r.agregarSeleccionCeldas(pe.getFilaInicio(), pe.getColInicio(),
+                        pe.getFilaInicio() + d.deltaFila * largo, pe.getColInicio() + d.deltaCol * largo);
+            }
+        }
+        return r;
+    }
+
+    // -- Métodos auxiliares --
+
+    /** Ejecuta la tarea para cada estudiante en un hilo virtual propio, arrancando todos a la vez. */
+    private void enParalelo(IntConsumer tarea) throws InterruptedException {
+        CountDownLatch salida = new CountDownLatch(1);
+        try (ExecutorService hilos = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < estudiantes; i++) {
+                int idx = i;
+                hilos.submit(() -> {
+                    salida.await();
+                    tarea.accept(idx);
+                    return null;
+                });
+            }
+            salida.countDown();
+        }
+    }
+
+    /** Ejecuta y mide una operación; si falla, la cuenta como error y devuelve {@code null}. */
+    private <T> T medir(Operacion op, int i, Callable<T> accion) {
+        long t0 = System.nanoTime();
+        try {
+            T res = accion.call();
+            latencias[op.ordinal()][i] = System.nanoTime() - t0;
+            return res;
+        } catch (Exception ex) {
+            latencias[op.ordinal()][i] = -1;
+            errores[op.ordinal()].incrementAndGet();
+            return null;
+        }
+    }
+
+    private void pausar() {
+        if (pausaMs <= 0) return;
+        try {
+            Thread.sleep(pausaMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // -- Resultado --
+
+    /** Latencias de una operación. */
+    public static final class Estadistica {
+
+        /** Operación medida. */
+        public final Operacion operacion;
+
+        /** Ejecuciones exitosas. */
+        public final int exitos;
+
+        /** Ejecuciones fallidas. */
+        public final int errores;
+
+        /** Percentiles 50 y 99 y máximo, en nanosegundos. */
+        public final long p50, p99, maximo;
+
+        Estadistica(Operacion operacion, int exitos, int errores, long p50, long p99, long maximo) {
+            this.operacion = operacion;
+            this.exitos = exitos;
+            this.errores = errores;
+            this.p50 = p50;
+            this.p99 = p99;
+            this.maximo = maximo;
+        }
+
+        /** Calcula los percentiles (por rango) de las muestras válidas. */
+        static Estadistica de(Operacion op, long[] muestras, int errores) {
+            long[] ok = Arrays.stream(muestras).filter(n -> n >= 0).sorted().toArray();
+            if (ok.length == 0) return new Estadistica(op, 0, errores, 0, 0, 0);
+            return new Estadistica(op, ok.length, errores,
+                    percentil(ok, 0.50), percentil(ok, 0.99), ok[ok.length - 1]);
+        }
+
+        private static long percentil(long[] ordenadas, double q) {
+            int rango = (int) Math.ceil(q * ordenadas.length);
+            return ordenadas[Math.max(0, rango - 1)];
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-17s %7d ok %5d error  p50 %9.3f ms  p99 %9.3f ms  máx %9.3f ms",
+                    operacion.etiqueta, exitos, errores, p50 / 1e6, p99 / 1e6, maximo / 1e6);
+        }
+    }
+
+    /** Estado final del grupo disputado (ya verificado). */
+    public static final class Disputa {
+
+        /** Estudiantes que disputaron el grupo. */
+        public final int contendientes;
+
+        /** Máximo de estudiantes del curso. */
+        public final int cupo;
+
+        /** Matriculados y en espera al terminar. */
+        public final int matriculados, enEspera;
+
+        Disputa(int contendientes, int cupo, int matriculados, int enEspera) {
+            this.contendientes = contendientes;
+            this.cupo = cupo;
+            this.matriculados = matriculados;
+            this.enEspera = enEspera;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Grupo disputado: %d estudiantes por %d cupos; %d matriculados, %d en espera (consistente)",
+                    contendientes, cupo, matriculados, enEspera);
+        }
+    }
+
+    /** Resumen de una sesión simulada. */
+    public static final class Resultado {
+
+        public final int cursos;
+        public final int grupos;
+        public final int estudiantes;
+
+        /** Estudiantes que quedaron en lista de espera y no presentaron. */
+        public final int enEspera;
+
+        /** Intentos entregados sin error. */
+        public final int entregas;
+
+        /** Intentos que quedaron registrados en el servicio de intentos. */
+        public final int guardados;
+
+        /** Duración de cada fase en nanosegundos. */
+        public final long nanosPreparacion, nanosMatricula, nanosExamen, nanosDisputa;
+
+        /** Resultado de la disputa del grupo aparte. */
+        public final Disputa disputa;
+
+        /** Latencias por operación, en el orden de {@link Operacion}. */
+        public final List<Estadistica> estadisticas;
+
+        Resultado(int cursos, int grupos, int estudiantes, int enEspera, int entregas, int guardados,
+                  long nanosPreparacion, long nanosMatricula, long nanosExamen, long nanosDisputa,
+                  Disputa disputa, List<Estadistica> estadisticas) {
+            this.cursos = cursos;
+            this.grupos = grupos;
+            this.estudiantes = estudiantes;
+            this.enEspera = enEspera;
+            this.entregas = entregas;
+            this.guardados = guardados;
+            this.nanosPreparacion = nanosPreparacion;
+            this.nanosMatricula = nanosMatricula;
+            this.nanosExamen = nanosExamen;
+            this.nanosDisputa = nanosDisputa;
+            this.disputa = disputa;
+            this.estadisticas = Collections.unmodifiableList(estadisticas);
+        }
+
+        /** @return entregas por segundo durante la fase de examen */
+        public double entregasPorSegundo() {
+            return nanosExamen <= 0 ? 0.0 : entregas * 1_000_000_000.0 / nanosExamen;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("Sesión simulada: %d cursos, %d grupos, %d estudiantes%n", cursos, grupos, estudiantes));
+            sb.append(String.format("Preparación %.1f ms, matrícula %.1f ms, examen %.1f ms, disputa %.1f ms%n",
+                    nanosPreparacion / 1e6, nanosMatricula / 1e6, nanosExamen / 1e6, nanosDisputa / 1e6));
+            for (Estadistica e : estadisticas) sb.append(e).append(System.lineSeparator());
+            sb.append(String.format("%d entregas (%d registradas, %d en espera) a %.0f entregas/s%n",
+                    entregas, guardados, enEspera, entregasPorSegundo()));
+            sb.append(disputa);
+            return sb.toString();
+        }
+    }
+
+    // -- Punto de entrada --
+
+    /**
+     * Ejecuta una sesión e imprime el resumen.
+     *
+     * @param args [cursos] [gruposPorCurso] [estudiantes] [pausaMs] [bitacora|memoria];
+     *             por defecto 10, 5, 1000, 0 y bitacora
+     * @throws InterruptedException si se interrumpe la simulación
+     * @throws IOException si falla la bitácora temporal
+     */
+    public static void main(String[] args) throws InterruptedException, IOException {
+        int cursos = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        int gruposPorCurso = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        int estudiantes = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        long pausaMs = args.length > 3 ? Long.parseLong(args[3]) : 0;
+        boolean conBitacora = args.length <= 4 || !"memoria".equalsIgnoreCase(args[4]);
+        System.out.println(conBitacora ? "Servicios: métricas sobre bitácora de escritura (como Ventana)"
+                : "Servicios: en memoria, sin bitácora ni métricas");
+        System.out.println(new SimuladorCarga(cursos, gruposPorCurso, estudiantes, pausaMs, conBitacora).ejecutar());
+    }
+}
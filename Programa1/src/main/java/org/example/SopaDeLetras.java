@@ -1,5 +1,6 @@
 package org.example;
 
+import java.nio.CharBuffer;
 import java.util.*;
 
 /**
@@ -15,16 +16,18 @@ public class SopaDeLetras implements IPregunta {
     String descripcion;
     int puntos;
     List<Enunciado> enunciados = new ArrayList<>();
-    char[][] cuadricula;
+    char[] cuadricula; // NxN por filas: la celda (f, c) está en f * N + c
     int tamanioCuadricula; // NxN (por defecto 15x15)
     List<PalabraEncontrada> palabrasEncontradas = new ArrayList<>();
+    private volatile Map<Integer, Integer> indiceUbicaciones; // (inicio, fin) -> índice de palabra
+    String motivoFallo; // motivo de la última generación fallida (null si no falló)
 
     public SopaDeLetras(int id, String descripcion, int puntos, int tamanioCuadricula) {
         this.id = id;
         this.descripcion = (descripcion == null ? "" : descripcion.trim());
         this.puntos = puntos;
         this.tamanioCuadricula = Math.max(10, Math.min(tamanioCuadricula, 30)); // entre 10 y 30
-        this.cuadricula = new char[this.tamanioCuadricula][this.tamanioCuadricula];
+        this.cuadricula = new char[this.tamanioCuadricula * this.tamanioCuadricula];
         inicializarCuadricula();
     }
 
@@ -39,11 +42,7 @@ public class SopaDeLetras implements IPregunta {
      * Inicializa la cuadrícula con espacios vacíos.
      */
     private void inicializarCuadricula() {
-        for (int i = 0; i < tamanioCuadricula; i++) {
-            for (int j = 0; j < tamanioCuadricula; j++) {
-                cuadricula[i][j] = ' ';
-            }
-        }
+        Arrays.fill(cuadricula, ' ');
     }
 
     /**
@@ -80,141 +79,153 @@ public class SopaDeLetras implements IPregunta {
     }
 
     /**
-     * Genera la cuadrícula con las palabras colocadas aleatoriamente
-     * en las 8 direcciones posibles, y rellena los espacios vacíos.
-     * 
-     * @return true si se generó exitosamente
+     * Genera la cuadrícula con una semilla aleatoria.
+     *
+     * @return true si se colocaron todas las palabras
+     * @see #generarCuadricula(long)
      */
     public boolean generarCuadricula() {
+        return generarCuadricula(new Random().nextLong());
+    }
+
+    /**
+     * Genera la cuadrícula colocando todas las palabras en las 8 direcciones
+     * posibles, y rellena los espacios vacíos.
+     * <p>
+     * Usa {@link GeneradorSopa}: búsqueda con retroceso, palabras más largas
+     * primero. Con la misma semilla produce siempre la misma cuadrícula. Si no
+     * logra colocar todas las palabras, la cuadrícula queda vacía y el motivo
+     * queda disponible en {@link #getMotivoFallo()}.
+     * </p>
+     *
+     * @param semilla semilla de la generación
+     * @return true si se colocaron todas las palabras
+     */
+    public boolean generarCuadricula(long semilla) {
+        motivoFallo = null;
         if (enunciados.size() < 10) {
-            System.out.println("Debe haber al menos 10 palabras para generar la sopa.");
+            motivoFallo = "Debe haber al menos 10 palabras para generar la sopa.";
+            System.out.println(motivoFallo);
             return false;
         }
 
         inicializarCuadricula();
         palabrasEncontradas.clear();
-        Random random = new Random();
-
-        // Intentar colocar cada palabra
-        List<Enunciado> palabrasAColocar = new ArrayList<>(enunciados);
-        Collections.shuffle(palabrasAColocar); // orden aleatorio
-
-        for (Enunciado enunciado : palabrasAColocar) {
-            boolean colocada = false;
-            int intentos = 0;
-            int maxIntentos = 100;
-
-            while (!colocada && intentos < maxIntentos) {
-                // Dirección aleatoria (0-7)
-                Direccion direccion = Direccion.values()[random.nextInt(8)];
-                
-                // Posición inicial aleatoria
-                int fila = random.nextInt(tamanioCuadricula);
-                int col = random.nextInt(tamanioCuadricula);
-
-                if (puedePlabra(enunciado.palabra, fila, col, direccion)) {
-                    colocarPalabra(enunciado.palabra, fila, col, direccion);
-                    palabrasEncontradas.add(new PalabraEncontrada(enunciado.palabra, fila, col, direccion));
-                    colocada = true;
-                }
+        indiceUbicaciones = null;
 
-                intentos++;
-            }
+        List<String> palabras = new ArrayList<>(enunciados.size());
+        for (Enunciado e : enunciados) palabras.add(e.palabra);
 
-            if (!colocada) {
-                System.out.println("No se pudo colocar la palabra: " + enunciado.palabra);
-            }
+        GeneradorSopa.Resultado res = new GeneradorSopa(palabras, tamanioCuadricula, semilla).generar();
+        if (!res.exito()) {
+            motivoFallo = res.motivoFallo;
+            System.out.println("No se pudo generar la sopa: " + motivoFallo);
+            return false;
         }
 
-        // Rellenar espacios vacíos con letras aleatorias
-        rellenarEspaciosVacios(random);
-
-        return palabrasEncontradas.size() >= 10;
+        System.arraycopy(res.cuadricula, 0, cuadricula, 0, cuadricula.length);
+        palabrasEncontradas.addAll(res.ubicaciones);
+        return true;
     }
 
     /**
-     * Verifica si una palabra puede colocarse en la posición y dirección dadas.
+     * Califica la respuesta del estudiante.
+     * <p>
+     * Si la respuesta trae selecciones por coordenadas
+     * ({@link RespuestaEstudiante#getCeldasSeleccionadas()}), cada selección se
+     * verifica contra el índice de ubicaciones: solo cuenta si va exactamente del
+     * inicio al fin de una palabra colocada (en cualquiera de los dos sentidos).
+     * Si no, se usa el modo anterior: ordenesSeleccionados contiene los índices
+     * de las palabras encontradas.
+     * </p>
+     *
+     * @param respuesta Respuesta del estudiante
+     * @return Puntos obtenidos (proporcional a palabras correctas)
      */
-    private boolean puedePlabra(String palabra, int fila, int col, Direccion dir) {
-        int len = palabra.length();
-        int df = dir.deltaFila;
-        int dc = dir.deltaCol;
-
-        for (int i = 0; i < len; i++) {
-            int f = fila + (df * i);
-            int c = col + (dc * i);
-
-            // Verificar límites
-            if (f < 0 || f >= tamanioCuadricula || c < 0 || c >= tamanioCuadricula) {
-                return false;
-            }
+    @Override
+    public int calificar(RespuestaEstudiante respuesta) {
+        if (respuesta == null) return 0;
+        int totalPalabras = enunciados.size();
+        if (totalPalabras == 0) return 0;
 
-            // Verificar si la celda está vacía o tiene la letra correcta
-            char letraActual = cuadricula[f][c];
-            if (letraActual != ' ' && letraActual != palabra.charAt(i)) {
-                return false;
+        int correctas;
+        if (respuesta.tieneSeleccionCeldas()) {
+            correctas = contarSeleccionesCorrectas(respuesta.getCeldasSeleccionadas());
+        } else {
+            List<Integer> palabrasEncontradasIdx = respuesta.getOrdenesSeleccionados();
+            if (palabrasEncontradasIdx == null || palabrasEncontradasIdx.isEmpty()) return 0;
+
+            // Contar cuántas palabras encontró correctamente
+            correctas = 0;
+            Set<Integer> encontradas = new HashSet<>(palabrasEncontradasIdx);
+            for (int i = 0; i < totalPalabras; i++) {
+                if (encontradas.contains(i)) {
+                    correctas++;
+                }
             }
         }
 
-        return true;
+        // Calificación proporcional
+        double proporcion = (double) correctas / totalPalabras;
+        return (int) Math.round(puntos * proporcion);
     }
 
     /**
-     * Coloca una palabra en la cuadrícula.
+     * Cuenta las palabras distintas que coinciden con las selecciones por coordenadas.
+     * Cada selección se resuelve con una consulta al índice (O(1)); las
+     * selecciones repetidas o fuera de la cuadrícula no suman.
      */
-    private void colocarPalabra(String palabra, int fila, int col, Direccion dir) {
-        int df = dir.deltaFila;
-        int dc = dir.deltaCol;
-
-        for (int i = 0; i < palabra.length(); i++) {
-            int f = fila + (df * i);
-            int c = col + (dc * i);
-            cuadricula[f][c] = palabra.charAt(i);
+    private int contarSeleccionesCorrectas(List<Integer> celdas) {
+        Map<Integer, Integer> indice = indiceUbicaciones();
+        BitSet encontradas = new BitSet(enunciados.size());
+        for (int k = 0; k + 3 < celdas.size(); k += 4) {
+            int inicio = celda(celdas.get(k), celdas.get(k + 1));
+            int fin = celda(celdas.get(k + 2), celdas.get(k + 3));
+            if (inicio < 0 || fin < 0) continue;
+            Integer palabra = indice.get(claveUbicacion(inicio, fin));
+            if (palabra == null) palabra = indice.get(claveUbicacion(fin, inicio));
+            if (palabra != null) encontradas.set(palabra);
         }
+        return encontradas.cardinality();
     }
 
     /**
-     * Rellena los espacios vacíos con letras aleatorias.
+     * Índice (celda inicial, celda final) → índice de la palabra en los enunciados,
+     * construido a partir de {@link #palabrasEncontradas} la primera vez que se usa.
      */
-    private void rellenarEspaciosVacios(Random random) {
-        String letras = "ABCDEFGHIJKLMNOPQRSTUVWXYZÁÉÍÓÚÑ";
-        for (int i = 0; i < tamanioCuadricula; i++) {
-            for (int j = 0; j < tamanioCuadricula; j++) {
-                if (cuadricula[i][j] == ' ') {
-                    cuadricula[i][j] = letras.charAt(random.nextInt(letras.length()));
-                }
-            }
+    private Map<Integer, Integer> indiceUbicaciones() {
+        Map<Integer, Integer> indice = indiceUbicaciones;
+        if (indice != null) return indice;
+
+        // Índice de cada palabra en los enunciados (las palabras repetidas se asignan en orden)
+        Map<String, Deque<Integer>> porPalabra = new HashMap<>();
+        for (int i = 0; i < enunciados.size(); i++) {
+            porPalabra.computeIfAbsent(enunciados.get(i).palabra, k -> new ArrayDeque<>()).add(i);
         }
-    }
-
-    /**
-     * Califica la respuesta del estudiante verificando las palabras encontradas.
-     * 
-     * @param respuesta Respuesta del estudiante (ordenesSeleccionados contiene índices de palabras encontradas)
-     * @return Puntos obtenidos (proporcional a palabras correctas)
-     */
-    @Override
-    public int calificar(RespuestaEstudiante respuesta) {
-        if (respuesta == null) return 0;
-        
-        List<Integer> palabrasEncontradasIdx = respuesta.getOrdenesSeleccionados();
-        if (palabrasEncontradasIdx == null || palabrasEncontradasIdx.isEmpty()) return 0;
-
-        int correctas = 0;
-        int totalPalabras = enunciados.size();
 
-        // Contar cuántas palabras encontró correctamente
-        Set<Integer> encontradas = new HashSet<>(palabrasEncontradasIdx);
-        for (int i = 0; i < totalPalabras; i++) {
-            if (encontradas.contains(i)) {
-                correctas++;
-            }
+        indice = new HashMap<>();
+        for (PalabraEncontrada pe : palabrasEncontradas) {
+            Deque<Integer> idx = porPalabra.get(pe.palabra);
+            if (idx == null || idx.isEmpty()) continue;
+            int len = pe.palabra.length() - 1;
+            int inicio = celda(pe.filaInicio, pe.colInicio);
+            int fin = celda(pe.filaInicio + pe.direccion.deltaFila * len, pe.colInicio + pe.direccion.deltaCol * len);
+            if (inicio < 0 || fin < 0) continue;
+            indice.putIfAbsent(claveUbicacion(inicio, fin), idx.poll());
         }
+        indiceUbicaciones = indice;
+        return indice;
+    }
 
-        // Calificación proporcional
-        if (totalPalabras == 0) return 0;
-        double proporcion = (double) correctas / totalPalabras;
-        return (int) Math.round(puntos * proporcion);
+    /** Posición lineal de una celda, o -1 si está fuera de la cuadrícula. */
+    private int celda(Integer fila, Integer col) {
+        if (fila == null || col == null) return -1;
+        if (fila < 0 || fila >= tamanioCuadricula || col < 0 || col >= tamanioCuadricula) return -1;
+        return fila * tamanioCuadricula + col;
+    }
+
+    private int claveUbicacion(int inicio, int fin) {
+        return inicio * tamanioCuadricula * tamanioCuadricula + fin;
     }
 
     @Override
@@ -237,9 +248,20 @@ public class SopaDeLetras implements IPregunta {
             return false;
         }
 
-        // Verificar que cubra los 8 sentidos (simplificado: si hay suficientes palabras)
-        // En una implementación real, verificarías que generarCuadricula() distribuye en todas direcciones
-        return palabrasEncontradas.size() >= 10;
+        // Todas las palabras deben estar colocadas
+        if (palabrasEncontradas.size() != enunciados.size()) {
+            System.out.println("No todas las palabras están colocadas en la cuadrícula.");
+            return false;
+        }
+
+        // Verificar que cubra los 8 sentidos
+        EnumSet<Direccion> usadas = EnumSet.noneOf(Direccion.class);
+        for (PalabraEncontrada pe : palabrasEncontradas) usadas.add(pe.direccion);
+        if (usadas.size() < Direccion.values().length) {
+            System.out.println("La sopa debe usar las 8 direcciones.");
+            return false;
+        }
+        return true;
     }
 
     // ---------------- Implementación IPregunta ----------------
@@ -267,13 +289,19 @@ public class SopaDeLetras implements IPregunta {
         return Collections.unmodifiableList(enunciados);
     }
 
-    public char[][] getCuadricula() {
-        // Retornar copia para evitar modificaciones externas
-        char[][] copia = new char[tamanioCuadricula][tamanioCuadricula];
-        for (int i = 0; i < tamanioCuadricula; i++) {
-            System.arraycopy(cuadricula[i], 0, copia[i], 0, tamanioCuadricula);
-        }
-        return copia;
+    /**
+     * Retorna una vista de solo lectura de la cuadrícula, por filas (sin copiarla).
+     * La letra de la celda (f, c) está en la posición {@code f * N + c}.
+     */
+    public CharBuffer getCuadricula() {
+        return CharBuffer.wrap(cuadricula).asReadOnlyBuffer();
+    }
+
+    /**
+     * Retorna la letra en una celda de la cuadrícula.
+     */
+    public char getLetra(int fila, int col) {
+        return cuadricula[fila * tamanioCuadricula + col];
     }
 
     public int getTamanioCuadricula() {
@@ -284,6 +312,15 @@ public class SopaDeLetras implements IPregunta {
         return Collections.unmodifiableList(palabrasEncontradas);
     }
 
+    /**
+     * Motivo por el que falló la última llamada a {@link #generarCuadricula(long)}.
+     *
+     * @return descripción del fallo, o null si la última generación tuvo éxito
+     */
+    public String getMotivoFallo() {
+        return motivoFallo;
+    }
+
     public void setPuntos(int puntos) {
         this.puntos = puntos;
     }
@@ -299,7 +336,7 @@ public class SopaDeLetras implements IPregunta {
         StringBuilder sb = new StringBuilder();
         for (int i = 0; i < tamanioCuadricula; i++) {
             for (int j = 0; j < tamanioCuadricula; j++) {
-                sb.append(cuadricula[i][j]).append(" ");
+                sb.append(cuadricula[i * tamanioCuadricula + j]).append(" ");
             }
             sb.append("\n");
         }
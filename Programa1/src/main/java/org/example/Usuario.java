@@ -91,12 +91,6 @@ public abstract class Usuario {
 
     // -- Validación y control de unicidad --
 
-    /** Conjunto de IDs registrados para asegurar unicidad. */
-    private static final java.util.Set<String> usedIds = new java.util.HashSet<>();
-
-    /** Conjunto de correos registrados para asegurar unicidad. */
-    private static final java.util.Set<String> usedEmails = new java.util.HashSet<>();
-
     /**
      * Valida los atributos del usuario según las reglas de formato y unicidad.
      * <ul>
@@ -106,12 +100,15 @@ public abstract class Usuario {
      *     <li>Correo: formato válido (parte1@parte2) y único.</li>
      *     <li>Dirección: entre 5 y 60 caracteres.</li>
      * </ul>
-     * Si los datos son válidos, se registran el ID y el correo en los conjuntos de unicidad.
+     * Si los datos son válidos, el ID y el correo se reservan a nombre de este usuario
+     * en el {@link RegistroUnicidad} global (de forma atómica: si otro usuario los
+     * reservó primero, la validación falla).
      *
      * @return {@code true} si los datos son válidos, {@code false} si se detectan errores
      */
     public boolean validarDatos() {
         java.util.List<String> errores = new java.util.ArrayList<>();
+        RegistroUnicidad registro = RegistroUnicidad.global();
 
         // Validación básica de nombre y apellidos
         if (nombre == null || nombre.trim().length() < 2 || nombre.trim().length() > 20)
@@ -126,7 +123,7 @@ public abstract class Usuario {
         // ID de usuario
         if (idUsuario == null || idUsuario.trim().length() < 9)
             errores.add("El ID de usuario debe tener 9 o más caracteres");
-        else if (usedIds.contains(idUsuario.trim()))
+        else if (!registro.idDisponible(idUsuario, this))
             errores.add("El ID de usuario ya existe en el sistema");
 
         // Teléfono
@@ -145,7 +142,7 @@ public abstract class Usuario {
                 if (indiceArroba <= 0 || indiceUltimoPunto <= indiceArroba + 1 || indiceUltimoPunto == correoRecortado.length() - 1)
                     errores.add("El correo debe tener un formato válido (parte1@parte2)");
             }
-            if (usedEmails.contains(correoRecortado))
+            if (!registro.correoDisponible(correoRecortado, this))
                 errores.add("El correo ya existe en el sistema");
         }
 
@@ -159,11 +156,11 @@ public abstract class Usuario {
             return false;
         }
 
-        synchronized (Usuario.class) {
-            usedIds.add(idUsuario.trim());
-            usedEmails.add(correo.trim());
+        // La reserva es la verificación definitiva ante registros simultáneos
+        if (!registro.reservar(this)) {
+            System.out.println("El ID de usuario o el correo ya existe en el sistema");
+            return false;
         }
-
         return true;
     }
 
@@ -1,6 +1,7 @@
 package org.example;
 
 import java.util.List;
+import java.util.Locale;
 
 /**
  * Interfaz que define el contrato del servicio de usuarios utilizado
@@ -33,6 +34,72 @@ public interface UsuarioService {
      */
     List<Profesor> listarProfesores();
 
+    // -- Búsquedas --
+
+    /**
+     * Busca un estudiante por su identificación.
+     * <p>
+     * La implementación por defecto recorre la lista; las implementaciones con
+     * índices pueden resolverla en tiempo constante.
+     * </p>
+     *
+     * @param idEstudiante identificación del estudiante
+     * @return el estudiante o {@code null} si no existe
+     */
+    default Estudiante buscarEstudiante(String idEstudiante) {
+        if (idEstudiante == null) return null;
+        for (Estudiante e : listarEstudiantes()) {
+            if (idEstudiante.equals(e.getIdUsuario())) return e;
+        }
+        return null;
+    }
+
+    /**
+     * Busca un profesor por su identificación.
+     *
+     * @param idProfesor identificación del profesor
+     * @return el profesor o {@code null} si no existe
+     */
+    default Profesor buscarProfesor(String idProfesor) {
+        if (idProfesor == null) return null;
+        for (Profesor p : listarProfesores()) {
+            if (idProfesor.equals(p.getIdUsuario())) return p;
+        }
+        return null;
+    }
+
+    /**
+     * Busca un estudiante o profesor por su correo, sin distinguir mayúsculas
+     * ni espacios al inicio o al final (ver {@link #normalizarCorreo(String)}).
+     *
+     * @param correo correo a buscar
+     * @return el usuario o {@code null} si ninguno usa ese correo
+     */
+    default Usuario buscarPorCorreo(String correo) {
+        String clave = normalizarCorreo(correo);
+        if (clave == null) return null;
+        for (Estudiante e : listarEstudiantes()) {
+            if (clave.equals(normalizarCorreo(e.getCorreo()))) return e;
+        }
+        for (Profesor p : listarProfesores()) {
+            if (clave.equals(normalizarCorreo(p.getCorreo()))) return p;
+        }
+        return null;
+    }
+
+    /**
+     * Forma canónica de un correo para comparaciones: sin espacios al inicio o
+     * al final y en minúsculas.
+     *
+     * @param correo correo original
+     * @return correo normalizado o {@code null} si está vacío
+     */
+    static String normalizarCorreo(String correo) {
+        if (correo == null) return null;
+        String s = correo.trim();
+        return s.isEmpty() ? null : s.toLowerCase(Locale.ROOT);
+    }
+
     // -- Operaciones CRUD para estudiantes --
 
     /**
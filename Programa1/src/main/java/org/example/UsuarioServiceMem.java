@@ -1,8 +1,11 @@
 package org.example;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
 
 /**
  * Implementación en memoria del servicio de usuarios.
@@ -12,20 +15,54 @@ import java.util.List;
  * o demostración, ya que los datos se pierden al finalizar la ejecución.
  * </p>
  * <p>
+ * Además de las listas (que conservan el orden de registro), mantiene índices
+ * por identificación y por correo normalizado, de modo que
+ * {@link #buscarEstudiante(String)}, {@link #buscarProfesor(String)} y
+ * {@link #buscarPorCorreo(String)} no recorren las listas. Los índices admiten
+ * consultas concurrentes (inicio de sesión, matrícula).
+ * </p>
+ * <p>
+ * Las altas, actualizaciones y bajas modifican listas e índices bajo un mismo
+ * monitor; los listados devuelven una copia tomada bajo ese monitor, de modo
+ * que pueden recorrerse mientras otro hilo registra usuarios.
+ * </p>
+ * <p>
  * También incluye un método de inicialización de datos de ejemplo
- * mediante {@link #seedDemo()}.
+ * mediante {@link #seedDemo()} y una importación masiva de usuarios
+ * ({@link #importarUsuarios(List)}) que encripta las contraseñas en paralelo.
  * </p>
  */
 public class UsuarioServiceMem implements UsuarioService {
 
     // -- Atributos principales --
 
-    /** Lista de estudiantes en memoria. */
+    /** Lista de estudiantes en memoria (protegida por {@link #cerrojo}). */
     private final List<Estudiante> estudiantes = new ArrayList<>();
 
-    /** Lista de profesores en memoria. */
+    /** Lista de profesores en memoria (protegida por {@link #cerrojo}). */
     private final List<Profesor> profesores = new ArrayList<>();
 
+    /** Protege las listas y las modificaciones de los índices. */
+    private final Object cerrojo = new Object();
+
+    // -- Índices --
+
+    /** Estudiantes por identificación. */
+    private final Map<String, Estudiante> estudiantesPorId = new ConcurrentHashMap<>();
+
+    /** Profesores por identificación. */
+    private final Map<String, Profesor> profesoresPorId = new ConcurrentHashMap<>();
+
+    /** Usuarios por correo normalizado (ver {@link UsuarioService#normalizarCorreo(String)}). */
+    private final Map<String, Usuario> usuariosPorCorreo = new ConcurrentHashMap<>();
+
+    /**
+     * Correo con el que se indexó cada usuario (usuario → correo normalizado).
+     * Permite retirar la entrada anterior aunque el correo se haya cambiado
+     * directamente sobre el objeto antes de actualizarlo.
+     */
+    private final Map<Usuario, String> correoIndexado = new ConcurrentHashMap<>();
+
     /** Servicio de autenticación utilizado para registrar usuarios y contraseñas. */
     private final Autenticacion auth;
 
@@ -45,82 +82,231 @@ public class UsuarioServiceMem implements UsuarioService {
     /**
      * Carga datos de prueba (administrador, estudiantes y profesores) en memoria.
      * <p>
-     * Se generan credenciales y usuarios con contraseñas encriptadas.
+     * Se generan credenciales y usuarios con contraseñas encriptadas, usando
+     * {@link #importarUsuarios(List)} para encriptarlas en paralelo.
      * </p>
      */
     public void seedDemo() {
+        List<Alta> altas = new ArrayList<>();
+
         // -- Administrador --
-        Password pwAdmin = new Password("admin", "", false);
-        pwAdmin.encriptar("secret");
-        auth.upsertUsuario("admin", "admin@demo.com", Roles.ADMIN, pwAdmin);
+        altas.add(Alta.administrador("admin", "admin@demo.com", "secret"));
 
         // -- Estudiantes --
-        Estudiante e1 = new Estudiante(
+        altas.add(Alta.de(new Estudiante(
                 "Ana", "Zúñiga", "Soto",
                 "E100USER!", "88880001", "ana.zuniga@demo.com", "San José, centro",
                 "UCR", List.of("Algoritmos", "Progra")
-        );
-        Estudiante e2 = new Estudiante(
+        ), "secret"));
+        altas.add(Alta.de(new Estudiante(
                 "Bruno", "Mora", "Lopez",
                 "E101USER!", "88880002", "bruno.mora@demo.com", "Heredia, centro",
                 "TEC", List.of("Estructuras", "Bases de Datos I")
-        );
-        Estudiante e3 = new Estudiante(
+        ), "secret"));
+        altas.add(Alta.de(new Estudiante(
                 "Carla", "Rojas", "Vargas",
                 "E102USER!", "88880003", "carla.rojas@demo.com", "Alajuela, centro",
                 "UNA", List.of("Redes", "Sistemas")
-        );
-        agregarEstudiante(e1);
-        agregarEstudiante(e2);
-        agregarEstudiante(e3);
-
-        // -- Credenciales de estudiantes --
-        Password pEst1 = new Password(e1.getIdUsuario(), "secret", false);
-        pEst1.encriptar("secret");
-        auth.upsertUsuario(e1.getIdUsuario(), e1.getCorreo(), Roles.ESTUDIANTE, pEst1);
-
-        Password pEst2 = new Password(e2.getIdUsuario(), "secret", false);
-        pEst2.encriptar("secret");
-        auth.upsertUsuario(e2.getIdUsuario(), e2.getCorreo(), Roles.ESTUDIANTE, pEst2);
-
-        Password pEst3 = new Password(e3.getIdUsuario(), "secret", false);
-        pEst3.encriptar("secret");
-        auth.upsertUsuario(e3.getIdUsuario(), e3.getCorreo(), Roles.ESTUDIANTE, pEst3);
+        ), "secret"));
 
         // -- Profesores --
-        Profesor p1 = new Profesor(
+        altas.add(Alta.de(new Profesor(
                 "Mario", "Rojas", "Céspedes",
                 "P200USER!", "88880010", "mario.rojas@demo.com", "Cartago, centro"
-        );
-        Profesor p2 = new Profesor(
+        ), "secret"));
+        altas.add(Alta.de(new Profesor(
                 "Natalia", "Solis", "Cambronero",
                 "P201USER!", "88880011", "natalia.solis@demo.com", "San José, Escazú"
-        );
-        agregarProfesor(p1);
-        agregarProfesor(p2);
+        ), "secret"));
+
+        ResultadoImportacion res = importarUsuarios(altas);
+        System.out.println("[seed usuarios] " + res);
+    }
 
-        // -- Credenciales de profesores --
-        Password pPro1 = new Password(p1.getIdUsuario(), "secret", false);
-        pPro1.encriptar("secret");
-        auth.upsertUsuario(p1.getIdUsuario(), p1.getCorreo(), Roles.PROFESOR, pPro1);
+    // -- Importación masiva --
 
-        Password pPro2 = new Password(p2.getIdUsuario(), "secret", false);
-        pPro2.encriptar("secret");
-        auth.upsertUsuario(p2.getIdUsuario(), p2.getCorreo(), Roles.PROFESOR, pPro2);
+    /**
+     * Registra un lote de usuarios con sus credenciales.
+     * <p>
+     * Primero valida todo el lote en paralelo (identificaciones requeridas y sin
+     * repetir, ni dentro del lote ni contra los usuarios y credenciales
+     * existentes) reservando identificación y correo de cada alta, incluidas las
+     * de administrador, en el {@link RegistroUnicidad};
+     * como la reserva es atómica, el paralelismo no produce falsos duplicados ni
+     * deja pasar repetidos. Luego encripta las
+     * contraseñas en paralelo sobre el {@link java.util.concurrent.ForkJoinPool}
+     * común y, por último, registra usuarios y credenciales en un solo paso.
+     * Si la validación falla no se registra ningún usuario.
+     * </p>
+     *
+     * @param altas usuarios a registrar
+     * @return cantidad importada, duración y usuarios por segundo
+     * @throws IllegalArgumentException si el lote contiene datos inválidos o repetidos
+     */
+    public ResultadoImportacion importarUsuarios(List<Alta> altas) {
+        if (altas == null || altas.isEmpty()) return new ResultadoImportacion(0, 0);
+        long t0 = System.nanoTime();
+
+        // -- Validación y reserva, en paralelo --
+        RegistroUnicidad registro = RegistroUnicidad.global();
+        Set<String> enLote = ConcurrentHashMap.newKeySet();
+        boolean[] reservado = new boolean[altas.size()];
+        String[] errores = new String[altas.size()];
+        IntStream.range(0, altas.size()).parallel().forEach(i -> {
+            Alta a = altas.get(i);
+            if (a == null) errores[i] = "Alta nula en el lote.";
+            else if (a.id == null || a.id.isBlank()) errores[i] = "Identificación requerida.";
+            else if (!enLote.add(a.id)) errores[i] = "Identificación repetida en el lote: " + a.id;
+            else if (estudiantesPorId.containsKey(a.id) || profesoresPorId.containsKey(a.id)
+                    || auth.obtenerRol(a.id) != null)
+                errores[i] = "Ya existe un usuario con la identificación " + a.id;
+            else {
+                reservado[i] = registro.reservar(a.id, a.correo, a.duenio());
+                if (!reservado[i]) errores[i] = "La identificación o el correo ya están registrados: " + a.id;
+            }
+        });
+        for (String error : errores) {
+            if (error == null) continue;
+            for (int i = 0; i < altas.size(); i++) {
+                if (reservado[i]) registro.liberar(altas.get(i).duenio());
+            }
+            throw new IllegalArgumentException(error);
+        }
+
+        // -- Encriptación en paralelo (la parte costosa) --
+        List<Password> credenciales = altas.parallelStream()
+                .map(a -> {
+                    Password pw = new Password(a.id, "", false);
+                    pw.encriptar(a.contrasena);
+                    return pw;
+                })
+                .toList();
+
+        // -- Registro en un solo paso --
+        synchronized (cerrojo) {
+            for (int i = 0; i < altas.size(); i++) {
+                Alta a = altas.get(i);
+                if (a.usuario instanceof Estudiante e) {
+                    estudiantes.add(e);
+                    estudiantesPorId.put(a.id, e);
+                    indexarCorreo(e);
+                } else if (a.usuario instanceof Profesor p) {
+                    profesores.add(p);
+                    profesoresPorId.put(a.id, p);
+                    indexarCorreo(p);
+                }
+                auth.upsertUsuario(a.id, a.correo, a.rol, credenciales.get(i));
+            }
+        }
+        return new ResultadoImportacion(altas.size(), System.nanoTime() - t0);
+    }
+
+    /**
+     * Datos de un usuario a importar: perfil (opcional para administradores),
+     * rol y contraseña en texto plano.
+     */
+    public static final class Alta {
+        final Usuario usuario;
+        final String id;
+        final String correo;
+        final Roles rol;
+        final String contrasena;
+
+        private Alta(Usuario usuario, String id, String correo, Roles rol, String contrasena) {
+            if (contrasena == null || contrasena.isEmpty())
+                throw new IllegalArgumentException("Contraseña requerida para " + id);
+            this.usuario = usuario;
+            this.id = id;
+            this.correo = correo;
+            this.rol = rol;
+            this.contrasena = contrasena;
+        }
+
+        /**
+         * Dueño de la reserva en el {@link RegistroUnicidad}: el perfil, o el alta
+         * misma para una credencial de administrador.
+         */
+        Object duenio() {
+            return usuario != null ? usuario : this;
+        }
+
+        /** Alta de un estudiante con su contraseña inicial. */
+        public static Alta de(Estudiante e, String contrasena) {
+            return new Alta(e, e.getIdUsuario(), e.getCorreo(), Roles.ESTUDIANTE, contrasena);
+        }
+
+        /** Alta de un profesor con su contraseña inicial. */
+        public static Alta de(Profesor p, String contrasena) {
+            return new Alta(p, p.getIdUsuario(), p.getCorreo(), Roles.PROFESOR, contrasena);
+        }
+
+        /** Alta de una credencial de administrador (sin perfil de usuario). */
+        public static Alta administrador(String id, String correo, String contrasena) {
+            return new Alta(null, id, correo, Roles.ADMIN, contrasena);
+        }
+    }
+
+    /** Resultado de {@link #importarUsuarios(List)}. */
+    public static final class ResultadoImportacion {
+        /** Cantidad de usuarios registrados. */
+        public final int cantidad;
+        /** Duración total de la importación en nanosegundos. */
+        public final long nanos;
+
+        ResultadoImportacion(int cantidad, long nanos) {
+            this.cantidad = cantidad;
+            this.nanos = nanos;
+        }
+
+        /** @return usuarios importados por segundo */
+        public double usuariosPorSegundo() {
+            return nanos == 0 ? 0 : cantidad * 1_000_000_000.0 / nanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d usuarios importados en %.1f ms (%.1f usuarios/s, costo BCrypt %d)",
+                    cantidad, nanos / 1_000_000.0, usuariosPorSegundo(), Password.getCosto());
+        }
     }
 
     // -- Listado de usuarios --
 
-    /** {@inheritDoc} */
+    /** {@inheritDoc} Devuelve una copia inmutable, en orden de registro. */
     @Override
     public List<Estudiante> listarEstudiantes() {
-        return Collections.unmodifiableList(estudiantes);
+        synchronized (cerrojo) {
+            return List.copyOf(estudiantes);
+        }
     }
 
-    /** {@inheritDoc} */
+    /** {@inheritDoc} Devuelve una copia inmutable, en orden de registro. */
     @Override
     public List<Profesor> listarProfesores() {
-        return Collections.unmodifiableList(profesores);
+        synchronized (cerrojo) {
+            return List.copyOf(profesores);
+        }
+    }
+
+    // -- Búsquedas --
+
+    /** {@inheritDoc} Consulta directa al índice. */
+    @Override
+    public Estudiante buscarEstudiante(String idEstudiante) {
+        return idEstudiante == null ? null : estudiantesPorId.get(idEstudiante);
+    }
+
+    /** {@inheritDoc} Consulta directa al índice. */
+    @Override
+    public Profesor buscarProfesor(String idProfesor) {
+        return idProfesor == null ? null : profesoresPorId.get(idProfesor);
+    }
+
+    /** {@inheritDoc} Consulta directa al índice. */
+    @Override
+    public Usuario buscarPorCorreo(String correo) {
+        String clave = UsuarioService.normalizarCorreo(correo);
+        return clave == null ? null : usuariosPorCorreo.get(clave);
     }
 
     // -- CRUD Estudiantes --
@@ -131,9 +317,15 @@ public class UsuarioServiceMem implements UsuarioService {
         if (e == null) throw new IllegalArgumentException("Estudiante nulo.");
         String id = e.getIdUsuario();
         if (id == null || id.isBlank()) throw new IllegalArgumentException("Identificación del estudiante requerida.");
-        if (indexOfEstudiantePorId(id) >= 0)
-            throw new IllegalArgumentException("Ya existe un estudiante con esa identificación.");
-        estudiantes.add(e);
+        synchronized (cerrojo) {
+            if (estudiantesPorId.containsKey(id))
+                throw new IllegalArgumentException("Ya existe un estudiante con esa identificación.");
+            if (!RegistroUnicidad.global().reservar(e))
+                throw new IllegalArgumentException("La identificación o el correo ya están registrados en el sistema.");
+            estudiantes.add(e);
+            estudiantesPorId.put(id, e);
+            indexarCorreo(e);
+        }
     }
 
     /** {@inheritDoc} */
@@ -142,9 +334,18 @@ public class UsuarioServiceMem implements UsuarioService {
         if (e == null) throw new IllegalArgumentException("Estudiante nulo.");
         String id = e.getIdUsuario();
         if (id == null || id.isBlank()) throw new IllegalArgumentException("Identificación del estudiante requerida.");
-        int idx = indexOfEstudiantePorId(id);
-        if (idx < 0) throw new IllegalArgumentException("No existe un estudiante con esa identificación.");
-        estudiantes.set(idx, e);
+        synchronized (cerrojo) {
+            Estudiante anterior = estudiantesPorId.get(id);
+            if (anterior == null) throw new IllegalArgumentException("No existe un estudiante con esa identificación.");
+            if (!RegistroUnicidad.global().reemplazar(anterior, e))
+                throw new IllegalArgumentException("El correo ya existe en el sistema.");
+            if (anterior != e) {
+                estudiantes.set(estudiantes.indexOf(anterior), e);
+                estudiantesPorId.put(id, e);
+                desindexarCorreo(anterior);
+            }
+            indexarCorreo(e);
+        }
     }
 
     /** {@inheritDoc} */
@@ -152,8 +353,15 @@ public class UsuarioServiceMem implements UsuarioService {
     public void eliminarEstudiante(Estudiante e) {
         if (e == null) return;
         String id = e.getIdUsuario();
-        int idx = (id == null) ? -1 : indexOfEstudiantePorId(id);
-        if (idx >= 0) estudiantes.remove(idx);
+        if (id == null) return;
+        synchronized (cerrojo) {
+            Estudiante actual = estudiantesPorId.remove(id);
+            if (actual != null) {
+                estudiantes.remove(actual);
+                desindexarCorreo(actual);
+                RegistroUnicidad.global().liberar(actual);
+            }
+        }
     }
 
     // -- CRUD Profesores --
@@ -164,9 +372,15 @@ public class UsuarioServiceMem implements UsuarioService {
         if (p == null) throw new IllegalArgumentException("Profesor nulo.");
         String id = p.getIdUsuario();
         if (id == null || id.isBlank()) throw new IllegalArgumentException("Identificación del profesor requerida.");
-        if (indexOfProfesorPorId(id) >= 0)
-            throw new IllegalArgumentException("Ya existe un profesor con esa identificación.");
-        profesores.add(p);
+        synchronized (cerrojo) {
+            if (profesoresPorId.containsKey(id))
+                throw new IllegalArgumentException("Ya existe un profesor con esa identificación.");
+            if (!RegistroUnicidad.global().reservar(p))
+                throw new IllegalArgumentException("La identificación o el correo ya están registrados en el sistema.");
+            profesores.add(p);
+            profesoresPorId.put(id, p);
+            indexarCorreo(p);
+        }
     }
 
     /** {@inheritDoc} */
@@ -175,9 +389,18 @@ public class UsuarioServiceMem implements UsuarioService {
         if (p == null) throw new IllegalArgumentException("Profesor nulo.");
         String id = p.getIdUsuario();
         if (id == null || id.isBlank()) throw new IllegalArgumentException("Identificación del profesor requerida.");
-        int idx = indexOfProfesorPorId(id);
-        if (idx < 0) throw new IllegalArgumentException("No existe un profesor con esa identificación.");
-        profesores.set(idx, p);
+        synchronized (cerrojo) {
+            Profesor anterior = profesoresPorId.get(id);
+            if (anterior == null) throw new IllegalArgumentException("No existe un profesor con esa identificación.");
+            if (!RegistroUnicidad.global().reemplazar(anterior, p))
+                throw new IllegalArgumentException("El correo ya existe en el sistema.");
+            if (anterior != p) {
+                profesores.set(profesores.indexOf(anterior), p);
+                profesoresPorId.put(id, p);
+                desindexarCorreo(anterior);
+            }
+            indexarCorreo(p);
+        }
     }
 
     /** {@inheritDoc} */
@@ -185,8 +408,15 @@ public class UsuarioServiceMem implements UsuarioService {
     public void eliminarProfesor(Profesor p) {
         if (p == null) return;
         String id = p.getIdUsuario();
-        int idx = (id == null) ? -1 : indexOfProfesorPorId(id);
-        if (idx >= 0) profesores.remove(idx);
+        if (id == null) return;
+        synchronized (cerrojo) {
+            Profesor actual = profesoresPorId.remove(id);
+            if (actual != null) {
+                profesores.remove(actual);
+                desindexarCorreo(actual);
+                RegistroUnicidad.global().liberar(actual);
+            }
+        }
     }
 
     // -- Contraseñas --
@@ -200,21 +430,22 @@ public class UsuarioServiceMem implements UsuarioService {
 
     // -- Métodos auxiliares --
 
-    /** Busca el índice de un estudiante según su ID. */
-    private int indexOfEstudiantePorId(String id) {
-        for (int i = 0; i < estudiantes.size(); i++) {
-            String cur = estudiantes.get(i).getIdUsuario();
-            if (id.equals(cur)) return i;
-        }
-        return -1;
+    /**
+     * Registra (o actualiza) el correo del usuario en el índice de correos,
+     * retirando el correo con el que estaba indexado antes. Se llama con
+     * {@link #cerrojo} tomado.
+     */
+    private void indexarCorreo(Usuario u) {
+        desindexarCorreo(u);
+        String clave = UsuarioService.normalizarCorreo(u.getCorreo());
+        if (clave == null) return;
+        usuariosPorCorreo.put(clave, u);
+        correoIndexado.put(u, clave);
     }
 
-    /** Busca el índice de un profesor según su ID. */
-    private int indexOfProfesorPorId(String id) {
-        for (int i = 0; i < profesores.size(); i++) {
-            String cur = profesores.get(i).getIdUsuario();
-            if (id.equals(cur)) return i;
-        }
-        return -1;
+    /** Retira del índice de correos la entrada del usuario. */
+    private void desindexarCorreo(Usuario u) {
+        String anterior = correoIndexado.remove(u);
+        if (anterior != null) usuariosPorCorreo.remove(anterior, u);
     }
 }
@@ -29,16 +29,39 @@ public class Ventana extends JFrame {
     private CursoService cursoService;
     private ReporteService reporteService;
     private EvaluacionService evaluacionService;
-    private IntentoService intentoService = new IntentoServiceMem();
+    private IntentoService intentoService = new IntentoServiceIndexada();
+
+    /** Persistencia del estado en disco (JSON). */
+    private PersistenciaJson persistencia;
+
+    /** Bitácora de escritura de las operaciones sobre los servicios. */
+    private BitacoraServicios bitacora;
+
+    /** Servicio de matrículas (registrado en la bitácora). */
+    private MatriculaService matriculaService;
+
+    /** Métricas de llamadas y latencias de los servicios. */
+    private MetricasServicios metricas;
 
     /** Panel temporal para el dashboard del estudiante. */
     private Component cardEstudiantePlaceholder;
 
     // -- Punto de entrada --
 
-    /** Inicia la aplicación. */
+    /**
+     * Inicia la aplicación. Si los datos guardados no pueden restaurarse, se
+     * informa el error y se termina sin modificar el archivo.
+     */
     public static void main(String[] args) {
-        SwingUtilities.invokeLater(() -> new Ventana().setVisible(true));
+        SwingUtilities.invokeLater(() -> {
+            try {
+                new Ventana().setVisible(true);
+            } catch (IllegalStateException ex) {
+                JOptionPane.showMessageDialog(null, ex.getMessage(),
+                        "Sistema de Matrícula y Calificaciones", JOptionPane.ERROR_MESSAGE);
+                System.exit(1);
+            }
+        });
     }
 
     // -- Constructor --
@@ -75,55 +98,166 @@ public class Ventana extends JFrame {
         mainContainer.add(crearPlaceholder("Dashboard Profesor"), "PROFESOR");
 
         usuarioService = new UsuarioServiceMem(auth);
-        usuarioService.seedDemo();
-
-        cursoService = new CursoServiceMem(usuarioService);
-        ((CursoServiceMem) cursoService).seedCursosDemo();
-        ((CursoServiceMem) cursoService).seedGruposDemo(usuarioService);
-
+        cursoService = new CursoServiceIndexada(usuarioService);
         evaluacionService = new EvaluacionServiceMem(usuarioService, cursoService);
-        ((EvaluacionServiceMem) evaluacionService).seedEvaluacionesDemo5("P200USER!", usuarioService);
+        intentoService = new IntentoServiceIndexada();
+        persistencia = new PersistenciaJson(auth, usuarioService, cursoService, evaluacionService, intentoService);
+
+        if (!cargarDatos()) {
+            usuarioService.seedDemo();
+            ((CursoServiceIndexada) cursoService).seedCursosDemo();
+            ((CursoServiceIndexada) cursoService).seedGruposDemo(usuarioService);
+            ((EvaluacionServiceMem) evaluacionService).seedEvaluacionesDemo5("P200USER!", usuarioService);
+        }
+        matriculaService = new MatriculaServiceIndexada(usuarioService, cursoService);
+        iniciarBitacora();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::guardarDatos, "guardar-datos"));
 
-        MatriculaService matriculaService = new MatriculaServiceMem(usuarioService, cursoService);
         reporteService = new ReporteServicePdf(cursoService, usuarioService);
-        intentoService = new IntentoServiceMem();
+        iniciarMetricas();
 
-        AdminDashboardPanel admin = new AdminDashboardPanel(usuarioService, cursoService, reporteService, auth);
+        AdminDashboardPanel admin = new AdminDashboardPanel(metricas.usuarios(), cursoService, reporteService,
+                metricas.autenticacion(), metricas::instantanea);
         mainContainer.add(admin, "ADMIN");
     }
 
+    // -- Persistencia --
+
+    /**
+     * Restaura los datos guardados si existe el archivo de datos.
+     * <p>
+     * Si la lectura falla, los servicios ya quedaron con parte de los datos (y
+     * los contadores de IDs avanzados): sembrar la demo encima duplicaría IDs, y
+     * el punto de control al cerrar reemplazaría el archivo del usuario. Por eso
+     * el error detiene el inicio y el archivo queda intacto.
+     * </p>
+     *
+     * @return {@code true} si se restauraron datos; {@code false} si no hay archivo y hay que sembrar la demo
+     * @throws IllegalStateException si el archivo existe pero no puede restaurarse
+     */
+    private boolean cargarDatos() {
+        java.nio.file.Path archivo = PersistenciaJson.archivoPorDefecto();
+        if (!java.nio.file.Files.exists(archivo)) return false;
+        try {
+            persistencia.cargar(archivo);
+            System.out.println("[datos] Restaurados desde " + archivo);
+            return true;
+        } catch (Exception ex) {
+            System.out.println("[datos] No se pudieron restaurar: " + ex.getMessage());
+            throw new IllegalStateException("No se pudieron restaurar los datos de " + archivo + ":\n"
+                    + ex.getMessage() + "\n\nEl archivo no se modificó. Corríjalo o muévalo y vuelva a iniciar.", ex);
+        }
+    }
+
+
+    /**
+     * Aplica la bitácora de escritura sobre los datos restaurados y reemplaza los
+     * servicios por sus versiones registradas, de modo que cada modificación
+     * quede en disco antes de confirmarse.
+     */
+    private void iniciarBitacora() {
+        bitacora = new BitacoraServicios(auth, usuarioService, cursoService, matriculaService,
+                evaluacionService, intentoService, persistencia, BitacoraServicios.archivoPorDefecto());
+        try {
+            BitacoraServicios.Reproduccion rep = bitacora.reproducir();
+            if (rep.getAplicados() + rep.getIncluidos() + rep.getFallidos() > 0) {
+                System.out.println("[datos] Bitácora reproducida: " + rep);
+            }
+            bitacora.abrir();
+        } catch (Exception ex) {
+            System.out.println("[datos] No se pudo usar la bitácora: " + ex.getMessage());
+        }
+        // La carga y la reproducción escriben las asignaciones directamente en los grupos
+        ((EvaluacionServiceMem) evaluacionService).reconstruirIndiceAsignaciones();
+
+        cursoService = bitacora.cursos();
+        evaluacionService = bitacora.evaluaciones();
+        intentoService = bitacora.intentos();
+        matriculaService = bitacora.matriculas();
+    }
+
+    /**
+     * Reemplaza los servicios por sus versiones medidas (sobre las de la bitácora)
+     * y programa el volcado de las métricas a disco cada minuto.
+     */
+    private void iniciarMetricas() {
+        metricas = new MetricasServicios(bitacora.autenticacion(), bitacora.usuarios(), cursoService, matriculaService,
+                evaluacionService, intentoService, reporteService);
+        cursoService = metricas.cursos();
+        evaluacionService = metricas.evaluaciones();
+        intentoService = metricas.intentos();
+        matriculaService = metricas.matriculas();
+        reporteService = metricas.reportes();
+        metricas.iniciarVolcado(MetricasServicios.archivoPorDefecto(), java.time.Duration.ofMinutes(1));
+    }
+
+    /** Guarda el estado completo al cerrar la aplicación y vacía la bitácora. */
+    private void guardarDatos() {
+        try {
+            metricas.close();
+            metricas.volcar(MetricasServicios.archivoPorDefecto());
+        } catch (Exception ex) {
+            System.out.println("[metricas] No se pudieron guardar: " + ex.getMessage());
+        }
+        try {
+            bitacora.puntoDeControl(PersistenciaJson.archivoPorDefecto());
+            bitacora.close();
+        } catch (Exception ex) {
+            System.out.println("[datos] No se pudieron guardar: " + ex.getMessage());
+        }
+    }
+
     // -- Autenticación --
 
     /**
      * Procesa el inicio de sesión según la identificación y contraseña ingresadas.
+     * <p>
+     * La verificación BCrypt se ejecuta en el ejecutor de {@link Autenticacion};
+     * el resultado se aplica de vuelta en el hilo de eventos de Swing.
+     * </p>
      *
      * @param identificacion ID del usuario
      * @param password contraseña ingresada
      */
     private void procesarLogin(String identificacion, char[] password) {
-        Roles rol = auth.login(identificacion, password).rol;
         LoginPanel login = (LoginPanel) obtenerCard("LOGIN");
-        if (rol == null) {
-            if (login != null) login.setMensaje("Credenciales inválidas o rol desconocido.");
-            return;
-        }
-        if (login != null) login.setMensaje(" ");
+        if (login != null) login.setOcupado(true, "Verificando credenciales...");
+
+        metricas.autenticacion().loginAsync(identificacion, password).whenComplete((res, ex) -> SwingUtilities.invokeLater(() -> {
+            if (ex != null) {
+                if (login != null) login.setOcupado(false, mensajeError(ex, "Ocurrió un error al iniciar sesión."));
+                return;
+            }
+            if (res == null || res.rol == null) {
+                if (login != null) login.setOcupado(false, "Credenciales inválidas o rol desconocido.");
+                return;
+            }
+            if (login != null) login.setOcupado(false, " ");
+
+            switch (res.rol) {
+                case ESTUDIANTE -> iniciarSesionEstudiante(identificacion, login);
+                case PROFESOR -> iniciarSesionProfesor(identificacion, login);
+                case ADMIN -> mostrar("ADMIN");
+            }
+        }));
+        java.util.Arrays.fill(password, '\0');
+    }
 
-        switch (rol) {
-            case ESTUDIANTE -> iniciarSesionEstudiante(identificacion, login);
-            case PROFESOR -> iniciarSesionProfesor(identificacion, login);
-            case ADMIN -> mostrar("ADMIN");
+    /** Mensaje para el usuario a partir de un error de una operación asíncrona. */
+    private static String mensajeError(Throwable ex, String porDefecto) {
+        Throwable causa = (ex instanceof java.util.concurrent.CompletionException && ex.getCause() != null)
+                ? ex.getCause() : ex;
+        if (causa instanceof java.util.concurrent.RejectedExecutionException) {
+            return "El sistema está ocupado; intente de nuevo en unos segundos.";
         }
+        return porDefecto;
     }
 
     // -- Manejo de roles --
 
     /** Inicia la sesión de un estudiante, configurando su panel principal. */
     private void iniciarSesionEstudiante(String identificacion, LoginPanel login) {
-        Estudiante estActual = usuarioService.listarEstudiantes().stream()
-                .filter(e -> identificacion.equals(e.getIdUsuario()))
-                .findFirst()
-                .orElse(null);
+        Estudiante estActual = usuarioService.buscarEstudiante(identificacion);
 
         if (estActual == null) {
             if (login != null) login.setMensaje("No se encontró el perfil de Estudiante.");
@@ -131,7 +265,7 @@ public class Ventana extends JFrame {
         }
 
         EstudianteDashboardPanel panelEst = new EstudianteDashboardPanel(
-                usuarioService,
+                metricas.usuarios(),
                 cursoService,
                 estActual,
                 (Matricula m) -> {
@@ -142,33 +276,7 @@ public class Ventana extends JFrame {
                     if (g.getCurso() == null) {
                         throw new IllegalStateException("El grupo no tiene curso asociado.");
                     }
-                    java.util.List<Matricula> matsEst = estActual.obtenerMatriculas();
-                    if (matsEst == null) {
-                        matsEst = new java.util.ArrayList<>();
-                        estActual.setMatriculas(matsEst);
-                    } else if (!(matsEst instanceof java.util.ArrayList)) {
-                        matsEst = new java.util.ArrayList<>(matsEst);
-                        estActual.setMatriculas(matsEst);
-                    }
-                    for (Matricula mm : matsEst) {
-                        if (mm.getGrupo() != null && mm.getGrupo().equals(g)) {
-                            throw new IllegalStateException("Ya estás matriculado en este grupo.");
-                        }
-                    }
-                    java.util.List<Matricula> matsGrupo = g.getMatriculas();
-                    if (matsGrupo == null) {
-                        matsGrupo = new java.util.ArrayList<>();
-                        g.setMatriculas(matsGrupo);
-                    } else if (!(matsGrupo instanceof java.util.ArrayList)) {
-                        matsGrupo = new java.util.ArrayList<>(matsGrupo);
-                        g.setMatriculas(matsGrupo);
-                    }
-                    int cupoMax = g.getCurso().getMaxEstu();
-                    if (cupoMax > 0 && matsGrupo.size() >= cupoMax) {
-                        throw new IllegalStateException("El grupo ya alcanzó el cupo máximo.");
-                    }
-                    matsEst.add(m);
-                    matsGrupo.add(m);
+                    matriculaService.matricular(estActual.getIdUsuario(), g.getCurso(), g.getIdGrupo());
                 },
                 () -> {
                     java.util.List<EvaluacionAsignada> out = new java.util.ArrayList<>();
@@ -185,6 +293,8 @@ public class Ventana extends JFrame {
                 () -> intentoService.listarPorEstudiante(estActual.getIdUsuario()),
                 intentoService::guardar
         );
+        panelEst.setOnListaEspera(g -> matriculaService.inscribirEnEspera(
+                estActual.getIdUsuario(), g.getCurso(), g.getIdGrupo()));
 
         if (cardEstudiantePlaceholder != null) {
             mainContainer.remove(cardEstudiantePlaceholder);
@@ -198,10 +308,7 @@ public class Ventana extends JFrame {
 
     /** Inicia la sesión de un profesor y prepara su panel de trabajo. */
     private void iniciarSesionProfesor(String identificacion, LoginPanel login) {
-        Profesor profActual = usuarioService.listarProfesores().stream()
-                .filter(p -> identificacion.equals(p.getIdUsuario()))
-                .findFirst()
-                .orElse(null);
+        Profesor profActual = usuarioService.buscarProfesor(identificacion);
 
         if (profActual == null) {
             if (login != null) login.setMensaje("No se encontró el perfil de Profesor.");
@@ -210,7 +317,7 @@ public class Ventana extends JFrame {
 
         ProfesorDashboardPanel panelProf = new ProfesorDashboardPanel(
                 profActual,
-                usuarioService,
+                metricas.usuarios(),
                 cursoService,
                 evaluacionService,
                 intentoService,
@@ -241,12 +348,20 @@ public class Ventana extends JFrame {
      */
     private void procesarRecuperacion(String identificacion) {
         LoginPanel login = (LoginPanel) obtenerCard("LOGIN");
-        boolean ok = auth.recuperarContrasena(identificacion);
-        if (login != null) {
-            login.setMensaje(ok
-                    ? "Se envió una contraseña temporal al correo registrado."
-                    : "Ingrese una identificación válida para recuperar.");
-        }
+        if (login != null) login.setOcupado(true, "Procesando solicitud...");
+
+        // Generar la temporal implica encriptarla con BCrypt: se hace fuera del EDT
+        metricas.autenticacion().ejecutarAsync(() -> metricas.usuarios().restablecerContrasena(identificacion))
+                .whenComplete((ok, ex) -> SwingUtilities.invokeLater(() -> {
+                    if (login == null) return;
+                    if (ex != null) {
+                        login.setOcupado(false, mensajeError(ex, "No se pudo procesar la recuperación."));
+                    } else {
+                        login.setOcupado(false, ok
+                                ? "Se envió una contraseña temporal al correo registrado."
+                                : "Ingrese una identificación válida para recuperar.");
+                    }
+                }));
     }
 
     // -- Cierre de sesión --